@@ -0,0 +1,69 @@
+package com.csg.searchindexer.benchmark;
+
+import com.csg.searchindexer.business.rules.ProcessingRule;
+import com.csg.searchindexer.handler.FusedRuleEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fused single-pass rule evaluation against one full pass per rule as rules are added
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FusedRuleEvaluatorBenchmark {
+
+    @Param({"100000", "1000000"})
+    int corpusSize;
+
+    @Param({"UNIFORM", "ZIPF"})
+    Vocabulary vocabulary;
+
+    @Param({"1", "2", "4", "8", "16"})
+    int ruleCount;
+
+    private List<String> words;
+    private List<ProcessingRule> rules;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        words = Arrays.asList(Workload.words(corpusSize, vocabulary));
+        rules = Workload.rules(ruleCount);
+    }
+
+    @Benchmark
+    public Object fused() {
+        FusedRuleEvaluator evaluator = new FusedRuleEvaluator(rules);
+        for (String word : words) {
+            evaluator.accept(word);
+        }
+        return evaluator.results();
+    }
+
+    @Benchmark
+    public Object perRule() {
+        List<Object> results = new ArrayList<>(rules.size());
+        for (ProcessingRule rule : rules) {
+            results.add(rule.process(words));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,75 @@
+package com.csg.searchindexer.benchmark;
+
+import com.csg.searchindexer.handler.FileProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * End-to-end time of FileProcessor.processFile for one corpus file
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProcessFileBenchmark {
+    // Held so the level set below is not lost when the logger is garbage collected
+    private static final Logger APPLICATION_LOGGER = Logger.getLogger("com.csg.searchindexer");
+
+    @Param({"100000", "1000000"})
+    int corpusSize;
+
+    @Param({"UNIFORM", "ZIPF"})
+    Vocabulary vocabulary;
+
+    @Param({"1", "4", "16"})
+    int ruleCount;
+
+    @Param({"READER", "MEMORY_MAPPED", "PIPELINED"})
+    FileProcessor.TokenizerMode tokenizerMode;
+
+    @Param({"false", "true"})
+    boolean compiled;
+
+    private Path corpus;
+    private FileProcessor processor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        APPLICATION_LOGGER.setLevel(java.util.logging.Level.WARNING);
+        corpus = Workload.writeCorpus(Workload.words(corpusSize, vocabulary));
+        processor = new FileProcessor();
+        Workload.rules(ruleCount).forEach(processor::addRule);
+        processor.setTokenizerMode(tokenizerMode);
+        processor.setRuleCompilation(compiled);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteCorpus() throws IOException {
+        Files.deleteIfExists(corpus);
+    }
+
+    @Benchmark
+    public Map<String, Object> processFile() throws IOException {
+        return processor.processFile(corpus.toString());
+    }
+}
@@ -0,0 +1,107 @@
+package com.csg.searchindexer.benchmark;
+
+import com.csg.searchindexer.business.rules.LengthFilterRule;
+import com.csg.searchindexer.business.rules.ProcessingRule;
+import com.csg.searchindexer.business.rules.RuleAccumulator;
+import com.csg.searchindexer.business.rules.StartsWithLetterRule;
+import com.csg.searchindexer.business.rules.StartsWithPrefixRule;
+import com.csg.searchindexer.business.rules.StreamingRule;
+import com.csg.searchindexer.business.rules.TopKRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time for one rule to evaluate an in-memory word list
+ * Each ProcessingRule implementation is measured through the list API and through its streaming accumulator
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RuleBenchmark {
+
+    /**
+     * Rule configurations under test
+     */
+    public enum RuleKind {
+        STARTS_WITH_LETTER,
+        STARTS_WITH_LETTER_IGNORE_CASE,
+        LENGTH_FILTER,
+        LENGTH_FILTER_COUNT,
+        TOP_K,
+        TOP_K_SPACE_SAVING,
+        STARTS_WITH_PREFIX
+    }
+
+    @Param({"100000", "1000000"})
+    int corpusSize;
+
+    @Param({"UNIFORM", "ZIPF"})
+    Vocabulary vocabulary;
+
+    @Param({"STARTS_WITH_LETTER", "STARTS_WITH_LETTER_IGNORE_CASE", "LENGTH_FILTER", "LENGTH_FILTER_COUNT", "TOP_K", "TOP_K_SPACE_SAVING", "STARTS_WITH_PREFIX"})
+    RuleKind ruleKind;
+
+    private List<String> words;
+    private ProcessingRule rule;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        words = Arrays.asList(Workload.words(corpusSize, vocabulary));
+        switch (ruleKind) {
+            case STARTS_WITH_LETTER:
+                rule = new StartsWithLetterRule('m', false);
+                break;
+            case STARTS_WITH_LETTER_IGNORE_CASE:
+                rule = new StartsWithLetterRule('m', true);
+                break;
+            case LENGTH_FILTER:
+                rule = new LengthFilterRule(5, LengthFilterRule.FilterType.GREATER_THAN);
+                break;
+            case LENGTH_FILTER_COUNT:
+                rule = new LengthFilterRule(5, LengthFilterRule.FilterType.GREATER_THAN, true);
+                break;
+            case TOP_K:
+                rule = new TopKRule(10);
+                break;
+            case TOP_K_SPACE_SAVING:
+                rule = new TopKRule(10, TopKRule.Mode.SPACE_SAVING);
+                break;
+            case STARTS_WITH_PREFIX:
+                rule = new StartsWithPrefixRule("ma", true, true);
+                break;
+            default:
+                throw new IllegalStateException("Unknown rule: " + ruleKind);
+        }
+    }
+
+    @Benchmark
+    public Object process() {
+        return rule.process(words);
+    }
+
+    @Benchmark
+    public Object accumulate() {
+        RuleAccumulator accumulator = StreamingRule.accumulatorFor(rule);
+        for (String word : words) {
+            accumulator.accept(word);
+        }
+        return accumulator.result();
+    }
+}
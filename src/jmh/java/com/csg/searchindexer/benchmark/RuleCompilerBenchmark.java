@@ -0,0 +1,152 @@
+package com.csg.searchindexer.benchmark;
+
+import com.csg.searchindexer.business.RuleCompiler;
+import com.csg.searchindexer.business.RuleFactory;
+import com.csg.searchindexer.business.TokenDispatcher;
+import com.csg.searchindexer.business.rules.LengthFilterRule;
+import com.csg.searchindexer.business.rules.RuleAccumulator;
+import com.csg.searchindexer.business.rules.StreamingRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interpreted accumulator loop against a dispatcher compiled by RuleCompiler, for rule sets with a
+ * growing number of distinct accumulator classes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RuleCompilerBenchmark {
+
+    @Param({"100000", "1000000"})
+    int corpusSize;
+
+    @Param({"UNIFORM", "ZIPF"})
+    Vocabulary vocabulary;
+
+    @Param({"1", "2", "3", "4", "6"})
+    int classCount;
+
+    private String[] words;
+    private TokenDispatcher dispatcher;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        words = Workload.words(corpusSize, vocabulary);
+        dispatcher = RuleCompiler.compile(createAccumulators(classCount));
+    }
+
+    @Benchmark
+    public Object interpreted() {
+        RuleAccumulator[] accumulators = createAccumulators(classCount);
+        for (String word : words) {
+            for (RuleAccumulator accumulator : accumulators) {
+                accumulator.accept(word);
+            }
+        }
+        return accumulators[0].result();
+    }
+
+    @Benchmark
+    public Object compiled() {
+        RuleAccumulator[] accumulators = createAccumulators(classCount);
+        for (String word : words) {
+            dispatcher.dispatch(accumulators, word);
+        }
+        return accumulators[0].result();
+    }
+
+    /**
+     * Built-in rules plus simple custom accumulators, one distinct accumulator class per entry
+     */
+    private static RuleAccumulator[] createAccumulators(int classCount) {
+        List<RuleAccumulator> accumulators = new ArrayList<>();
+        accumulators.add(StreamingRule.accumulatorFor(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'm', true)));
+        accumulators.add(StreamingRule.accumulatorFor(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 5, LengthFilterRule.FilterType.GREATER_THAN, true)));
+        if (classCount > 1) {
+            accumulators.add(new VowelCount());
+        }
+        if (classCount > 2) {
+            accumulators.add(new CharacterSum());
+        }
+        if (classCount > 3) {
+            accumulators.add(new LongestWord());
+        }
+        if (classCount > 4) {
+            accumulators.add(new UpperCaseCount());
+            accumulators.add(new TokenCount());
+        }
+        return accumulators.toArray(new RuleAccumulator[0]);
+    }
+
+    private abstract static class Counter implements RuleAccumulator {
+        long count;
+
+        @Override
+        public Object result() {
+            return count;
+        }
+
+        @Override
+        public void merge(RuleAccumulator other) {
+            count += ((Counter) other).count;
+        }
+    }
+
+    private static final class VowelCount extends Counter {
+        @Override
+        public void accept(String word) {
+            char c = word.charAt(0);
+            if (c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u') {
+                count++;
+            }
+        }
+    }
+
+    private static final class CharacterSum extends Counter {
+        @Override
+        public void accept(String word) {
+            count += word.length();
+        }
+    }
+
+    private static final class LongestWord extends Counter {
+        @Override
+        public void accept(String word) {
+            count = Math.max(count, word.length());
+        }
+    }
+
+    private static final class UpperCaseCount extends Counter {
+        @Override
+        public void accept(String word) {
+            if (Character.isUpperCase(word.charAt(0))) {
+                count++;
+            }
+        }
+    }
+
+    private static final class TokenCount extends Counter {
+        @Override
+        public void accept(String word) {
+            count++;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.csg.searchindexer.benchmark;
+
+import com.csg.searchindexer.handler.MappedFileTokenizer;
+import com.csg.searchindexer.handler.PipelinedTokenizer;
+import com.csg.searchindexer.handler.ReaderTokenizer;
+import com.csg.searchindexer.handler.TermInterner;
+import com.csg.searchindexer.handler.TokenSink;
+import com.csg.searchindexer.handler.Tokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to tokenize one corpus file
+ * {@code words} materializes every word as a String, {@code views} only reads the word length, which
+ * is what counting rules need from the mapped tokenizer's word views
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TokenizerBenchmark {
+
+    /**
+     * Tokenizer configurations under test
+     */
+    public enum TokenizerKind {
+        READER,
+        MAPPED,
+        MAPPED_INTERNED,
+        PIPELINED
+    }
+
+    @Param({"100000", "1000000"})
+    int corpusSize;
+
+    @Param({"UNIFORM", "ZIPF"})
+    Vocabulary vocabulary;
+
+    @Param({"READER", "MAPPED", "MAPPED_INTERNED", "PIPELINED"})
+    TokenizerKind tokenizerKind;
+
+    private Path corpus;
+
+    @Setup(Level.Trial)
+    public void writeCorpus() throws IOException {
+        corpus = Workload.writeCorpus(Workload.words(corpusSize, vocabulary));
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteCorpus() throws IOException {
+        Files.deleteIfExists(corpus);
+    }
+
+    @Benchmark
+    public void words(Blackhole blackhole) throws IOException {
+        newTokenizer().tokenize(corpus, blackhole::consume);
+    }
+
+    @Benchmark
+    public void views(Blackhole blackhole) throws IOException {
+        newTokenizer().tokenize(corpus, new TokenSink() {
+            @Override
+            public void accept(String word) {
+                blackhole.consume(word.length());
+            }
+
+            @Override
+            public void accept(CharSequence word) {
+                blackhole.consume(word.length());
+            }
+        });
+    }
+
+    private Tokenizer newTokenizer() {
+        switch (tokenizerKind) {
+            case READER:
+                return new ReaderTokenizer();
+            case MAPPED:
+                return new MappedFileTokenizer();
+            case MAPPED_INTERNED:
+                // A fresh interner per file, so every invocation pays for building the term table
+                return new MappedFileTokenizer(new TermInterner());
+            case PIPELINED:
+                return new PipelinedTokenizer();
+            default:
+                throw new IllegalStateException("Unknown tokenizer: " + tokenizerKind);
+        }
+    }
+}
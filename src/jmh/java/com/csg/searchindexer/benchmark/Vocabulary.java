@@ -0,0 +1,11 @@
+package com.csg.searchindexer.benchmark;
+
+/**
+ * How the words of a benchmark corpus are drawn
+ */
+public enum Vocabulary {
+    // Random letters, so almost every word is distinct
+    UNIFORM,
+    // A fixed vocabulary sampled with Zipf frequencies, as in natural language text
+    ZIPF
+}
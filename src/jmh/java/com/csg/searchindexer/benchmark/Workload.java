@@ -0,0 +1,106 @@
+package com.csg.searchindexer.benchmark;
+
+import com.csg.searchindexer.business.RuleFactory;
+import com.csg.searchindexer.business.rules.LengthFilterRule;
+import com.csg.searchindexer.business.rules.ProcessingRule;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic corpora and rule sets shared by the benchmarks
+ */
+final class Workload {
+    private static final long SEED = 42;
+    private static final int ZIPF_VOCABULARY_SIZE = 50_000;
+
+    private Workload() {
+    }
+
+    /**
+     * @param size the number of words
+     * @param vocabulary how words are drawn
+     * @return the same words for the same arguments
+     */
+    static String[] words(int size, Vocabulary vocabulary) {
+        Random random = new Random(SEED);
+        String[] words = new String[size];
+        switch (vocabulary) {
+            case UNIFORM:
+                for (int i = 0; i < size; i++) {
+                    words[i] = randomWord(random);
+                }
+                break;
+            case ZIPF:
+                String[] dictionary = new String[ZIPF_VOCABULARY_SIZE];
+                double[] cumulative = new double[ZIPF_VOCABULARY_SIZE];
+                double total = 0;
+                for (int rank = 0; rank < ZIPF_VOCABULARY_SIZE; rank++) {
+                    dictionary[rank] = randomWord(random);
+                    total += 1.0 / (rank + 1);
+                    cumulative[rank] = total;
+                }
+                for (int i = 0; i < size; i++) {
+                    int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+                    words[i] = dictionary[Math.min(rank < 0 ? -rank - 1 : rank, ZIPF_VOCABULARY_SIZE - 1)];
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown vocabulary: " + vocabulary);
+        }
+        return words;
+    }
+
+    /**
+     * Writes words to a temporary file, twelve words per line
+     *
+     * @param words the words to write
+     * @return the file, which the caller deletes
+     * @throws IOException if the file cannot be written
+     */
+    static Path writeCorpus(String[] words) throws IOException {
+        Path corpus = Files.createTempFile("search-indexer-benchmark", ".txt");
+        try (BufferedWriter writer = Files.newBufferedWriter(corpus)) {
+            for (int i = 0; i < words.length; i++) {
+                writer.write(words[i]);
+                writer.write(i % 12 == 11 ? '\n' : ' ');
+            }
+        }
+        return corpus;
+    }
+
+    /**
+     * Alternates first-letter and length rules with different letters, thresholds and filter types
+     *
+     * @param count the number of rules
+     * @return the rules
+     */
+    static List<ProcessingRule> rules(int count) {
+        LengthFilterRule.FilterType[] filterTypes = LengthFilterRule.FilterType.values();
+        List<ProcessingRule> rules = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (i % 2 == 0) {
+                rules.add(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, (char) ('a' + i), true));
+            } else {
+                rules.add(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 4 + i, filterTypes[i % filterTypes.length]));
+            }
+        }
+        return rules;
+    }
+
+    private static String randomWord(Random random) {
+        int length = 1 + random.nextInt(12);
+        StringBuilder word = new StringBuilder(length);
+        for (int j = 0; j < length; j++) {
+            char c = (char) ('a' + random.nextInt(26));
+            word.append(j == 0 && random.nextBoolean() ? Character.toUpperCase(c) : c);
+        }
+        return word.toString();
+    }
+}
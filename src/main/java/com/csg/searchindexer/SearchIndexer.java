@@ -9,9 +9,23 @@ package com.csg.searchindexer;
 
 import com.csg.searchindexer.business.RuleFactory;
 import com.csg.searchindexer.business.rules.LengthFilterRule;
+import com.csg.searchindexer.handler.BatchProcessor;
+import com.csg.searchindexer.handler.BatchResult;
+import com.csg.searchindexer.handler.DirectoryWatcher;
 import com.csg.searchindexer.handler.FileProcessor;
+import com.csg.searchindexer.handler.IncrementalCache;
+import com.csg.searchindexer.handler.ResultCache;
+import com.csg.searchindexer.handler.ProcessingMetrics;
+import com.csg.searchindexer.handler.ProcessingReport;
+import com.csg.searchindexer.handler.TermInterner;
+import com.csg.searchindexer.server.IndexServer;
+import com.csg.searchindexer.server.LatencyHistogram;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -21,44 +35,167 @@ import java.util.logging.Logger;
  */
 public class SearchIndexer {
     private static final Logger LOGGER = Logger.getLogger(SearchIndexer.class.getName());
+    private static final int SERVER_WARMUP_RUNS = 20;
 
     public static void main(String[] args) {
-        if (args.length < 1) {
-            LOGGER.log(Level.SEVERE, "Usage: java SearchIndexer <path-to-file>");
-            System.exit(1);
+        // Split options from inputs
+        List<String> inputs = new ArrayList<>();
+        Path cacheDirectory = null;
+        boolean intern = false;
+        boolean metrics = false;
+        int serverPort = -1;
+        long resultCacheBytes = ResultCache.DEFAULT_MAX_BYTES;
+        Path watchDirectory = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--cache") && i + 1 < args.length) {
+                cacheDirectory = Paths.get(args[++i]);
+            } else if (args[i].equals("--intern")) {
+                intern = true;
+            } else if (args[i].equals("--metrics")) {
+                metrics = true;
+            } else if (args[i].equals("--serve") && i + 1 < args.length) {
+                serverPort = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--result-cache-mb") && i + 1 < args.length) {
+                resultCacheBytes = Long.parseLong(args[++i]) << 20;
+            } else if (args[i].equals("--watch") && i + 1 < args.length) {
+                watchDirectory = Paths.get(args[++i]);
+            } else {
+                inputs.add(args[i]);
+            }
         }
 
-        String filePath = args[0];
+        if (inputs.isEmpty() && serverPort < 0 && watchDirectory == null) {
+            LOGGER.log(Level.SEVERE, "Usage: java SearchIndexer [--cache <directory>] [--intern] [--metrics] <path-to-file> | <file|directory|glob|@file-list>... | --serve <port> [--result-cache-mb <size>] | --watch <directory>");
+            System.exit(1);
+        }
 
         try {
             // Create the file processor
-            FileProcessor processor = new FileProcessor();
-
-            // Add rules using the factory
-            processor.addRule(
-                    RuleFactory.createRule(
-                            RuleFactory.RuleType.STARTS_WITH_LETTER,
-                            'M', true)
-            );
-
-            processor.addRule(
-                    RuleFactory.createRule(
-                            RuleFactory.RuleType.LENGTH_FILTER,
-                            5, LengthFilterRule.FilterType.GREATER_THAN)
-            );
-
-            // Process the file
-            Map<String, Object> results = processor.processFile(filePath);
-
-            // Output the results
-            for (Map.Entry<String, Object> result : results.entrySet()) {
-                System.out.println(result.getKey() + ": " + result.getValue());
+            FileProcessor processor = createProcessor();
+            if (cacheDirectory != null) {
+                processor.setIncrementalCache(new IncrementalCache(cacheDirectory));
+            }
+            processor.setTermInterning(intern);
+            processor.setMetricsEnabled(metrics);
+
+            if (serverPort >= 0) {
+                // Serve index requests until the JVM is stopped
+                processor.setResultCache(new ResultCache(ResultCache.DEFAULT_MAX_ENTRIES, resultCacheBytes));
+                IndexServer server = new IndexServer(processor, serverPort);
+                server.warmUp(SERVER_WARMUP_RUNS);
+                server.start();
+                // Logging is already shut down when the hook runs, so the latency summary goes to stdout
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    server.stop();
+                    LatencyHistogram latencies = server.getLatencies();
+                    System.out.println("Served " + latencies.getCount() + " requests, p50 "
+                            + latencies.getPercentileMicros(50) + " us, p99 " + latencies.getPercentileMicros(99) + " us");
+                }));
+                System.out.println("Listening on http://localhost:" + server.getPort() + "/index?path=<file>");
+            } else if (watchDirectory != null) {
+                // Index the directory, then every change to it, until the JVM is stopped
+                try (DirectoryWatcher watcher = new DirectoryWatcher(processor, watchDirectory)) {
+                    watcher.setListener(new DirectoryWatcher.Listener() {
+                        @Override
+                        public void indexed(Path file, Map<String, Object> results) {
+                            System.out.println("== " + file);
+                            printResults(results);
+                        }
+
+                        @Override
+                        public void removed(Path file) {
+                            System.out.println("== Removed " + file);
+                        }
+
+                        @Override
+                        public void aggregateChanged() {
+                            System.out.println("== Total (" + watcher.getFileCount() + " files)");
+                            printResults(watcher.getAggregatedResults());
+                        }
+                    });
+                    watcher.run();
+                }
+            } else if (inputs.size() == 1 && !BatchProcessor.isBatchInput(inputs.get(0))) {
+                // Process the file
+                ProcessingReport report = processor.processFileWithMetrics(inputs.get(0));
+
+                // Output the results
+                printResults(report.getResults());
+                printMetrics(report.getMetrics());
+                logSummary(processor);
+            } else {
+                // Process all inputs in one batch
+                List<Path> files = BatchProcessor.expandInputs(inputs);
+                BatchResult batch = new BatchProcessor(processor).process(files);
+
+                for (Map.Entry<Path, Map<String, Object>> fileResult : batch.getFileResults().entrySet()) {
+                    System.out.println("== " + fileResult.getKey());
+                    printResults(fileResult.getValue());
+                }
+                System.out.println("== Total (" + batch.getFileResults().size() + " files)");
+                printResults(batch.getAggregatedResults());
+                printMetrics(batch.getMetrics());
+
+                logSummary(processor);
+
+                if (!batch.getFailures().isEmpty()) {
+                    LOGGER.log(Level.SEVERE, "{0} files could not be processed", batch.getFailures().size());
+                    System.exit(1);
+                }
             }
 
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE, "Error processing file: " + e.getMessage(), e);
             System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.log(Level.SEVERE, "Interrupted while processing files", e);
+            System.exit(1);
         }
     }
-}
 
+    private static FileProcessor createProcessor() {
+        FileProcessor processor = new FileProcessor();
+
+        // Add rules using the factory
+        processor.addRule(
+                RuleFactory.createRule(
+                        RuleFactory.RuleType.STARTS_WITH_LETTER,
+                        'M', true)
+        );
+
+        processor.addRule(
+                RuleFactory.createRule(
+                        RuleFactory.RuleType.LENGTH_FILTER,
+                        5, LengthFilterRule.FilterType.GREATER_THAN)
+        );
+
+        return processor;
+    }
+
+    private static void logSummary(FileProcessor processor) {
+        IncrementalCache cache = processor.getIncrementalCache();
+        if (cache != null) {
+            LOGGER.log(Level.INFO, "Reused cached results for {0} files, processed {1} files",
+                    new Object[]{cache.getHitCount(), cache.getMissCount()});
+        }
+        TermInterner interner = processor.getTermInterner();
+        if (interner != null) {
+            LOGGER.log(Level.INFO, "Interned {0} words into {1} distinct terms, saving about {2} KB of strings",
+                    new Object[]{interner.getLookupCount(), interner.getTermCount(), interner.getSavedBytes() / 1024});
+        }
+    }
+
+    private static void printMetrics(ProcessingMetrics metrics) {
+        if (metrics != null) {
+            System.out.println("== Metrics");
+            System.out.print(metrics);
+        }
+    }
+
+    private static void printResults(Map<String, Object> results) {
+        for (Map.Entry<String, Object> result : results.entrySet()) {
+            System.out.println(result.getKey() + ": " + result.getValue());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.csg.searchindexer.business;
+
+import com.csg.searchindexer.business.rules.RuleAccumulator;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Template for the hidden classes defined by {@link RuleCompiler}
+ * Every hidden copy receives its dispatch chains as class data and keeps them in static final fields,
+ * which the JIT treats as constants and inlines. The template itself is never loaded as a normal class.
+ */
+final class CompiledDispatcher implements TokenDispatcher {
+    private static final MethodHandle DISPATCH = dispatchChain(0);
+    private static final MethodHandle DISPATCH_VIEW = dispatchChain(1);
+
+    @Override
+    public void dispatch(RuleAccumulator[] accumulators, String word) {
+        try {
+            DISPATCH.invokeExact(accumulators, word);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Rule accumulator failed", t);
+        }
+    }
+
+    @Override
+    public void dispatch(RuleAccumulator[] accumulators, CharSequence word) {
+        try {
+            DISPATCH_VIEW.invokeExact(accumulators, word);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Rule accumulator failed", t);
+        }
+    }
+
+    private static MethodHandle dispatchChain(int index) {
+        try {
+            return MethodHandles.classDataAt(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, MethodHandle.class, index);
+        } catch (IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
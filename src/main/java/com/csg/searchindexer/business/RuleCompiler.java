@@ -0,0 +1,84 @@
+package com.csg.searchindexer.business;
+
+import com.csg.searchindexer.business.rules.RuleAccumulator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+/**
+ * Compiles the word dispatch of a rule set into a single constant method handle chain
+ * The interpreted evaluator calls accept through the RuleAccumulator interface in a loop, a call site
+ * that turns megamorphic as soon as rules use different accumulator classes. The compiled dispatcher
+ * unrolls the loop and casts each array slot to its exact class, so the JIT sees monomorphic calls it
+ * can inline into one straight-line body per word.
+ */
+public final class RuleCompiler {
+    private static final MethodHandle ACCEPT;
+    private static final MethodHandle ACCEPT_VIEW;
+    private static final MethodHandle ELEMENT;
+    private static final byte[] TEMPLATE = readTemplate();
+
+    static {
+        try {
+            ACCEPT = MethodHandles.publicLookup().findVirtual(RuleAccumulator.class, "accept",
+                    MethodType.methodType(void.class, String.class));
+            ACCEPT_VIEW = MethodHandles.publicLookup().findVirtual(RuleAccumulator.class, "accept",
+                    MethodType.methodType(void.class, CharSequence.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        ELEMENT = MethodHandles.arrayElementGetter(RuleAccumulator[].class);
+    }
+
+    private RuleCompiler() {
+    }
+
+    /**
+     * Compiles a dispatcher for accumulators of the same classes, in the same order, as the given ones
+     * The dispatcher can be shared by every evaluation of the rule set
+     *
+     * @param accumulators accumulators whose classes the dispatcher is specialized for
+     * @return a dispatcher that feeds a word to accumulators of exactly these classes
+     */
+    public static TokenDispatcher compile(RuleAccumulator[] accumulators) {
+        List<MethodHandle> chains = List.of(chain(accumulators, ACCEPT, String.class),
+                chain(accumulators, ACCEPT_VIEW, CharSequence.class));
+        try {
+            MethodHandles.Lookup hidden = MethodHandles.lookup().defineHiddenClassWithClassData(TEMPLATE, chains, true);
+            return (TokenDispatcher) hidden.findConstructor(hidden.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Could not compile rule dispatch", t);
+        }
+    }
+
+    private static MethodHandle chain(RuleAccumulator[] accumulators, MethodHandle accept, Class<?> wordType) {
+        MethodHandle chain = MethodHandles.empty(MethodType.methodType(void.class, RuleAccumulator[].class, wordType));
+        for (int i = accumulators.length - 1; i >= 0; i--) {
+            Class<?> type = accumulators[i].getClass();
+            // (RuleAccumulator[]) -> exact accumulator class, so the accept call below is monomorphic
+            MethodHandle slot = MethodHandles.insertArguments(ELEMENT, 1, i)
+                    .asType(MethodType.methodType(type, RuleAccumulator[].class));
+            MethodHandle exact = accept.asType(MethodType.methodType(void.class, type, wordType));
+            chain = MethodHandles.foldArguments(chain, MethodHandles.filterArguments(exact, 0, slot));
+        }
+        return chain;
+    }
+
+    private static byte[] readTemplate() {
+        try (InputStream in = RuleCompiler.class.getResourceAsStream("CompiledDispatcher.class")) {
+            if (in == null) {
+                throw new IllegalStateException("CompiledDispatcher.class not found");
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
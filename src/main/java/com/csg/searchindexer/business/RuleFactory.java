@@ -1,8 +1,17 @@
 package com.csg.searchindexer.business;
 
+import com.csg.searchindexer.business.rules.DistinctCountRule;
 import com.csg.searchindexer.business.rules.LengthFilterRule;
 import com.csg.searchindexer.business.rules.ProcessingRule;
+import com.csg.searchindexer.business.rules.RuleDescriptor;
 import com.csg.searchindexer.business.rules.StartsWithLetterRule;
+import com.csg.searchindexer.business.rules.StartsWithPrefixRule;
+import com.csg.searchindexer.business.rules.TermFrequencyRule;
+import com.csg.searchindexer.business.rules.TopKRule;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 public class RuleFactory {
 
@@ -11,7 +20,11 @@ public class RuleFactory {
      */
     public enum RuleType {
         STARTS_WITH_LETTER,
-        LENGTH_FILTER
+        LENGTH_FILTER,
+        APPROXIMATE_DISTINCT_COUNT,
+        APPROXIMATE_TERM_FREQUENCY,
+        TOP_K,
+        STARTS_WITH_PREFIX
     }
 
     /**
@@ -25,6 +38,17 @@ public class RuleFactory {
         return new StartsWithLetterRule(letter, ignoreCase);
     }
 
+    /**
+     * Creates a rule for counting words that start with a specific code point
+     *
+     * @param codePoint the letter to check for, which may be a supplementary code point
+     * @param ignoreCase whether to ignore case when matching
+     * @return a new StartsWithLetterRule
+     */
+    public static ProcessingRule createStartsWithLetterRule(int codePoint, boolean ignoreCase) {
+        return new StartsWithLetterRule(codePoint, ignoreCase);
+    }
+
     /**
      * Creates a rule for filtering words based on their length
      *
@@ -36,6 +60,64 @@ public class RuleFactory {
         return new LengthFilterRule(length, filterType);
     }
 
+    /**
+     * Creates a rule for filtering words based on their length
+     *
+     * @param length the length to compare against
+     * @param filterType the type of comparison to perform
+     * @param countOnly whether the rule returns the number of matching words instead of the words
+     * @return a new LengthFilterRule
+     */
+    public static ProcessingRule createLengthFilterRule(int length, LengthFilterRule.FilterType filterType, boolean countOnly) {
+        return new LengthFilterRule(length, filterType, countOnly);
+    }
+
+    /**
+     * Creates a rule for estimating the number of distinct words with a HyperLogLog sketch
+     *
+     * @param relativeError the relative standard error to stay within, such as 0.01 for 1%
+     * @return a new DistinctCountRule
+     */
+    public static ProcessingRule createDistinctCountRule(double relativeError) {
+        return new DistinctCountRule(relativeError);
+    }
+
+    /**
+     * Creates a rule for estimating word frequencies with a Count-Min sketch
+     *
+     * @param terms the words whose frequencies the rule returns
+     * @param epsilon the overcount bound relative to the number of words, such as 0.001
+     * @param delta the probability that an estimate exceeds the bound, such as 0.01
+     * @return a new TermFrequencyRule
+     */
+    public static ProcessingRule createTermFrequencyRule(List<String> terms, double epsilon, double delta) {
+        return new TermFrequencyRule(terms, epsilon, delta);
+    }
+
+    /**
+     * Creates a rule for finding the most frequent words
+     *
+     * @param k the number of words to return
+     * @param mode whether to count exactly or with a bounded Space-Saving summary
+     * @param capacity the number of Space-Saving counters, at least k; ignored in exact mode
+     * @return a new TopKRule
+     */
+    public static ProcessingRule createTopKRule(int k, TopKRule.Mode mode, int capacity) {
+        return new TopKRule(k, mode, capacity);
+    }
+
+    /**
+     * Creates a rule for finding words that start with a prefix
+     *
+     * @param prefix the prefix to check for
+     * @param ignoreCase whether to ignore case when matching
+     * @param countOnly whether the rule returns the number of matching words instead of the distinct words
+     * @return a new StartsWithPrefixRule
+     */
+    public static ProcessingRule createStartsWithPrefixRule(String prefix, boolean ignoreCase, boolean countOnly) {
+        return new StartsWithPrefixRule(prefix, ignoreCase, countOnly);
+    }
+
     /**
      * Creates a rule based on the specified type and parameters
      *
@@ -47,20 +129,102 @@ public class RuleFactory {
     public static ProcessingRule createRule(RuleType type, Object... params) {
         switch (type) {
             case STARTS_WITH_LETTER:
-                if (params.length < 1 || !(params[0] instanceof Character)) {
-                    throw new IllegalArgumentException("StartsWithLetterRule requires a character parameter");
+                if (params.length < 1 || !(params[0] instanceof Character || params[0] instanceof Integer)) {
+                    throw new IllegalArgumentException("StartsWithLetterRule requires a character or code point parameter");
                 }
                 boolean ignoreCase = params.length > 1 && params[1] instanceof Boolean ? (Boolean) params[1] : false;
-                return createStartsWithLetterRule((Character) params[0], ignoreCase);
+                if (params[0] instanceof Integer) {
+                    return createStartsWithLetterRule((int) (Integer) params[0], ignoreCase);
+                }
+                return createStartsWithLetterRule((char) (Character) params[0], ignoreCase);
 
             case LENGTH_FILTER:
                 if (params.length < 2 || !(params[0] instanceof Integer) || !(params[1] instanceof LengthFilterRule.FilterType)) {
                     throw new IllegalArgumentException("LengthFilterRule requires an integer and a FilterType parameter");
                 }
-                return createLengthFilterRule((Integer) params[0], (LengthFilterRule.FilterType) params[1]);
+                boolean countOnly = params.length > 2 && params[2] instanceof Boolean ? (Boolean) params[2] : false;
+                return createLengthFilterRule((Integer) params[0], (LengthFilterRule.FilterType) params[1], countOnly);
+
+            case APPROXIMATE_DISTINCT_COUNT:
+                if (params.length > 0 && !(params[0] instanceof Number)) {
+                    throw new IllegalArgumentException("DistinctCountRule takes an optional relative error parameter");
+                }
+                return createDistinctCountRule(params.length > 0
+                        ? ((Number) params[0]).doubleValue() : DistinctCountRule.DEFAULT_RELATIVE_ERROR);
+
+            case APPROXIMATE_TERM_FREQUENCY:
+                if (params.length < 1 || !(params[0] instanceof String || params[0] instanceof Collection)
+                        || params.length > 1 && !(params[1] instanceof Number)
+                        || params.length > 2 && !(params[2] instanceof Number)) {
+                    throw new IllegalArgumentException("TermFrequencyRule requires a term or a collection of terms, "
+                            + "then optional epsilon and delta parameters");
+                }
+                List<String> terms = new ArrayList<>();
+                if (params[0] instanceof String) {
+                    terms.add((String) params[0]);
+                } else {
+                    for (Object term : (Collection<?>) params[0]) {
+                        if (!(term instanceof String)) {
+                            throw new IllegalArgumentException("TermFrequencyRule terms must be strings: " + term);
+                        }
+                        terms.add((String) term);
+                    }
+                }
+                double epsilon = params.length > 1 ? ((Number) params[1]).doubleValue() : TermFrequencyRule.DEFAULT_EPSILON;
+                double delta = params.length > 2 ? ((Number) params[2]).doubleValue() : TermFrequencyRule.DEFAULT_DELTA;
+                return createTermFrequencyRule(terms, epsilon, delta);
+
+            case TOP_K:
+                if (params.length < 1 || !(params[0] instanceof Integer)
+                        || params.length > 1 && !(params[1] instanceof TopKRule.Mode)
+                        || params.length > 2 && !(params[2] instanceof Integer)) {
+                    throw new IllegalArgumentException("TopKRule requires an integer k, then optional Mode and capacity parameters");
+                }
+                int k = (Integer) params[0];
+                TopKRule.Mode mode = params.length > 1 ? (TopKRule.Mode) params[1] : TopKRule.Mode.EXACT;
+                return createTopKRule(k, mode, params.length > 2 ? (Integer) params[2] : TopKRule.defaultCapacity(k));
+
+            case STARTS_WITH_PREFIX:
+                if (params.length < 1 || !(params[0] instanceof String)
+                        || params.length > 1 && !(params[1] instanceof Boolean)
+                        || params.length > 2 && !(params[2] instanceof Boolean)) {
+                    throw new IllegalArgumentException("StartsWithPrefixRule requires a prefix, then optional ignoreCase and countOnly parameters");
+                }
+                return createStartsWithPrefixRule((String) params[0], params.length > 1 && (Boolean) params[1],
+                        params.length > 2 && (Boolean) params[2]);
 
             default:
                 throw new IllegalArgumentException("Unknown rule type: " + type);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the canonical descriptor of the rule the given parameters create
+     * Equivalent parameters, such as a letter given as char or as code point, give equal descriptors
+     *
+     * @param type the type of rule
+     * @param params parameters as accepted by {@link #createRule(RuleType, Object...)}
+     * @return the descriptor of the rule
+     * @throws IllegalArgumentException if the parameters are invalid for the specified rule type
+     */
+    public static RuleDescriptor describe(RuleType type, Object... params) {
+        return createRule(type, params).getDescriptor();
+    }
+
+    /**
+     * Recreates a rule from its descriptor
+     *
+     * @param descriptor a descriptor of a rule created by this factory
+     * @return a new rule equal to the described one
+     * @throws IllegalArgumentException if the descriptor does not name a {@link RuleType}
+     */
+    public static ProcessingRule createRule(RuleDescriptor descriptor) {
+        RuleType type;
+        try {
+            type = RuleType.valueOf(descriptor.getType());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Not a factory rule type: " + descriptor.getType(), e);
+        }
+        return createRule(type, descriptor.getParameters().toArray());
+    }
+}
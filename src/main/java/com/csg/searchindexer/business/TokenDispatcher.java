@@ -0,0 +1,16 @@
+package com.csg.searchindexer.business;
+
+import com.csg.searchindexer.business.rules.RuleAccumulator;
+
+/**
+ * Feeds one word to every accumulator of a rule set
+ * Produced by {@link RuleCompiler} for a fixed sequence of accumulator classes
+ */
+public interface TokenDispatcher {
+    void dispatch(RuleAccumulator[] accumulators, String word);
+
+    /**
+     * Feeds a word view, valid only during the call, through the accumulators' CharSequence overload
+     */
+    void dispatch(RuleAccumulator[] accumulators, CharSequence word);
+}
@@ -0,0 +1,34 @@
+package com.csg.searchindexer.business.rules;
+
+import java.util.ArrayList;
+
+/**
+ * Fallback accumulator for list-based rules
+ * Keeps the words and hands them to the rule in a single call
+ */
+class BufferingAccumulator implements RuleAccumulator {
+    private static final long serialVersionUID = 1L;
+
+    // Only the words are cached; restored state is merged into a fresh accumulator that knows the rule
+    private final transient ProcessingRule rule;
+    private final ArrayList<String> words = new ArrayList<>();
+
+    BufferingAccumulator(ProcessingRule rule) {
+        this.rule = rule;
+    }
+
+    @Override
+    public void accept(String word) {
+        words.add(word);
+    }
+
+    @Override
+    public Object result() {
+        return rule.process(words);
+    }
+
+    @Override
+    public void merge(RuleAccumulator other) {
+        words.addAll(((BufferingAccumulator) other).words);
+    }
+}
@@ -0,0 +1,80 @@
+package com.csg.searchindexer.business.rules;
+
+import com.csg.searchindexer.business.stats.HyperLogLog;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Rule to estimate the number of distinct words
+ * Counts with a {@link HyperLogLog} sketch sized for the configured relative error, so memory stays
+ * fixed however many words are seen; rules whose errors map to the same precision share one sketch
+ */
+public class DistinctCountRule implements SharedStageRule {
+    public static final double DEFAULT_RELATIVE_ERROR = 0.01;
+
+    private final double relativeError;
+    private final int precision;
+
+    public DistinctCountRule() {
+        this(DEFAULT_RELATIVE_ERROR);
+    }
+
+    /**
+     * @param relativeError the relative standard error to stay within, such as 0.01 for 1%
+     */
+    public DistinctCountRule(double relativeError) {
+        this.precision = HyperLogLog.precisionFor(relativeError);
+        this.relativeError = relativeError;
+    }
+
+    public double getRelativeError() {
+        return relativeError;
+    }
+
+    /**
+     * @return the precision of the sketch, from which its actual standard error follows
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    @Override
+    public String getRuleName() {
+        return "Distinct words (approximate, "
+                + BigDecimal.valueOf(relativeError).movePointRight(2).stripTrailingZeros().toPlainString() + "% error)";
+    }
+
+    @Override
+    public RuleDescriptor getDescriptor() {
+        return new RuleDescriptor("APPROXIMATE_DISTINCT_COUNT", relativeError);
+    }
+
+    @Override
+    public Object getStageKey() {
+        return List.of(HyperLogLog.class, precision);
+    }
+
+    @Override
+    public RuleAccumulator newStage() {
+        return new HyperLogLog(precision);
+    }
+
+    @Override
+    public Object resultFrom(RuleAccumulator stage) {
+        return ((HyperLogLog) stage).estimate();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof DistinctCountRule)) {
+            return false;
+        }
+        return relativeError == ((DistinctCountRule) other).relativeError;
+    }
+
+    @Override
+    public int hashCode() {
+        return Double.hashCode(relativeError);
+    }
+}
@@ -1,24 +1,46 @@
 package com.csg.searchindexer.business.rules;
 
-
-import java.util.List;
-import java.util.stream.Collectors;
+import com.csg.searchindexer.business.stats.LengthHistogram;
 
 /**
  * Rule to filter words based on length
- * Can be configured for different comparison types
+ * Can be configured for different comparison types; all length rules of an evaluation share one
+ * {@link LengthHistogram}, which only keeps the words of lengths that some word-returning rule matches
  */
-public class LengthFilterRule implements ProcessingRule {
+public class LengthFilterRule implements SharedStageRule {
     public enum FilterType {
         EQUAL_TO, LESS_THAN, GREATER_THAN, LESS_THAN_OR_EQUAL, GREATER_THAN_OR_EQUAL
     }
 
     private final int length;
     private final LengthFilterRule.FilterType filterType;
+    private final boolean countOnly;
 
     public LengthFilterRule(int length, LengthFilterRule.FilterType filterType) {
+        this(length, filterType, false);
+    }
+
+    /**
+     * @param length the length to compare against
+     * @param filterType the type of comparison to perform
+     * @param countOnly whether to return the number of matching words instead of the words
+     */
+    public LengthFilterRule(int length, LengthFilterRule.FilterType filterType, boolean countOnly) {
         this.length = length;
         this.filterType = filterType;
+        this.countOnly = countOnly;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public LengthFilterRule.FilterType getFilterType() {
+        return filterType;
+    }
+
+    public boolean isCountOnly() {
+        return countOnly;
     }
 
     @Override
@@ -43,28 +65,105 @@ public class LengthFilterRule implements ProcessingRule {
             default:
                 operator = "?";
         }
-        return "Words with length " + operator + " " + length;
+        return "Words with length " + operator + " " + length + (countOnly ? " (count)" : "");
+    }
+
+    @Override
+    public RuleDescriptor getDescriptor() {
+        return new RuleDescriptor("LENGTH_FILTER", length, filterType, countOnly);
+    }
+
+    @Override
+    public Object getStageKey() {
+        return LengthHistogram.class;
+    }
+
+    @Override
+    public RuleAccumulator newStage() {
+        return new LengthHistogram();
+    }
+
+    @Override
+    public void configureStage(RuleAccumulator stage) {
+        if (!countOnly) {
+            ((LengthHistogram) stage).collectWords(getMinLength(), getMaxLength());
+        }
+    }
+
+    @Override
+    public Object resultFrom(RuleAccumulator stage) {
+        LengthHistogram histogram = (LengthHistogram) stage;
+        int minLength = getMinLength();
+        int maxLength = getMaxLength();
+        return countOnly ? (Object) histogram.count(minLength, maxLength) : histogram.words(minLength, maxLength);
+    }
+
+    /**
+     * @return the smallest word length that passes the filter, or a value above getMaxLength() if none does
+     */
+    public int getMinLength() {
+        switch (filterType) {
+            case EQUAL_TO:
+            case GREATER_THAN_OR_EQUAL:
+                return length;
+            case GREATER_THAN:
+                return length == Integer.MAX_VALUE ? Integer.MAX_VALUE : length + 1;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @return the largest word length that passes the filter, or a value below getMinLength() if none does
+     */
+    public int getMaxLength() {
+        switch (filterType) {
+            case EQUAL_TO:
+            case LESS_THAN_OR_EQUAL:
+                return length;
+            case LESS_THAN:
+                return length == Integer.MIN_VALUE ? -1 : length - 1;
+            case GREATER_THAN:
+                return length == Integer.MAX_VALUE ? -1 : Integer.MAX_VALUE;
+            default:
+                return Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Tests a word length against the configured comparison
+     *
+     * @param wordLength the length to test
+     * @return true if a word of this length passes the filter
+     */
+    public boolean matches(int wordLength) {
+        switch (filterType) {
+            case EQUAL_TO:
+                return wordLength == length;
+            case LESS_THAN:
+                return wordLength < length;
+            case GREATER_THAN:
+                return wordLength > length;
+            case LESS_THAN_OR_EQUAL:
+                return wordLength <= length;
+            case GREATER_THAN_OR_EQUAL:
+                return wordLength >= length;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof LengthFilterRule)) {
+            return false;
+        }
+        LengthFilterRule rule = (LengthFilterRule) other;
+        return length == rule.length && filterType == rule.filterType && countOnly == rule.countOnly;
     }
 
     @Override
-    public Object process(List<String> words) {
-        return words.stream()
-                .filter(word -> {
-                    switch (filterType) {
-                        case EQUAL_TO:
-                            return word.length() == length;
-                        case LESS_THAN:
-                            return word.length() < length;
-                        case GREATER_THAN:
-                            return word.length() > length;
-                        case LESS_THAN_OR_EQUAL:
-                            return word.length() <= length;
-                        case GREATER_THAN_OR_EQUAL:
-                            return word.length() >= length;
-                        default:
-                            return false;
-                    }
-                })
-                .collect(Collectors.toList());
+    public int hashCode() {
+        return (31 * length + filterType.hashCode()) * 31 + Boolean.hashCode(countOnly);
     }
 }
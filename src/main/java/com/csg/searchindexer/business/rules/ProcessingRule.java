@@ -10,4 +10,15 @@ public interface ProcessingRule {
     String getRuleName();
 
     Object process(List<String> words);
+
+    /**
+     * Describes the rule's configuration for caching results
+     * The default identifies the rule by class and name; rules whose result depends on more than
+     * their name must override it.
+     *
+     * @return a descriptor equal to that of every rule producing the same results
+     */
+    default RuleDescriptor getDescriptor() {
+        return new RuleDescriptor(getClass().getName(), getRuleName());
+    }
 }
@@ -0,0 +1,33 @@
+package com.csg.searchindexer.business.rules;
+
+import java.io.Serializable;
+
+/**
+ * Per-run state of a streaming rule
+ * Receives words one at a time and produces the rule result once the input is exhausted;
+ * the state is serializable so partial results can be cached between runs
+ */
+public interface RuleAccumulator extends Serializable {
+    void accept(String word);
+
+    /**
+     * Receives a word as a view into the input that is only valid during the call
+     * Accumulators that only need the length or leading characters override this to avoid allocating;
+     * the default materializes the word, which the tokenizer does at most once per word
+     *
+     * @param word the word; call toString to keep it
+     */
+    default void accept(CharSequence word) {
+        accept(word.toString());
+    }
+
+    Object result();
+
+    /**
+     * Folds the state of another accumulator of the same rule into this one
+     * The other accumulator must have seen the words that follow the words seen by this one
+     *
+     * @param other the accumulator to merge
+     */
+    void merge(RuleAccumulator other);
+}
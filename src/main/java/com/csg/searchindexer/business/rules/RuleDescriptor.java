@@ -0,0 +1,99 @@
+package com.csg.searchindexer.business.rules;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Canonical identity of a rule configuration: a rule type and its parameters in a fixed order
+ * Rules that would produce the same result for every input have equal descriptors, so descriptors can
+ * key cached results. {@link #toKey()} is stable across runs and is used in cache keys; the readable
+ * {@link #toString()} form is not, since parameters containing separators can make it ambiguous.
+ */
+public final class RuleDescriptor {
+    private final String type;
+    private final List<Object> parameters;
+
+    /**
+     * @param type the rule type, such as a {@code RuleFactory.RuleType} name
+     * @param parameters the parameters in canonical form; strings, numbers, booleans and enums
+     */
+    public RuleDescriptor(String type, Object... parameters) {
+        this.type = Objects.requireNonNull(type, "type");
+        this.parameters = Collections.unmodifiableList(Arrays.asList(parameters.clone()));
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public List<Object> getParameters() {
+        return parameters;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof RuleDescriptor)) {
+            return false;
+        }
+        RuleDescriptor descriptor = (RuleDescriptor) other;
+        return type.equals(descriptor.type) && parameters.equals(descriptor.parameters);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * type.hashCode() + parameters.hashCode();
+    }
+
+    /**
+     * Encodes the descriptor so that unequal descriptors never share a key
+     * Every string is prefixed by its length and every other parameter by its class, and lists carry their
+     * size, so keys of several descriptors can also be concatenated without ambiguity.
+     *
+     * @return the key, stable across runs
+     */
+    public String toKey() {
+        StringBuilder key = new StringBuilder();
+        appendText(key, type);
+        appendParameter(key, parameters);
+        return key.toString();
+    }
+
+    private static void appendParameter(StringBuilder key, Object parameter) {
+        if (parameter instanceof List) {
+            List<?> list = (List<?>) parameter;
+            key.append('[').append(list.size()).append(':');
+            for (Object element : list) {
+                appendParameter(key, element);
+            }
+        } else if (parameter == null) {
+            key.append('-');
+        } else {
+            appendText(key, parameter.getClass().getName());
+            appendText(key, parameter.toString());
+        }
+    }
+
+    private static void appendText(StringBuilder key, String text) {
+        key.append(text.length()).append(':').append(text);
+    }
+
+    /**
+     * @return the descriptor as {@code TYPE(parameter, ...)}, for display
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(type).append('(');
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append(parameters.get(i));
+        }
+        return text.append(')').toString();
+    }
+}
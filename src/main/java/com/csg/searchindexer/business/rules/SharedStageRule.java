@@ -0,0 +1,46 @@
+package com.csg.searchindexer.business.rules;
+
+/**
+ * Streaming rule answered from a statistic that is shared with other rules
+ * Rules with equal stage keys read one stage fed once per word, instead of each keeping its own state
+ */
+public interface SharedStageRule extends StreamingRule {
+
+    /**
+     * Identifies the stage; rules returning equal keys are served by the same stage instance
+     *
+     * @return the stage key
+     */
+    Object getStageKey();
+
+    /**
+     * Creates an empty stage for this rule's key
+     *
+     * @return a new stage
+     */
+    RuleAccumulator newStage();
+
+    /**
+     * Prepares a shared stage for this rule before it receives any word
+     * Used by rules that need more than the stage collects by default
+     *
+     * @param stage the stage created for this rule's key
+     */
+    default void configureStage(RuleAccumulator stage) {
+    }
+
+    /**
+     * Reads this rule's result from the shared stage
+     *
+     * @param stage the stage, fed with all words
+     * @return the rule result
+     */
+    Object resultFrom(RuleAccumulator stage);
+
+    @Override
+    default RuleAccumulator newAccumulator() {
+        RuleAccumulator stage = newStage();
+        configureStage(stage);
+        return new StageAccumulator(this, stage);
+    }
+}
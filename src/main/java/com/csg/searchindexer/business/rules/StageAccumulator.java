@@ -0,0 +1,38 @@
+package com.csg.searchindexer.business.rules;
+
+/**
+ * Accumulator for a shared stage rule evaluated on its own
+ * Feeds a private stage and reads the rule result from it
+ */
+class StageAccumulator implements RuleAccumulator {
+    private static final long serialVersionUID = 1L;
+
+    // Only the stage is cached; restored state is merged into a fresh accumulator that knows the rule
+    private final transient SharedStageRule rule;
+    private final RuleAccumulator stage;
+
+    StageAccumulator(SharedStageRule rule, RuleAccumulator stage) {
+        this.rule = rule;
+        this.stage = stage;
+    }
+
+    @Override
+    public void accept(String word) {
+        stage.accept(word);
+    }
+
+    @Override
+    public void accept(CharSequence word) {
+        stage.accept(word);
+    }
+
+    @Override
+    public Object result() {
+        return rule.resultFrom(stage);
+    }
+
+    @Override
+    public void merge(RuleAccumulator other) {
+        stage.merge(((StageAccumulator) other).stage);
+    }
+}
@@ -1,37 +1,96 @@
 package com.csg.searchindexer.business.rules;
 
-import java.util.List;
+import com.csg.searchindexer.business.stats.CaseFolding;
+import com.csg.searchindexer.business.stats.FirstCharacterTable;
 
 /**
  * Rule to count words starting with a specific letter
- * Can be configured for case sensitivity
+ * Can be configured for case sensitivity; letters are compared by code point, ignoring case like
+ * String.equalsIgnoreCase, and all such rules of an evaluation share one {@link FirstCharacterTable}
  */
-public class StartsWithLetterRule implements ProcessingRule {
-    private final char letter;
+public class StartsWithLetterRule implements SharedStageRule {
+    private final int codePoint;
     private final boolean ignoreCase;
+    // First code points that count as this letter, resolved once instead of per word
+    private final int[] matchingCodePoints;
 
     public StartsWithLetterRule(char letter, boolean ignoreCase) {
-        this.letter = letter;
+        this((int) letter, ignoreCase);
+    }
+
+    /**
+     * @param codePoint the letter to check for, which may be a supplementary code point
+     * @param ignoreCase whether to ignore case when matching
+     */
+    public StartsWithLetterRule(int codePoint, boolean ignoreCase) {
+        if (!Character.isValidCodePoint(codePoint)) {
+            throw new IllegalArgumentException("Invalid code point: " + codePoint);
+        }
+        this.codePoint = codePoint;
         this.ignoreCase = ignoreCase;
+        this.matchingCodePoints = ignoreCase ? CaseFolding.variants(codePoint) : new int[]{codePoint};
+    }
+
+    /**
+     * @return the letter as a char
+     * @throws IllegalStateException if the letter is a supplementary code point; use getCodePoint() instead
+     */
+    public char getLetter() {
+        if (!Character.isBmpCodePoint(codePoint)) {
+            throw new IllegalStateException("Letter is a supplementary code point: " + codePoint);
+        }
+        return (char) codePoint;
+    }
+
+    public int getCodePoint() {
+        return codePoint;
+    }
+
+    public boolean isIgnoreCase() {
+        return ignoreCase;
     }
 
     @Override
     public String getRuleName() {
-        return "Words starting with " + (ignoreCase ? Character.toUpperCase(letter) + "/" + Character.toLowerCase(letter) : letter);
+        return "Words starting with " + (ignoreCase
+                ? Character.toString(Character.toUpperCase(codePoint)) + "/" + Character.toString(Character.toLowerCase(codePoint))
+                : Character.toString(codePoint));
+    }
+
+    /**
+     * @return STARTS_WITH_LETTER with the code point and case sensitivity, so a char and its code point are equal
+     */
+    @Override
+    public RuleDescriptor getDescriptor() {
+        return new RuleDescriptor("STARTS_WITH_LETTER", codePoint, ignoreCase);
     }
 
     @Override
-    public Object process(List<String> words) {
-        if (ignoreCase) {
-            char upperCase = Character.toUpperCase(letter);
-            char lowerCase = Character.toLowerCase(letter);
-            return words.stream()
-                    .filter(word -> !word.isEmpty() && (word.charAt(0) == upperCase || word.charAt(0) == lowerCase))
-                    .count();
-        } else {
-            return words.stream()
-                    .filter(word -> !word.isEmpty() && word.charAt(0) == letter)
-                    .count();
+    public Object getStageKey() {
+        return FirstCharacterTable.class;
+    }
+
+    @Override
+    public RuleAccumulator newStage() {
+        return new FirstCharacterTable();
+    }
+
+    @Override
+    public Object resultFrom(RuleAccumulator stage) {
+        return ((FirstCharacterTable) stage).count(matchingCodePoints);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof StartsWithLetterRule)) {
+            return false;
         }
+        StartsWithLetterRule rule = (StartsWithLetterRule) other;
+        return codePoint == rule.codePoint && ignoreCase == rule.ignoreCase;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * codePoint + Boolean.hashCode(ignoreCase);
     }
 }
@@ -0,0 +1,94 @@
+package com.csg.searchindexer.business.rules;
+
+import com.csg.searchindexer.business.stats.PrefixTrie;
+import com.csg.searchindexer.business.stats.TermCounts;
+
+/**
+ * Rule to find words starting with a prefix
+ * Returns the distinct matching words in ascending order, or the number of matching words when count-only.
+ * Ignoring case compares each code point of the prefix like {@link StartsWithLetterRule} does. The rule
+ * shares the {@link TermCounts} of exact top-k rules and answers from its {@link PrefixTrie}, so all prefix
+ * rules of an evaluation look up one dictionary instead of testing every word.
+ */
+public class StartsWithPrefixRule implements SharedStageRule {
+    private final String prefix;
+    private final boolean ignoreCase;
+    private final boolean countOnly;
+
+    public StartsWithPrefixRule(String prefix, boolean ignoreCase) {
+        this(prefix, ignoreCase, false);
+    }
+
+    /**
+     * @param prefix the prefix to check for
+     * @param ignoreCase whether to ignore case when matching
+     * @param countOnly whether to return the number of matching words instead of the distinct words
+     */
+    public StartsWithPrefixRule(String prefix, boolean ignoreCase, boolean countOnly) {
+        if (prefix == null || prefix.isEmpty()) {
+            throw new IllegalArgumentException("Prefix must not be empty");
+        }
+        this.prefix = prefix;
+        this.ignoreCase = ignoreCase;
+        this.countOnly = countOnly;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    public boolean isCountOnly() {
+        return countOnly;
+    }
+
+    @Override
+    public String getRuleName() {
+        return "Words starting with \"" + prefix + "\"" + (ignoreCase ? " (ignoring case)" : "") + (countOnly ? " (count)" : "");
+    }
+
+    @Override
+    public RuleDescriptor getDescriptor() {
+        return new RuleDescriptor("STARTS_WITH_PREFIX", prefix, ignoreCase, countOnly);
+    }
+
+    @Override
+    public Object getStageKey() {
+        return TermCounts.class;
+    }
+
+    @Override
+    public RuleAccumulator newStage() {
+        return new TermCounts();
+    }
+
+    @Override
+    public Object resultFrom(RuleAccumulator stage) {
+        return resultFrom(((TermCounts) stage).prefixTrie());
+    }
+
+    /**
+     * @param trie a dictionary of every word with its number of occurrences
+     * @return the result of this rule over those words
+     */
+    public Object resultFrom(PrefixTrie trie) {
+        return countOnly ? (Object) trie.countOccurrences(prefix, ignoreCase) : trie.terms(prefix, ignoreCase);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof StartsWithPrefixRule)) {
+            return false;
+        }
+        StartsWithPrefixRule rule = (StartsWithPrefixRule) other;
+        return prefix.equals(rule.prefix) && ignoreCase == rule.ignoreCase && countOnly == rule.countOnly;
+    }
+
+    @Override
+    public int hashCode() {
+        return (31 * prefix.hashCode() + Boolean.hashCode(ignoreCase)) * 31 + Boolean.hashCode(countOnly);
+    }
+}
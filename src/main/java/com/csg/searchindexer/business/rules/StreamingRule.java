@@ -0,0 +1,40 @@
+package com.csg.searchindexer.business.rules;
+
+import java.util.List;
+
+/**
+ * Processing rule that can be evaluated one word at a time
+ * Lets the file processor feed words straight from the reader without materializing the word list
+ */
+public interface StreamingRule extends ProcessingRule {
+
+    /**
+     * Creates fresh accumulator state for one evaluation of this rule
+     *
+     * @return a new accumulator
+     */
+    RuleAccumulator newAccumulator();
+
+    @Override
+    default Object process(List<String> words) {
+        RuleAccumulator accumulator = newAccumulator();
+        for (String word : words) {
+            accumulator.accept(word);
+        }
+        return accumulator.result();
+    }
+
+    /**
+     * Returns a streaming accumulator for any rule
+     * Rules that only implement the list contract get an accumulator that buffers their words
+     *
+     * @param rule the rule to evaluate
+     * @return a new accumulator for the rule
+     */
+    static RuleAccumulator accumulatorFor(ProcessingRule rule) {
+        if (rule instanceof StreamingRule) {
+            return ((StreamingRule) rule).newAccumulator();
+        }
+        return new BufferingAccumulator(rule);
+    }
+}
@@ -0,0 +1,110 @@
+package com.csg.searchindexer.business.rules;
+
+import com.csg.searchindexer.business.stats.CountMinSketch;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rule to estimate how often each of a set of words occurs
+ * Counts every word in a {@link CountMinSketch}, so memory is fixed by the error bounds instead of the
+ * vocabulary. An estimate never undercounts, and with probability 1 - delta it overcounts by at most
+ * epsilon times the number of words. Rules with equal bounds share one sketch, whatever words they ask for.
+ */
+public class TermFrequencyRule implements SharedStageRule {
+    public static final double DEFAULT_EPSILON = 0.001;
+    public static final double DEFAULT_DELTA = 0.01;
+
+    private final List<String> terms;
+    private final double epsilon;
+    private final double delta;
+    private final int width;
+    private final int depth;
+
+    public TermFrequencyRule(List<String> terms) {
+        this(terms, DEFAULT_EPSILON, DEFAULT_DELTA);
+    }
+
+    /**
+     * @param terms the words whose frequencies the rule returns, matched exactly
+     * @param epsilon the overcount bound relative to the number of words, such as 0.001
+     * @param delta the probability that an estimate exceeds the bound, such as 0.01
+     * @throws IllegalArgumentException if the bounds need more than {@link CountMinSketch#MAX_COUNTERS} counters
+     */
+    public TermFrequencyRule(List<String> terms, double epsilon, double delta) {
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("TermFrequencyRule requires at least one term");
+        }
+        this.terms = List.copyOf(terms);
+        this.width = CountMinSketch.widthFor(epsilon);
+        this.depth = CountMinSketch.depthFor(delta);
+        if ((long) width * depth > CountMinSketch.MAX_COUNTERS) {
+            throw new IllegalArgumentException("Epsilon " + epsilon + " and delta " + delta + " need " + width + " x "
+                    + depth + " counters, more than " + CountMinSketch.MAX_COUNTERS);
+        }
+        this.epsilon = epsilon;
+        this.delta = delta;
+    }
+
+    public List<String> getTerms() {
+        return terms;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    public double getDelta() {
+        return delta;
+    }
+
+    @Override
+    public String getRuleName() {
+        return "Frequency of " + terms + " (approximate, "
+                + BigDecimal.valueOf(epsilon).movePointRight(2).stripTrailingZeros().toPlainString() + "% error)";
+    }
+
+    @Override
+    public RuleDescriptor getDescriptor() {
+        return new RuleDescriptor("APPROXIMATE_TERM_FREQUENCY", terms, epsilon, delta);
+    }
+
+    @Override
+    public Object getStageKey() {
+        return List.of(CountMinSketch.class, width, depth);
+    }
+
+    @Override
+    public RuleAccumulator newStage() {
+        return new CountMinSketch(width, depth);
+    }
+
+    /**
+     * @return the estimated number of occurrences of every term, in term order
+     */
+    @Override
+    public Object resultFrom(RuleAccumulator stage) {
+        CountMinSketch sketch = (CountMinSketch) stage;
+        Map<String, Long> frequencies = new LinkedHashMap<>();
+        for (String term : terms) {
+            frequencies.put(term, sketch.estimate(term));
+        }
+        return frequencies;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof TermFrequencyRule)) {
+            return false;
+        }
+        TermFrequencyRule rule = (TermFrequencyRule) other;
+        return terms.equals(rule.terms) && epsilon == rule.epsilon && delta == rule.delta;
+    }
+
+    @Override
+    public int hashCode() {
+        return (31 * terms.hashCode() + Double.hashCode(epsilon)) * 31 + Double.hashCode(delta);
+    }
+}
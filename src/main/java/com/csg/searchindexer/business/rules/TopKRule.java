@@ -0,0 +1,113 @@
+package com.csg.searchindexer.business.rules;
+
+import com.csg.searchindexer.business.stats.SpaceSaving;
+import com.csg.searchindexer.business.stats.TermCounts;
+
+import java.util.List;
+
+/**
+ * Rule to find the most frequent words
+ * The exact mode counts every distinct word in a shared {@link TermCounts} table; the Space-Saving mode
+ * keeps a fixed number of counters in a shared {@link SpaceSaving} summary, for vocabularies too large
+ * to count exactly. Either way the result maps the top words to their counts, most frequent first.
+ */
+public class TopKRule implements SharedStageRule {
+    public enum Mode {
+        EXACT, SPACE_SAVING
+    }
+
+    public static final int MIN_DEFAULT_CAPACITY = 1000;
+
+    private final int k;
+    private final Mode mode;
+    private final int capacity;
+
+    public TopKRule(int k) {
+        this(k, Mode.EXACT);
+    }
+
+    public TopKRule(int k, Mode mode) {
+        this(k, mode, defaultCapacity(k));
+    }
+
+    /**
+     * @param k the number of words to return
+     * @param mode whether to count exactly or in bounded memory
+     * @param capacity the number of Space-Saving counters, at least k; ignored in exact mode
+     */
+    public TopKRule(int k, Mode mode, int capacity) {
+        if (k < 1) {
+            throw new IllegalArgumentException("K must be at least 1: " + k);
+        }
+        if (mode == Mode.SPACE_SAVING && (capacity < k || capacity > SpaceSaving.MAX_CAPACITY)) {
+            throw new IllegalArgumentException("Capacity must be between k and " + SpaceSaving.MAX_CAPACITY + ": " + capacity);
+        }
+        this.k = k;
+        this.mode = mode;
+        this.capacity = mode == Mode.EXACT ? 0 : capacity;
+    }
+
+    /**
+     * @param k the number of words asked for
+     * @return ten counters per word asked for, and at least {@link #MIN_DEFAULT_CAPACITY}
+     */
+    public static int defaultCapacity(int k) {
+        return (int) Math.min(SpaceSaving.MAX_CAPACITY, Math.max(MIN_DEFAULT_CAPACITY, 10L * k));
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return the number of Space-Saving counters, or 0 in exact mode
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public String getRuleName() {
+        return "Top " + k + " words" + (mode == Mode.EXACT ? "" : " (approximate, " + capacity + " counters)");
+    }
+
+    @Override
+    public RuleDescriptor getDescriptor() {
+        return mode == Mode.EXACT
+                ? new RuleDescriptor("TOP_K", k, mode)
+                : new RuleDescriptor("TOP_K", k, mode, capacity);
+    }
+
+    @Override
+    public Object getStageKey() {
+        return mode == Mode.EXACT ? TermCounts.class : List.of(SpaceSaving.class, capacity);
+    }
+
+    @Override
+    public RuleAccumulator newStage() {
+        return mode == Mode.EXACT ? new TermCounts() : new SpaceSaving(capacity);
+    }
+
+    @Override
+    public Object resultFrom(RuleAccumulator stage) {
+        return mode == Mode.EXACT ? ((TermCounts) stage).top(k) : ((SpaceSaving) stage).top(k);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof TopKRule)) {
+            return false;
+        }
+        TopKRule rule = (TopKRule) other;
+        return k == rule.k && mode == rule.mode && capacity == rule.capacity;
+    }
+
+    @Override
+    public int hashCode() {
+        return (31 * k + mode.hashCode()) * 31 + capacity;
+    }
+}
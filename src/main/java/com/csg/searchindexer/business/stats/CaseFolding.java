@@ -0,0 +1,70 @@
+package com.csg.searchindexer.business.stats;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Case-insensitive equivalence of code points, with the same semantics as String.equalsIgnoreCase
+ * Two code points are equivalent when their upper-case forms map to the same lower-case form. The
+ * equivalence classes are computed once for all cased code points, so callers resolve a letter to
+ * all of its case variants without per-word case conversion.
+ */
+public final class CaseFolding {
+    // Case mappings only exist in the Basic and Supplementary Multilingual Planes; planes 2 and above
+    // hold ideographs, tags and private use characters, so the scan stops here
+    static final int CASED_LIMIT = 0x20000;
+
+    private CaseFolding() {
+    }
+
+    /**
+     * Maps a code point to the representative of its case-insensitive equivalence class
+     *
+     * @param codePoint the code point to fold
+     * @return the folded code point
+     */
+    public static int fold(int codePoint) {
+        return Character.toLowerCase(Character.toUpperCase(codePoint));
+    }
+
+    /**
+     * Returns every code point that is equal to the given one ignoring case, including itself
+     *
+     * @param codePoint the code point to look up
+     * @return the case variants in ascending order; the caller must not modify the array
+     */
+    public static int[] variants(int codePoint) {
+        int[] variants = VariantTable.VARIANTS.get(fold(codePoint));
+        return variants != null ? variants : new int[]{codePoint};
+    }
+
+    /**
+     * Equivalence classes with more than one member, keyed by folded code point
+     * Built on first use by a single scan of all code points that have case mappings
+     */
+    private static final class VariantTable {
+        private static final Map<Integer, int[]> VARIANTS = build();
+
+        private static Map<Integer, int[]> build() {
+            Map<Integer, int[]> classes = new HashMap<>();
+            for (int codePoint = 0; codePoint < CASED_LIMIT; codePoint++) {
+                int folded = fold(codePoint);
+                if (folded != codePoint) {
+                    int[] members = classes.get(folded);
+                    if (members == null) {
+                        // The representative belongs to its own class unless it folds further
+                        members = fold(folded) == folded ? new int[]{folded} : new int[0];
+                    }
+                    members = Arrays.copyOf(members, members.length + 1);
+                    members[members.length - 1] = codePoint;
+                    classes.put(folded, members);
+                }
+            }
+            for (int[] members : classes.values()) {
+                Arrays.sort(members);
+            }
+            return classes;
+        }
+    }
+}
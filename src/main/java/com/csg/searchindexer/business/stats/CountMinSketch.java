@@ -0,0 +1,148 @@
+package com.csg.searchindexer.business.stats;
+
+import com.csg.searchindexer.business.rules.RuleAccumulator;
+
+/**
+ * Count-Min estimate of how often each word occurs, shared by frequency rules of equal dimensions
+ * Each word increments one counter per row, and its estimate is the smallest of those counters. An
+ * estimate never undercounts, and with probability 1 - delta it overcounts by at most epsilon times
+ * the number of words added. Memory is fixed by the error bounds, and sketches of equal dimensions
+ * merge by adding counters into exactly the sketch of the combined input.
+ */
+public class CountMinSketch implements RuleAccumulator {
+    private static final long serialVersionUID = 1L;
+    public static final int MAX_COUNTERS = 1 << 26;
+
+    private final int width;
+    private final int depth;
+    private final long[] counters;
+    private long totalCount;
+
+    /**
+     * @param width the number of counters per row
+     * @param depth the number of rows, each indexed by an independent hash
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1 || (long) width * depth > MAX_COUNTERS) {
+            throw new IllegalArgumentException("Invalid sketch dimensions: " + width + " x " + depth);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counters = new long[width * depth];
+    }
+
+    /**
+     * @param epsilon the overcount bound relative to the number of words, such as 0.001
+     * @return the row width that guarantees the bound
+     * @throws IllegalArgumentException if epsilon is not in (0, 1) or needs more than {@link #MAX_COUNTERS}
+     * counters per row
+     */
+    public static int widthFor(double epsilon) {
+        if (!(epsilon > 0 && epsilon < 1)) {
+            throw new IllegalArgumentException("Epsilon must be between 0 and 1: " + epsilon);
+        }
+        double width = Math.ceil(Math.E / epsilon);
+        if (width > MAX_COUNTERS) {
+            throw new IllegalArgumentException("Epsilon must be at least " + Math.E / MAX_COUNTERS
+                    + " to fit " + MAX_COUNTERS + " counters: " + epsilon);
+        }
+        return (int) width;
+    }
+
+    /**
+     * @param delta the probability that an estimate exceeds the overcount bound, such as 0.01
+     * @return the number of rows that guarantees the probability
+     */
+    public static int depthFor(double delta) {
+        if (!(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("Delta must be between 0 and 1: " + delta);
+        }
+        return (int) Math.ceil(Math.log(1 / delta));
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return the number of words added
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    @Override
+    public void accept(String word) {
+        add(TermHash.hash(word), 1);
+    }
+
+    @Override
+    public void accept(CharSequence word) {
+        add(TermHash.hash(word), 1);
+    }
+
+    /**
+     * Adds occurrences of a hashed item
+     *
+     * @param hash a well-mixed 64-bit hash of the item
+     * @param count the number of occurrences
+     */
+    public void add(long hash, long count) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            counters[row * width + column(h1, h2, row)] += count;
+        }
+        totalCount += count;
+    }
+
+    /**
+     * @param word the word to look up
+     * @return an upper bound of the number of times the word was added
+     */
+    public long estimate(CharSequence word) {
+        return estimate(TermHash.hash(word));
+    }
+
+    /**
+     * @param hash the hash the item was added with
+     * @return an upper bound of the number of times the item was added
+     */
+    public long estimate(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * width + column(h1, h2, row)]);
+        }
+        return estimate;
+    }
+
+    @Override
+    public Object result() {
+        return totalCount;
+    }
+
+    @Override
+    public void merge(RuleAccumulator other) {
+        CountMinSketch sketch = (CountMinSketch) other;
+        if (sketch.width != width || sketch.depth != depth) {
+            throw new IllegalArgumentException("Cannot merge a " + sketch.width + " x " + sketch.depth
+                    + " sketch into a " + width + " x " + depth + " sketch");
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += sketch.counters[i];
+        }
+        totalCount += sketch.totalCount;
+    }
+
+    private int column(int h1, int h2, int row) {
+        // Row hashes are derived from two halves of one hash (Kirsch-Mitzenmacher)
+        int combined = h1 + row * h2;
+        return (combined & Integer.MAX_VALUE) % width;
+    }
+}
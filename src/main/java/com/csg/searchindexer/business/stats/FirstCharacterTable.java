@@ -0,0 +1,163 @@
+package com.csg.searchindexer.business.stats;
+
+import com.csg.searchindexer.business.rules.RuleAccumulator;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Word counts per first code point, shared by all first-letter rules of an evaluation
+ * ASCII and Latin-1 are counted in a dense array indexed by the first char; other code points go to a
+ * sparse open-addressing table, so the common case costs one array increment per word.
+ */
+public class FirstCharacterTable implements RuleAccumulator {
+    private static final long serialVersionUID = 1L;
+    private static final int DENSE_SIZE = 256;
+    private static final int EMPTY = -1;
+
+    private final long[] dense = new long[DENSE_SIZE];
+    private int[] sparseKeys = newKeys(16);
+    private long[] sparseCounts = new long[16];
+    private int sparseSize;
+
+    @Override
+    public void accept(String word) {
+        if (word.isEmpty()) {
+            return;
+        }
+        char first = word.charAt(0);
+        if (first < DENSE_SIZE) {
+            dense[first]++;
+        } else {
+            increment(word.codePointAt(0), 1);
+        }
+    }
+
+    @Override
+    public void accept(CharSequence word) {
+        if (word.isEmpty()) {
+            return;
+        }
+        char first = word.charAt(0);
+        if (first < DENSE_SIZE) {
+            dense[first]++;
+        } else {
+            increment(Character.codePointAt(word, 0), 1);
+        }
+    }
+
+    /**
+     * Counts a word as if it had been accepted the given number of times
+     *
+     * @param word the word
+     * @param occurrences how often the word occurs
+     */
+    public void add(String word, long occurrences) {
+        if (!word.isEmpty()) {
+            increment(word.codePointAt(0), occurrences);
+        }
+    }
+
+    /**
+     * @param codePoint the first code point to look up
+     * @return the number of words starting with the code point
+     */
+    public long count(int codePoint) {
+        if (codePoint >= 0 && codePoint < DENSE_SIZE) {
+            return dense[codePoint];
+        }
+        int slot = find(codePoint);
+        return sparseKeys[slot] == EMPTY ? 0 : sparseCounts[slot];
+    }
+
+    /**
+     * @param codePoints distinct first code points to look up
+     * @return the number of words starting with any of the code points
+     */
+    public long count(int[] codePoints) {
+        long count = 0;
+        for (int codePoint : codePoints) {
+            count += count(codePoint);
+        }
+        return count;
+    }
+
+    /**
+     * @return the non-zero counts keyed by first code point, in code point order
+     */
+    @Override
+    public Object result() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        for (int codePoint = 0; codePoint < DENSE_SIZE; codePoint++) {
+            if (dense[codePoint] != 0) {
+                counts.put(codePoint, dense[codePoint]);
+            }
+        }
+        for (int slot = 0; slot < sparseKeys.length; slot++) {
+            if (sparseKeys[slot] != EMPTY) {
+                counts.put(sparseKeys[slot], sparseCounts[slot]);
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public void merge(RuleAccumulator other) {
+        FirstCharacterTable table = (FirstCharacterTable) other;
+        for (int codePoint = 0; codePoint < DENSE_SIZE; codePoint++) {
+            dense[codePoint] += table.dense[codePoint];
+        }
+        for (int slot = 0; slot < table.sparseKeys.length; slot++) {
+            if (table.sparseKeys[slot] != EMPTY) {
+                increment(table.sparseKeys[slot], table.sparseCounts[slot]);
+            }
+        }
+    }
+
+    private void increment(int codePoint, long occurrences) {
+        if (codePoint < DENSE_SIZE) {
+            dense[codePoint] += occurrences;
+            return;
+        }
+        int slot = find(codePoint);
+        if (sparseKeys[slot] == EMPTY) {
+            sparseKeys[slot] = codePoint;
+            if (++sparseSize > sparseKeys.length >> 1) {
+                rehash();
+                slot = find(codePoint);
+            }
+        }
+        sparseCounts[slot] += occurrences;
+    }
+
+    private int find(int codePoint) {
+        int mask = sparseKeys.length - 1;
+        int hash = codePoint * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (sparseKeys[slot] != EMPTY && sparseKeys[slot] != codePoint) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        int[] oldKeys = sparseKeys;
+        long[] oldCounts = sparseCounts;
+        sparseKeys = newKeys(oldKeys.length * 2);
+        sparseCounts = new long[oldKeys.length * 2];
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                int newSlot = find(oldKeys[slot]);
+                sparseKeys[newSlot] = oldKeys[slot];
+                sparseCounts[newSlot] = oldCounts[slot];
+            }
+        }
+    }
+
+    private static int[] newKeys(int capacity) {
+        int[] keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        return keys;
+    }
+}
@@ -0,0 +1,156 @@
+package com.csg.searchindexer.business.stats;
+
+import com.csg.searchindexer.business.rules.RuleAccumulator;
+
+/**
+ * HyperLogLog estimate of the number of distinct words, shared by distinct-count rules of equal precision
+ * Memory is fixed at one byte per register whatever the input size, and sketches of the same precision
+ * merge into exactly the sketch of the combined input, so chunks and cached files are merged losslessly.
+ * The estimate uses Ertl's improved estimator, which needs neither bias tables nor a switch to linear
+ * counting for small cardinalities; its relative standard error is about 1.04 / sqrt(2^precision).
+ */
+public class HyperLogLog implements RuleAccumulator {
+    private static final long serialVersionUID = 1L;
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+
+    /**
+     * @param precision the number of hash bits that select a register, from 4 to 18
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between " + MIN_PRECISION + " and "
+                    + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Returns the smallest precision whose relative standard error is at most the given error
+     *
+     * @param relativeError the wanted relative standard error, such as 0.01 for 1%
+     * @return the precision
+     * @throws IllegalArgumentException if the error is not in (0, 1) or is below the error of
+     * {@link #MAX_PRECISION}
+     */
+    public static int precisionFor(double relativeError) {
+        if (!(relativeError > 0 && relativeError < 1)) {
+            throw new IllegalArgumentException("Relative error must be between 0 and 1: " + relativeError);
+        }
+        if (relativeError < standardError(MAX_PRECISION)) {
+            throw new IllegalArgumentException("Relative error must be at least " + standardError(MAX_PRECISION)
+                    + ", the error of precision " + MAX_PRECISION + ": " + relativeError);
+        }
+        double registers = Math.pow(1.04 / relativeError, 2);
+        int precision = 64 - Long.numberOfLeadingZeros((long) Math.ceil(registers) - 1);
+        return Math.max(MIN_PRECISION, Math.min(MAX_PRECISION, precision));
+    }
+
+    /**
+     * @param precision the precision of a sketch
+     * @return the relative standard error of its estimates
+     */
+    public static double standardError(int precision) {
+        return 1.04 / Math.sqrt(1 << precision);
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    @Override
+    public void accept(String word) {
+        add(TermHash.hash(word));
+    }
+
+    @Override
+    public void accept(CharSequence word) {
+        add(TermHash.hash(word));
+    }
+
+    /**
+     * Adds a hashed item
+     *
+     * @param hash a well-mixed 64-bit hash of the item
+     */
+    public void add(long hash) {
+        int register = (int) (hash >>> (64 - precision));
+        // The sentinel bit caps the rank at 64 - precision + 1 when the remaining bits are all zero
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[register]) {
+            registers[register] = (byte) rank;
+        }
+    }
+
+    /**
+     * @return the estimated number of distinct items added
+     */
+    public long estimate() {
+        int maxRank = 64 - precision + 1;
+        int[] histogram = new int[maxRank + 1];
+        for (byte rank : registers) {
+            histogram[rank]++;
+        }
+        double m = registers.length;
+        double z = m * tau(1 - histogram[maxRank] / m);
+        for (int rank = maxRank - 1; rank >= 1; rank--) {
+            z = 0.5 * (z + histogram[rank]);
+        }
+        z += m * sigma(histogram[0] / m);
+        return Math.round(m * m / (2 * Math.log(2) * z));
+    }
+
+    @Override
+    public Object result() {
+        return estimate();
+    }
+
+    @Override
+    public void merge(RuleAccumulator other) {
+        HyperLogLog sketch = (HyperLogLog) other;
+        if (sketch.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge precision " + sketch.precision + " into " + precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (sketch.registers[i] > registers[i]) {
+                registers[i] = sketch.registers[i];
+            }
+        }
+    }
+
+    private static double sigma(double x) {
+        if (x == 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double y = 1;
+        double z = x;
+        double previous;
+        do {
+            x *= x;
+            previous = z;
+            z += x * y;
+            y += y;
+        } while (z != previous);
+        return z;
+    }
+
+    private static double tau(double x) {
+        if (x == 0 || x == 1) {
+            return 0;
+        }
+        double y = 1;
+        double z = 1 - x;
+        double previous;
+        do {
+            x = Math.sqrt(x);
+            previous = z;
+            y *= 0.5;
+            z -= Math.pow(1 - x, 2) * y;
+        } while (z != previous);
+        return z / 3;
+    }
+}
@@ -0,0 +1,351 @@
+package com.csg.searchindexer.business.stats;
+
+import com.csg.searchindexer.business.rules.RuleAccumulator;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Word counts per word length, shared by all length-based rules of an evaluation
+ * Lengths below {@link #DENSE_LENGTHS} are counted in arrays and answered from prefix sums; longer ones,
+ * such as delimiter-free blobs, are kept in sorted maps, so one huge token costs one map entry instead of
+ * an array slot for every length below it. Words are only kept for the length ranges registered with
+ * {@link #collectWords(int, int)}: they are bucketed by length together with their input ordinal, so a
+ * range of lengths is returned in input order by a k-way merge. Words of other lengths are only counted.
+ */
+public class LengthHistogram implements RuleAccumulator {
+    private static final long serialVersionUID = 2L;
+    private static final int INITIAL_LENGTHS = 32;
+    // Lengths below this are array indexes, longer ones map keys
+    static final int DENSE_LENGTHS = 1024;
+
+    private long[] counts = new long[INITIAL_LENGTHS];
+    // Largest length below DENSE_LENGTHS seen so far
+    private int maxLength = -1;
+    // Counts of lengths of DENSE_LENGTHS and more; null until such a word arrives
+    private TreeMap<Integer, Long> longCounts;
+    private TreeMap<Integer, Bucket> longBuckets;
+    private long tokenCount;
+    // Disjoint, non-adjacent [min, max] length ranges whose words are kept, as pairs in ascending order
+    private int[] collectedRanges = new int[0];
+    private Bucket[] buckets;
+
+    // Cumulative counts, rebuilt on the first range query after new words arrive
+    private transient long[] prefixSums;
+
+    /**
+     * Keeps the words whose length lies in the given inclusive range, so the range can also return the words
+     * Ranges of several calls are combined. Must be called before the first word is accepted.
+     *
+     * @param minLength the smallest length to keep
+     * @param maxLength the largest length to keep
+     */
+    public void collectWords(int minLength, int maxLength) {
+        int from = Math.max(minLength, 0);
+        if (from > maxLength || covers(from, maxLength)) {
+            return;
+        }
+        if (tokenCount > 0) {
+            throw new IllegalStateException("Words must be collected from the first word on");
+        }
+        if (buckets == null) {
+            buckets = new Bucket[counts.length];
+        }
+        int[] ranges = Arrays.copyOf(collectedRanges, collectedRanges.length + 2);
+        ranges[ranges.length - 2] = from;
+        ranges[ranges.length - 1] = maxLength;
+        collectedRanges = union(ranges);
+    }
+
+    public boolean isCollectingWords() {
+        return collectedRanges.length > 0;
+    }
+
+    @Override
+    public void accept(String word) {
+        int length = word.length();
+        addCount(length, 1);
+        if (isCollected(length)) {
+            bucket(length).add(word, tokenCount);
+        }
+        tokenCount++;
+        prefixSums = null;
+    }
+
+    /**
+     * Counts a word view without materializing it, unless its length is in a collected range
+     */
+    @Override
+    public void accept(CharSequence word) {
+        int length = word.length();
+        if (isCollected(length)) {
+            accept(word.toString());
+            return;
+        }
+        addCount(length, 1);
+        tokenCount++;
+        prefixSums = null;
+    }
+
+    public long getTokenCount() {
+        return tokenCount;
+    }
+
+    /**
+     * Counts the words whose length lies in the given inclusive range
+     *
+     * @param minLength the smallest length to count
+     * @param maxLength the largest length to count
+     * @return the number of words in the range
+     */
+    public long count(int minLength, int maxLength) {
+        int from = Math.max(minLength, 0);
+        long count = 0;
+        int to = Math.min(maxLength, this.maxLength);
+        if (from <= to) {
+            long[] sums = prefixSums();
+            count += sums[to + 1] - sums[from];
+        }
+        if (longCounts != null && maxLength >= DENSE_LENGTHS && Math.max(from, DENSE_LENGTHS) <= maxLength) {
+            for (long longCount : longCounts.subMap(Math.max(from, DENSE_LENGTHS), true, maxLength, true).values()) {
+                count += longCount;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the words whose length lies in the given inclusive range, in input order
+     *
+     * @param minLength the smallest length to include
+     * @param maxLength the largest length to include
+     * @return the matching words
+     * @throws IllegalStateException if words of some length in the range are not collected
+     */
+    public List<String> words(int minLength, int maxLength) {
+        int from = Math.max(minLength, 0);
+        if (from <= maxLength && !covers(from, maxLength)) {
+            throw new IllegalStateException("Words of length " + from + " to " + maxLength + " are not collected");
+        }
+        ArrayList<String> words = new ArrayList<>((int) Math.min(Integer.MAX_VALUE - 8, count(minLength, maxLength)));
+        if (from > maxLength) {
+            return words;
+        }
+
+        PriorityQueue<Cursor> heads = new PriorityQueue<>();
+        for (int length = from; length <= Math.min(maxLength, this.maxLength); length++) {
+            if (buckets[length] != null && buckets[length].size > 0) {
+                heads.add(new Cursor(buckets[length]));
+            }
+        }
+        if (longBuckets != null && Math.max(from, DENSE_LENGTHS) <= maxLength) {
+            for (Bucket bucket : longBuckets.subMap(Math.max(from, DENSE_LENGTHS), true, maxLength, true).values()) {
+                heads.add(new Cursor(bucket));
+            }
+        }
+        if (heads.isEmpty()) {
+            return words;
+        }
+        if (heads.size() == 1) {
+            Bucket bucket = heads.peek().bucket;
+            words.addAll(bucket.words);
+            return words;
+        }
+        while (!heads.isEmpty()) {
+            Cursor head = heads.poll();
+            words.add(head.bucket.words.get(head.position));
+            if (++head.position < head.bucket.size) {
+                heads.add(head);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * @return the number of words of every length that occurred, keyed by length in ascending order
+     */
+    @Override
+    public Object result() {
+        SortedMap<Integer, Long> result = new TreeMap<>();
+        for (int length = 0; length <= maxLength; length++) {
+            if (counts[length] > 0) {
+                result.put(length, counts[length]);
+            }
+        }
+        if (longCounts != null) {
+            result.putAll(longCounts);
+        }
+        return result;
+    }
+
+    @Override
+    public void merge(RuleAccumulator other) {
+        LengthHistogram histogram = (LengthHistogram) other;
+        for (int length = 0; length <= histogram.maxLength; length++) {
+            addCount(length, histogram.counts[length]);
+            if (buckets != null && histogram.buckets != null && histogram.buckets[length] != null) {
+                // The other histogram saw the words that follow ours, so its ordinals start after ours
+                bucket(length).append(histogram.buckets[length], tokenCount);
+            }
+        }
+        if (histogram.longCounts != null) {
+            histogram.longCounts.forEach(this::addCount);
+        }
+        if (buckets != null && histogram.longBuckets != null) {
+            histogram.longBuckets.forEach((length, bucket) -> bucket(length).append(bucket, tokenCount));
+        }
+        tokenCount += histogram.tokenCount;
+        prefixSums = null;
+    }
+
+    private boolean isCollected(int length) {
+        int[] ranges = collectedRanges;
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (length >= ranges[i] && length <= ranges[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if every length of the non-empty range is collected
+     */
+    private boolean covers(int from, int to) {
+        // Ranges never touch, so a covered range lies within a single one
+        for (int i = 0; i < collectedRanges.length; i += 2) {
+            if (from >= collectedRanges[i] && to <= collectedRanges[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Merges overlapping and adjacent ranges
+     *
+     * @param ranges [min, max] pairs in any order
+     * @return the union as disjoint, non-adjacent pairs in ascending order
+     */
+    private static int[] union(int[] ranges) {
+        long[] sorted = new long[ranges.length / 2];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = (long) ranges[2 * i] << 32 | ranges[2 * i + 1] & 0xFFFFFFFFL;
+        }
+        Arrays.sort(sorted);
+        int[] union = new int[ranges.length];
+        int size = 0;
+        for (long range : sorted) {
+            int min = (int) (range >> 32);
+            int max = (int) range;
+            if (size > 0 && min <= (long) union[size - 1] + 1) {
+                union[size - 1] = Math.max(union[size - 1], max);
+            } else {
+                union[size++] = min;
+                union[size++] = max;
+            }
+        }
+        return Arrays.copyOf(union, size);
+    }
+
+    private long[] prefixSums() {
+        if (prefixSums == null) {
+            long[] sums = new long[maxLength + 2];
+            for (int length = 0; length <= maxLength; length++) {
+                sums[length + 1] = sums[length] + counts[length];
+            }
+            prefixSums = sums;
+        }
+        return prefixSums;
+    }
+
+    int denseCapacity() {
+        return counts.length;
+    }
+
+    private void addCount(int length, long occurrences) {
+        if (length >= DENSE_LENGTHS) {
+            if (longCounts == null) {
+                longCounts = new TreeMap<>();
+            }
+            longCounts.merge(length, occurrences, Long::sum);
+            return;
+        }
+        if (length >= counts.length) {
+            int capacity = Math.min(DENSE_LENGTHS, Math.max(length + 1, counts.length * 2));
+            counts = Arrays.copyOf(counts, capacity);
+            if (buckets != null) {
+                buckets = Arrays.copyOf(buckets, capacity);
+            }
+        }
+        counts[length] += occurrences;
+        maxLength = Math.max(maxLength, length);
+    }
+
+    private Bucket bucket(int length) {
+        if (length >= DENSE_LENGTHS) {
+            if (longBuckets == null) {
+                longBuckets = new TreeMap<>();
+            }
+            return longBuckets.computeIfAbsent(length, key -> new Bucket());
+        }
+        Bucket bucket = buckets[length];
+        if (bucket == null) {
+            bucket = new Bucket();
+            buckets[length] = bucket;
+        }
+        return bucket;
+    }
+
+    /**
+     * Words of one length with the position of each word in the input
+     */
+    private static final class Bucket implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final ArrayList<String> words = new ArrayList<>();
+        private long[] ordinals = new long[8];
+        private int size;
+
+        private void add(String word, long ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size + (size >> 1));
+            }
+            words.add(word);
+            ordinals[size++] = ordinal;
+        }
+
+        private void append(Bucket other, long ordinalOffset) {
+            if (size + other.size > ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, Math.max(size + other.size, size + (size >> 1)));
+            }
+            for (int i = 0; i < other.size; i++) {
+                ordinals[size + i] = other.ordinals[i] + ordinalOffset;
+            }
+            words.addAll(other.words);
+            size += other.size;
+        }
+    }
+
+    /**
+     * Read position in a bucket, ordered by the input ordinal of its current word
+     */
+    private static final class Cursor implements Comparable<Cursor> {
+        private final Bucket bucket;
+        private int position;
+
+        private Cursor(Bucket bucket) {
+            this.bucket = bucket;
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            return Long.compare(bucket.ordinals[position], other.bucket.ordinals[other.position]);
+        }
+    }
+}
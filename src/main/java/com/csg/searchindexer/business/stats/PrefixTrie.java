@@ -0,0 +1,199 @@
+package com.csg.searchindexer.business.stats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sorted term dictionary with prefix range lookup
+ * The trie is built from terms in sorted order, so the terms below any node form one contiguous range
+ * of that order. A prefix walks one edge per char and lands on that range: counting the matching terms
+ * and their occurrences then takes constant time, and listing them takes time proportional to the matches.
+ * Nodes and edges live in flat arrays, numbered breadth first so the edges of a node are contiguous.
+ */
+public class PrefixTrie {
+    private final String[] terms;
+    // Occurrences of terms[0..i), so any range of terms is summed with one subtraction
+    private final long[] cumulativeFrequencies;
+    // Node i has the edges firstEdge[i] to firstEdge[i + 1], exclusive, sorted by label
+    private final int[] firstEdge;
+    private final char[] labels;
+    private final int[] targets;
+    // Node i covers terms[rangeStart[i]..rangeEnd[i])
+    private final int[] rangeStart;
+    private final int[] rangeEnd;
+
+    /**
+     * @param terms the distinct terms in ascending String order; the array is kept, so the caller must not modify it
+     * @param frequencies the number of occurrences of each term
+     * @throws IllegalArgumentException if the terms are not sorted and distinct
+     */
+    public PrefixTrie(String[] terms, long[] frequencies) {
+        if (frequencies.length != terms.length) {
+            throw new IllegalArgumentException("Expected " + terms.length + " frequencies: " + frequencies.length);
+        }
+        for (int i = 1; i < terms.length; i++) {
+            if (terms[i - 1].compareTo(terms[i]) >= 0) {
+                throw new IllegalArgumentException("Terms are not sorted and distinct at " + i + ": " + terms[i]);
+            }
+        }
+        this.terms = terms;
+        this.cumulativeFrequencies = new long[terms.length + 1];
+        for (int i = 0; i < terms.length; i++) {
+            cumulativeFrequencies[i + 1] = cumulativeFrequencies[i] + frequencies[i];
+        }
+
+        // Every node but the root is the end of one edge, and there is at most one node per char
+        long chars = 0;
+        for (String term : terms) {
+            chars += term.length();
+        }
+        if (chars >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many chars for one trie: " + chars);
+        }
+        int maxNodes = (int) chars + 1;
+        int[] starts = new int[maxNodes];
+        int[] ends = new int[maxNodes];
+        int[] depths = new int[maxNodes];
+        int[] edgeStarts = new int[maxNodes + 1];
+        char[] edgeLabels = new char[maxNodes];
+        int[] edgeTargets = new int[maxNodes];
+        ends[0] = terms.length;
+        int nodeCount = 1;
+        int edgeCount = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            edgeStarts[node] = edgeCount;
+            int depth = depths[node];
+            int i = starts[node];
+            if (i < ends[node] && terms[i].length() == depth) {
+                // The term ending here sorts before every longer term of the node
+                i++;
+            }
+            while (i < ends[node]) {
+                char label = terms[i].charAt(depth);
+                int end = i + 1;
+                while (end < ends[node] && terms[end].charAt(depth) == label) {
+                    end++;
+                }
+                starts[nodeCount] = i;
+                ends[nodeCount] = end;
+                depths[nodeCount] = depth + 1;
+                edgeLabels[edgeCount] = label;
+                edgeTargets[edgeCount++] = nodeCount++;
+                i = end;
+            }
+        }
+        edgeStarts[nodeCount] = edgeCount;
+        this.firstEdge = Arrays.copyOf(edgeStarts, nodeCount + 1);
+        this.labels = Arrays.copyOf(edgeLabels, edgeCount);
+        this.targets = Arrays.copyOf(edgeTargets, edgeCount);
+        this.rangeStart = Arrays.copyOf(starts, nodeCount);
+        this.rangeEnd = Arrays.copyOf(ends, nodeCount);
+    }
+
+    public int getTermCount() {
+        return terms.length;
+    }
+
+    public int getNodeCount() {
+        return rangeStart.length;
+    }
+
+    /**
+     * @param prefix the prefix to look up
+     * @param ignoreCase whether each code point of the prefix also matches its case variants, as in
+     * {@link CaseFolding}
+     * @return the number of distinct terms starting with the prefix
+     */
+    public int countTerms(String prefix, boolean ignoreCase) {
+        int count = 0;
+        for (int node : find(prefix, ignoreCase)) {
+            count += rangeEnd[node] - rangeStart[node];
+        }
+        return count;
+    }
+
+    /**
+     * @param prefix the prefix to look up
+     * @param ignoreCase whether each code point of the prefix also matches its case variants
+     * @return the total number of occurrences of the terms starting with the prefix
+     */
+    public long countOccurrences(String prefix, boolean ignoreCase) {
+        long count = 0;
+        for (int node : find(prefix, ignoreCase)) {
+            count += cumulativeFrequencies[rangeEnd[node]] - cumulativeFrequencies[rangeStart[node]];
+        }
+        return count;
+    }
+
+    /**
+     * @param prefix the prefix to look up
+     * @param ignoreCase whether each code point of the prefix also matches its case variants
+     * @return the distinct terms starting with the prefix, in ascending order
+     */
+    public List<String> terms(String prefix, boolean ignoreCase) {
+        int[] nodes = find(prefix, ignoreCase);
+        // Nodes at the same depth cover disjoint ranges, so ordering them by range orders the terms
+        long[] ranges = new long[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            ranges[i] = (long) rangeStart[nodes[i]] << 32 | rangeEnd[nodes[i]];
+        }
+        Arrays.sort(ranges);
+        List<String> matches = new ArrayList<>();
+        for (long range : ranges) {
+            matches.addAll(Arrays.asList(terms).subList((int) (range >>> 32), (int) range));
+        }
+        return Collections.unmodifiableList(matches);
+    }
+
+    /**
+     * Walks the prefix from the root
+     *
+     * @return the nodes reached by the prefix or, ignoring case, by any of its case variants
+     */
+    private int[] find(String prefix, boolean ignoreCase) {
+        if (!ignoreCase) {
+            int node = 0;
+            for (int i = 0; i < prefix.length() && node >= 0; i++) {
+                node = child(node, prefix.charAt(i));
+            }
+            return node >= 0 ? new int[]{node} : new int[0];
+        }
+
+        int[] nodes = {0};
+        int nodeCount = 1;
+        char[] chars = new char[2];
+        for (int i = 0; i < prefix.length() && nodeCount > 0; ) {
+            int codePoint = prefix.codePointAt(i);
+            i += Character.charCount(codePoint);
+            int[] variants = CaseFolding.variants(codePoint);
+            // Variants are distinct strings, so distinct nodes never reach the same child
+            int[] next = new int[nodeCount * variants.length];
+            int nextCount = 0;
+            for (int n = 0; n < nodeCount; n++) {
+                for (int variant : variants) {
+                    int length = Character.toChars(variant, chars, 0);
+                    int node = nodes[n];
+                    for (int c = 0; c < length && node >= 0; c++) {
+                        node = child(node, chars[c]);
+                    }
+                    if (node >= 0) {
+                        next[nextCount++] = node;
+                    }
+                }
+            }
+            nodes = next;
+            nodeCount = nextCount;
+        }
+        return Arrays.copyOf(nodes, nodeCount);
+    }
+
+    /**
+     * @return the node the edge with the label leads to, or -1 if the node has no such edge
+     */
+    private int child(int node, char label) {
+        int edge = Arrays.binarySearch(labels, firstEdge[node], firstEdge[node + 1], label);
+        return edge >= 0 ? targets[edge] : -1;
+    }
+}
@@ -0,0 +1,242 @@
+package com.csg.searchindexer.business.stats;
+
+import com.csg.searchindexer.business.rules.RuleAccumulator;
+
+import java.util.Map;
+
+/**
+ * Space-Saving summary of the most frequent words in a fixed number of counters
+ * A new word takes over the counter with the smallest count and inherits that count as its error, so a
+ * counter never undercounts its word and overcounts it by at most its error. Every word occurring more
+ * than totalCount / capacity times is guaranteed a counter. Counters sit in a min-heap by count and are
+ * found through an open-addressing table, so each word costs one probe and O(log capacity) sifting.
+ */
+public class SpaceSaving implements RuleAccumulator {
+    private static final long serialVersionUID = 1L;
+    public static final int MAX_CAPACITY = 1 << 24;
+
+    private final int capacity;
+    private final String[] terms;
+    private final long[] counts;
+    private final long[] errors;
+    // Counter indexes ordered as a min-heap by count, and the heap position of every counter
+    private final int[] heap;
+    private final int[] positions;
+    // Maps each word to its counter index
+    private final TermTable index = new TermTable();
+    private int size;
+    private long totalCount;
+
+    /**
+     * @param capacity the number of counters, at least the number of words that will be asked for
+     */
+    public SpaceSaving(int capacity) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be between 1 and " + MAX_CAPACITY + ": " + capacity);
+        }
+        this.capacity = capacity;
+        this.terms = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    @Override
+    public void accept(String word) {
+        add(word, 1);
+    }
+
+    @Override
+    public void accept(CharSequence word) {
+        add(word, 1);
+    }
+
+    /**
+     * Counts a word as if it had been accepted the given number of times
+     *
+     * @param word the word
+     * @param occurrences how often the word occurs
+     */
+    public void add(CharSequence word, long occurrences) {
+        totalCount += occurrences;
+        int hash = TermTable.hash(word);
+        int slot = index.find(word, hash);
+        if (!index.isEmpty(slot)) {
+            increment((int) index.value(slot), occurrences);
+            return;
+        }
+        if (size < capacity) {
+            int counter = size++;
+            slot = index.insert(slot, word, hash, counter);
+            terms[counter] = index.key(slot);
+            counts[counter] = occurrences;
+            errors[counter] = 0;
+            place(counter, counter);
+            siftUp(counter);
+            return;
+        }
+        // Evict the word with the smallest count; the new word may have occurred that often unseen
+        int counter = heap[0];
+        String evicted = terms[counter];
+        index.remove(index.find(evicted, TermTable.hash(evicted)));
+        slot = index.insert(index.find(word, hash), word, hash, counter);
+        terms[counter] = index.key(slot);
+        errors[counter] = counts[counter];
+        increment(counter, occurrences);
+    }
+
+    /**
+     * @param word the word to look up
+     * @return an upper bound of the number of times the word occurred
+     */
+    public long count(CharSequence word) {
+        int slot = index.find(word, TermTable.hash(word));
+        if (!index.isEmpty(slot)) {
+            return counts[(int) index.value(slot)];
+        }
+        // An unmonitored word occurred at most as often as the word that would be evicted for it
+        return size < capacity ? 0 : counts[heap[0]];
+    }
+
+    /**
+     * @param word the word to look up
+     * @return how much {@link #count} may overcount the word
+     */
+    public long error(CharSequence word) {
+        int slot = index.find(word, TermTable.hash(word));
+        if (!index.isEmpty(slot)) {
+            return errors[(int) index.value(slot)];
+        }
+        return count(word);
+    }
+
+    /**
+     * @param k the number of words to return
+     * @return the k words with the highest counts with those counts, most frequent first and ties in
+     * alphabetical order
+     */
+    public Map<String, Long> top(int k) {
+        return TopSelection.top(terms, counts, size, k);
+    }
+
+    /**
+     * @return every monitored word with its count, most frequent first
+     */
+    @Override
+    public Object result() {
+        return top(size);
+    }
+
+    /**
+     * Combines the summaries of two inputs into a summary of both
+     * A word missing from one summary is charged that summary's smallest count, which bounds how often
+     * it may have occurred there, and the highest combined counts keep a counter. Summaries that never
+     * evicted merge into exact counts.
+     */
+    @Override
+    public void merge(RuleAccumulator other) {
+        SpaceSaving summary = (SpaceSaving) other;
+        long missingHere = size < capacity ? 0 : counts[heap[0]];
+        long missingThere = summary.size < summary.capacity ? 0 : summary.counts[summary.heap[0]];
+
+        String[] candidates = new String[size + summary.size];
+        long[] candidateCounts = new long[candidates.length];
+        long[] candidateErrors = new long[candidates.length];
+        int candidateCount = 0;
+        for (int counter = 0; counter < size; counter++) {
+            int slot = summary.index.find(terms[counter], TermTable.hash(terms[counter]));
+            boolean shared = !summary.index.isEmpty(slot);
+            int theirs = shared ? (int) summary.index.value(slot) : -1;
+            candidates[candidateCount] = terms[counter];
+            candidateCounts[candidateCount] = counts[counter] + (shared ? summary.counts[theirs] : missingThere);
+            candidateErrors[candidateCount++] = errors[counter] + (shared ? summary.errors[theirs] : missingThere);
+        }
+        for (int counter = 0; counter < summary.size; counter++) {
+            String term = summary.terms[counter];
+            if (index.isEmpty(index.find(term, TermTable.hash(term)))) {
+                candidates[candidateCount] = term;
+                candidateCounts[candidateCount] = summary.counts[counter] + missingHere;
+                candidateErrors[candidateCount++] = summary.errors[counter] + missingHere;
+            }
+        }
+        Map<String, Long> kept = TopSelection.top(candidates, candidateCounts, candidateCount, capacity);
+
+        long mergedTotal = totalCount + summary.totalCount;
+        clear();
+        for (int i = 0; i < candidateCount; i++) {
+            if (kept.containsKey(candidates[i])) {
+                int counter = size++;
+                String term = candidates[i];
+                int hash = TermTable.hash(term);
+                index.insert(index.find(term, hash), term, hash, counter);
+                terms[counter] = term;
+                counts[counter] = candidateCounts[i];
+                errors[counter] = candidateErrors[i];
+                place(counter, counter);
+                siftUp(counter);
+            }
+        }
+        totalCount = mergedTotal;
+    }
+
+    private void clear() {
+        for (int counter = 0; counter < size; counter++) {
+            String term = terms[counter];
+            index.remove(index.find(term, TermTable.hash(term)));
+            terms[counter] = null;
+        }
+        size = 0;
+        totalCount = 0;
+    }
+
+    private void increment(int counter, long occurrences) {
+        counts[counter] += occurrences;
+        siftDown(positions[counter]);
+    }
+
+    private void siftUp(int position) {
+        int counter = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[counter]) {
+                break;
+            }
+            place(heap[parent], position);
+            position = parent;
+        }
+        place(counter, position);
+    }
+
+    private void siftDown(int position) {
+        int counter = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) {
+                child++;
+            }
+            if (counts[counter] <= counts[heap[child]]) {
+                break;
+            }
+            place(heap[child], position);
+            position = child;
+        }
+        place(counter, position);
+    }
+
+    private void place(int counter, int position) {
+        heap[position] = counter;
+        positions[counter] = position;
+    }
+}
@@ -0,0 +1,125 @@
+package com.csg.searchindexer.business.stats;
+
+import com.csg.searchindexer.business.rules.RuleAccumulator;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Exact occurrence count of every distinct word, shared by all exact top-k rules of an evaluation
+ * Counts live in an open-addressing table keyed by word, so a word that was seen before costs one
+ * probe and no allocation, even when it arrives as a view into the tokenizer's buffer. Memory grows
+ * with the vocabulary; use {@link SpaceSaving} when the vocabulary is unbounded.
+ */
+public class TermCounts implements RuleAccumulator {
+    private static final long serialVersionUID = 1L;
+
+    private final TermTable table = new TermTable();
+    private long totalCount;
+    // Built on demand for prefix rules and rebuilt once more words were counted
+    private transient PrefixTrie prefixTrie;
+    private transient long prefixTrieTotalCount;
+    private transient int prefixTrieDistinctCount;
+
+    @Override
+    public void accept(String word) {
+        add(word, 1);
+    }
+
+    @Override
+    public void accept(CharSequence word) {
+        add(word, 1);
+    }
+
+    /**
+     * Counts a word as if it had been accepted the given number of times
+     *
+     * @param word the word
+     * @param occurrences how often the word occurs
+     */
+    public void add(CharSequence word, long occurrences) {
+        int hash = TermTable.hash(word);
+        int slot = table.find(word, hash);
+        if (table.isEmpty(slot)) {
+            table.insert(slot, word, hash, occurrences);
+        } else {
+            table.addToValue(slot, occurrences);
+        }
+        totalCount += occurrences;
+    }
+
+    /**
+     * @param word the word to look up
+     * @return the number of times the word occurred
+     */
+    public long count(CharSequence word) {
+        int hash = TermTable.hash(word);
+        int slot = table.find(word, hash);
+        return table.isEmpty(slot) ? 0 : table.value(slot);
+    }
+
+    public int getDistinctCount() {
+        return table.size();
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @param k the number of words to return
+     * @return the k most frequent words with their counts, most frequent first and ties in alphabetical order
+     */
+    public Map<String, Long> top(int k) {
+        int capacity = table.capacity();
+        String[] terms = new String[capacity];
+        long[] counts = new long[capacity];
+        for (int slot = 0; slot < capacity; slot++) {
+            terms[slot] = table.key(slot);
+            counts[slot] = table.value(slot);
+        }
+        return TopSelection.top(terms, counts, capacity, k);
+    }
+
+    /**
+     * @return a prefix dictionary of the words counted so far, shared by all callers until more words are counted
+     */
+    public PrefixTrie prefixTrie() {
+        if (prefixTrie == null || prefixTrieTotalCount != totalCount || prefixTrieDistinctCount != table.size()) {
+            String[] terms = new String[table.size()];
+            int count = 0;
+            for (int slot = 0; slot < table.capacity(); slot++) {
+                if (!table.isEmpty(slot)) {
+                    terms[count++] = table.key(slot);
+                }
+            }
+            Arrays.sort(terms);
+            long[] frequencies = new long[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                frequencies[i] = count(terms[i]);
+            }
+            prefixTrie = new PrefixTrie(terms, frequencies);
+            prefixTrieTotalCount = totalCount;
+            prefixTrieDistinctCount = table.size();
+        }
+        return prefixTrie;
+    }
+
+    /**
+     * @return every word with its count, most frequent first
+     */
+    @Override
+    public Object result() {
+        return top(getDistinctCount());
+    }
+
+    @Override
+    public void merge(RuleAccumulator other) {
+        TermCounts counts = (TermCounts) other;
+        for (int slot = 0; slot < counts.table.capacity(); slot++) {
+            if (!counts.table.isEmpty(slot)) {
+                add(counts.table.key(slot), counts.table.value(slot));
+            }
+        }
+    }
+}
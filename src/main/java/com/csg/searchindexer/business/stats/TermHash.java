@@ -0,0 +1,34 @@
+package com.csg.searchindexer.business.stats;
+
+/**
+ * 64-bit hash of a word's characters for the probabilistic sketches
+ * A String and any view with the same characters hash alike, so tokenizer views are hashed in place
+ * without materializing them. FNV-1a over the chars is followed by the MurmurHash3 finalizer, which
+ * spreads every input bit over the whole result as the sketches' bucket and rank bits require.
+ */
+public final class TermHash {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private TermHash() {
+    }
+
+    /**
+     * @param word the word to hash
+     * @return a well-mixed 64-bit hash of the word's characters
+     */
+    public static long hash(CharSequence word) {
+        long hash = FNV_OFFSET_BASIS;
+        int length = word.length();
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ word.charAt(i)) * FNV_PRIME;
+        }
+        return mix(hash ^ length);
+    }
+
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
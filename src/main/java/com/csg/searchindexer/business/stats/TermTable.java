@@ -0,0 +1,134 @@
+package com.csg.searchindexer.business.stats;
+
+import java.io.Serializable;
+
+/**
+ * Open-addressing map from words to long values that is looked up by any CharSequence
+ * Linear probing over parallel arrays that keep every key's hash, so looking up a tokenizer view
+ * compares characters in place and a word is only materialized when it is inserted.
+ */
+final class TermTable implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private long[] values = new long[INITIAL_CAPACITY];
+    private int size;
+
+    static int hash(CharSequence word) {
+        long hash = TermHash.hash(word);
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of slots; keys and values are read by slot from 0 to this value, exclusive
+     */
+    int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * @return the key in the slot, or null if the slot is empty
+     */
+    String key(int slot) {
+        return keys[slot];
+    }
+
+    long value(int slot) {
+        return values[slot];
+    }
+
+    void setValue(int slot, long value) {
+        values[slot] = value;
+    }
+
+    void addToValue(int slot, long delta) {
+        values[slot] += delta;
+    }
+
+    /**
+     * @param word the word to look up
+     * @param hash the word's {@link #hash(CharSequence)}
+     * @return the slot holding the word, or the empty slot where it would be inserted
+     */
+    int find(CharSequence word, int hash) {
+        int mask = keys.length - 1;
+        int slot = hash & mask;
+        while (keys[slot] != null && !(hashes[slot] == hash && keys[slot].contentEquals(word))) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    boolean isEmpty(int slot) {
+        return keys[slot] == null;
+    }
+
+    /**
+     * Inserts a word that {@link #find} did not find
+     *
+     * @param slot the empty slot returned by find
+     * @param word the word, materialized with toString
+     * @param hash the word's hash
+     * @param value the initial value
+     * @return the word's slot, which differs from the given slot if the table grew
+     */
+    int insert(int slot, CharSequence word, int hash, long value) {
+        String key = word.toString();
+        keys[slot] = key;
+        hashes[slot] = hash;
+        values[slot] = value;
+        if (++size > keys.length * 3 / 4) {
+            rehash();
+            slot = find(key, hash);
+        }
+        return slot;
+    }
+
+    /**
+     * Removes the word in a slot, shifting later entries of its probe run back so lookups still find them
+     *
+     * @param slot a slot holding a word
+     */
+    void remove(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+            int home = hashes[next] & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                hashes[hole] = hashes[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = null;
+        size--;
+    }
+
+    private void rehash() {
+        String[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        long[] oldValues = values;
+        keys = new String[oldKeys.length * 2];
+        hashes = new int[oldKeys.length * 2];
+        values = new long[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+            if (oldKeys[oldSlot] != null) {
+                int slot = oldHashes[oldSlot] & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[oldSlot];
+                hashes[slot] = oldHashes[oldSlot];
+                values[slot] = oldValues[oldSlot];
+            }
+        }
+    }
+}
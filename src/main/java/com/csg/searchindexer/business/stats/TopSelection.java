@@ -0,0 +1,88 @@
+package com.csg.searchindexer.business.stats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Selects the most frequent terms with a bounded min-heap
+ * Terms are ranked by count, then alphabetically, so equal counts give the same result whatever order
+ * the terms were counted in. Selection takes O(n log k) time and O(k) extra memory.
+ */
+final class TopSelection {
+
+    private TopSelection() {
+    }
+
+    /**
+     * @param terms terms by index; null entries are skipped
+     * @param counts counts by index
+     * @param length the number of indexes to consider
+     * @param k the number of terms to select
+     * @return up to k terms with their counts, most frequent first
+     */
+    static Map<String, Long> top(String[] terms, long[] counts, int length, int k) {
+        int[] heap = new int[Math.max(0, Math.min(k, length))];
+        int size = 0;
+        for (int i = 0; i < length; i++) {
+            if (terms[i] == null) {
+                continue;
+            }
+            if (size < heap.length) {
+                heap[size] = i;
+                siftUp(heap, size++, terms, counts);
+            } else if (size > 0 && ranksBefore(i, heap[0], terms, counts)) {
+                heap[0] = i;
+                siftDown(heap, size, terms, counts);
+            }
+        }
+        // Popping the weakest term first fills the result from the back
+        int[] ordered = new int[size];
+        for (int remaining = size; remaining > 0; remaining--) {
+            ordered[remaining - 1] = heap[0];
+            heap[0] = heap[remaining - 1];
+            siftDown(heap, remaining - 1, terms, counts);
+        }
+        Map<String, Long> top = new LinkedHashMap<>();
+        for (int i : ordered) {
+            top.put(terms[i], counts[i]);
+        }
+        return top;
+    }
+
+    private static boolean ranksBefore(int a, int b, String[] terms, long[] counts) {
+        return counts[a] != counts[b] ? counts[a] > counts[b] : terms[a].compareTo(terms[b]) < 0;
+    }
+
+    private static void siftUp(int[] heap, int position, String[] terms, long[] counts) {
+        int entry = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!ranksBefore(heap[parent], entry, terms, counts)) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = entry;
+    }
+
+    private static void siftDown(int[] heap, int size, String[] terms, long[] counts) {
+        int position = 0;
+        int entry = heap[0];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && ranksBefore(heap[child], heap[child + 1], terms, counts)) {
+                child++;
+            }
+            if (!ranksBefore(entry, heap[child], terms, counts)) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = entry;
+    }
+}
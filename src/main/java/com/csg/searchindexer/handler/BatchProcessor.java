@@ -0,0 +1,197 @@
+package com.csg.searchindexer.handler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Processes many files with one FileProcessor configuration in a single JVM
+ * Each file runs on its own virtual thread; a semaphore bounds how many files are read at once
+ */
+public class BatchProcessor {
+    private static final Logger LOGGER = Logger.getLogger(BatchProcessor.class.getName());
+    public static final int DEFAULT_MAX_IN_FLIGHT = 64;
+
+    private final FileProcessor processor;
+    private final int maxInFlight;
+
+    public BatchProcessor(FileProcessor processor) {
+        this(processor, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    public BatchProcessor(FileProcessor processor, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Max in-flight files must be at least 1: " + maxInFlight);
+        }
+        this.processor = processor;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Processes the given files concurrently
+     * Files that fail are reported in the result and left out of the aggregate
+     *
+     * @param files the files to process
+     * @return per-file and aggregated rule results
+     * @throws InterruptedException if the calling thread is interrupted while waiting for files
+     */
+    public BatchResult process(List<Path> files) throws InterruptedException {
+        long start = System.nanoTime();
+        boolean metered = processor.isMetricsEnabled();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        List<Future<FusedRuleEvaluator>> futures = new ArrayList<>(files.size());
+        List<ProcessingMetrics> fileMetrics = new ArrayList<>(files.size());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Path file : files) {
+                ProcessingMetrics metrics = metered ? new ProcessingMetrics() : null;
+                fileMetrics.add(metrics);
+                futures.add(executor.submit(() -> {
+                    inFlight.acquire();
+                    try {
+                        return processor.evaluate(file, metrics);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+
+            Map<Path, Map<String, Object>> fileResults = new LinkedHashMap<>();
+            Map<Path, IOException> failures = new LinkedHashMap<>();
+            FusedRuleEvaluator aggregate = processor.newEvaluator();
+            ProcessingMetrics batchMetrics = metered ? new ProcessingMetrics() : null;
+            for (int i = 0; i < files.size(); i++) {
+                Path file = files.get(i);
+                try {
+                    FusedRuleEvaluator evaluator = futures.get(i).get();
+                    fileResults.put(file, evaluator.results(fileMetrics.get(i)));
+                    aggregate.merge(evaluator);
+                    if (metered) {
+                        batchMetrics.merge(fileMetrics.get(i));
+                    }
+                } catch (ExecutionException e) {
+                    failures.put(file, toIOException(e.getCause()));
+                    LOGGER.log(Level.WARNING, "Failed to process file: " + file, e.getCause());
+                }
+            }
+            LOGGER.log(Level.INFO, "Processed {0} files, {1} failed", new Object[]{fileResults.size(), failures.size()});
+
+            Map<String, Object> aggregatedResults = aggregate.results(batchMetrics);
+            if (metered) {
+                batchMetrics.setElapsedNanos(System.nanoTime() - start);
+            }
+            return new BatchResult(fileResults, aggregatedResults, failures, batchMetrics);
+        }
+    }
+
+    /**
+     * Expands command line inputs into a list of files
+     * An input can be a file, a directory (walked recursively), a glob such as {@code logs/*.txt}
+     * or {@code @list.txt} naming a file that lists one input per line
+     *
+     * @param inputs the inputs to expand
+     * @return the matching regular files, without duplicates, in input order
+     * @throws IOException if a directory or list file cannot be read
+     */
+    public static List<Path> expandInputs(List<String> inputs) throws IOException {
+        Set<Path> files = new LinkedHashSet<>();
+        for (String input : inputs) {
+            if (input.startsWith("@")) {
+                List<String> listed = Files.readAllLines(Paths.get(input.substring(1))).stream()
+                        .map(String::trim)
+                        .filter(line -> !line.isEmpty())
+                        .collect(Collectors.toList());
+                files.addAll(expandInputs(listed));
+            } else if (isGlob(input)) {
+                files.addAll(expandGlob(input));
+            } else {
+                Path path = Paths.get(input);
+                if (Files.isDirectory(path)) {
+                    files.addAll(walk(path, file -> true, file -> file));
+                } else {
+                    files.add(path);
+                }
+            }
+        }
+        return new ArrayList<>(files);
+    }
+
+    /**
+     * Tests whether an input names more than a single file
+     *
+     * @param input a command line input
+     * @return true for directories, globs and file lists
+     */
+    public static boolean isBatchInput(String input) {
+        return input.startsWith("@") || isGlob(input) || Files.isDirectory(Paths.get(input));
+    }
+
+    private static boolean isGlob(String input) {
+        return globStart(input) >= 0;
+    }
+
+    private static int globStart(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '{') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static List<Path> expandGlob(String glob) throws IOException {
+        // Walk from the deepest directory named before the first glob character
+        int wildcard = globStart(glob);
+        int separator = Math.max(glob.lastIndexOf('/', wildcard), glob.lastIndexOf(File.separatorChar, wildcard));
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        if (separator < 0) {
+            Path workingDirectory = Paths.get("").toAbsolutePath();
+            return walk(workingDirectory, file -> matcher.matches(workingDirectory.relativize(file)),
+                    workingDirectory::relativize);
+        }
+        Path base = Paths.get(glob.substring(0, separator + 1));
+        if (!Files.isDirectory(base)) {
+            return new ArrayList<>();
+        }
+        return walk(base, matcher::matches, file -> file);
+    }
+
+    private static List<Path> walk(Path directory, Predicate<Path> filter, UnaryOperator<Path> mapper) throws IOException {
+        try (Stream<Path> stream = Files.walk(directory)) {
+            return stream.filter(Files::isRegularFile)
+                    .filter(filter)
+                    .map(mapper)
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static IOException toIOException(Throwable cause) {
+        return cause instanceof IOException ? (IOException) cause : new IOException(cause);
+    }
+}
@@ -0,0 +1,53 @@
+package com.csg.searchindexer.handler;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Outcome of a batch run: rule results per file, merged over all files, and failed files
+ */
+public class BatchResult {
+    private final Map<Path, Map<String, Object>> fileResults;
+    private final Map<String, Object> aggregatedResults;
+    private final Map<Path, IOException> failures;
+    private final ProcessingMetrics metrics;
+
+    BatchResult(Map<Path, Map<String, Object>> fileResults, Map<String, Object> aggregatedResults,
+                Map<Path, IOException> failures, ProcessingMetrics metrics) {
+        this.fileResults = Collections.unmodifiableMap(fileResults);
+        this.aggregatedResults = Collections.unmodifiableMap(aggregatedResults);
+        this.failures = Collections.unmodifiableMap(failures);
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return rule results for every successfully processed file, in input order
+     */
+    public Map<Path, Map<String, Object>> getFileResults() {
+        return fileResults;
+    }
+
+    /**
+     * @return rule results over all successfully processed files, as if they were one input in input order
+     */
+    public Map<String, Object> getAggregatedResults() {
+        return aggregatedResults;
+    }
+
+    /**
+     * @return the error for every file that could not be processed, in input order
+     */
+    public Map<Path, IOException> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return the metrics summed over all successfully processed files with the wall-clock time of the
+     * whole batch, or null if metrics are disabled
+     */
+    public ProcessingMetrics getMetrics() {
+        return metrics;
+    }
+}
@@ -0,0 +1,323 @@
+package com.csg.searchindexer.handler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps rule results for a directory up to date as files land in it
+ * Create and modify events are debounced per file, so a file is indexed once it has been quiet for the
+ * debounce interval instead of on every write. Each file's rule state is kept, a changed file replaces
+ * its previous state and a deleted file drops it, so the aggregate never counts a file twice.
+ * Subdirectories are watched too, including ones created or moved in later; a deleted, moved or renamed
+ * directory drops the state of every file that was indexed under its old path.
+ */
+public class DirectoryWatcher implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(DirectoryWatcher.class.getName());
+    public static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(500);
+
+    private final FileProcessor processor;
+    private final Path directory;
+    private final long debounceNanos;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+    // Due time per file with pending changes, in System.nanoTime units
+    private final Map<Path, Long> pending = new HashMap<>();
+    // Per-file rule state in the order files were first indexed
+    private final Map<Path, FusedRuleEvaluator> states = new LinkedHashMap<>();
+    private FusedRuleEvaluator aggregate;
+    private Listener listener = new Listener() {
+    };
+
+    /**
+     * Receives the outcome of every debounced change, on the watching thread
+     */
+    public interface Listener {
+
+        default void indexed(Path file, Map<String, Object> results) {
+        }
+
+        default void removed(Path file) {
+        }
+
+        default void failed(Path file, IOException error) {
+        }
+
+        /**
+         * Called after the initial scan and after each round of debounced changes that changed the aggregate
+         */
+        default void aggregateChanged() {
+        }
+    }
+
+    public DirectoryWatcher(FileProcessor processor, Path directory) throws IOException {
+        this(processor, directory, DEFAULT_DEBOUNCE);
+    }
+
+    /**
+     * @param processor the processor whose rules index every file
+     * @param directory the directory to watch
+     * @param debounce how long a file must be quiet before it is indexed
+     * @throws IOException if the directory cannot be watched
+     */
+    public DirectoryWatcher(FileProcessor processor, Path directory, Duration debounce) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            throw new IOException("Not a directory: " + directory);
+        }
+        this.processor = processor;
+        this.directory = directory;
+        this.debounceNanos = debounce.toNanos();
+        this.watchService = directory.getFileSystem().newWatchService();
+        this.aggregate = processor.newEvaluator();
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Indexes the files already in the directory, then indexes changes until {@link #close()} is called
+     *
+     * @throws IOException if the directory cannot be read
+     * @throws InterruptedException if the thread is interrupted while waiting for changes
+     */
+    public void run() throws IOException, InterruptedException {
+        try {
+            // Register before scanning, so files written during the scan are not missed
+            for (Path file : registerTree(directory)) {
+                index(file);
+            }
+            listener.aggregateChanged();
+            while (true) {
+                Long nextDue = pending.values().stream().min(Long::compare).orElse(null);
+                WatchKey key = nextDue == null
+                        ? watchService.take()
+                        : watchService.poll(Math.max(0, nextDue - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (key != null) {
+                    handle(key);
+                }
+                indexDueFiles();
+            }
+        } catch (ClosedWatchServiceException e) {
+            LOGGER.log(Level.INFO, "Stopped watching {0}", directory);
+        }
+    }
+
+    /**
+     * @return the rule results over the current state of every indexed file, in the order files were
+     * first indexed
+     */
+    public synchronized Map<String, Object> getAggregatedResults() {
+        if (aggregate == null) {
+            // A file was replaced or removed, so its old contribution has to be left out
+            aggregate = processor.newEvaluator();
+            for (FusedRuleEvaluator state : states.values()) {
+                aggregate.merge(state);
+            }
+        }
+        return aggregate.results();
+    }
+
+    /**
+     * @return the number of files whose results are part of the aggregate
+     */
+    public synchronized int getFileCount() {
+        return states.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    private void handle(WatchKey key) throws IOException {
+        Path watched = watchedDirectories.get(key);
+        if (watched == null) {
+            // Events queued before the directory was moved away and its key cancelled
+            return;
+        }
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were lost, so every file has to be looked at again, including ones that vanished
+                LOGGER.log(Level.WARNING, "Watch events overflowed, rescanning {0}", directory);
+                for (Path file : registerTree(directory)) {
+                    schedule(file);
+                }
+                for (Path file : indexedFiles()) {
+                    schedule(file);
+                }
+                continue;
+            }
+            Path path = watched.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                schedule(path);
+            } else if (Files.isDirectory(path)) {
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                    for (Path file : registerTree(path)) {
+                        schedule(file);
+                    }
+                }
+            } else {
+                schedule(path);
+            }
+        }
+        if (!key.reset()) {
+            watchedDirectories.remove(key);
+        }
+    }
+
+    private void schedule(Path file) {
+        pending.put(file, System.nanoTime() + debounceNanos);
+    }
+
+    private void indexDueFiles() {
+        long now = System.nanoTime();
+        List<Path> due = new ArrayList<>();
+        pending.entrySet().removeIf(entry -> {
+            if (entry.getValue() - now <= 0) {
+                due.add(entry.getKey());
+                return true;
+            }
+            return false;
+        });
+        due.sort(null);
+        boolean changed = false;
+        for (Path file : due) {
+            // A path that is no longer a file may have been a directory, so everything below it is checked
+            changed |= Files.isRegularFile(file) ? index(file) : removeMissing(file);
+        }
+        if (changed) {
+            listener.aggregateChanged();
+        }
+    }
+
+    private boolean index(Path file) {
+        FusedRuleEvaluator state;
+        try {
+            state = processor.evaluate(file);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to index file: " + file, e);
+            listener.failed(file, e);
+            return false;
+        }
+        synchronized (this) {
+            if (states.put(file, state) != null) {
+                aggregate = null;
+            } else if (aggregate != null) {
+                aggregate.merge(state);
+            }
+        }
+        listener.indexed(file, state.results());
+        return true;
+    }
+
+    /**
+     * Drops the state of every indexed file at or below a path that no longer exists there
+     * Also stops watching directories that were moved away, so their events no longer resolve to old paths.
+     */
+    private boolean removeMissing(Path path) {
+        List<Path> removed = new ArrayList<>();
+        synchronized (this) {
+            states.keySet().removeIf(file -> {
+                if (file.startsWith(path) && !Files.isRegularFile(file)) {
+                    removed.add(file);
+                    return true;
+                }
+                return false;
+            });
+            if (!removed.isEmpty()) {
+                aggregate = null;
+            }
+        }
+        watchedDirectories.entrySet().removeIf(entry -> {
+            if (entry.getValue().startsWith(path) && !Files.isDirectory(entry.getValue())) {
+                entry.getKey().cancel();
+                return true;
+            }
+            return false;
+        });
+        for (Path file : removed) {
+            LOGGER.log(Level.INFO, "Removed {0} from the results", file);
+            listener.removed(file);
+        }
+        return !removed.isEmpty();
+    }
+
+    private synchronized List<Path> indexedFiles() {
+        return new ArrayList<>(states.keySet());
+    }
+
+    /**
+     * Watches a directory and its subdirectories
+     * A subdirectory that vanishes or cannot be read while the tree is walked is logged and skipped; if it
+     * was deleted or moved, its own event cleans up after it.
+     *
+     * @return the regular files found, sorted
+     * @throws IOException if the watched directory itself cannot be watched
+     */
+    private List<Path> registerTree(Path root) throws IOException {
+        List<Path> files = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path path, BasicFileAttributes attributes) throws IOException {
+                try {
+                    watchedDirectories.put(path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE), path);
+                } catch (IOException e) {
+                    skip(path, e);
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path path, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile()) {
+                    files.add(path);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path path, IOException e) throws IOException {
+                skip(path, e);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path path, IOException e) throws IOException {
+                if (e != null) {
+                    skip(path, e);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            private void skip(Path path, IOException e) throws IOException {
+                if (path.equals(directory)) {
+                    throw e;
+                }
+                LOGGER.log(Level.WARNING, "Skipping " + path + " while watching " + directory, e);
+            }
+        });
+        files.sort(null);
+        return files;
+    }
+}
@@ -0,0 +1,107 @@
+package com.csg.searchindexer.handler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Identity of a file's content at one point in time
+ * Size and modification time are read eagerly; the SHA-256 content hash is computed on first use only
+ */
+public final class FileFingerprint {
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final long size;
+    private final long lastModified;
+    private String contentHash;
+
+    private FileFingerprint(Path path, long size, long lastModified) {
+        this.path = path;
+        this.size = size;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Reads the size and modification time of a file without touching its content
+     *
+     * @param path the file to fingerprint
+     * @return the fingerprint of the file
+     * @throws IOException if the file attributes cannot be read
+     */
+    public static FileFingerprint of(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return new FileFingerprint(path.toAbsolutePath().normalize(), attributes.size(),
+                attributes.lastModifiedTime().toMillis());
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return true if the content hash was already computed
+     */
+    public boolean hasContentHash() {
+        return contentHash != null;
+    }
+
+    /**
+     * Tests whether the file still has the size and modification time of this fingerprint
+     * Results computed after the fingerprint was taken only describe it when this still holds afterwards
+     *
+     * @return true if the file is unchanged as far as its attributes tell
+     * @throws IOException if the file attributes cannot be read, for example because the file was deleted
+     */
+    public boolean isCurrent() throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return attributes.size() == size && attributes.lastModifiedTime().toMillis() == lastModified;
+    }
+
+    /**
+     * Returns the hex encoded SHA-256 of the file content, reading the file the first time it is called
+     *
+     * @return the content hash
+     * @throws IOException if the file cannot be read
+     */
+    public String getContentHash() throws IOException {
+        if (contentHash == null) {
+            contentHash = hash(path);
+        }
+        return contentHash;
+    }
+
+    private static String hash(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
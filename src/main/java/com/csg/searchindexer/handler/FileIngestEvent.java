@@ -0,0 +1,33 @@
+package com.csg.searchindexer.handler;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event spanning the evaluation of one file, from the cache lookup to the evaluator state
+ */
+@Name("com.csg.searchindexer.FileIngest")
+@Label("File Ingest")
+@Category("Search Indexer")
+@Description("Evaluation of all rules over one file")
+@StackTrace(false)
+class FileIngestEvent extends jdk.jfr.Event {
+    @Label("Path")
+    String path;
+
+    @Label("Bytes")
+    @Description("Size of the file; files answered from the cache are not read")
+    @DataAmount
+    long bytes;
+
+    @Label("Words")
+    long tokens;
+
+    @Label("Cached")
+    @Description("Whether the rule state came from the incremental cache")
+    boolean cached;
+}
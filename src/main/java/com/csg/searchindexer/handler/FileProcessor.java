@@ -1,69 +1,355 @@
 package com.csg.searchindexer.handler;
 
+import com.csg.searchindexer.business.RuleCompiler;
+import com.csg.searchindexer.business.TokenDispatcher;
 import com.csg.searchindexer.business.rules.ProcessingRule;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 /**
  * FileProcessor handles loading and tokenizing text files
- * Applies processing rules and collects results
+ * Streams words straight from the tokenizer into the rules in a single pass and collects results.
+ * Files may be processed concurrently; configuration changes apply to files started afterwards.
  */
 public class FileProcessor {
     private static final Logger LOGGER = Logger.getLogger(FileProcessor.class.getName());
-    private final List<ProcessingRule> rules;
-    private static final Pattern WORD_DELIMITER = Pattern.compile("\\s+|[,.;:!?\"()\\[\\]{}]");
+    // Replaced, never modified, so each file sees one consistent rule list
+    private volatile List<ProcessingRule> rules;
+    private volatile Tokenizer tokenizer;
+    private volatile TokenizerMode tokenizerMode = TokenizerMode.READER;
+    private volatile TermInterner termInterner;
+    private volatile ParallelFileEvaluator parallelEvaluator;
+    private volatile IncrementalCache incrementalCache;
+    private volatile ResultCache resultCache;
+    private boolean compileRules;
+    private TokenDispatcher dispatcher;
+    private List<ProcessingRule> dispatcherRules;
+    private volatile boolean metricsEnabled;
+
+    /**
+     * Available strategies for reading and splitting a file into words
+     */
+    public enum TokenizerMode {
+        READER,
+        MEMORY_MAPPED,
+        PIPELINED
+    }
 
     public FileProcessor() {
-        this.rules = new ArrayList<>();
+        this.rules = List.of();
+        this.tokenizer = new ReaderTokenizer();
     }
 
-    public void addRule(ProcessingRule rule) {
-        rules.add(rule);
+    public synchronized void addRule(ProcessingRule rule) {
+        List<ProcessingRule> updated = new ArrayList<>(rules);
+        updated.add(rule);
+        rules = Collections.unmodifiableList(updated);
     }
 
-    public Map<String, Object> processFile(String filePath) throws IOException {
-        LOGGER.log(Level.INFO, "Processing file: {0}", filePath);
+    /**
+     * Enables compiled rule dispatch
+     * The rules are compiled once by {@link RuleCompiler} into a dispatcher the JIT can inline, and
+     * recompiled after rules are added; results are identical to the interpreted dispatch
+     *
+     * @param enabled whether to compile the rules
+     */
+    public synchronized void setRuleCompilation(boolean enabled) {
+        this.compileRules = enabled;
+        this.dispatcher = null;
+        this.dispatcherRules = null;
+    }
 
-        Path path = Paths.get(filePath);
-        if (!Files.exists(path)) {
-            throw new IOException("File does not exist: " + filePath);
+    /**
+     * Selects how files are read and split into words
+     * All modes produce identical words; MEMORY_MAPPED avoids per-line and per-word garbage on large files,
+     * and PIPELINED also overlaps reading and tokenizing with rule evaluation on files of 2 MB and more
+     * when more than one processor is available
+     *
+     * @param mode the tokenizer mode to use
+     */
+    public void setTokenizerMode(TokenizerMode mode) {
+        switch (mode) {
+            case READER:
+                tokenizer = new ReaderTokenizer(termInterner);
+                break;
+            case MEMORY_MAPPED:
+                tokenizer = new MappedFileTokenizer(termInterner);
+                break;
+            case PIPELINED:
+                tokenizer = new PipelinedTokenizer(termInterner);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown tokenizer mode: " + mode);
         }
+        tokenizerMode = mode;
+    }
 
-        List<String> words = tokenizeFile(path);
-        LOGGER.log(Level.INFO, "Extracted {0} words from file", words.size());
+    /**
+     * Enables term interning
+     * Repeated words are replaced by one canonical String shared by all rules and results; with
+     * MEMORY_MAPPED, repeated words are also recognised from their bytes without being decoded again
+     *
+     * @param enabled whether to intern words
+     */
+    public void setTermInterning(boolean enabled) {
+        termInterner = enabled ? new TermInterner() : null;
+        setTokenizerMode(tokenizerMode);
+        if (parallelEvaluator != null) {
+            parallelEvaluator = parallelEvaluator.withTokenizer(new MappedFileTokenizer(termInterner));
+        }
+    }
+
+    /**
+     * @return the interner shared by all files, or null if interning is disabled
+     */
+    public TermInterner getTermInterner() {
+        return termInterner;
+    }
 
-        Map<String, Object> results = new HashMap<>();
-        for (ProcessingRule rule : rules) {
-            Object result = rule.process(words);
-            results.put(rule.getRuleName(), result);
+    /**
+     * Sets how many threads evaluate a single file
+     * With more than one thread, files of at least two 1 MB chunks are split into byte ranges aligned to
+     * word delimiters, processed on a fork-join pool and merged in order; results are identical to
+     * the sequential path. Split files are always read through a {@link MappedFileTokenizer}, because
+     * byte ranges need random access, so the tokenizer mode only applies to files too small to split.
+     *
+     * @param parallelism the number of worker threads, 1 for sequential processing
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        if (parallelEvaluator != null) {
+            parallelEvaluator.shutdown();
         }
+        parallelEvaluator = parallelism > 1 ? new ParallelFileEvaluator(new ForkJoinPool(parallelism), new MappedFileTokenizer(termInterner)) : null;
+    }
+
+    /**
+     * Enables incremental re-indexing
+     * Files whose size and modification time (or content hash) match their cache entry for the current
+     * rules are not read again; their cached rule state is merged like freshly computed state
+     *
+     * @param cache the cache to consult and update, or null to always process files
+     */
+    public void setIncrementalCache(IncrementalCache cache) {
+        this.incrementalCache = cache;
+    }
 
+    public IncrementalCache getIncrementalCache() {
+        return incrementalCache;
+    }
+
+    /**
+     * Enables the in-memory result cache
+     * {@link #processFile} then answers a file whose size and modification time are unchanged since it
+     * was processed with equal rules straight from memory. Rules are compared by their descriptors.
+     *
+     * @param cache the cache to consult and update, or null to always evaluate files
+     */
+    public void setResultCache(ResultCache cache) {
+        this.resultCache = cache;
+    }
+
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Enables processing metrics
+     * Evaluations then sample one word in 64 to estimate tokenizer and
+     * per-rule time and allocation; when disabled, words take exactly the unmetered path
+     *
+     * @param enabled whether to collect metrics
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        this.metricsEnabled = enabled;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * Processes a file and returns its rule results
+     *
+     * @param filePath the file to process
+     * @return the rule results keyed by rule name; unmodifiable and shared with other callers if a result cache is set
+     * @throws IOException if the file does not exist or cannot be read
+     */
+    public Map<String, Object> processFile(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        ResultCache resultCache = this.resultCache;
+        if (resultCache == null || !Files.exists(path)) {
+            return evaluate(path).results();
+        }
+        List<ProcessingRule> rules = this.rules;
+        String configuration = IncrementalCache.configurationKey(rules);
+        FileFingerprint fingerprint = FileFingerprint.of(path);
+        Map<String, Object> results = resultCache.get(fingerprint, configuration);
+        if (results == null) {
+            ResultCache.hashIfRacy(fingerprint);
+            results = resultCache.put(fingerprint, configuration, evaluate(path, null, rules).results());
+        }
         return results;
     }
 
-    private List<String> tokenizeFile(Path filePath) throws IOException {
-        List<String> words = new ArrayList<>();
+    /**
+     * Processes a file and returns its results together with the metrics of the run
+     *
+     * @param filePath the file to process
+     * @return the rule results, and the metrics if they are enabled
+     * @throws IOException if the file does not exist or cannot be read
+     */
+    public ProcessingReport processFileWithMetrics(String filePath) throws IOException {
+        if (!metricsEnabled) {
+            return new ProcessingReport(processFile(filePath), null);
+        }
+        long start = System.nanoTime();
+        ProcessingMetrics metrics = new ProcessingMetrics();
+        Map<String, Object> results = evaluate(Paths.get(filePath), metrics).results(metrics);
+        metrics.setElapsedNanos(System.nanoTime() - start);
+        return new ProcessingReport(results, metrics);
+    }
+
+    /**
+     * Runs all rules over one file and returns the evaluator state, so it can be merged with other files
+     *
+     * @param path the file to process
+     * @return the evaluator holding the rule state for the file
+     * @throws IOException if the file does not exist or cannot be read
+     */
+    FusedRuleEvaluator evaluate(Path path) throws IOException {
+        return evaluate(path, null);
+    }
+
+    /**
+     * Runs all rules over one file and records the cache, tokenizer and rule costs
+     *
+     * @param path the file to process
+     * @param metrics the metrics to add to, or null to run unmetered
+     * @return the evaluator holding the rule state for the file
+     * @throws IOException if the file does not exist or cannot be read
+     */
+    FusedRuleEvaluator evaluate(Path path, ProcessingMetrics metrics) throws IOException {
+        return evaluate(path, metrics, rules);
+    }
+
+    private FusedRuleEvaluator evaluate(Path path, ProcessingMetrics metrics, List<ProcessingRule> rules) throws IOException {
+        LOGGER.log(Level.INFO, "Processing file: {0}", path);
+
+        if (!Files.exists(path)) {
+            throw new IOException("File does not exist: " + path);
+        }
+
+        FileIngestEvent ingest = new FileIngestEvent();
+        ingest.begin();
+        Tokenizer tokenizer = this.tokenizer;
+        ParallelFileEvaluator parallelEvaluator = this.parallelEvaluator;
+        IncrementalCache incrementalCache = this.incrementalCache;
+        boolean metered = metrics != null;
+        FileFingerprint fingerprint = null;
+        if (incrementalCache != null) {
+            long start = metered ? System.nanoTime() : 0;
+            // Taken before reading, so a file modified while it is processed is picked up next run
+            fingerprint = FileFingerprint.of(path);
+            FusedRuleEvaluator cached = incrementalCache.load(fingerprint, rules);
+            if (cached == null) {
+                // Hashed before tokenizing, so the stored hash never describes newer content than the state
+                fingerprint.getContentHash();
+            }
+            if (metered) {
+                metrics.addStageNanos(ProcessingMetrics.Stage.CACHE, System.nanoTime() - start);
+            }
+            if (cached != null) {
+                LOGGER.log(Level.INFO, "Reused cached results for {0} words", cached.getTokenCount());
+                if (metered) {
+                    metrics.recordFile(0, cached.getTokenCount(), true);
+                }
+                commit(ingest, path, cached, true);
+                return cached;
+            }
+        }
+
+        FusedRuleEvaluator evaluator;
+        if (parallelEvaluator != null) {
+            evaluator = parallelEvaluator.evaluate(path, () -> newEvaluator(rules, metered));
+        } else {
+            evaluator = newEvaluator(rules, metered);
+            TokenizeEvent tokenize = new TokenizeEvent();
+            tokenize.begin();
+            if (metered && tokenizer instanceof PipelinedTokenizer) {
+                ((PipelinedTokenizer) tokenizer).tokenize(path, evaluator, metrics);
+            } else {
+                tokenizer.tokenize(path, evaluator);
+            }
+            if (tokenize.shouldCommit()) {
+                tokenize.path = path.toString();
+                tokenize.endOffset = Files.size(path);
+                tokenize.tokens = evaluator.getTokenCount();
+                tokenize.commit();
+            }
+        }
+        LOGGER.log(Level.INFO, "Extracted {0} words from file", evaluator.getTokenCount());
+        if (metered) {
+            metrics.recordFile(Files.size(path), evaluator.getTokenCount(), false);
+            evaluator.recordMetrics(metrics);
+        }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath.toFile()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] lineWords = WORD_DELIMITER.split(line);
-                words.addAll(Arrays.stream(lineWords)
-                        .filter(word -> !word.trim().isEmpty())
-                        .collect(Collectors.toList()));
+        if (incrementalCache != null) {
+            long start = metered ? System.nanoTime() : 0;
+            incrementalCache.store(fingerprint, evaluator, rules);
+            if (metered) {
+                metrics.addStageNanos(ProcessingMetrics.Stage.CACHE, System.nanoTime() - start);
             }
         }
 
-        return words;
+        commit(ingest, path, evaluator, false);
+        return evaluator;
+    }
+
+    private static void commit(FileIngestEvent event, Path path, FusedRuleEvaluator evaluator, boolean cached) throws IOException {
+        if (event.shouldCommit()) {
+            event.path = path.toString();
+            event.bytes = cached ? 0 : Files.size(path);
+            event.tokens = evaluator.getTokenCount();
+            event.cached = cached;
+            event.commit();
+        }
+    }
+
+    /**
+     * Creates an evaluator with no input yet, used as the starting point for merging files
+     *
+     * @return an empty evaluator for the configured rules
+     */
+    FusedRuleEvaluator newEvaluator() {
+        return newEvaluator(rules, false);
+    }
+
+    private FusedRuleEvaluator newEvaluator(List<ProcessingRule> rules, boolean metered) {
+        TokenDispatcher dispatcher = dispatcher(rules);
+        return new FusedRuleEvaluator(rules, metered ? new RuleMeter(dispatcher) : dispatcher);
+    }
+
+    /**
+     * @return the compiled dispatcher for the given rule list, or null for interpreted dispatch
+     */
+    private synchronized TokenDispatcher dispatcher(List<ProcessingRule> rules) {
+        if (!compileRules) {
+            return null;
+        }
+        if (dispatcherRules != rules) {
+            dispatcher = RuleCompiler.compile(new FusedRuleEvaluator(rules).accumulators());
+            dispatcherRules = rules;
+        }
+        return dispatcher;
     }
 }
@@ -0,0 +1,216 @@
+package com.csg.searchindexer.handler;
+
+import com.csg.searchindexer.business.RuleCompiler;
+import com.csg.searchindexer.business.TokenDispatcher;
+import com.csg.searchindexer.business.rules.ProcessingRule;
+import com.csg.searchindexer.business.rules.RuleAccumulator;
+import com.csg.searchindexer.business.rules.SharedStageRule;
+import com.csg.searchindexer.business.rules.StreamingRule;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fused execution engine for processing rules
+ * Walks the token stream once and dispatches every token to all rule accumulators. Shared stage rules
+ * with the same stage key are served by a single stage, so each distinct stage sees every token once.
+ */
+public class FusedRuleEvaluator implements TokenSink {
+    private final ProcessingRule[] rules;
+    // State each rule reads its result from, in rule order; shared stages appear once per rule
+    private final RuleAccumulator[] ruleStates;
+    // Distinct accumulators and stages that receive tokens
+    private final RuleAccumulator[] accumulators;
+    private final TokenDispatcher dispatcher;
+    private long tokenCount;
+
+    public FusedRuleEvaluator(List<ProcessingRule> rules) {
+        this(rules, null);
+    }
+
+    /**
+     * @param rules the rules to evaluate
+     * @param dispatcher a dispatcher compiled by {@link RuleCompiler} for the accumulators of these rules,
+     *                   or null to dispatch through the interpreted loop
+     */
+    public FusedRuleEvaluator(List<ProcessingRule> rules, TokenDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+        this.rules = rules.toArray(new ProcessingRule[0]);
+        this.ruleStates = new RuleAccumulator[this.rules.length];
+        Map<Object, RuleAccumulator> stages = new HashMap<>();
+        List<RuleAccumulator> distinct = new ArrayList<>();
+        for (int i = 0; i < this.rules.length; i++) {
+            if (this.rules[i] instanceof SharedStageRule) {
+                SharedStageRule rule = (SharedStageRule) this.rules[i];
+                RuleAccumulator stage = stages.get(rule.getStageKey());
+                if (stage == null) {
+                    stage = rule.newStage();
+                    stages.put(rule.getStageKey(), stage);
+                    distinct.add(stage);
+                }
+                rule.configureStage(stage);
+                ruleStates[i] = stage;
+            } else {
+                ruleStates[i] = StreamingRule.accumulatorFor(this.rules[i]);
+                distinct.add(ruleStates[i]);
+            }
+        }
+        this.accumulators = distinct.toArray(new RuleAccumulator[0]);
+    }
+
+    @Override
+    public void accept(String token) {
+        tokenCount++;
+        if (dispatcher != null) {
+            dispatcher.dispatch(accumulators, token);
+            return;
+        }
+        for (RuleAccumulator accumulator : accumulators) {
+            accumulator.accept(token);
+        }
+    }
+
+    @Override
+    public void accept(CharSequence token) {
+        tokenCount++;
+        if (dispatcher != null) {
+            dispatcher.dispatch(accumulators, token);
+            return;
+        }
+        for (RuleAccumulator accumulator : accumulators) {
+            accumulator.accept(token);
+        }
+    }
+
+    /**
+     * @return the distinct accumulators that receive tokens, the input for {@link RuleCompiler#compile}
+     */
+    RuleAccumulator[] accumulators() {
+        return accumulators;
+    }
+
+    /**
+     * Folds the state of an evaluator built from the same rules into this one
+     * The other evaluator must have seen the tokens that follow the tokens seen by this one
+     *
+     * @param other the evaluator to merge
+     */
+    public void merge(FusedRuleEvaluator other) {
+        for (int i = 0; i < accumulators.length; i++) {
+            accumulators[i].merge(other.accumulators[i]);
+        }
+        tokenCount += other.tokenCount;
+        if (dispatcher instanceof RuleMeter && other.dispatcher instanceof RuleMeter) {
+            ((RuleMeter) dispatcher).merge((RuleMeter) other.dispatcher);
+        }
+    }
+
+    /**
+     * Adds the tokenizer and per-rule estimates of a {@link RuleMeter} dispatcher to the metrics
+     * Rules served by one shared stage split its cost equally
+     *
+     * @param metrics the metrics to add to
+     */
+    void recordMetrics(ProcessingMetrics metrics) {
+        if (!(dispatcher instanceof RuleMeter)) {
+            return;
+        }
+        RuleMeter meter = (RuleMeter) dispatcher;
+        int[] slots = new int[rules.length];
+        int[] sharing = new int[accumulators.length];
+        for (int i = 0; i < rules.length; i++) {
+            slots[i] = Arrays.asList(accumulators).indexOf(ruleStates[i]);
+            sharing[slots[i]]++;
+        }
+        long ruleNanos = 0;
+        for (int i = 0; i < rules.length; i++) {
+            long nanos = meter.estimatedNanos(slots[i]) / sharing[slots[i]];
+            long bytes = meter.estimatedAllocatedBytes(slots[i]);
+            metrics.addRule(rules[i].getRuleName(), nanos, bytes < 0 ? -1 : bytes / sharing[slots[i]]);
+            ruleNanos += nanos;
+        }
+        metrics.addStageNanos(ProcessingMetrics.Stage.TOKENIZE, meter.estimatedTokenizeNanos());
+        metrics.addStageNanos(ProcessingMetrics.Stage.RULES, ruleNanos);
+    }
+
+    /**
+     * Writes the token count and the state of every accumulator
+     *
+     * @param out the stream to write to
+     * @throws IOException if an accumulator cannot be serialized
+     */
+    void writeState(ObjectOutput out) throws IOException {
+        out.writeLong(tokenCount);
+        out.writeObject(accumulators);
+    }
+
+    /**
+     * Merges state written by {@link #writeState} for the same rules into this evaluator
+     *
+     * @param in the stream to read from
+     * @throws IOException if the state cannot be read or was written for a different number of rules
+     * @throws ClassNotFoundException if an accumulator class is no longer available
+     */
+    void readState(ObjectInput in) throws IOException, ClassNotFoundException {
+        long restoredTokenCount = in.readLong();
+        RuleAccumulator[] restored = (RuleAccumulator[]) in.readObject();
+        if (restored.length != accumulators.length) {
+            throw new InvalidObjectException("Expected " + accumulators.length + " accumulators, found " + restored.length);
+        }
+        for (int i = 0; i < accumulators.length; i++) {
+            accumulators[i].merge(restored[i]);
+        }
+        tokenCount += restoredTokenCount;
+    }
+
+    public long getTokenCount() {
+        return tokenCount;
+    }
+
+    /**
+     * Collects the result of every rule, keyed by rule name in registration order
+     *
+     * @return the rule results
+     */
+    public Map<String, Object> results() {
+        return results(null);
+    }
+
+    /**
+     * Collects the result of every rule and adds the time each result took to the metrics
+     *
+     * @param metrics the metrics to add to, or null
+     * @return the rule results
+     */
+    Map<String, Object> results(ProcessingMetrics metrics) {
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (int i = 0; i < rules.length; i++) {
+            long start = metrics != null ? System.nanoTime() : 0;
+            RuleEvaluationEvent event = new RuleEvaluationEvent();
+            event.begin();
+            Object result = rules[i] instanceof SharedStageRule
+                    ? ((SharedStageRule) rules[i]).resultFrom(ruleStates[i]) : ruleStates[i].result();
+            results.put(rules[i].getRuleName(), result);
+            if (event.shouldCommit()) {
+                event.ruleName = rules[i].getRuleName();
+                event.ruleClass = rules[i].getClass();
+                event.tokens = tokenCount;
+                event.commit();
+            }
+            if (metrics != null) {
+                long nanos = System.nanoTime() - start;
+                metrics.addRule(rules[i].getRuleName(), nanos, 0);
+                metrics.addStageNanos(ProcessingMetrics.Stage.RESULTS, nanos);
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,214 @@
+package com.csg.searchindexer.handler;
+
+import com.csg.searchindexer.business.rules.ProcessingRule;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cache of per-file rule state for incremental re-indexing
+ * Every processed file gets a manifest entry with its path, size, modification time and content hash,
+ * stored together with the serialized rule accumulators. A file whose size and modification time are
+ * unchanged is answered from the entry without being read; a file that was only touched is confirmed
+ * by its content hash. Entries are kept in one directory per rule configuration, one file per source
+ * file, so concurrent batch workers never write the same file.
+ * <p>
+ * Entries are restored with Java serialization; the cache directory must only be writable by trusted users.
+ */
+public class IncrementalCache {
+    private static final Logger LOGGER = Logger.getLogger(IncrementalCache.class.getName());
+    private static final int ENTRY_MAGIC = 0x43534943;
+    private static final int ENTRY_VERSION = 1;
+    private static final String ENTRY_SUFFIX = ".entry";
+
+    // Files modified this close to the time their entry was written may change again within the same
+    // timestamp tick, so their modification time alone does not prove they are unchanged
+    private static final long RACY_WINDOW_MILLIS = 2000;
+
+    private final Path directory;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public IncrementalCache(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return the number of files answered from the cache
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of files that had no usable entry and were processed
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Restores the rule state of a file if its entry matches the current content and rules
+     *
+     * @param fingerprint the current fingerprint of the file
+     * @param rules the rules the state was computed for
+     * @return an evaluator holding the cached state, or null if the file has to be processed
+     * @throws IOException if the file has to be hashed and cannot be read
+     */
+    FusedRuleEvaluator load(FileFingerprint fingerprint, List<ProcessingRule> rules) throws IOException {
+        String configuration = configurationKey(rules);
+        Path entry = entryPath(configuration, fingerprint);
+
+        FusedRuleEvaluator evaluator = null;
+        boolean touched = false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+            if (in.readInt() == ENTRY_MAGIC
+                    && in.readInt() == ENTRY_VERSION
+                    && in.readUTF().equals(configuration)
+                    && in.readUTF().equals(fingerprint.getPath().toString())) {
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                long recordedAt = in.readLong();
+                String contentHash = in.readUTF();
+
+                boolean unchanged = false;
+                if (size == fingerprint.getSize()) {
+                    if (lastModified == fingerprint.getLastModified() && lastModified < recordedAt - RACY_WINDOW_MILLIS) {
+                        unchanged = true;
+                    } else if (contentHash.equals(fingerprint.getContentHash())) {
+                        unchanged = true;
+                        touched = lastModified != fingerprint.getLastModified();
+                    }
+                }
+
+                if (unchanged) {
+                    evaluator = new FusedRuleEvaluator(rules);
+                    evaluator.readState(new ObjectInputStream(in));
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // Never processed with these rules
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            LOGGER.log(Level.WARNING, "Ignoring unreadable cache entry " + entry + ": " + e.getMessage());
+            evaluator = null;
+        }
+
+        if (evaluator == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        if (touched) {
+            // Record the new modification time so the next run does not hash the file again
+            store(fingerprint, evaluator, rules);
+        }
+        return evaluator;
+    }
+
+    /**
+     * Writes the manifest entry and rule state of a file
+     * The entry is skipped if the file changed while it was processed, since the state may then mix old
+     * and new content. A state that cannot be written is logged and skipped; the file is simply processed
+     * again next time.
+     *
+     * @param fingerprint the fingerprint taken before the file was processed, with its content hash
+     * @param evaluator the evaluator holding the state of the whole file
+     * @param rules the rules the state was computed for
+     * @throws IllegalStateException if the content hash was not computed before processing
+     */
+    void store(FileFingerprint fingerprint, FusedRuleEvaluator evaluator, List<ProcessingRule> rules) {
+        if (!fingerprint.hasContentHash()) {
+            // Hashing now could describe content written after the state was computed
+            throw new IllegalStateException("Content hash must be taken before processing: " + fingerprint.getPath());
+        }
+        String configuration = configurationKey(rules);
+        Path entry = entryPath(configuration, fingerprint);
+        Path temporary = null;
+        try {
+            if (!fingerprint.isCurrent()) {
+                LOGGER.log(Level.INFO, "Not caching {0}, it changed while it was processed", fingerprint.getPath());
+                return;
+            }
+            Files.createDirectories(entry.getParent());
+            temporary = Files.createTempFile(entry.getParent(), entry.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(ENTRY_MAGIC);
+                out.writeInt(ENTRY_VERSION);
+                out.writeUTF(configuration);
+                out.writeUTF(fingerprint.getPath().toString());
+                out.writeLong(fingerprint.getSize());
+                out.writeLong(fingerprint.getLastModified());
+                out.writeLong(System.currentTimeMillis());
+                out.writeUTF(fingerprint.getContentHash());
+
+                ObjectOutputStream state = new ObjectOutputStream(out);
+                evaluator.writeState(state);
+                state.flush();
+            }
+            try {
+                Files.move(temporary, entry, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not cache results for " + fingerprint.getPath() + ": " + e.getMessage());
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException ignored) {
+                    // Left behind; it is never read as an entry
+                }
+            }
+        }
+    }
+
+    private Path entryPath(String configuration, FileFingerprint fingerprint) {
+        return directory
+                .resolve(sha256(configuration).substring(0, 16))
+                .resolve(sha256(fingerprint.getPath().toString()) + ENTRY_SUFFIX);
+    }
+
+    /**
+     * Describes the rule configuration by the rules' canonical descriptors
+     * Cached state is only reused for equal rules in the same order. The key starts with the number of
+     * rules and each descriptor key is self-delimiting, so a path appended to it cannot change its meaning.
+     */
+    static String configurationKey(List<ProcessingRule> rules) {
+        StringBuilder key = new StringBuilder().append(rules.size()).append(':');
+        for (ProcessingRule rule : rules) {
+            key.append(rule.getDescriptor().toKey());
+        }
+        return key.toString();
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.csg.searchindexer.handler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Byte-level tokenizer over a memory-mapped file
+ * Scans UTF-8 bytes with a lookup table equivalent to the reader tokenizer's delimiter regex,
+ * so no line, array or regex objects are allocated. Words are handed to the sink as a {@link TokenSlice}
+ * over the mapped window, so a String is only built for words some consumer actually keeps.
+ */
+public class MappedFileTokenizer implements Tokenizer {
+    static final int DEFAULT_WINDOW_SIZE = 1 << 28;
+
+    private static final byte WORD = 0;
+    private static final byte DELIMITER = 1;
+    private static final byte CONTROL = 2;
+    private static final byte[] BYTE_CLASS = new byte[256];
+
+    static {
+        // Bytes at or below the space character never make a word visible on their own (String.trim semantics)
+        for (int b = 0; b <= ' '; b++) {
+            BYTE_CLASS[b] = CONTROL;
+        }
+        // Same set as \s+|[,.;:!?"()\[\]{}]; every delimiter is ASCII, so none can occur inside a UTF-8 sequence
+        for (char c : " \t\n\u000B\f\r,.;:!?\"()[]{}".toCharArray()) {
+            BYTE_CLASS[c] = DELIMITER;
+        }
+    }
+
+    private final int windowSize;
+    private final TermInterner interner;
+
+    public MappedFileTokenizer() {
+        this(DEFAULT_WINDOW_SIZE, null);
+    }
+
+    /**
+     * @param interner looks up repeated words by their bytes instead of decoding each occurrence, or null
+     */
+    public MappedFileTokenizer(TermInterner interner) {
+        this(DEFAULT_WINDOW_SIZE, interner);
+    }
+
+    MappedFileTokenizer(int windowSize) {
+        this(windowSize, null);
+    }
+
+    MappedFileTokenizer(int windowSize, TermInterner interner) {
+        this.windowSize = windowSize;
+        this.interner = interner;
+    }
+
+    @Override
+    public void tokenize(Path path, TokenSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            tokenize(channel, 0, channel.size(), sink);
+        }
+    }
+
+    /**
+     * Tokenizes a byte range of an open channel
+     * The range is mapped window by window, so files larger than 2 GB are supported
+     *
+     * @param channel the channel to read
+     * @param from the first byte of the range
+     * @param to the end of the range, exclusive
+     * @param sink receives the words and line ends in order
+     * @throws IOException if the range cannot be mapped
+     */
+    void tokenize(FileChannel channel, long from, long to, TokenSink sink) throws IOException {
+        Scanner scanner = new Scanner(sink, interner);
+        for (long position = from; position < to; position += windowSize) {
+            int size = (int) Math.min(windowSize, to - position);
+            scanner.scan(channel.map(FileChannel.MapMode.READ_ONLY, position, size), size);
+        }
+        scanner.finish();
+    }
+
+    /**
+     * Tests whether a byte ends a word
+     *
+     * @param b the byte to test
+     * @return true if the byte is a word delimiter
+     */
+    static boolean isDelimiter(byte b) {
+        return BYTE_CLASS[b & 0xFF] == DELIMITER;
+    }
+
+    /**
+     * Scanning state; a word cut by a window boundary is carried over in the scratch buffer
+     * Windows must be scanned in file order, but may be any buffers, such as the read buffers of a pipeline.
+     */
+    static final class Scanner {
+        private final TokenSink sink;
+        private final TokenSlice slice;
+        private byte[] scratch = new byte[64];
+        private ByteBuffer scratchView = ByteBuffer.wrap(scratch);
+        private int pending;
+        private boolean visible;
+        private int highBits;
+        private boolean started;
+        private byte lastByte;
+
+        Scanner(TokenSink sink, TermInterner interner) {
+            this.sink = sink;
+            this.slice = new TokenSlice(interner);
+        }
+
+        void scan(ByteBuffer window, int size) {
+            int start = pending > 0 ? 0 : -1;
+            for (int i = 0; i < size; i++) {
+                byte b = window.get(i);
+                byte byteClass = BYTE_CLASS[b & 0xFF];
+                if (byteClass == DELIMITER) {
+                    if (start >= 0) {
+                        if (pending == 0) {
+                            // The whole word lies in this window, so the slice can point into it directly
+                            emit(window, start, i - start);
+                            reset();
+                        } else {
+                            append(window, start, i);
+                            flush();
+                        }
+                        start = -1;
+                    }
+                    // Same line breaks as BufferedReader.readLine: \n, \r or \r\n
+                    if (b == '\r' || b == '\n' && (i > 0 ? window.get(i - 1) : lastByte) != '\r') {
+                        sink.endOfLine();
+                    }
+                } else {
+                    if (start < 0) {
+                        start = i;
+                    }
+                    visible |= byteClass == WORD;
+                    highBits |= b;
+                }
+            }
+            if (start >= 0) {
+                append(window, start, size);
+            }
+            if (size > 0) {
+                started = true;
+                lastByte = window.get(size - 1);
+            }
+        }
+
+        void finish() {
+            flush();
+            if (started && lastByte != '\n' && lastByte != '\r') {
+                sink.endOfLine();
+            }
+        }
+
+        private void append(ByteBuffer window, int start, int end) {
+            int length = end - start;
+            if (pending + length > scratch.length) {
+                scratch = Arrays.copyOf(scratch, Math.max(scratch.length * 2, pending + length));
+                scratchView = ByteBuffer.wrap(scratch);
+            }
+            window.get(start, scratch, pending, length);
+            pending += length;
+        }
+
+        private void flush() {
+            if (pending > 0) {
+                emit(scratchView, 0, pending);
+            }
+            reset();
+        }
+
+        private void emit(ByteBuffer buffer, int offset, int length) {
+            if (visible) {
+                sink.accept(slice.set(buffer, offset, length, (highBits & 0x80) == 0));
+            }
+        }
+
+        private void reset() {
+            pending = 0;
+            visible = false;
+            highBits = 0;
+        }
+    }
+}
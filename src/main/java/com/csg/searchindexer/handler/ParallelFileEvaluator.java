@@ -0,0 +1,185 @@
+package com.csg.searchindexer.handler;
+
+import com.csg.searchindexer.business.rules.ProcessingRule;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Evaluates rules over a single file split into byte ranges on a fork-join pool
+ * Ranges end on delimiter bytes, so every chunk sees whole words and the ordered merge of
+ * the chunk results is identical to a sequential pass
+ */
+class ParallelFileEvaluator {
+    static final long MIN_CHUNK_SIZE = 1 << 20;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int ALIGN_BUFFER_SIZE = 4096;
+
+    private final ForkJoinPool pool;
+    private final MappedFileTokenizer tokenizer;
+    private final long minChunkSize;
+
+    ParallelFileEvaluator(ForkJoinPool pool) {
+        this(pool, new MappedFileTokenizer());
+    }
+
+    ParallelFileEvaluator(ForkJoinPool pool, MappedFileTokenizer tokenizer) {
+        this(pool, tokenizer, MIN_CHUNK_SIZE);
+    }
+
+    ParallelFileEvaluator(ForkJoinPool pool, MappedFileTokenizer tokenizer, long minChunkSize) {
+        this.pool = pool;
+        this.tokenizer = tokenizer;
+        this.minChunkSize = minChunkSize;
+    }
+
+    FusedRuleEvaluator evaluate(Path path, List<ProcessingRule> rules) throws IOException {
+        return evaluate(path, () -> new FusedRuleEvaluator(rules));
+    }
+
+    /**
+     * @param path the file to evaluate
+     * @param evaluators creates the empty evaluator for each chunk
+     * @return the merged evaluator for the whole file
+     * @throws IOException if the file cannot be read
+     */
+    FusedRuleEvaluator evaluate(Path path, Supplier<FusedRuleEvaluator> evaluators) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] boundaries = split(channel, pool.getParallelism() * CHUNKS_PER_THREAD);
+            try {
+                return pool.invoke(new ChunkTask(path, channel, evaluators, boundaries, 0, boundaries.length - 1));
+            } catch (UncheckedIOException e) {
+                throw unwrap(e);
+            }
+        }
+    }
+
+    /**
+     * @param tokenizer the tokenizer for chunks
+     * @return an evaluator on the same pool that uses the given tokenizer
+     */
+    ParallelFileEvaluator withTokenizer(MappedFileTokenizer tokenizer) {
+        return new ParallelFileEvaluator(pool, tokenizer, minChunkSize);
+    }
+
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Finds the I/O failure of a chunk; the pool may rethrow it wrapped in a copy made on the calling thread
+     */
+    private static IOException unwrap(UncheckedIOException e) {
+        Throwable cause = e;
+        while (cause instanceof UncheckedIOException) {
+            cause = cause.getCause();
+        }
+        return cause instanceof IOException ? (IOException) cause : new IOException(e);
+    }
+
+    /**
+     * Computes chunk boundaries aligned to delimiter bytes
+     *
+     * @param channel the file to split
+     * @param maxChunks upper bound on the number of chunks
+     * @return ascending offsets, starting at 0 and ending at the file size
+     * @throws IOException if the file cannot be read
+     */
+    long[] split(FileChannel channel, int maxChunks) throws IOException {
+        long size = channel.size();
+        int chunks = (int) Math.max(1, Math.min(maxChunks, size / minChunkSize));
+        long[] boundaries = new long[chunks + 1];
+        int count = 1;
+        for (int i = 1; i < chunks; i++) {
+            long boundary = nextDelimiter(channel, Math.max(size / chunks * i, boundaries[count - 1]), size);
+            if (boundary > boundaries[count - 1] && boundary < size) {
+                boundaries[count++] = boundary;
+            }
+        }
+        boundaries[count++] = size;
+        return count == boundaries.length ? boundaries : Arrays.copyOf(boundaries, count);
+    }
+
+    private static long nextDelimiter(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(ALIGN_BUFFER_SIZE);
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (MappedFileTokenizer.isDelimiter(buffer.get(i))) {
+                    return position + i;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Evaluates a contiguous run of chunks and merges the results left to right
+     */
+    private final class ChunkTask extends RecursiveTask<FusedRuleEvaluator> {
+        // Tasks only live within one evaluation and are never serialized
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path path;
+        private final transient FileChannel channel;
+        private final transient Supplier<FusedRuleEvaluator> evaluators;
+        private final long[] boundaries;
+        private final int first;
+        private final int last;
+
+        private ChunkTask(Path path, FileChannel channel, Supplier<FusedRuleEvaluator> evaluators, long[] boundaries,
+                          int first, int last) {
+            this.path = path;
+            this.channel = channel;
+            this.evaluators = evaluators;
+            this.boundaries = boundaries;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected FusedRuleEvaluator compute() {
+            if (last - first == 1) {
+                FusedRuleEvaluator evaluator = evaluators.get();
+                TokenizeEvent event = new TokenizeEvent();
+                event.begin();
+                try {
+                    tokenizer.tokenize(channel, boundaries[first], boundaries[last], evaluator);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (event.shouldCommit()) {
+                    event.path = path.toString();
+                    event.startOffset = boundaries[first];
+                    event.endOffset = boundaries[last];
+                    event.tokens = evaluator.getTokenCount();
+                    event.commit();
+                }
+                return evaluator;
+            }
+            int middle = (first + last) >>> 1;
+            ChunkTask left = new ChunkTask(path, channel, evaluators, boundaries, first, middle);
+            ChunkTask right = new ChunkTask(path, channel, evaluators, boundaries, middle, last);
+            left.fork();
+            FusedRuleEvaluator rightResult = right.compute();
+            FusedRuleEvaluator leftResult = left.join();
+            leftResult.merge(rightResult);
+            return leftResult;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.csg.searchindexer.handler;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tokenizer that reads, splits and consumes a file on three threads at once
+ * A reader thread fills a small pool of reusable buffers, a tokenizer thread scans them into batches
+ * of word bytes, and the calling thread feeds the batches to the sink as {@link TokenSlice} views.
+ * Stages are connected by bounded {@link SpscRingBuffer}s, so a slow stage makes the ones before it
+ * wait instead of buffering the file. Files smaller than two buffers, and all files on a single
+ * processor, are tokenized on the calling thread, where the hand-offs would cost more than they overlap.
+ */
+public class PipelinedTokenizer implements Tokenizer {
+    static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    static final int DEFAULT_BUFFER_COUNT = 4;
+    static final int DEFAULT_BATCH_SIZE = 4096;
+    static final int DEFAULT_BATCH_COUNT = 4;
+    static final String READ_QUEUE = "read";
+    static final String TOKEN_QUEUE = "tokens";
+
+    private static final int LINE_END = -1;
+
+    private final int bufferSize;
+    private final int bufferCount;
+    private final int batchSize;
+    private final int batchCount;
+    private final TermInterner interner;
+    private final long minPipelinedSize;
+
+    public PipelinedTokenizer() {
+        this(null);
+    }
+
+    /**
+     * @param interner looks up repeated words by their bytes instead of decoding each occurrence, or null
+     */
+    public PipelinedTokenizer(TermInterner interner) {
+        this(DEFAULT_BUFFER_SIZE, DEFAULT_BUFFER_COUNT, DEFAULT_BATCH_SIZE, DEFAULT_BATCH_COUNT, interner,
+                Runtime.getRuntime().availableProcessors() > 1 ? 2L * DEFAULT_BUFFER_SIZE : Long.MAX_VALUE);
+    }
+
+    /**
+     * @param bufferSize the bytes per read buffer
+     * @param bufferCount the read buffers in flight between the reader and the tokenizer
+     * @param batchSize the words and line ends per batch
+     * @param batchCount the batches in flight between the tokenizer and the calling thread
+     * @param interner the interner for materialized words, or null
+     */
+    PipelinedTokenizer(int bufferSize, int bufferCount, int batchSize, int batchCount, TermInterner interner) {
+        this(bufferSize, bufferCount, batchSize, batchCount, interner, 2L * bufferSize);
+    }
+
+    private PipelinedTokenizer(int bufferSize, int bufferCount, int batchSize, int batchCount, TermInterner interner,
+                               long minPipelinedSize) {
+        this.bufferSize = bufferSize;
+        this.bufferCount = bufferCount;
+        this.batchSize = batchSize;
+        this.batchCount = batchCount;
+        this.interner = interner;
+        this.minPipelinedSize = minPipelinedSize;
+    }
+
+    @Override
+    public void tokenize(Path path, TokenSink sink) throws IOException {
+        tokenize(path, sink, null);
+    }
+
+    /**
+     * Tokenizes a file and records the depth and stalls of both stage queues
+     *
+     * @param path the file to tokenize
+     * @param sink receives the words and line ends in order, on the calling thread
+     * @param metrics the metrics to add the queues to, or null
+     * @throws IOException if the file cannot be read
+     */
+    void tokenize(Path path, TokenSink sink, ProcessingMetrics metrics) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < minPipelinedSize) {
+                new MappedFileTokenizer(interner).tokenize(channel, 0, size, sink);
+                return;
+            }
+            Pipeline pipeline = new Pipeline(channel);
+            pipeline.run(sink);
+            if (metrics != null) {
+                metrics.addQueue(READ_QUEUE, pipeline.filledBuffers, pipeline.freeBuffers);
+                metrics.addQueue(TOKEN_QUEUE, pipeline.filledBatches, pipeline.freeBatches);
+            }
+        }
+    }
+
+    /**
+     * The threads and queues of one file
+     * Every buffer and batch circulates between a filled queue and a free queue, each with one producer
+     * and one consumer; an empty free queue is the backpressure on the stage before it.
+     */
+    private final class Pipeline {
+        private final FileChannel channel;
+        private final SpscRingBuffer<ReadBuffer> freeBuffers = new SpscRingBuffer<>(bufferCount);
+        private final SpscRingBuffer<ReadBuffer> filledBuffers = new SpscRingBuffer<>(bufferCount);
+        private final SpscRingBuffer<TokenBatch> freeBatches = new SpscRingBuffer<>(batchCount);
+        private final SpscRingBuffer<TokenBatch> filledBatches = new SpscRingBuffer<>(batchCount);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        private Pipeline(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void run(TokenSink sink) throws IOException {
+            for (int i = 0; i < bufferCount; i++) {
+                freeBuffers.offer(new ReadBuffer(bufferSize));
+            }
+            for (int i = 0; i < batchCount; i++) {
+                freeBatches.offer(new TokenBatch(batchSize));
+            }
+            Thread reader = Thread.ofVirtual().name("pipeline-reader").start(() -> runStage(this::read));
+            Thread tokenizer = Thread.ofVirtual().name("pipeline-tokenizer").start(() -> runStage(this::scan));
+            try {
+                consume(sink);
+            } catch (CancellationException e) {
+                // A stage failed; its exception is rethrown below
+            } catch (RuntimeException | Error e) {
+                fail(e);
+            } finally {
+                join(reader);
+                join(tokenizer);
+            }
+            rethrow(failure.get());
+        }
+
+        private void read() throws IOException {
+            long position = 0;
+            boolean last = false;
+            while (!last) {
+                ReadBuffer buffer = freeBuffers.take();
+                ByteBuffer bytes = buffer.bytes.clear();
+                int read = 0;
+                while (bytes.hasRemaining() && (read = channel.read(bytes, position)) >= 0) {
+                    position += read;
+                }
+                last = read < 0;
+                buffer.size = bytes.position();
+                buffer.last = last;
+                filledBuffers.put(buffer);
+            }
+        }
+
+        private void scan() {
+            BatchWriter writer = new BatchWriter();
+            MappedFileTokenizer.Scanner scanner = new MappedFileTokenizer.Scanner(writer, null);
+            boolean last = false;
+            while (!last) {
+                ReadBuffer buffer = filledBuffers.take();
+                // Words are copied into the batch, so the buffer can be refilled as soon as it is scanned
+                scanner.scan(buffer.bytes, buffer.size);
+                last = buffer.last;
+                freeBuffers.put(buffer);
+            }
+            scanner.finish();
+            writer.publish(true);
+        }
+
+        private void consume(TokenSink sink) {
+            TokenSlice slice = new TokenSlice(interner);
+            boolean last = false;
+            while (!last) {
+                TokenBatch batch = filledBatches.take();
+                for (int i = 0; i < batch.count; i++) {
+                    int length = batch.lengths[i];
+                    if (length == LINE_END) {
+                        sink.endOfLine();
+                    } else {
+                        sink.accept(slice.set(batch.view, batch.offsets[i], length, batch.ascii[i]));
+                    }
+                }
+                last = batch.last;
+                batch.clear();
+                freeBatches.put(batch);
+            }
+        }
+
+        private void runStage(Stage stage) {
+            try {
+                stage.run();
+            } catch (CancellationException e) {
+                // Another stage failed first
+            } catch (Throwable e) {
+                fail(e);
+            }
+        }
+
+        private void fail(Throwable e) {
+            failure.compareAndSet(null, e);
+            freeBuffers.cancel();
+            filledBuffers.cancel();
+            freeBatches.cancel();
+            filledBatches.cancel();
+        }
+
+        private void join(Thread thread) throws InterruptedIOException {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                fail(e);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for pipeline stage " + thread.getName());
+            }
+        }
+
+        private void rethrow(Throwable e) throws IOException {
+            if (e instanceof IOException) {
+                throw (IOException) e;
+            } else if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            } else if (e instanceof Error) {
+                throw (Error) e;
+            } else if (e != null) {
+                throw new IOException("Pipeline stage failed", e);
+            }
+        }
+
+        /**
+         * Collects the tokenizer's words into batches and hands full batches to the calling thread
+         */
+        private final class BatchWriter implements TokenSink {
+            private TokenBatch batch;
+
+            @Override
+            public void accept(CharSequence word) {
+                if (word instanceof TokenSlice) {
+                    TokenSlice slice = (TokenSlice) word;
+                    int offset = batch().add(slice.byteLength(), slice.isAscii());
+                    slice.copyBytes(batch.bytes, offset);
+                    publishIfFull();
+                } else {
+                    accept(word.toString());
+                }
+            }
+
+            @Override
+            public void accept(String word) {
+                byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+                int offset = batch().add(bytes.length, bytes.length == word.length());
+                System.arraycopy(bytes, 0, batch.bytes, offset, bytes.length);
+                publishIfFull();
+            }
+
+            @Override
+            public void endOfLine() {
+                batch().add(LINE_END, true);
+                publishIfFull();
+            }
+
+            private TokenBatch batch() {
+                if (batch == null) {
+                    batch = freeBatches.take();
+                }
+                return batch;
+            }
+
+            private void publishIfFull() {
+                if (batch.count == batchSize) {
+                    publish(false);
+                }
+            }
+
+            private void publish(boolean last) {
+                batch().last = last;
+                filledBatches.put(batch);
+                batch = null;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Stage {
+        void run() throws IOException;
+    }
+
+    /**
+     * A reusable read buffer and how much of it the reader filled
+     */
+    private static final class ReadBuffer {
+        private final ByteBuffer bytes;
+        private int size;
+        private boolean last;
+
+        private ReadBuffer(int capacity) {
+            // Direct, so channel reads land in it without an intermediate copy
+            this.bytes = ByteBuffer.allocateDirect(capacity);
+        }
+    }
+
+    /**
+     * A reusable batch of words stored back to back as UTF-8 bytes, and line ends
+     */
+    private static final class TokenBatch {
+        private final int[] offsets;
+        private final int[] lengths;
+        private final boolean[] ascii;
+        private byte[] bytes;
+        private ByteBuffer view;
+        private int byteCount;
+        private int count;
+        private boolean last;
+
+        private TokenBatch(int capacity) {
+            this.offsets = new int[capacity];
+            this.lengths = new int[capacity];
+            this.ascii = new boolean[capacity];
+            this.bytes = new byte[capacity * 16];
+            this.view = ByteBuffer.wrap(bytes);
+        }
+
+        /**
+         * Reserves room for a word, or records a line end for a negative length
+         *
+         * @return the offset to copy the word's bytes to
+         */
+        private int add(int length, boolean asciiWord) {
+            if (length != LINE_END && byteCount + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, byteCount + length));
+                view = ByteBuffer.wrap(bytes);
+            }
+            offsets[count] = byteCount;
+            lengths[count] = length;
+            ascii[count] = asciiWord;
+            count++;
+            if (length != LINE_END) {
+                byteCount += length;
+            }
+            return offsets[count - 1];
+        }
+
+        private void clear() {
+            byteCount = 0;
+            count = 0;
+            last = false;
+        }
+    }
+}
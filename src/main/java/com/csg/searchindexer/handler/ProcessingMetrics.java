@@ -0,0 +1,275 @@
+package com.csg.searchindexer.handler;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Where the time and memory of a run went, per stage and per rule
+ * Cache and result times are measured; tokenizer and rule times are sampled estimates, summed over
+ * all threads when a file is split into chunks. Allocated bytes are unknown (-1) on threads the JVM
+ * does not track, such as the virtual threads of a batch.
+ */
+public class ProcessingMetrics {
+
+    /**
+     * Phases of processing a file
+     */
+    public enum Stage {
+        // Fingerprinting the file and reading or writing the incremental cache entry
+        CACHE,
+        // Reading the file and splitting it into words; with a pipelined tokenizer, the time the rules waited for words
+        TOKENIZE,
+        // Feeding words to the rules
+        RULES,
+        // Computing the rule results from the rule state
+        RESULTS
+    }
+
+    private final Map<Stage, Long> stageNanos = new EnumMap<>(Stage.class);
+    private final Map<String, RuleMetrics> rules = new LinkedHashMap<>();
+    private final Map<String, QueueMetrics> queues = new LinkedHashMap<>();
+    private int fileCount;
+    private int cachedFileCount;
+    private long bytesRead;
+    private long tokenCount;
+    private long elapsedNanos;
+
+    ProcessingMetrics() {
+        for (Stage stage : Stage.values()) {
+            stageNanos.put(stage, 0L);
+        }
+    }
+
+    /**
+     * @return the number of files processed, including files answered from the cache
+     */
+    public int getFileCount() {
+        return fileCount;
+    }
+
+    /**
+     * @return the number of files answered from the incremental cache
+     */
+    public int getCachedFileCount() {
+        return cachedFileCount;
+    }
+
+    /**
+     * @return the number of input bytes tokenized; files answered from the cache are not read
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getTokenCount() {
+        return tokenCount;
+    }
+
+    /**
+     * @return the wall-clock time of the run
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return the words per second of wall-clock time
+     */
+    public double getTokensPerSecond() {
+        return elapsedNanos == 0 ? 0 : tokenCount * 1e9 / elapsedNanos;
+    }
+
+    public long getStageNanos(Stage stage) {
+        return stageNanos.get(stage);
+    }
+
+    /**
+     * @return metrics per rule name, in rule order
+     */
+    public Map<String, RuleMetrics> getRuleMetrics() {
+        return Collections.unmodifiableMap(rules);
+    }
+
+    /**
+     * @return metrics per stage queue of the pipelined tokenizer, empty if no file was pipelined
+     */
+    public Map<String, QueueMetrics> getQueueMetrics() {
+        return Collections.unmodifiableMap(queues);
+    }
+
+    void recordFile(long bytes, long tokens, boolean cached) {
+        fileCount++;
+        if (cached) {
+            cachedFileCount++;
+        }
+        bytesRead += bytes;
+        tokenCount += tokens;
+    }
+
+    void addStageNanos(Stage stage, long nanos) {
+        stageNanos.merge(stage, nanos, Long::sum);
+    }
+
+    /**
+     * Adds time and allocation to a rule; rules sharing a stage each get an equal share of it
+     */
+    void addRule(String ruleName, long nanos, long allocatedBytes) {
+        rules.computeIfAbsent(ruleName, RuleMetrics::new).add(nanos, allocatedBytes);
+    }
+
+    /**
+     * Adds the depth and stalls of a pipeline queue once both of its stages have finished
+     *
+     * @param queueName the queue name
+     * @param filled the queue of filled elements, whose depth is recorded
+     * @param free the queue returning elements to the producer, which waits on it when the consumer falls behind
+     */
+    void addQueue(String queueName, SpscRingBuffer<?> filled, SpscRingBuffer<?> free) {
+        queues.computeIfAbsent(queueName, QueueMetrics::new).add(filled.capacity(), filled.offers(),
+                filled.averageDepth() * filled.offers(), filled.maxDepth(), free.consumerStalls(), filled.consumerStalls());
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Adds the counts, stage times and rule metrics of another run; the elapsed time is left unchanged
+     *
+     * @param other the metrics to add
+     */
+    void merge(ProcessingMetrics other) {
+        fileCount += other.fileCount;
+        cachedFileCount += other.cachedFileCount;
+        bytesRead += other.bytesRead;
+        tokenCount += other.tokenCount;
+        for (Map.Entry<Stage, Long> stage : other.stageNanos.entrySet()) {
+            addStageNanos(stage.getKey(), stage.getValue());
+        }
+        for (RuleMetrics rule : other.rules.values()) {
+            addRule(rule.getRuleName(), rule.getNanos(), rule.getAllocatedBytes());
+        }
+        for (QueueMetrics queue : other.queues.values()) {
+            queues.computeIfAbsent(queue.getQueueName(), QueueMetrics::new).add(queue.capacity, queue.offers,
+                    queue.depthSum, queue.maxDepth, queue.producerStalls, queue.consumerStalls);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Files: %d (%d from cache), %d bytes read%n", fileCount, cachedFileCount, bytesRead));
+        text.append(String.format("Words: %d in %.1f ms (%.0f words/s)%n", tokenCount, elapsedNanos / 1e6, getTokensPerSecond()));
+        for (Stage stage : Stage.values()) {
+            text.append(String.format("Stage %s: %.1f ms%n", stage, stageNanos.get(stage) / 1e6));
+        }
+        for (RuleMetrics rule : rules.values()) {
+            text.append(String.format("Rule %s: %.1f ms, %s allocated%n", rule.getRuleName(), rule.getNanos() / 1e6,
+                    rule.getAllocatedBytes() < 0 ? "n/a" : rule.getAllocatedBytes() + " bytes"));
+        }
+        for (QueueMetrics queue : queues.values()) {
+            text.append(String.format("Queue %s: depth %.1f average, %d max of %d, %d producer waits, %d consumer waits%n",
+                    queue.getQueueName(), queue.getAverageDepth(), queue.getMaxDepth(), queue.getCapacity(),
+                    queue.getProducerStalls(), queue.getConsumerStalls()));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Estimated time and allocation of one rule
+     */
+    public static class RuleMetrics {
+        private final String ruleName;
+        private long nanos;
+        private long allocatedBytes;
+
+        private RuleMetrics(String ruleName) {
+            this.ruleName = ruleName;
+        }
+
+        public String getRuleName() {
+            return ruleName;
+        }
+
+        /**
+         * @return the estimated time spent on words plus the measured time computing the result
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return the estimated bytes allocated for words, or -1 if unknown for part of the run
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        private void add(long nanos, long allocatedBytes) {
+            this.nanos += nanos;
+            this.allocatedBytes = this.allocatedBytes < 0 || allocatedBytes < 0 ? -1 : this.allocatedBytes + allocatedBytes;
+        }
+    }
+
+    /**
+     * Occupancy of one queue between pipeline stages
+     * A queue that is mostly full points at a slow consumer, a mostly empty one at a slow producer.
+     */
+    public static class QueueMetrics {
+        private final String queueName;
+        private int capacity;
+        private long offers;
+        private double depthSum;
+        private long maxDepth;
+        private long producerStalls;
+        private long consumerStalls;
+
+        private QueueMetrics(String queueName) {
+            this.queueName = queueName;
+        }
+
+        public String getQueueName() {
+            return queueName;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        /**
+         * @return the average number of queued elements right after one was added
+         */
+        public double getAverageDepth() {
+            return offers == 0 ? 0 : depthSum / offers;
+        }
+
+        public long getMaxDepth() {
+            return maxDepth;
+        }
+
+        /**
+         * @return how often the producing stage waited because the consuming stage had not freed an element
+         */
+        public long getProducerStalls() {
+            return producerStalls;
+        }
+
+        /**
+         * @return how often the consuming stage waited for the producing stage
+         */
+        public long getConsumerStalls() {
+            return consumerStalls;
+        }
+
+        private void add(int capacity, long offers, double depthSum, long maxDepth, long producerStalls, long consumerStalls) {
+            this.capacity = Math.max(this.capacity, capacity);
+            this.offers += offers;
+            this.depthSum += depthSum;
+            this.maxDepth = Math.max(this.maxDepth, maxDepth);
+            this.producerStalls += producerStalls;
+            this.consumerStalls += consumerStalls;
+        }
+    }
+}
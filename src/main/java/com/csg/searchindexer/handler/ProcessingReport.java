@@ -0,0 +1,31 @@
+package com.csg.searchindexer.handler;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Rule results of a file together with the metrics of processing it
+ */
+public class ProcessingReport {
+    private final Map<String, Object> results;
+    private final ProcessingMetrics metrics;
+
+    ProcessingReport(Map<String, Object> results, ProcessingMetrics metrics) {
+        this.results = Collections.unmodifiableMap(results);
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return the rule results keyed by rule name, in registration order
+     */
+    public Map<String, Object> getResults() {
+        return results;
+    }
+
+    /**
+     * @return the metrics of the run, or null if metrics are disabled
+     */
+    public ProcessingMetrics getMetrics() {
+        return metrics;
+    }
+}
@@ -0,0 +1,43 @@
+package com.csg.searchindexer.handler;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+/**
+ * Line-based tokenizer using a reader and a delimiter regex
+ * Reference implementation of the word splitting rules
+ */
+public class ReaderTokenizer implements Tokenizer {
+    private static final Pattern WORD_DELIMITER = Pattern.compile("\\s+|[,.;:!?\"()\\[\\]{}]");
+
+    private final TermInterner interner;
+
+    public ReaderTokenizer() {
+        this(null);
+    }
+
+    /**
+     * @param interner replaces every word with its canonical instance, or null
+     */
+    public ReaderTokenizer(TermInterner interner) {
+        this.interner = interner;
+    }
+
+    @Override
+    public void tokenize(Path path, TokenSink sink) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(path.toFile()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                for (String word : WORD_DELIMITER.split(line)) {
+                    if (!word.trim().isEmpty()) {
+                        sink.accept(interner != null ? interner.intern(word) : word);
+                    }
+                }
+                sink.endOfLine();
+            }
+        }
+    }
+}
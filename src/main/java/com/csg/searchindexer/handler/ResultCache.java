@@ -0,0 +1,278 @@
+package com.csg.searchindexer.handler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-memory cache of rule results keyed by file and rule configuration
+ * An entry answers a file whose size and modification time are unchanged, without reading it; a file
+ * modified just before it was cached is confirmed by its content hash, like in {@link IncrementalCache}.
+ * Each file keeps at most one entry per rule configuration. The cache is bounded both by entry count and
+ * by the estimated heap size of the cached results: least recently used entries are evicted until both
+ * fit, and results estimated above a quarter of the size budget are not cached at all, so one file with a
+ * huge word list cannot flush everything else. Cached results are deep unmodifiable copies, since they
+ * are handed to every caller, including concurrent server requests. Put an {@link IncrementalCache}
+ * behind it to keep results across runs.
+ */
+public class ResultCache {
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+    public static final long DEFAULT_MAX_BYTES = 64L << 20;
+    // An entry may take at most 1/MAX_ENTRY_SHARE of the size budget
+    private static final int MAX_ENTRY_SHARE = 4;
+    // Entry object, map node and fingerprint fields
+    private static final long ENTRY_BYTES = 96;
+
+    // Same reasoning as IncrementalCache: a modification time this close to caching may hide a later write
+    private static final long RACY_WINDOW_MILLIS = 2000;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ResultCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+    }
+
+    public ResultCache(int maxEntries) {
+        this(maxEntries, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param maxEntries the number of (file, rule configuration) results to keep
+     * @param maxBytes the estimated heap size of all cached results together
+     */
+    public ResultCache(int maxEntries, long maxBytes) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Max entries must be at least 1: " + maxEntries);
+        }
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Max bytes must be at least 1: " + maxBytes);
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the estimated heap size of the cached results
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Returns the cached results of a file if they are still valid
+     *
+     * @param fingerprint the current fingerprint of the file
+     * @param configuration the configuration key of the rules
+     * @return the cached results, or null if the file has to be processed
+     * @throws IOException if the file has to be hashed and cannot be read
+     */
+    Map<String, Object> get(FileFingerprint fingerprint, String configuration) throws IOException {
+        String key = key(fingerprint, configuration);
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry != null && entry.size == fingerprint.getSize() && entry.lastModified == fingerprint.getLastModified()) {
+            if (entry.contentHash == null) {
+                hits.incrementAndGet();
+                return entry.results;
+            }
+            if (entry.contentHash.equals(fingerprint.getContentHash())) {
+                hits.incrementAndGet();
+                if (!isRacy(fingerprint)) {
+                    // Old enough now that the modification time alone proves the file unchanged
+                    store(fingerprint, configuration, entry.results, entry.resultBytes);
+                }
+                return entry.results;
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Computes the content hash of a file now if {@link #put} will need it
+     * Call before processing the file, so the hash never describes newer content than the results.
+     *
+     * @param fingerprint the fingerprint taken before the file is processed
+     * @throws IOException if the file cannot be read
+     */
+    static void hashIfRacy(FileFingerprint fingerprint) throws IOException {
+        if (isRacy(fingerprint)) {
+            fingerprint.getContentHash();
+        }
+    }
+
+    /**
+     * Caches the results of a file, replacing any older results for the same file and configuration
+     * Results of a file that changed while it was processed, or too large for the cache, are returned but
+     * not cached.
+     *
+     * @param fingerprint the fingerprint taken before the file was processed, passed to {@link #hashIfRacy} then
+     * @param configuration the configuration key of the rules
+     * @param results the rule results
+     * @return an unmodifiable copy of the results, with unmodifiable copies of list, set and map values
+     * @throws IOException if the file attributes cannot be read
+     * @throws IllegalStateException if the file needs a content hash that was not computed before processing
+     */
+    Map<String, Object> put(FileFingerprint fingerprint, String configuration, Map<String, Object> results) throws IOException {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> copy = (Map<String, Object>) immutableCopy(results);
+        if (isRacy(fingerprint) && !fingerprint.hasContentHash()) {
+            throw new IllegalStateException("Content hash must be taken before processing: " + fingerprint.getPath());
+        }
+        if (fingerprint.isCurrent()) {
+            store(fingerprint, configuration, copy, estimateBytes(copy));
+        }
+        return copy;
+    }
+
+    private void store(FileFingerprint fingerprint, String configuration, Map<String, Object> results,
+                       long resultBytes) throws IOException {
+        String key = key(fingerprint, configuration);
+        long entryBytes = ENTRY_BYTES + estimateBytes(key) + resultBytes;
+        if (entryBytes > maxBytes / MAX_ENTRY_SHARE) {
+            // Drop the outdated results of the file too, they can never be served again
+            synchronized (this) {
+                remove(key);
+            }
+            return;
+        }
+        String contentHash = isRacy(fingerprint) ? fingerprint.getContentHash() : null;
+        Entry entry = new Entry(fingerprint.getSize(), fingerprint.getLastModified(), contentHash, results, resultBytes, entryBytes);
+        synchronized (this) {
+            remove(key);
+            entries.put(key, entry);
+            bytes += entryBytes;
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (entries.size() > maxEntries || bytes > maxBytes) {
+                bytes -= eldest.next().entryBytes;
+                eldest.remove();
+            }
+        }
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            bytes -= removed.entryBytes;
+        }
+    }
+
+    /**
+     * Estimates the heap size of a result value from its strings and collection elements
+     * The estimate assumes two bytes per char and typical object headers; it only has to keep the cache
+     * in proportion to the heap, not measure it.
+     */
+    static long estimateBytes(Object value) {
+        if (value instanceof CharSequence) {
+            return 40 + 2L * ((CharSequence) value).length();
+        }
+        if (value instanceof Map) {
+            long size = 64;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                size += 40 + estimateBytes(entry.getKey()) + estimateBytes(entry.getValue());
+            }
+            return size;
+        }
+        if (value instanceof Collection) {
+            long size = 64;
+            for (Object element : (Collection<?>) value) {
+                size += 32 + estimateBytes(element);
+            }
+            return size;
+        }
+        return 16;
+    }
+
+    /**
+     * Copies lists, sets and maps recursively into unmodifiable collections in the same order
+     * Other values, such as numbers and strings, are returned as they are.
+     */
+    private static Object immutableCopy(Object value) {
+        if (value instanceof List) {
+            List<Object> copy = new ArrayList<>(((List<?>) value).size());
+            for (Object element : (List<?>) value) {
+                copy.add(immutableCopy(element));
+            }
+            return Collections.unmodifiableList(copy);
+        }
+        if (value instanceof Set) {
+            Set<Object> copy = new LinkedHashSet<>();
+            for (Object element : (Set<?>) value) {
+                copy.add(immutableCopy(element));
+            }
+            return Collections.unmodifiableSet(copy);
+        }
+        if (value instanceof Map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                copy.put(entry.getKey(), immutableCopy(entry.getValue()));
+            }
+            return Collections.unmodifiableMap(copy);
+        }
+        return value;
+    }
+
+    private static boolean isRacy(FileFingerprint fingerprint) {
+        return fingerprint.getLastModified() >= System.currentTimeMillis() - RACY_WINDOW_MILLIS;
+    }
+
+    private static String key(FileFingerprint fingerprint, String configuration) {
+        return configuration + fingerprint.getPath();
+    }
+
+    /**
+     * Results of one file with the fingerprint they were computed for
+     */
+    private static final class Entry {
+        private final long size;
+        private final long lastModified;
+        // Only set for files modified within the racy window when cached
+        private final String contentHash;
+        private final Map<String, Object> results;
+        private final long resultBytes;
+        // Estimated size of the results together with the key and the entry itself
+        private final long entryBytes;
+
+        private Entry(long size, long lastModified, String contentHash, Map<String, Object> results, long resultBytes,
+                      long entryBytes) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.contentHash = contentHash;
+            this.results = results;
+            this.resultBytes = resultBytes;
+            this.entryBytes = entryBytes;
+        }
+    }
+}
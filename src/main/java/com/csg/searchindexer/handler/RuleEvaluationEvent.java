@@ -0,0 +1,27 @@
+package com.csg.searchindexer.handler;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event spanning the computation of one rule result
+ * For list-based rules this is the ProcessingRule.process call over the buffered words
+ */
+@Name("com.csg.searchindexer.RuleEvaluation")
+@Label("Rule Evaluation")
+@Category("Search Indexer")
+@Description("Computation of one rule result from the words the rule has seen")
+@StackTrace(false)
+class RuleEvaluationEvent extends jdk.jfr.Event {
+    @Label("Rule")
+    String ruleName;
+
+    @Label("Rule Class")
+    Class<?> ruleClass;
+
+    @Label("Words")
+    long tokens;
+}
@@ -0,0 +1,199 @@
+package com.csg.searchindexer.handler;
+
+import com.csg.searchindexer.business.TokenDispatcher;
+import com.csg.searchindexer.business.rules.RuleAccumulator;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Sampling dispatcher that estimates where the time of an evaluation goes
+ * On average one word in {@link #SAMPLE_INTERVAL} is fed to each accumulator separately between clock and
+ * allocation counter reads; the gap before the following word measures the tokenizer. Estimates are
+ * scaled up to all words. The interval is jittered so samples do not lock onto a fixed word position
+ * within lines, where the line-based tokenizer does its work. The other words go through the wrapped dispatcher untouched, and evaluations
+ * without metrics never see this class. Each evaluator has its own meter, merged along with the evaluator.
+ */
+final class RuleMeter implements TokenDispatcher {
+    static final int SAMPLE_INTERVAL = 64;
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+    // Cost of one clock read, which every sampled interval includes; can exceed the work of a cheap rule
+    private static final long CLOCK_NANOS = calibrateClock();
+
+    private final TokenDispatcher delegate;
+    private long[] nanos;
+    private long[] allocatedBytes;
+    private boolean allocationKnown = THREADS != null;
+    private long words;
+    private long samples;
+    private int untilSample;
+    private int seed = 0x2545F491;
+    private long tokenizeNanos;
+    private long tokenizeSamples;
+    // Clock reading after the last sampled word, or 0 when the previous word was not sampled
+    private long sampleEnd;
+
+    /**
+     * @param delegate the dispatcher for words that are not sampled, or null for the interpreted loop
+     */
+    RuleMeter(TokenDispatcher delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void dispatch(RuleAccumulator[] accumulators, String word) {
+        if (beginWord(accumulators)) {
+            for (int i = 0; i < accumulators.length; i++) {
+                long bytes = allocatedBytes();
+                long start = System.nanoTime();
+                accumulators[i].accept(word);
+                nanos[i] += System.nanoTime() - start;
+                recordAllocation(i, bytes);
+            }
+            sampleEnd = System.nanoTime();
+        } else if (delegate != null) {
+            delegate.dispatch(accumulators, word);
+        } else {
+            for (RuleAccumulator accumulator : accumulators) {
+                accumulator.accept(word);
+            }
+        }
+    }
+
+    @Override
+    public void dispatch(RuleAccumulator[] accumulators, CharSequence word) {
+        if (beginWord(accumulators)) {
+            for (int i = 0; i < accumulators.length; i++) {
+                long bytes = allocatedBytes();
+                long start = System.nanoTime();
+                accumulators[i].accept(word);
+                nanos[i] += System.nanoTime() - start;
+                recordAllocation(i, bytes);
+            }
+            sampleEnd = System.nanoTime();
+        } else if (delegate != null) {
+            delegate.dispatch(accumulators, word);
+        } else {
+            for (RuleAccumulator accumulator : accumulators) {
+                accumulator.accept(word);
+            }
+        }
+    }
+
+    /**
+     * @param accumulator the index of an accumulator in the evaluator
+     * @return the estimated nanoseconds the accumulator spent on all words
+     */
+    long estimatedNanos(int accumulator) {
+        return nanos == null ? 0 : scale(Math.max(0, nanos[accumulator] - samples * CLOCK_NANOS), samples);
+    }
+
+    /**
+     * @param accumulator the index of an accumulator in the evaluator
+     * @return the estimated bytes the accumulator allocated for all words, or -1 if the JVM cannot tell
+     */
+    long estimatedAllocatedBytes(int accumulator) {
+        if (!allocationKnown) {
+            return -1;
+        }
+        return allocatedBytes == null ? 0 : scale(allocatedBytes[accumulator], samples);
+    }
+
+    /**
+     * @return the estimated nanoseconds spent reading and splitting the input between words
+     */
+    long estimatedTokenizeNanos() {
+        return scale(Math.max(0, tokenizeNanos - tokenizeSamples * CLOCK_NANOS), tokenizeSamples);
+    }
+
+    /**
+     * Adds the samples of the meter of a merged evaluator
+     *
+     * @param other the meter to add
+     */
+    void merge(RuleMeter other) {
+        if (other.nanos != null) {
+            if (nanos == null) {
+                nanos = new long[other.nanos.length];
+                allocatedBytes = new long[other.nanos.length];
+            }
+            for (int i = 0; i < nanos.length; i++) {
+                nanos[i] += other.nanos[i];
+                allocatedBytes[i] += other.allocatedBytes[i];
+            }
+        }
+        allocationKnown &= other.allocationKnown;
+        words += other.words;
+        samples += other.samples;
+        tokenizeNanos += other.tokenizeNanos;
+        tokenizeSamples += other.tokenizeSamples;
+    }
+
+    /**
+     * Counts a word and decides whether it is sampled
+     */
+    private boolean beginWord(RuleAccumulator[] accumulators) {
+        if (sampleEnd != 0) {
+            tokenizeNanos += System.nanoTime() - sampleEnd;
+            tokenizeSamples++;
+            sampleEnd = 0;
+        }
+        words++;
+        if (untilSample-- > 0) {
+            return false;
+        }
+        // Xorshift step; the top bits give a gap of 0 to 2 * SAMPLE_INTERVAL - 1 words
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        untilSample = (seed >>> 1) % (2 * SAMPLE_INTERVAL);
+        if (nanos == null) {
+            nanos = new long[accumulators.length];
+            allocatedBytes = new long[accumulators.length];
+        }
+        samples++;
+        return true;
+    }
+
+    private void recordAllocation(int accumulator, long before) {
+        if (before < 0) {
+            // Not available on this thread, for example on a virtual thread
+            allocationKnown = false;
+        } else {
+            allocatedBytes[accumulator] += allocatedBytes() - before;
+        }
+    }
+
+    private long allocatedBytes() {
+        return allocationKnown ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    private long scale(long sampled, long sampleCount) {
+        return sampleCount == 0 ? 0 : (long) ((double) sampled * words / sampleCount);
+    }
+
+    private static long calibrateClock() {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 20; round++) {
+            long start = System.nanoTime();
+            long sink = 0;
+            for (int i = 0; i < 10_000; i++) {
+                sink += System.nanoTime();
+            }
+            long end = System.nanoTime();
+            // Keep the reads from being optimized away
+            best = Math.min(best, (end - start + (sink & 1)) / 10_000);
+        }
+        return best;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,178 @@
+package com.csg.searchindexer.handler;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded queue between exactly one producer thread and one consumer thread
+ * Slots are a power-of-two array indexed by ever-increasing head and tail counters; each side only
+ * writes its own counter, published with release semantics, so no locks or CAS are needed. A full
+ * queue makes the producer wait, which is the backpressure between pipeline stages. Waiting spins
+ * briefly and then parks in short intervals, checking for cancellation so a failed stage cannot
+ * leave its neighbours blocked.
+ *
+ * @param <T> the element type
+ */
+final class SpscRingBuffer<T> {
+    private static final int SPINS = 128;
+    private static final long PARK_NANOS = 20_000;
+
+    private final Object[] slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private volatile boolean cancelled;
+
+    // Written by the producer only
+    private long depthSum;
+    private long maxDepth;
+    private long producerStalls;
+    // Written by the consumer only
+    private long consumerStalls;
+
+    /**
+     * @param capacity the number of slots, rounded up to a power of two
+     */
+    SpscRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        this.slots = new Object[size < capacity ? size << 1 : size];
+        this.mask = slots.length - 1;
+    }
+
+    /**
+     * Adds an element if there is room; producer thread only
+     *
+     * @param value the element
+     * @return false if the queue is full
+     */
+    boolean offer(T value) {
+        long t = tail.get();
+        long depth = t - head.get();
+        if (depth == slots.length) {
+            return false;
+        }
+        slots[(int) t & mask] = value;
+        tail.lazySet(t + 1);
+        depthSum += depth + 1;
+        maxDepth = Math.max(maxDepth, depth + 1);
+        return true;
+    }
+
+    /**
+     * Removes the oldest element if there is one; consumer thread only
+     *
+     * @return the element, or null if the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    T poll() {
+        long h = head.get();
+        if (h == tail.get()) {
+            return null;
+        }
+        int slot = (int) h & mask;
+        T value = (T) slots[slot];
+        slots[slot] = null;
+        head.lazySet(h + 1);
+        return value;
+    }
+
+    /**
+     * Adds an element, waiting while the queue is full; producer thread only
+     *
+     * @param value the element
+     * @throws CancellationException if the queue is cancelled while waiting
+     */
+    void put(T value) {
+        if (offer(value)) {
+            return;
+        }
+        producerStalls++;
+        for (int attempt = 0; !offer(value); attempt++) {
+            await(attempt);
+        }
+    }
+
+    /**
+     * Removes the oldest element, waiting while the queue is empty; consumer thread only
+     *
+     * @return the element
+     * @throws CancellationException if the queue is cancelled while waiting
+     */
+    T take() {
+        T value = poll();
+        if (value != null) {
+            return value;
+        }
+        consumerStalls++;
+        for (int attempt = 0; (value = poll()) == null; attempt++) {
+            await(attempt);
+        }
+        return value;
+    }
+
+    /**
+     * Makes every current and future wait on this queue fail
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * @return the number of elements in the queue at this moment, from any thread
+     */
+    int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /**
+     * @return the number of elements added so far
+     */
+    long offers() {
+        return tail.get();
+    }
+
+    /**
+     * @return the average depth right after an element was added; read once both sides have finished
+     */
+    double averageDepth() {
+        long offers = tail.get();
+        return offers == 0 ? 0 : (double) depthSum / offers;
+    }
+
+    long maxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @return how often the producer found the queue full and had to wait
+     */
+    long producerStalls() {
+        return producerStalls;
+    }
+
+    /**
+     * @return how often the consumer found the queue empty and had to wait
+     */
+    long consumerStalls() {
+        return consumerStalls;
+    }
+
+    private void await(int attempt) {
+        if (cancelled) {
+            throw new CancellationException("Pipeline stage failed");
+        }
+        if (attempt < SPINS) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.csg.searchindexer.handler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Canonical String instances for repeated tokens
+ * Tokens are looked up by their UTF-8 bytes in open-addressing tables, so a token seen before is
+ * returned without decoding or allocating a new String, and every rule and output holding the token
+ * shares one instance. Each term also gets a stable int id. The table is split into independently
+ * locked segments so concurrent files and chunks rarely contend, and stops growing at a term limit,
+ * after which unseen tokens are returned as fresh Strings.
+ */
+public class TermInterner {
+    public static final int DEFAULT_MAX_TERMS = 1 << 20;
+
+    private static final int SEGMENT_BITS = 4;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    // Compressed-oops String object and byte[] header, used to estimate the memory a hit saves
+    private static final int STRING_BYTES = 24;
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final int maxTermsPerSegment;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+
+    public TermInterner() {
+        this(DEFAULT_MAX_TERMS);
+    }
+
+    /**
+     * @param maxTerms the number of distinct terms after which new tokens are no longer interned
+     */
+    public TermInterner(int maxTerms) {
+        if (maxTerms < 1) {
+            throw new IllegalArgumentException("Max terms must be at least 1: " + maxTerms);
+        }
+        this.maxTermsPerSegment = Math.max(1, maxTerms / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Returns the canonical instance of a token given as UTF-8 bytes
+     *
+     * @param bytes the buffer holding the token
+     * @param offset the first byte of the token
+     * @param length the number of bytes in the token
+     * @param ascii whether all bytes are below 0x80, which allows a cheaper decode on first sight
+     * @return the canonical String for the token
+     */
+    public String intern(byte[] bytes, int offset, int length, boolean ascii) {
+        lookups.increment();
+        int hash = hash(bytes, offset, length);
+        return segmentFor(hash).intern(hash, bytes, offset, length, ascii);
+    }
+
+    /**
+     * Returns the canonical instance of a token that is already a String
+     * Saves retained memory rather than allocation, since the caller has built the String already
+     *
+     * @param token the token
+     * @return the canonical String for the token
+     */
+    public String intern(String token) {
+        lookups.increment();
+        byte[] utf8 = isAscii(token) ? null : token.getBytes(StandardCharsets.UTF_8);
+        int hash = utf8 == null ? hash(token) : hash(utf8, 0, utf8.length);
+        return segmentFor(hash).intern(hash, token, utf8);
+    }
+
+    /**
+     * Returns the id of an interned term; ids are stable for the lifetime of the interner
+     *
+     * @param term the term to look up
+     * @return the term id, or -1 if the term has not been interned
+     */
+    public int termId(String term) {
+        byte[] utf8 = isAscii(term) ? null : term.getBytes(StandardCharsets.UTF_8);
+        int hash = utf8 == null ? hash(term) : hash(utf8, 0, utf8.length);
+        int entry = segmentFor(hash).indexOf(hash, term);
+        return entry < 0 ? -1 : entry << SEGMENT_BITS | hash >>> (32 - SEGMENT_BITS);
+    }
+
+    /**
+     * @param termId an id returned by termId
+     * @return the canonical String of the term
+     */
+    public String getTerm(int termId) {
+        return segments[termId & (SEGMENTS - 1)].term(termId >>> SEGMENT_BITS);
+    }
+
+    /**
+     * @return the number of distinct terms
+     */
+    public int getTermCount() {
+        int count = 0;
+        for (Segment segment : segments) {
+            count += segment.size();
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of tokens looked up
+     */
+    public long getLookupCount() {
+        return lookups.sum();
+    }
+
+    /**
+     * @return the number of tokens that were answered with an existing instance
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the estimated heap bytes of String objects that hits did not have to keep
+     */
+    public long getSavedBytes() {
+        return savedBytes.sum();
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[hash >>> (32 - SEGMENT_BITS)];
+    }
+
+    private void recordHit(int payloadBytes) {
+        hits.increment();
+        savedBytes.add(STRING_BYTES + ((ARRAY_HEADER_BYTES + payloadBytes + 7) & ~7));
+    }
+
+    private static boolean isAscii(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (token.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(byte[] bytes, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return mix(hash);
+    }
+
+    private static int hash(String asciiToken) {
+        int hash = 0;
+        for (int i = 0; i < asciiToken.length(); i++) {
+            hash = 31 * hash + asciiToken.charAt(i);
+        }
+        return mix(hash);
+    }
+
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 15);
+    }
+
+    /**
+     * One independently locked open-addressing table
+     * Slots hold entry index + 1; entry bytes are stored back to back in a byte pool
+     */
+    private final class Segment {
+        private int[] slots = new int[64];
+        private int[] hashes = new int[32];
+        private int[] offsets = new int[32];
+        private int[] lengths = new int[32];
+        private String[] terms = new String[32];
+        private byte[] pool = new byte[512];
+        private int poolSize;
+        private int size;
+
+        private synchronized String intern(int hash, byte[] bytes, int offset, int length, boolean ascii) {
+            int mask = slots.length - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int entry = slots[slot] - 1;
+                if (entry < 0) {
+                    String term = ascii
+                            ? new String(bytes, offset, length, StandardCharsets.ISO_8859_1)
+                            : new String(bytes, offset, length, StandardCharsets.UTF_8);
+                    add(slot, hash, bytes, offset, length, term);
+                    return term;
+                }
+                if (hashes[entry] == hash && lengths[entry] == length
+                        && Arrays.equals(pool, offsets[entry], offsets[entry] + length, bytes, offset, offset + length)) {
+                    recordHit(ascii ? length : terms[entry].length() * 2);
+                    return terms[entry];
+                }
+            }
+        }
+
+        private synchronized String intern(int hash, String token, byte[] utf8) {
+            int mask = slots.length - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int entry = slots[slot] - 1;
+                if (entry < 0) {
+                    byte[] bytes = utf8 != null ? utf8 : token.getBytes(StandardCharsets.ISO_8859_1);
+                    add(slot, hash, bytes, 0, bytes.length, token);
+                    return token;
+                }
+                if (hashes[entry] == hash && terms[entry].equals(token)) {
+                    if (terms[entry] != token) {
+                        recordHit(utf8 == null ? token.length() : token.length() * 2);
+                    }
+                    return terms[entry];
+                }
+            }
+        }
+
+        private synchronized int indexOf(int hash, String term) {
+            int mask = slots.length - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int entry = slots[slot] - 1;
+                if (entry < 0) {
+                    return -1;
+                }
+                if (hashes[entry] == hash && terms[entry].equals(term)) {
+                    return entry;
+                }
+            }
+        }
+
+        private synchronized String term(int entry) {
+            return terms[entry];
+        }
+
+        private synchronized int size() {
+            return size;
+        }
+
+        private void add(int slot, int hash, byte[] bytes, int offset, int length, String term) {
+            if (size == maxTermsPerSegment) {
+                return;
+            }
+            if (size == terms.length) {
+                int capacity = size * 2;
+                hashes = Arrays.copyOf(hashes, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                terms = Arrays.copyOf(terms, capacity);
+            }
+            if (poolSize + length > pool.length) {
+                pool = Arrays.copyOf(pool, Math.max(pool.length * 2, poolSize + length));
+            }
+            System.arraycopy(bytes, offset, pool, poolSize, length);
+            hashes[size] = hash;
+            offsets[size] = poolSize;
+            lengths[size] = length;
+            terms[size] = term;
+            poolSize += length;
+            slots[slot] = ++size;
+            if (size * 2 > slots.length) {
+                rehash();
+            }
+        }
+
+        private void rehash() {
+            int[] resized = new int[slots.length * 2];
+            int mask = resized.length - 1;
+            for (int entry = 0; entry < size; entry++) {
+                int slot = hashes[entry] & mask;
+                while (resized[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                resized[slot] = entry + 1;
+            }
+            slots = resized;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.csg.searchindexer.handler;
+
+import java.util.function.Consumer;
+
+/**
+ * Receives the words of a file in order
+ * Sinks that care about line structure can also observe the end of every input line
+ */
+@FunctionalInterface
+public interface TokenSink extends Consumer<String> {
+
+    /**
+     * Receives a word as a view that is only valid during the call
+     * Sinks that can work on characters override this to avoid building a String per word
+     *
+     * @param word the word; call toString to keep it
+     */
+    default void accept(CharSequence word) {
+        accept(word.toString());
+    }
+
+    /**
+     * Called after the last word of each line, including lines without words
+     */
+    default void endOfLine() {
+    }
+}
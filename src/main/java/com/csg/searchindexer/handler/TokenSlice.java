@@ -0,0 +1,104 @@
+package com.csg.searchindexer.handler;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reusable view of one word in the tokenizer's input buffer
+ * ASCII words are read straight from the buffer, so length and characters cost no allocation; a
+ * String is only built when a consumer asks for one, and then at most once per word. Non-ASCII words
+ * are decoded on first access so length and characters match those of the decoded String exactly.
+ * The view is repositioned for every word, so consumers must not keep a reference to it.
+ */
+final class TokenSlice implements CharSequence {
+    private final TermInterner interner;
+    private ByteBuffer buffer;
+    private int offset;
+    private int length;
+    private boolean ascii;
+    private String materialized;
+    private byte[] copy = new byte[64];
+
+    TokenSlice(TermInterner interner) {
+        this.interner = interner;
+    }
+
+    /**
+     * Points the view at the next word
+     *
+     * @param buffer the buffer holding the word's UTF-8 bytes
+     * @param offset the first byte of the word
+     * @param length the number of bytes in the word
+     * @param ascii whether all bytes are below 0x80
+     * @return this view
+     */
+    TokenSlice set(ByteBuffer buffer, int offset, int length, boolean ascii) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+        this.ascii = ascii;
+        this.materialized = null;
+        return this;
+    }
+
+    /**
+     * @return the number of UTF-8 bytes in the word
+     */
+    int byteLength() {
+        return length;
+    }
+
+    boolean isAscii() {
+        return ascii;
+    }
+
+    /**
+     * Copies the word's UTF-8 bytes without materializing it
+     *
+     * @param target the array to copy into
+     * @param targetOffset the first index to write
+     */
+    void copyBytes(byte[] target, int targetOffset) {
+        buffer.get(offset, target, targetOffset, length);
+    }
+
+    @Override
+    public int length() {
+        return ascii ? length : toString().length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (!ascii) {
+            return toString().charAt(index);
+        }
+        if (index < 0 || index >= length) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        return (char) buffer.get(offset + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        if (materialized == null) {
+            if (length > copy.length) {
+                copy = Arrays.copyOf(copy, Math.max(copy.length * 2, length));
+            }
+            buffer.get(offset, copy, 0, length);
+            if (interner != null) {
+                materialized = interner.intern(copy, 0, length, ascii);
+            } else {
+                materialized = ascii
+                        ? new String(copy, 0, length, StandardCharsets.ISO_8859_1)
+                        : new String(copy, 0, length, StandardCharsets.UTF_8);
+            }
+        }
+        return materialized;
+    }
+}
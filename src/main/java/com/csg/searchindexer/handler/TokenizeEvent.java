@@ -0,0 +1,33 @@
+package com.csg.searchindexer.handler;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event spanning the tokenization of a file or of one parallel chunk of it
+ * Words are fed to the rules as they are found, so the duration includes word dispatch
+ */
+@Name("com.csg.searchindexer.Tokenize")
+@Label("Tokenize")
+@Category("Search Indexer")
+@Description("Tokenization of a byte range of a file, including dispatch of its words to the rules")
+@StackTrace(false)
+class TokenizeEvent extends jdk.jfr.Event {
+    @Label("Path")
+    String path;
+
+    @Label("Start Offset")
+    @DataAmount
+    long startOffset;
+
+    @Label("End Offset")
+    @DataAmount
+    long endOffset;
+
+    @Label("Words")
+    long tokens;
+}
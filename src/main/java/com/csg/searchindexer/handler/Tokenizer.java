@@ -0,0 +1,12 @@
+package com.csg.searchindexer.handler;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Splits a text file into words
+ * Implementations must produce the same words and line ends in the same order for the same file
+ */
+public interface Tokenizer {
+    void tokenize(Path path, TokenSink sink) throws IOException;
+}
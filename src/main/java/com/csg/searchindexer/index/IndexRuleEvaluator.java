@@ -0,0 +1,29 @@
+package com.csg.searchindexer.index;
+
+import com.csg.searchindexer.business.rules.ProcessingRule;
+import com.csg.searchindexer.handler.FusedRuleEvaluator;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates processing rules from index term statistics instead of the source text
+ * Every term is replayed as often as it occurs, so counts match a scan of the source files;
+ * word lists hold the same words but grouped by term in term id order rather than in text order
+ */
+public final class IndexRuleEvaluator {
+
+    private IndexRuleEvaluator() {
+    }
+
+    public static Map<String, Object> evaluate(TermStatistics statistics, List<ProcessingRule> rules) {
+        FusedRuleEvaluator evaluator = new FusedRuleEvaluator(rules);
+        for (int termId = 0; termId < statistics.getTermCount(); termId++) {
+            String term = statistics.getTerm(termId);
+            for (long i = statistics.termFrequency(termId); i > 0; i--) {
+                evaluator.accept(term);
+            }
+        }
+        return evaluator.results();
+    }
+}
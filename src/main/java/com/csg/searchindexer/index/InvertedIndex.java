@@ -0,0 +1,184 @@
+package com.csg.searchindexer.index;
+
+import com.csg.searchindexer.handler.TokenSink;
+import com.csg.searchindexer.handler.Tokenizer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * In-memory inverted index built from the token stream of one or more files
+ * Terms get dense int ids from a TermDictionary, and postings of (document, line) ids are kept
+ * in primitive int blocks together with the total frequency of every term. An index created with
+ * positions also records the word position of every occurrence for {@link PhraseQuery}.
+ */
+public class InvertedIndex implements TermStatistics {
+    private final TermDictionary dictionary = new TermDictionary();
+    private final PostingsStore postings = new PostingsStore();
+    private final PositionalPostings positions;
+    private final List<String> documents = new ArrayList<>();
+    private long[] termFrequencies = new long[16];
+    private long tokenCount;
+    // Document of the last added token and the position the next token of that document gets
+    private int positionDocument = -1;
+    private int nextPosition;
+
+    public InvertedIndex() {
+        this(false);
+    }
+
+    /**
+     * @param storePositions whether to record word positions for phrase and proximity queries
+     */
+    public InvertedIndex(boolean storePositions) {
+        this.positions = storePositions ? new PositionalPostings() : null;
+    }
+
+    /**
+     * Tokenizes a file and adds it as a new document
+     *
+     * @param path the file to index
+     * @param tokenizer the tokenizer that splits the file into words
+     * @return the id of the new document
+     * @throws IOException if the file cannot be read
+     */
+    public int addDocument(Path path, Tokenizer tokenizer) throws IOException {
+        int documentId = addDocument(path.toString());
+        tokenizer.tokenize(path, new DocumentSink(documentId));
+        return documentId;
+    }
+
+    /**
+     * Registers a new document whose tokens are added with {@link #add(int, int, String)}
+     *
+     * @param name the document name, usually its path
+     * @return the id of the new document
+     */
+    public int addDocument(String name) {
+        documents.add(name);
+        return documents.size() - 1;
+    }
+
+    /**
+     * Adds one token occurrence
+     * Tokens must be added in document and line order; the position of a token is the number of tokens
+     * added to its document before it
+     *
+     * @param documentId the document id
+     * @param line the line id within the document
+     * @param term the token
+     */
+    public void add(int documentId, int line, String term) {
+        int termId = dictionary.add(term);
+        if (termId == termFrequencies.length) {
+            termFrequencies = Arrays.copyOf(termFrequencies, termId * 2);
+        }
+        termFrequencies[termId]++;
+        postings.add(termId, documentId, line);
+        if (positions != null) {
+            if (documentId != positionDocument) {
+                positionDocument = documentId;
+                nextPosition = 0;
+            }
+            positions.add(termId, documentId, nextPosition++);
+        }
+        tokenCount++;
+    }
+
+    public TermDictionary getDictionary() {
+        return dictionary;
+    }
+
+    public PostingsStore getPostings() {
+        return postings;
+    }
+
+    public boolean hasPositions() {
+        return positions != null;
+    }
+
+    /**
+     * @return the positional postings
+     * @throws IllegalStateException if the index was created without positions
+     */
+    public PositionalPostings getPositions() {
+        if (positions == null) {
+            throw new IllegalStateException("Index was created without positions");
+        }
+        return positions;
+    }
+
+    @Override
+    public int getTermCount() {
+        return dictionary.size();
+    }
+
+    @Override
+    public String getTerm(int termId) {
+        return dictionary.term(termId);
+    }
+
+    @Override
+    public long termFrequency(int termId) {
+        if (termId < 0 || termId >= dictionary.size()) {
+            throw new IndexOutOfBoundsException("Unknown term id: " + termId);
+        }
+        return termFrequencies[termId];
+    }
+
+    @Override
+    public List<String> getDocuments() {
+        return Collections.unmodifiableList(documents);
+    }
+
+    @Override
+    public long getTokenCount() {
+        return tokenCount;
+    }
+
+    /**
+     * Estimates the heap used by the index
+     *
+     * @return the estimated size in bytes
+     */
+    public long ramBytesUsed() {
+        return dictionary.ramBytesUsed() + postings.ramBytesUsed() + RamUsage.sizeOf(termFrequencies)
+                + (positions == null ? 0 : positions.ramBytesUsed());
+    }
+
+    /**
+     * Estimates the heap used per posting by the postings storage alone
+     *
+     * @return the estimated bytes per posting, or 0 for an empty index
+     */
+    public double postingsBytesPerPosting() {
+        long count = postings.postingCount();
+        return count == 0 ? 0 : (double) postings.ramBytesUsed() / count;
+    }
+
+    /**
+     * Feeds the tokens of one document into the index, numbering lines from 0
+     */
+    private final class DocumentSink implements TokenSink {
+        private final int documentId;
+        private int line;
+
+        private DocumentSink(int documentId) {
+            this.documentId = documentId;
+        }
+
+        @Override
+        public void accept(String word) {
+            add(documentId, line, word);
+        }
+
+        @Override
+        public void endOfLine() {
+            line++;
+        }
+    }
+}
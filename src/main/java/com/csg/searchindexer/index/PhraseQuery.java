@@ -0,0 +1,210 @@
+package com.csg.searchindexer.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Phrase and proximity search over the positional postings of an {@link InvertedIndex}
+ * Documents containing every term are found by leapfrogging the term cursors from the rarest term,
+ * and only those documents have their positions matched, so evaluation decodes each postings entry of
+ * the query terms at most once and never looks at other terms.
+ */
+public class PhraseQuery {
+    private final List<String> terms;
+    private final int distance;
+    private final boolean exact;
+
+    private PhraseQuery(List<String> terms, int distance, boolean exact) {
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("A phrase query needs at least one term");
+        }
+        this.terms = terms;
+        this.distance = distance;
+        this.exact = exact;
+    }
+
+    /**
+     * Matches the terms as consecutive words, in order
+     *
+     * @param terms the words of the phrase
+     * @return a new query
+     */
+    public static PhraseQuery phrase(String... terms) {
+        return new PhraseQuery(List.of(terms), terms.length - 1, true);
+    }
+
+    /**
+     * Matches the terms in any order when the first and last of them are at most distance words apart
+     * Two adjacent words are one word apart; a term given twice only needs to occur once.
+     *
+     * @param distance the largest distance between the first and last matched word
+     * @param terms the words to find near each other
+     * @return a new query
+     */
+    public static PhraseQuery near(int distance, String... terms) {
+        if (distance < 0) {
+            throw new IllegalArgumentException("Distance must not be negative: " + distance);
+        }
+        return new PhraseQuery(List.copyOf(new LinkedHashSet<>(Arrays.asList(terms))), distance, false);
+    }
+
+    public List<String> getTerms() {
+        return terms;
+    }
+
+    /**
+     * Finds every match of the query
+     *
+     * @param index an index created with positions
+     * @return the matches in document and position order
+     * @throws IllegalStateException if the index was created without positions
+     */
+    public List<Match> search(InvertedIndex index) {
+        PositionalPostings postings = index.getPositions();
+        PositionalPostings.Positions[] cursors = new PositionalPostings.Positions[terms.size()];
+        int[] documentFrequencies = new int[terms.size()];
+        Integer[] order = new Integer[terms.size()];
+        for (int i = 0; i < terms.size(); i++) {
+            int termId = index.getDictionary().lookup(terms.get(i));
+            if (termId < 0) {
+                return Collections.emptyList();
+            }
+            cursors[i] = postings.positions(termId);
+            documentFrequencies[i] = postings.documentFrequency(termId);
+            order[i] = i;
+        }
+        // The rarest term leads, so the other cursors skip ahead to its few documents
+        Arrays.sort(order, Comparator.comparingInt(i -> documentFrequencies[i]));
+
+        List<Match> matches = new ArrayList<>();
+        PositionalPostings.Positions lead = cursors[order[0]];
+        int target = 0;
+        while (lead.advance(target)) {
+            target = lead.documentId();
+            boolean allMatch = true;
+            for (int i = 1; i < order.length && allMatch; i++) {
+                PositionalPostings.Positions cursor = cursors[order[i]];
+                if (!cursor.advance(target)) {
+                    return matches;
+                }
+                if (cursor.documentId() > target) {
+                    target = cursor.documentId();
+                    allMatch = false;
+                }
+            }
+            if (allMatch) {
+                if (exact) {
+                    matchPhrase(cursors, target, matches);
+                } else {
+                    matchNear(cursors, target, matches);
+                }
+                target++;
+            }
+        }
+        return matches;
+    }
+
+    private static void matchPhrase(PositionalPostings.Positions[] cursors, int documentId, List<Match> matches) {
+        int[] next = new int[cursors.length];
+        PositionalPostings.Positions first = cursors[0];
+        for (int i = 0; i < first.frequency(); i++) {
+            int start = first.position(i);
+            boolean found = true;
+            for (int term = 1; term < cursors.length && found; term++) {
+                // Starts only grow, so each term's positions are walked once per document
+                PositionalPostings.Positions cursor = cursors[term];
+                while (next[term] < cursor.frequency() && cursor.position(next[term]) < start + term) {
+                    next[term]++;
+                }
+                found = next[term] < cursor.frequency() && cursor.position(next[term]) == start + term;
+            }
+            if (found) {
+                matches.add(new Match(documentId, start, start + cursors.length - 1));
+            }
+        }
+    }
+
+    private void matchNear(PositionalPostings.Positions[] cursors, int documentId, List<Match> matches) {
+        // Sweep the smallest current position forward; a window starts there whenever every term fits
+        int[] next = new int[cursors.length];
+        while (true) {
+            int lowest = 0;
+            int highestPosition = Integer.MIN_VALUE;
+            for (int term = 0; term < cursors.length; term++) {
+                int position = cursors[term].position(next[term]);
+                if (position < cursors[lowest].position(next[lowest])) {
+                    lowest = term;
+                }
+                highestPosition = Math.max(highestPosition, position);
+            }
+            int lowestPosition = cursors[lowest].position(next[lowest]);
+            if (highestPosition - lowestPosition <= distance) {
+                matches.add(new Match(documentId, lowestPosition, highestPosition));
+            }
+            if (++next[lowest] == cursors[lowest].frequency()) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return exact ? "\"" + String.join(" ", terms) + "\"" : terms + " within " + distance;
+    }
+
+    /**
+     * One occurrence of a query in a document
+     */
+    public static final class Match {
+        private final int documentId;
+        private final int startPosition;
+        private final int endPosition;
+
+        Match(int documentId, int startPosition, int endPosition) {
+            this.documentId = documentId;
+            this.startPosition = startPosition;
+            this.endPosition = endPosition;
+        }
+
+        public int getDocumentId() {
+            return documentId;
+        }
+
+        /**
+         * @return the position of the first matched word
+         */
+        public int getStartPosition() {
+            return startPosition;
+        }
+
+        /**
+         * @return the position of the last matched word
+         */
+        public int getEndPosition() {
+            return endPosition;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Match)) {
+                return false;
+            }
+            Match match = (Match) other;
+            return documentId == match.documentId && startPosition == match.startPosition && endPosition == match.endPosition;
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * documentId + startPosition) * 31 + endPosition;
+        }
+
+        @Override
+        public String toString() {
+            return documentId + ":" + startPosition + "-" + endPosition;
+        }
+    }
+}
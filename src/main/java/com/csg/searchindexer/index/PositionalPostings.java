@@ -0,0 +1,270 @@
+package com.csg.searchindexer.index;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Positional postings: for every term id, the documents it occurs in and its word positions there
+ * Each term owns one contiguous byte block of (document delta, frequency, position deltas) entries, all
+ * variable-byte encoded, so a position usually costs a single byte. The positions of the document being
+ * added are buffered as one token stream and encoded term by term when the next document starts.
+ */
+public class PositionalPostings {
+    private static final byte[] EMPTY = new byte[0];
+    private static final int INITIAL_BLOCK = 8;
+
+    private byte[][] blocks = new byte[16][];
+    private int[] lengths = new int[16];
+    private int[] lastDocuments = new int[16];
+    private int[] documentFrequencies = new int[16];
+    private int termCount;
+    private long positionCount;
+
+    // Tokens of the document being added, chained per term through next so each term's run is encoded at once
+    private int pendingDocument = -1;
+    private boolean pendingOpen;
+    private int[] pendingTerms = new int[64];
+    private int[] pendingPositions = new int[64];
+    private int[] pendingNext = new int[64];
+    private int pendingCount;
+    // First and last pending token of every term, or -1 for terms not in the pending document
+    private int[] heads = newHeads(16);
+    private int[] tails = new int[16];
+    private int[] touchedTerms = new int[16];
+    private int touchedCount;
+
+    /**
+     * Records an occurrence
+     * Documents must be added in ascending order, and positions in ascending order within a document.
+     * A document is complete once a later document is added or the postings are read.
+     *
+     * @param termId the term id
+     * @param documentId the document id
+     * @param position the word position within the document
+     */
+    public void add(int termId, int documentId, int position) {
+        if (documentId != pendingDocument || !pendingOpen) {
+            flush();
+            if (documentId <= pendingDocument) {
+                throw new IllegalStateException("Document " + documentId + " was already added");
+            }
+            pendingDocument = documentId;
+            pendingOpen = true;
+        }
+        if (termId >= heads.length) {
+            int[] grown = newHeads(Math.max(heads.length * 2, termId + 1));
+            System.arraycopy(heads, 0, grown, 0, heads.length);
+            heads = grown;
+            tails = Arrays.copyOf(tails, heads.length);
+        }
+        if (pendingCount == pendingTerms.length) {
+            pendingTerms = Arrays.copyOf(pendingTerms, pendingCount * 2);
+            pendingPositions = Arrays.copyOf(pendingPositions, pendingCount * 2);
+            pendingNext = Arrays.copyOf(pendingNext, pendingCount * 2);
+        }
+        int token = pendingCount++;
+        pendingTerms[token] = termId;
+        pendingPositions[token] = position;
+        pendingNext[token] = -1;
+        if (heads[termId] >= 0) {
+            if (position <= pendingPositions[tails[termId]]) {
+                throw new IllegalStateException("Positions must ascend within document " + documentId);
+            }
+            pendingNext[tails[termId]] = token;
+        } else {
+            if (touchedCount == touchedTerms.length) {
+                touchedTerms = Arrays.copyOf(touchedTerms, touchedCount * 2);
+            }
+            touchedTerms[touchedCount++] = termId;
+            heads[termId] = token;
+        }
+        tails[termId] = token;
+    }
+
+    /**
+     * @param termId the term id
+     * @return the number of documents the term occurs in
+     */
+    public int documentFrequency(int termId) {
+        flush();
+        return termId < termCount ? documentFrequencies[termId] : 0;
+    }
+
+    /**
+     * @return the number of positions recorded over all terms
+     */
+    public long positionCount() {
+        return positionCount + pendingCount;
+    }
+
+    /**
+     * Opens a cursor over the postings of a term
+     * The document being added is encoded first, so it cannot receive more words afterwards
+     *
+     * @param termId the term id
+     * @return a cursor positioned before the first document
+     */
+    public Positions positions(int termId) {
+        flush();
+        if (termId < 0 || termId >= termCount || blocks[termId] == null) {
+            return new Positions(ByteBuffer.wrap(EMPTY));
+        }
+        return new Positions(ByteBuffer.wrap(blocks[termId], 0, lengths[termId]));
+    }
+
+    /**
+     * Estimates the heap used by the encoded postings, including unused block capacity
+     *
+     * @return the estimated size in bytes
+     */
+    public long ramBytesUsed() {
+        flush();
+        long bytes = RamUsage.align(RamUsage.OBJECT_HEADER + 12 * RamUsage.REFERENCE + 5 * Integer.BYTES + Long.BYTES + 1)
+                + RamUsage.sizeOf(blocks) + RamUsage.sizeOf(lengths) + RamUsage.sizeOf(lastDocuments)
+                + RamUsage.sizeOf(documentFrequencies) + RamUsage.sizeOf(heads) + RamUsage.sizeOf(tails)
+                + RamUsage.sizeOf(touchedTerms) + RamUsage.sizeOf(pendingTerms) + RamUsage.sizeOf(pendingPositions)
+                + RamUsage.sizeOf(pendingNext);
+        for (int termId = 0; termId < termCount; termId++) {
+            if (blocks[termId] != null) {
+                bytes += RamUsage.align(RamUsage.ARRAY_HEADER + blocks[termId].length);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Encodes the buffered document into the blocks of its terms
+     */
+    private void flush() {
+        for (int i = 0; i < touchedCount; i++) {
+            int termId = touchedTerms[i];
+            int frequency = 0;
+            for (int token = heads[termId]; token >= 0; token = pendingNext[token]) {
+                frequency++;
+            }
+            ensureTerm(termId);
+            int length = ensureRoom(termId, (2 + frequency) * VarInt.MAX_INT_BYTES);
+            byte[] block = blocks[termId];
+            length = VarInt.write(block, length, pendingDocument - lastDocuments[termId]);
+            length = VarInt.write(block, length, frequency);
+            int previous = 0;
+            for (int token = heads[termId]; token >= 0; token = pendingNext[token]) {
+                length = VarInt.write(block, length, pendingPositions[token] - previous);
+                previous = pendingPositions[token];
+            }
+            lengths[termId] = length;
+            lastDocuments[termId] = pendingDocument;
+            documentFrequencies[termId]++;
+            heads[termId] = -1;
+        }
+        positionCount += pendingCount;
+        pendingCount = 0;
+        touchedCount = 0;
+        pendingOpen = false;
+    }
+
+    private static int[] newHeads(int capacity) {
+        int[] heads = new int[capacity];
+        Arrays.fill(heads, -1);
+        return heads;
+    }
+
+    private void ensureTerm(int termId) {
+        if (termId >= blocks.length) {
+            int capacity = Math.max(blocks.length * 2, termId + 1);
+            blocks = Arrays.copyOf(blocks, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            lastDocuments = Arrays.copyOf(lastDocuments, capacity);
+            documentFrequencies = Arrays.copyOf(documentFrequencies, capacity);
+        }
+        termCount = Math.max(termCount, termId + 1);
+    }
+
+    /**
+     * @return the current length of the term's block, which has room for the given number of bytes after it
+     */
+    private int ensureRoom(int termId, int bytes) {
+        byte[] block = blocks[termId];
+        int length = lengths[termId];
+        if (block == null) {
+            blocks[termId] = new byte[Math.max(INITIAL_BLOCK, bytes)];
+        } else if (length + bytes > block.length) {
+            blocks[termId] = Arrays.copyOf(block, Math.max(length + bytes, block.length + (block.length >> 1)));
+        }
+        return length;
+    }
+
+    /**
+     * Forward-only cursor decoding the documents and positions of one term
+     */
+    public static final class Positions {
+        private final ByteBuffer in;
+        private int documentId = -1;
+        private int frequency;
+        private int[] positions = new int[8];
+
+        private Positions(ByteBuffer in) {
+            this.in = in;
+        }
+
+        /**
+         * Advances to the next document and decodes the term's positions in it
+         *
+         * @return false once all documents have been read
+         */
+        public boolean next() {
+            if (!in.hasRemaining()) {
+                frequency = 0;
+                return false;
+            }
+            documentId = documentId < 0 ? VarInt.readInt(in) : documentId + VarInt.readInt(in);
+            frequency = VarInt.readInt(in);
+            if (frequency > positions.length) {
+                positions = new int[Math.max(frequency, positions.length * 2)];
+            }
+            int position = 0;
+            for (int i = 0; i < frequency; i++) {
+                position += VarInt.readInt(in);
+                positions[i] = position;
+            }
+            return true;
+        }
+
+        /**
+         * Advances to the first document at or after the target
+         *
+         * @param target the document id to reach
+         * @return false if no such document exists
+         */
+        public boolean advance(int target) {
+            while (documentId < target) {
+                if (!next()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public int documentId() {
+            return documentId;
+        }
+
+        /**
+         * @return the number of positions of the term in the current document
+         */
+        public int frequency() {
+            return frequency;
+        }
+
+        /**
+         * @param index the index of the position, from 0 to frequency(), exclusive
+         * @return the position, in ascending order of index
+         */
+        public int position(int index) {
+            if (index < 0 || index >= frequency) {
+                throw new IndexOutOfBoundsException("Position " + index + " of " + frequency);
+            }
+            return positions[index];
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.csg.searchindexer.index;
+
+import java.util.Arrays;
+
+/**
+ * Primitive postings storage: for every term id, the (document id, line id) pairs where the term occurs
+ * Each term owns one growable int[] block with the pairs interleaved, so a posting costs two ints
+ * plus amortized growth slack instead of two boxed Integers and their list slots
+ */
+public class PostingsStore {
+    private static final int[] EMPTY = new int[0];
+    private static final int INITIAL_BLOCK = 4;
+
+    private int[][] blocks = new int[16][];
+    private int[] lengths = new int[16];
+    private int termCount;
+    private long postingCount;
+
+    /**
+     * Records an occurrence; repeated occurrences on the same line produce a single posting
+     * Documents and lines must be added in ascending order per term
+     *
+     * @param termId the term id
+     * @param documentId the document id
+     * @param line the line id within the document
+     */
+    public void add(int termId, int documentId, int line) {
+        if (termId >= blocks.length) {
+            int capacity = Math.max(blocks.length * 2, termId + 1);
+            blocks = Arrays.copyOf(blocks, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        termCount = Math.max(termCount, termId + 1);
+
+        int[] block = blocks[termId];
+        int length = lengths[termId];
+        if (block == null) {
+            block = blocks[termId] = new int[INITIAL_BLOCK];
+        } else if (block[length - 2] == documentId && block[length - 1] == line) {
+            return;
+        } else if (length == block.length) {
+            block = blocks[termId] = Arrays.copyOf(block, (length + (length >> 1) + 2) & ~1);
+        }
+        block[length] = documentId;
+        block[length + 1] = line;
+        lengths[termId] = length + 2;
+        postingCount++;
+    }
+
+    /**
+     * @param termId the term id
+     * @return the number of postings of the term
+     */
+    public int size(int termId) {
+        return termId < termCount ? lengths[termId] >> 1 : 0;
+    }
+
+    public int documentId(int termId, int index) {
+        return block(termId, index)[index << 1];
+    }
+
+    public int line(int termId, int index) {
+        return block(termId, index)[(index << 1) + 1];
+    }
+
+    public long postingCount() {
+        return postingCount;
+    }
+
+    /**
+     * Estimates the heap used by the postings, including unused block capacity
+     *
+     * @return the estimated size in bytes
+     */
+    public long ramBytesUsed() {
+        long bytes = RamUsage.align(RamUsage.OBJECT_HEADER + 2 * RamUsage.REFERENCE + Integer.BYTES + Long.BYTES)
+                + RamUsage.sizeOf(blocks) + RamUsage.sizeOf(lengths);
+        for (int termId = 0; termId < termCount; termId++) {
+            bytes += RamUsage.sizeOf(blocks[termId]);
+        }
+        return bytes;
+    }
+
+    private int[] block(int termId, int index) {
+        if (index < 0 || index >= size(termId)) {
+            throw new IndexOutOfBoundsException("Posting " + index + " of term " + termId);
+        }
+        return blocks[termId];
+    }
+}
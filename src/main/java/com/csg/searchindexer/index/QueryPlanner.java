@@ -0,0 +1,217 @@
+package com.csg.searchindexer.index;
+
+import com.csg.searchindexer.business.rules.LengthFilterRule;
+import com.csg.searchindexer.business.rules.ProcessingRule;
+import com.csg.searchindexer.business.rules.StartsWithLetterRule;
+import com.csg.searchindexer.business.rules.StartsWithPrefixRule;
+import com.csg.searchindexer.business.rules.TopKRule;
+import com.csg.searchindexer.business.stats.FirstCharacterTable;
+import com.csg.searchindexer.business.stats.PrefixTrie;
+import com.csg.searchindexer.business.stats.TermCounts;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Answers processing rules from precomputed index statistics where possible
+ * StartsWithLetterRule is served from term frequencies grouped by first code point, LengthFilterRule
+ * from terms bucketed by length and exact TopKRule from a table of term frequencies, all built once in
+ * time proportional to the number of distinct terms. StartsWithPrefixRule is served from a {@link PrefixTrie}
+ * of the sorted terms, so each prefix costs its length plus the number of matching terms.
+ * Other rules fall back to a scan of all term occurrences through {@link IndexRuleEvaluator}
+ */
+public class QueryPlanner {
+    private static final Logger LOGGER = Logger.getLogger(QueryPlanner.class.getName());
+
+    private final TermStatistics statistics;
+    private FirstCharacterTable firstCharacters;
+    private int[][] termsByLength;
+    private TermCounts termCounts;
+    private PrefixTrie prefixTrie;
+
+    public QueryPlanner(TermStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Tests whether a rule is answered from statistics instead of a scan
+     * Only the exact built-in classes qualify, since subclasses may change their behaviour
+     *
+     * @param rule the rule to test
+     * @return true if the rule is answered from statistics
+     */
+    public boolean canAnswerFromStatistics(ProcessingRule rule) {
+        return rule.getClass() == StartsWithLetterRule.class || rule.getClass() == LengthFilterRule.class
+                || rule.getClass() == StartsWithPrefixRule.class
+                || rule.getClass() == TopKRule.class && ((TopKRule) rule).getMode() == TopKRule.Mode.EXACT;
+    }
+
+    /**
+     * Evaluates the rules, answering each from statistics when possible
+     * Results are identical to {@link IndexRuleEvaluator#evaluate(TermStatistics, List)}
+     *
+     * @param rules the rules to evaluate
+     * @return the rule results keyed by rule name, in rule order
+     */
+    public Map<String, Object> evaluate(List<ProcessingRule> rules) {
+        List<ProcessingRule> scanned = new ArrayList<>();
+        for (ProcessingRule rule : rules) {
+            if (!canAnswerFromStatistics(rule)) {
+                scanned.add(rule);
+            }
+        }
+        LOGGER.log(Level.INFO, "Answering {0} of {1} rules from index statistics",
+                new Object[]{rules.size() - scanned.size(), rules.size()});
+        Map<String, Object> scannedResults = scanned.isEmpty()
+                ? Map.of() : IndexRuleEvaluator.evaluate(statistics, scanned);
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (ProcessingRule rule : rules) {
+            Object result;
+            if (rule.getClass() == StartsWithLetterRule.class) {
+                result = ((StartsWithLetterRule) rule).resultFrom(firstCharacters());
+            } else if (rule.getClass() == LengthFilterRule.class) {
+                LengthFilterRule lengthRule = (LengthFilterRule) rule;
+                result = lengthRule.isCountOnly() ? countWithLength(lengthRule) : wordsWithLength(lengthRule);
+            } else if (rule.getClass() == StartsWithPrefixRule.class) {
+                result = ((StartsWithPrefixRule) rule).resultFrom(prefixTrie());
+            } else if (canAnswerFromStatistics(rule)) {
+                result = ((TopKRule) rule).resultFrom(termCounts());
+            } else {
+                result = scannedResults.get(rule.getRuleName());
+            }
+            results.put(rule.getRuleName(), result);
+        }
+        return results;
+    }
+
+    private long countWithLength(LengthFilterRule rule) {
+        buildLengthBuckets();
+        long count = 0;
+        for (int length = 0; length < termsByLength.length; length++) {
+            if (rule.matches(length)) {
+                for (int termId : termsByLength[length]) {
+                    count += statistics.termFrequency(termId);
+                }
+            }
+        }
+        return count;
+    }
+
+    private List<String> wordsWithLength(LengthFilterRule rule) {
+        buildLengthBuckets();
+        int matchingTerms = 0;
+        for (int length = 0; length < termsByLength.length; length++) {
+            if (rule.matches(length)) {
+                matchingTerms += termsByLength[length].length;
+            }
+        }
+
+        int[] termIds = new int[matchingTerms];
+        int count = 0;
+        for (int length = 0; length < termsByLength.length; length++) {
+            if (rule.matches(length)) {
+                System.arraycopy(termsByLength[length], 0, termIds, count, termsByLength[length].length);
+                count += termsByLength[length].length;
+            }
+        }
+        // Same order as a scan of the term occurrences
+        Arrays.sort(termIds);
+
+        List<String> words = new ArrayList<>();
+        for (int termId : termIds) {
+            String term = statistics.getTerm(termId);
+            for (long i = statistics.termFrequency(termId); i > 0; i--) {
+                words.add(term);
+            }
+        }
+        return words;
+    }
+
+    private FirstCharacterTable firstCharacters() {
+        if (firstCharacters == null) {
+            FirstCharacterTable table = new FirstCharacterTable();
+            for (int termId = 0; termId < statistics.getTermCount(); termId++) {
+                table.add(statistics.getTerm(termId), statistics.termFrequency(termId));
+            }
+            firstCharacters = table;
+        }
+        return firstCharacters;
+    }
+
+    private TermCounts termCounts() {
+        if (termCounts == null) {
+            TermCounts counts = new TermCounts();
+            for (int termId = 0; termId < statistics.getTermCount(); termId++) {
+                counts.add(statistics.getTerm(termId), statistics.termFrequency(termId));
+            }
+            termCounts = counts;
+        }
+        return termCounts;
+    }
+
+    private PrefixTrie prefixTrie() {
+        if (prefixTrie == null) {
+            int termCount = statistics.getTermCount();
+            String[] terms = new String[termCount];
+            boolean sorted = true;
+            for (int termId = 0; termId < termCount; termId++) {
+                terms[termId] = statistics.getTerm(termId);
+                sorted &= termId == 0 || terms[termId - 1].compareTo(terms[termId]) < 0;
+            }
+            long[] frequencies = new long[termCount];
+            if (sorted) {
+                // Segments sort their dictionary by UTF-8 bytes, which is String order for all but a few terms
+                for (int termId = 0; termId < termCount; termId++) {
+                    frequencies[termId] = statistics.termFrequency(termId);
+                }
+            } else {
+                Integer[] order = new Integer[termCount];
+                for (int termId = 0; termId < termCount; termId++) {
+                    order[termId] = termId;
+                }
+                Arrays.sort(order, (a, b) -> terms[a].compareTo(terms[b]));
+                String[] sortedTerms = new String[termCount];
+                for (int i = 0; i < termCount; i++) {
+                    sortedTerms[i] = terms[order[i]];
+                    frequencies[i] = statistics.termFrequency(order[i]);
+                }
+                System.arraycopy(sortedTerms, 0, terms, 0, termCount);
+            }
+            prefixTrie = new PrefixTrie(terms, frequencies);
+        }
+        return prefixTrie;
+    }
+
+    private void buildLengthBuckets() {
+        if (termsByLength != null) {
+            return;
+        }
+        int termCount = statistics.getTermCount();
+        int[] lengths = new int[termCount];
+        int maxLength = 0;
+        for (int termId = 0; termId < termCount; termId++) {
+            lengths[termId] = statistics.getTerm(termId).length();
+            maxLength = Math.max(maxLength, lengths[termId]);
+        }
+
+        int[] counts = new int[maxLength + 1];
+        for (int length : lengths) {
+            counts[length]++;
+        }
+        int[][] buckets = new int[maxLength + 1][];
+        for (int length = 0; length <= maxLength; length++) {
+            buckets[length] = new int[counts[length]];
+        }
+        int[] filled = new int[maxLength + 1];
+        for (int termId = 0; termId < termCount; termId++) {
+            buckets[lengths[termId]][filled[lengths[termId]]++] = termId;
+        }
+        termsByLength = buckets;
+    }
+}
@@ -0,0 +1,43 @@
+package com.csg.searchindexer.index;
+
+/**
+ * Shallow heap size estimates for index structures
+ * Assumes a 64-bit JVM with compressed references: 12 byte object headers, 16 byte array headers,
+ * 4 byte references and 8 byte alignment
+ */
+final class RamUsage {
+    static final int OBJECT_HEADER = 12;
+    static final int ARRAY_HEADER = 16;
+    static final int REFERENCE = 4;
+
+    private RamUsage() {
+    }
+
+    static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    static long sizeOf(int[] array) {
+        return array == null ? 0 : align(ARRAY_HEADER + (long) Integer.BYTES * array.length);
+    }
+
+    static long sizeOf(long[] array) {
+        return array == null ? 0 : align(ARRAY_HEADER + (long) Long.BYTES * array.length);
+    }
+
+    static long sizeOf(Object[] array) {
+        return array == null ? 0 : align(ARRAY_HEADER + (long) REFERENCE * array.length);
+    }
+
+    /**
+     * Estimates a string with its backing array, assuming the compact Latin-1 representation when possible
+     */
+    static long sizeOf(String value) {
+        if (value == null) {
+            return 0;
+        }
+        boolean latin1 = value.chars().allMatch(c -> c < 256);
+        return align(OBJECT_HEADER + REFERENCE + 3 * Integer.BYTES)
+                + align(ARRAY_HEADER + (long) value.length() * (latin1 ? 1 : 2));
+    }
+}
@@ -0,0 +1,254 @@
+package com.csg.searchindexer.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Read-only view of a segment file written by {@link SegmentWriter}
+ * The file is memory mapped and only the header and document names are decoded on open;
+ * terms and postings are decoded from the mapping on demand
+ */
+public class Segment implements TermStatistics {
+    static final int MAGIC = 0x43534749;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int HEADER_CHECKSUM_OFFSET = 48;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int termCount;
+    private final long tokenCount;
+    private final int termIndexOffset;
+    private final int termsOffset;
+    private final int postingsOffset;
+    private final int end;
+    private final int bodyChecksum;
+    private final List<String> documents;
+
+    private Segment(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a segment file: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported segment version " + buffer.getInt(4) + ": " + path);
+        }
+        CRC32C headerChecksum = new CRC32C();
+        headerChecksum.update(buffer.slice(0, HEADER_CHECKSUM_OFFSET));
+        if ((int) headerChecksum.getValue() != buffer.getInt(HEADER_CHECKSUM_OFFSET)) {
+            throw new IOException("Corrupt segment header: " + path);
+        }
+
+        termCount = buffer.getInt(8);
+        int documentCount = buffer.getInt(12);
+        tokenCount = buffer.getLong(16);
+        int documentsOffset = buffer.getInt(24);
+        termIndexOffset = buffer.getInt(28);
+        termsOffset = buffer.getInt(32);
+        postingsOffset = buffer.getInt(36);
+        end = buffer.getInt(40);
+        bodyChecksum = buffer.getInt(44);
+        if (end != buffer.capacity()) {
+            throw new IOException("Truncated segment, expected " + end + " bytes: " + path);
+        }
+
+        ByteBuffer in = buffer.slice(documentsOffset, termIndexOffset - documentsOffset);
+        List<String> names = new ArrayList<>(documentCount);
+        for (int i = 0; i < documentCount; i++) {
+            names.add(readString(in));
+        }
+        documents = Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Opens a segment file
+     *
+     * @param path the segment file
+     * @return the opened segment
+     * @throws IOException if the file cannot be mapped or its header is invalid
+     */
+    public static Segment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Segment larger than 2 GB: " + path);
+            }
+            return new Segment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Checks the body checksum; reads the whole segment
+     *
+     * @throws IOException if the segment content does not match its checksum
+     */
+    public void verify() throws IOException {
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.slice(HEADER_SIZE, end - HEADER_SIZE));
+        if ((int) checksum.getValue() != bodyChecksum) {
+            throw new IOException("Corrupt segment body: " + path);
+        }
+    }
+
+    @Override
+    public int getTermCount() {
+        return termCount;
+    }
+
+    /**
+     * Returns a term by its ordinal; terms are sorted by their UTF-8 bytes
+     */
+    @Override
+    public String getTerm(int termId) {
+        return readString(entry(termId));
+    }
+
+    @Override
+    public long termFrequency(int termId) {
+        ByteBuffer in = entry(termId);
+        skipString(in);
+        return VarInt.readLong(in);
+    }
+
+    /**
+     * @param termId the term ordinal
+     * @return the number of postings of the term
+     */
+    public int postingCount(int termId) {
+        ByteBuffer in = entry(termId);
+        skipString(in);
+        VarInt.readLong(in);
+        return VarInt.readInt(in);
+    }
+
+    /**
+     * Looks up a term by binary search over the sorted dictionary
+     *
+     * @param term the term to find
+     * @return the term ordinal, or -1 if the term is not in the segment
+     */
+    public int lookup(String term) {
+        byte[] key = term.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compare(entry(middle), key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Opens a cursor over the postings of a term
+     *
+     * @param termId the term ordinal
+     * @return a cursor positioned before the first posting
+     */
+    public Postings postings(int termId) {
+        ByteBuffer in = entry(termId);
+        skipString(in);
+        VarInt.readLong(in);
+        int count = VarInt.readInt(in);
+        int offset = VarInt.readInt(in);
+        return new Postings(buffer.slice(postingsOffset + offset, end - postingsOffset - offset), count);
+    }
+
+    @Override
+    public List<String> getDocuments() {
+        return documents;
+    }
+
+    @Override
+    public long getTokenCount() {
+        return tokenCount;
+    }
+
+    private ByteBuffer entry(int termId) {
+        if (termId < 0 || termId >= termCount) {
+            throw new IndexOutOfBoundsException("Unknown term ordinal: " + termId);
+        }
+        int offset = termsOffset + buffer.getInt(termIndexOffset + termId * Integer.BYTES);
+        return buffer.slice(offset, postingsOffset - offset);
+    }
+
+    private static int compare(ByteBuffer in, byte[] key) {
+        int length = VarInt.readInt(in);
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int comparison = Integer.compare(in.get() & 0xFF, key[i] & 0xFF);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[VarInt.readInt(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(ByteBuffer in) {
+        int length = VarInt.readInt(in);
+        in.position(in.position() + length);
+    }
+
+    /**
+     * Forward-only cursor decoding the delta-encoded postings of one term
+     */
+    public static final class Postings {
+        private final ByteBuffer in;
+        private int remaining;
+        private int documentId;
+        private int line;
+        private boolean started;
+
+        private Postings(ByteBuffer in, int count) {
+            this.in = in;
+            this.remaining = count;
+        }
+
+        /**
+         * Advances to the next posting
+         *
+         * @return false once all postings have been read
+         */
+        public boolean next() {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            int documentDelta = VarInt.readInt(in);
+            int lineValue = VarInt.readInt(in);
+            line = started && documentDelta == 0 ? line + lineValue : lineValue;
+            documentId += documentDelta;
+            started = true;
+            return true;
+        }
+
+        public int documentId() {
+            return documentId;
+        }
+
+        public int line() {
+            return line;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.csg.searchindexer.index;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
+
+/**
+ * Writes an in-memory index as an immutable segment file
+ *
+ * Layout, all offsets in bytes from the start of the file:
+ * <pre>
+ * header    magic, version, term and document counts, token count, section offsets,
+ *           CRC32C of the body and CRC32C of the header itself
+ * documents per document: varint length, UTF-8 name
+ * termIndex per term: int offset of the term entry within the terms section
+ * terms     per term, sorted by UTF-8 bytes: varint length, UTF-8 term, varint frequency,
+ *           varint posting count, varint offset of its postings within the postings section
+ * postings  per posting: varint document delta, then the line as a delta from the previous
+ *           line of the same document or as an absolute value for a new document
+ * </pre>
+ */
+public final class SegmentWriter {
+
+    private SegmentWriter() {
+    }
+
+    /**
+     * Writes the index to a new segment file
+     * The segment is written to a temporary file next to the target and moved into place once complete
+     *
+     * @param index the index to write
+     * @param path the segment file to create
+     * @throws IOException if the segment cannot be written or would exceed 2 GB
+     */
+    public static void write(InvertedIndex index, Path path) throws IOException {
+        TermDictionary dictionary = index.getDictionary();
+        PostingsStore postings = index.getPostings();
+        int termCount = dictionary.size();
+
+        byte[][] termBytes = new byte[termCount][];
+        for (int termId = 0; termId < termCount; termId++) {
+            termBytes[termId] = dictionary.term(termId).getBytes(StandardCharsets.UTF_8);
+        }
+        int[] order = IntStream.range(0, termCount).boxed()
+                .sorted((a, b) -> Arrays.compareUnsigned(termBytes[a], termBytes[b]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        ByteArrayOutputStream documents = new ByteArrayOutputStream();
+        for (String document : index.getDocuments()) {
+            byte[] name = document.getBytes(StandardCharsets.UTF_8);
+            VarInt.write(documents, name.length);
+            documents.write(name, 0, name.length);
+        }
+
+        ByteBuffer termIndex = ByteBuffer.allocate(Math.multiplyExact(termCount, Integer.BYTES));
+        ByteArrayOutputStream terms = new ByteArrayOutputStream();
+        ByteArrayOutputStream postingBytes = new ByteArrayOutputStream();
+        for (int termId : order) {
+            termIndex.putInt(terms.size());
+            VarInt.write(terms, termBytes[termId].length);
+            terms.write(termBytes[termId], 0, termBytes[termId].length);
+            VarInt.write(terms, index.termFrequency(termId));
+            int postingCount = postings.size(termId);
+            VarInt.write(terms, postingCount);
+            VarInt.write(terms, postingBytes.size());
+
+            int previousDocument = 0;
+            int previousLine = 0;
+            for (int i = 0; i < postingCount; i++) {
+                int document = postings.documentId(termId, i);
+                int line = postings.line(termId, i);
+                VarInt.write(postingBytes, document - previousDocument);
+                VarInt.write(postingBytes, i > 0 && document == previousDocument ? line - previousLine : line);
+                previousDocument = document;
+                previousLine = line;
+            }
+        }
+
+        long documentsOffset = Segment.HEADER_SIZE;
+        long termIndexOffset = documentsOffset + documents.size();
+        long termsOffset = termIndexOffset + termIndex.capacity();
+        long postingsOffset = termsOffset + terms.size();
+        long end = postingsOffset + postingBytes.size();
+        if (end > Integer.MAX_VALUE) {
+            throw new IOException("Segment would exceed 2 GB: " + end + " bytes");
+        }
+
+        ByteBuffer[] body = {
+                ByteBuffer.wrap(documents.toByteArray()),
+                termIndex.flip(),
+                ByteBuffer.wrap(terms.toByteArray()),
+                ByteBuffer.wrap(postingBytes.toByteArray())
+        };
+        CRC32C bodyChecksum = new CRC32C();
+        for (ByteBuffer section : body) {
+            bodyChecksum.update(section.duplicate());
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(Segment.HEADER_SIZE);
+        header.putInt(Segment.MAGIC)
+                .putInt(Segment.VERSION)
+                .putInt(termCount)
+                .putInt(index.getDocuments().size())
+                .putLong(index.getTokenCount())
+                .putInt((int) documentsOffset)
+                .putInt((int) termIndexOffset)
+                .putInt((int) termsOffset)
+                .putInt((int) postingsOffset)
+                .putInt((int) end)
+                .putInt((int) bodyChecksum.getValue());
+        CRC32C headerChecksum = new CRC32C();
+        headerChecksum.update(header.array(), 0, Segment.HEADER_CHECKSUM_OFFSET);
+        header.putInt(Segment.HEADER_CHECKSUM_OFFSET, (int) headerChecksum.getValue());
+        header.clear();
+
+        Path directory = path.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                writeFully(channel, header);
+                for (ByteBuffer section : body) {
+                    writeFully(channel, section);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
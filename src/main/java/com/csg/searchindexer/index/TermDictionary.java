@@ -0,0 +1,114 @@
+package com.csg.searchindexer.index;
+
+import java.util.Arrays;
+
+/**
+ * Maps terms to dense int ids
+ * Open-addressing hash table with linear probing; ids are assigned in insertion order
+ */
+public class TermDictionary {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private String[] terms = new String[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+    private int size;
+
+    /**
+     * Returns the id of a term, assigning the next free id if the term is new
+     *
+     * @param term the term to add
+     * @return the term id
+     */
+    public int add(String term) {
+        int hash = hash(term);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            int id = entry - 1;
+            if (hashes[id] == hash && terms[id].equals(term)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int id = size++;
+        if (id == terms.length) {
+            terms = Arrays.copyOf(terms, id * 2);
+            hashes = Arrays.copyOf(hashes, id * 2);
+        }
+        terms[id] = term;
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return id;
+    }
+
+    /**
+     * Looks up a term without adding it
+     *
+     * @param term the term to look up
+     * @return the term id, or -1 if the term is unknown
+     */
+    public int lookup(String term) {
+        int hash = hash(term);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            int id = entry - 1;
+            if (hashes[id] == hash && terms[id].equals(term)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public String term(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Unknown term id: " + id);
+        }
+        return terms[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Estimates the heap used by the dictionary, including the term strings
+     *
+     * @return the estimated size in bytes
+     */
+    public long ramBytesUsed() {
+        long bytes = RamUsage.align(RamUsage.OBJECT_HEADER + 3 * RamUsage.REFERENCE + Integer.BYTES)
+                + RamUsage.sizeOf(terms) + RamUsage.sizeOf(hashes) + RamUsage.sizeOf(slots);
+        for (int id = 0; id < size; id++) {
+            bytes += RamUsage.sizeOf(terms[id]);
+        }
+        return bytes;
+    }
+
+    private void rehash(int capacity) {
+        int[] rehashed = new int[capacity];
+        int mask = capacity - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (rehashed[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            rehashed[slot] = id + 1;
+        }
+        slots = rehashed;
+    }
+
+    private static int hash(String term) {
+        // Spread String.hashCode so that similar terms do not cluster under linear probing
+        int h = term.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,27 @@
+package com.csg.searchindexer.index;
+
+import java.util.List;
+
+/**
+ * Read access to the per-term statistics of an index
+ * Implemented by the in-memory index and by on-disk segments
+ */
+public interface TermStatistics {
+
+    /**
+     * @return the number of distinct terms; term ids run from 0 to this value, exclusive
+     */
+    int getTermCount();
+
+    String getTerm(int termId);
+
+    /**
+     * @param termId the term id
+     * @return the number of occurrences of the term over all documents
+     */
+    long termFrequency(int termId);
+
+    List<String> getDocuments();
+
+    long getTokenCount();
+}
@@ -0,0 +1,59 @@
+package com.csg.searchindexer.index;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Variable-byte encoding of non-negative integers, seven bits per byte, low bits first
+ */
+final class VarInt {
+    // The most bytes an int takes, which is what an array must have room for before writing one
+    static final int MAX_INT_BYTES = 5;
+
+    private VarInt() {
+    }
+
+    static void write(ByteArrayOutputStream out, long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value cannot be varint encoded: " + value);
+        }
+        while (value >= 0x80) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * Writes an int into an array with room for {@link #MAX_INT_BYTES} bytes at the offset
+     *
+     * @return the offset after the written bytes
+     */
+    static int write(byte[] out, int offset, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value cannot be varint encoded: " + value);
+        }
+        while (value >= 0x80) {
+            out[offset++] = (byte) (value | 0x80);
+            value >>>= 7;
+        }
+        out[offset++] = (byte) value;
+        return offset;
+    }
+
+    static long readLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    static int readInt(ByteBuffer in) {
+        return Math.toIntExact(readLong(in));
+    }
+}
@@ -0,0 +1,213 @@
+package com.csg.searchindexer.server;
+
+import com.csg.searchindexer.handler.FileProcessor;
+import com.csg.searchindexer.handler.IncrementalCache;
+import com.csg.searchindexer.handler.ResultCache;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Long-lived HTTP front end that keeps one warmed {@link FileProcessor} resident
+ * Repeated index requests then skip JVM startup and run JIT-compiled tokenizer and rule code.
+ * {@code GET /index?path=<file>}, or a POST with the path as body, returns the rule results as a JSON
+ * object, and {@code GET /stats} returns request counts with p50/p99 latency. Requests run concurrently
+ * on virtual threads. The server only listens on the loopback interface, because it reads any file its
+ * user can read.
+ */
+public class IndexServer {
+    private static final Logger LOGGER = Logger.getLogger(IndexServer.class.getName());
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final int WARMUP_WORDS = 200_000;
+
+    private final FileProcessor processor;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * Binds the server without accepting requests yet
+     *
+     * @param processor the processor that answers every request
+     * @param port the loopback port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public IndexServer(FileProcessor processor, int port) throws IOException {
+        this.processor = processor;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/index", this::handleIndex);
+        server.createContext("/stats", this::handleStats);
+    }
+
+    /**
+     * Processes a generated file repeatedly, so the first requests already run compiled code
+     * The caches are bypassed, so the generated file leaves no cache entry behind.
+     * Call before {@link #start()}.
+     *
+     * @param iterations how often to process the file
+     * @throws IOException if the file cannot be written or processed
+     */
+    public void warmUp(int iterations) throws IOException {
+        Path file = Files.createTempFile("indexer-warmup", ".txt");
+        IncrementalCache cache = processor.getIncrementalCache();
+        ResultCache resultCache = processor.getResultCache();
+        processor.setIncrementalCache(null);
+        processor.setResultCache(null);
+        try {
+            Random random = new Random(42);
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < WARMUP_WORDS; i++) {
+                text.append(i % 12 == 11 ? "M" : "w").append(Integer.toString(random.nextInt(5000), 36));
+                text.append(i % 12 == 11 ? ".\n" : " ");
+            }
+            Files.writeString(file, text);
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                processor.processFile(file.toString());
+            }
+            LOGGER.log(Level.INFO, "Warmed up with {0} runs in {1} ms",
+                    new Object[]{iterations, (System.nanoTime() - start) / 1_000_000});
+        } finally {
+            processor.setIncrementalCache(cache);
+            processor.setResultCache(resultCache);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    public void start() {
+        server.start();
+        LOGGER.log(Level.INFO, "Listening on http://{0}:{1,number,#}",
+                new Object[]{server.getAddress().getHostString(), getPort()});
+    }
+
+    /**
+     * Stops accepting requests, waits briefly for running ones and logs the latency summary
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        LOGGER.log(Level.INFO, "Served {0} requests ({1} failed), p50 {2} us, p99 {3} us",
+                new Object[]{latencies.getCount(), failures.get(),
+                        latencies.getPercentileMicros(50), latencies.getPercentileMicros(99)});
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return the processing latency of every index request, including failed ones
+     */
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    private void handleIndex(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        int status;
+        Object body;
+        String path = queryParameter(exchange, "path");
+        if (path == null && exchange.getRequestMethod().equals("POST")) {
+            path = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8).trim();
+        }
+        if (!isReadMethod(exchange)) {
+            status = 405;
+            body = error("Use GET or POST");
+        } else if (path == null || path.isEmpty()) {
+            status = 400;
+            body = error("Missing query parameter: path");
+        } else {
+            try {
+                body = processor.processFile(path);
+                status = 200;
+            } catch (InvalidPathException e) {
+                status = 400;
+                body = error(e.getMessage());
+            } catch (IOException e) {
+                status = Files.exists(Paths.get(path)) ? 500 : 404;
+                body = error(e.getMessage());
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Error processing " + path, e);
+                status = 500;
+                body = error(e.toString());
+            }
+        }
+        if (status != 200) {
+            failures.incrementAndGet();
+        }
+        latencies.record(System.nanoTime() - start);
+        respond(exchange, status, body);
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", latencies.getCount());
+        stats.put("failures", failures.get());
+        stats.put("p50Micros", latencies.getPercentileMicros(50));
+        stats.put("p99Micros", latencies.getPercentileMicros(99));
+        stats.put("maxMicros", latencies.getMaxMicros());
+        respond(exchange, 200, stats);
+    }
+
+    private static boolean isReadMethod(HttpExchange exchange) {
+        String method = exchange.getRequestMethod();
+        return method.equals("GET") || method.equals("POST");
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            String key = separator < 0 ? parameter : parameter.substring(0, separator);
+            if (URLDecoder.decode(key, StandardCharsets.UTF_8).equals(name)) {
+                return separator < 0 ? "" : URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("error", message);
+        return error;
+    }
+
+    private static void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] json = JsonWriter.write(body).getBytes(StandardCharsets.UTF_8);
+        try (exchange) {
+            exchange.getResponseHeaders().set("Content-Type", JSON);
+            exchange.sendResponseHeaders(status, json.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(json);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.csg.searchindexer.server;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Minimal JSON serialization of rule results
+ * Maps become objects with their keys as strings, iterables and arrays of objects become arrays, numbers
+ * and booleans are written as is, and everything else is written as its string value.
+ */
+final class JsonWriter {
+
+    private JsonWriter() {
+    }
+
+    static String write(Object value) {
+        StringBuilder json = new StringBuilder();
+        write(json, value);
+        return json.toString();
+    }
+
+    private static void write(StringBuilder json, Object value) {
+        if (value == null) {
+            json.append("null");
+        } else if (value instanceof Boolean || value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            json.append(value);
+        } else if (value instanceof Number) {
+            double number = ((Number) value).doubleValue();
+            // JSON has no literal for NaN or infinity
+            if (Double.isNaN(number) || Double.isInfinite(number)) {
+                json.append("null");
+            } else {
+                json.append(value);
+            }
+        } else if (value instanceof Map) {
+            json.append('{');
+            Iterator<? extends Map.Entry<?, ?>> entries = ((Map<?, ?>) value).entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<?, ?> entry = entries.next();
+                writeString(json, String.valueOf(entry.getKey()));
+                json.append(':');
+                write(json, entry.getValue());
+                if (entries.hasNext()) {
+                    json.append(',');
+                }
+            }
+            json.append('}');
+        } else if (value instanceof Iterable) {
+            json.append('[');
+            Iterator<?> elements = ((Iterable<?>) value).iterator();
+            while (elements.hasNext()) {
+                write(json, elements.next());
+                if (elements.hasNext()) {
+                    json.append(',');
+                }
+            }
+            json.append(']');
+        } else if (value instanceof Object[]) {
+            write(json, Arrays.asList((Object[]) value));
+        } else {
+            writeString(json, value.toString());
+        }
+    }
+
+    private static void writeString(StringBuilder json, String text) {
+        json.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,115 @@
+package com.csg.searchindexer.business;
+
+import com.csg.searchindexer.business.rules.LengthFilterRule;
+import com.csg.searchindexer.business.rules.ProcessingRule;
+import com.csg.searchindexer.business.rules.RuleAccumulator;
+import com.csg.searchindexer.business.rules.StreamingRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the RuleCompiler class
+ */
+public class RuleCompilerTest {
+
+    private final List<String> words = Arrays.asList("Man", "woman", "Mouse", "cat", "elephant", "mammoth");
+
+    @Test
+    void testCompiledDispatchFeedsEveryAccumulatorInOrder() {
+        List<String> seen = new ArrayList<>();
+        RuleAccumulator[] accumulators = {
+                recording("a", seen),
+                StreamingRule.accumulatorFor(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'M', true)),
+                recording("b", seen),
+                new LengthFilterRule(4, LengthFilterRule.FilterType.GREATER_THAN).newAccumulator()
+        };
+
+        TokenDispatcher dispatcher = RuleCompiler.compile(accumulators);
+        for (String word : words) {
+            dispatcher.dispatch(accumulators, word);
+        }
+
+        assertTrue(dispatcher.getClass().isHidden());
+        assertEquals(12, seen.size());
+        assertEquals(Arrays.asList("a:Man", "b:Man", "a:woman"), seen.subList(0, 3));
+        assertEquals(3L, accumulators[1].result());
+        assertEquals(Arrays.asList("woman", "Mouse", "elephant", "mammoth"), accumulators[3].result());
+    }
+
+    @Test
+    void testCompiledDispatchOfWordViews() {
+        List<String> seen = new ArrayList<>();
+        RuleAccumulator[] accumulators = {
+                StreamingRule.accumulatorFor(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'M', true)),
+                recording("a", seen),
+                new LengthFilterRule(4, LengthFilterRule.FilterType.GREATER_THAN, true).newAccumulator()
+        };
+
+        TokenDispatcher dispatcher = RuleCompiler.compile(accumulators);
+        for (String word : words) {
+            dispatcher.dispatch(accumulators, new StringBuilder(word));
+        }
+
+        assertEquals(3L, accumulators[0].result());
+        assertEquals(6, seen.size());
+        assertEquals(4L, accumulators[2].result());
+    }
+
+    @Test
+    void testDispatcherIsReusableAcrossStates() {
+        ProcessingRule rule = RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'c', false);
+        TokenDispatcher dispatcher = RuleCompiler.compile(new RuleAccumulator[]{StreamingRule.accumulatorFor(rule)});
+
+        for (int run = 0; run < 3; run++) {
+            RuleAccumulator[] state = {StreamingRule.accumulatorFor(rule)};
+            for (String word : words) {
+                dispatcher.dispatch(state, word);
+            }
+            assertEquals(1L, state[0].result());
+        }
+    }
+
+    @Test
+    void testListBasedRulesAndNoRules() {
+        ProcessingRule countRule = new ProcessingRule() {
+            @Override
+            public String getRuleName() {
+                return "Count Rule";
+            }
+
+            @Override
+            public Object process(List<String> wordList) {
+                return wordList.size();
+            }
+        };
+        RuleAccumulator[] state = {StreamingRule.accumulatorFor(countRule)};
+        TokenDispatcher dispatcher = RuleCompiler.compile(state);
+        words.forEach(word -> dispatcher.dispatch(state, word));
+
+        assertEquals(6, state[0].result());
+        RuleCompiler.compile(new RuleAccumulator[0]).dispatch(new RuleAccumulator[0], "word");
+    }
+
+    private static RuleAccumulator recording(String name, List<String> seen) {
+        return new RuleAccumulator() {
+            @Override
+            public void accept(String word) {
+                seen.add(name + ":" + word);
+            }
+
+            @Override
+            public Object result() {
+                return null;
+            }
+
+            @Override
+            public void merge(RuleAccumulator other) {
+            }
+        };
+    }
+}
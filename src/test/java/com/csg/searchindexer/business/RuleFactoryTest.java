@@ -1,8 +1,13 @@
 package com.csg.searchindexer.business;
 
+import com.csg.searchindexer.business.rules.DistinctCountRule;
 import com.csg.searchindexer.business.rules.LengthFilterRule;
 import com.csg.searchindexer.business.rules.ProcessingRule;
+import com.csg.searchindexer.business.rules.RuleDescriptor;
 import com.csg.searchindexer.business.rules.StartsWithLetterRule;
+import com.csg.searchindexer.business.rules.StartsWithPrefixRule;
+import com.csg.searchindexer.business.rules.TermFrequencyRule;
+import com.csg.searchindexer.business.rules.TopKRule;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
@@ -76,6 +81,107 @@ public class RuleFactoryTest {
         assertTrue(result.contains("hippopotamus"));
     }
 
+    @Test
+    void testCreateRuleWithCountOnlyLengthFilter() {
+        ProcessingRule rule = RuleFactory.createRule(
+                RuleFactory.RuleType.LENGTH_FILTER,
+                5,
+                LengthFilterRule.FilterType.GREATER_THAN,
+                true
+        );
+
+        assertTrue(((LengthFilterRule) rule).isCountOnly());
+        assertEquals("Words with length > 5 (count)", rule.getRuleName());
+    }
+
+    @Test
+    void testCreateRuleWithCodePoint() {
+        ProcessingRule rule = RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 0x10400, true);
+
+        assertTrue(rule instanceof StartsWithLetterRule);
+        assertEquals(0x10400, ((StartsWithLetterRule) rule).getCodePoint());
+    }
+
+    @Test
+    void testCreateSketchRules() {
+        ProcessingRule distinct = RuleFactory.createRule(RuleFactory.RuleType.APPROXIMATE_DISTINCT_COUNT);
+        assertEquals(new DistinctCountRule(DistinctCountRule.DEFAULT_RELATIVE_ERROR), distinct);
+        assertEquals(new DistinctCountRule(0.05), RuleFactory.createRule(RuleFactory.RuleType.APPROXIMATE_DISTINCT_COUNT, 0.05));
+
+        ProcessingRule frequency = RuleFactory.createRule(RuleFactory.RuleType.APPROXIMATE_TERM_FREQUENCY, "Monday");
+        assertEquals(new TermFrequencyRule(List.of("Monday")), frequency);
+        ProcessingRule configured = RuleFactory.createRule(RuleFactory.RuleType.APPROXIMATE_TERM_FREQUENCY,
+                List.of("Monday", "Tuesday"), 0.01, 0.05);
+        assertEquals(new TermFrequencyRule(List.of("Monday", "Tuesday"), 0.01, 0.05), configured);
+        assertEquals(configured, RuleFactory.createRule(configured.getDescriptor()));
+        assertEquals(distinct, RuleFactory.createRule(distinct.getDescriptor()));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> RuleFactory.createRule(RuleFactory.RuleType.APPROXIMATE_DISTINCT_COUNT, "1%"));
+        assertThrows(IllegalArgumentException.class,
+                () -> RuleFactory.createRule(RuleFactory.RuleType.APPROXIMATE_TERM_FREQUENCY));
+        assertThrows(IllegalArgumentException.class,
+                () -> RuleFactory.createRule(RuleFactory.RuleType.APPROXIMATE_TERM_FREQUENCY, List.of(1, 2)));
+    }
+
+    @Test
+    void testCreateTopKRules() {
+        assertEquals(new TopKRule(10), RuleFactory.createRule(RuleFactory.RuleType.TOP_K, 10));
+        assertEquals(new TopKRule(10, TopKRule.Mode.SPACE_SAVING, 1000),
+                RuleFactory.createRule(RuleFactory.RuleType.TOP_K, 10, TopKRule.Mode.SPACE_SAVING));
+        ProcessingRule bounded = RuleFactory.createRule(RuleFactory.RuleType.TOP_K, 5, TopKRule.Mode.SPACE_SAVING, 50);
+        assertEquals(bounded, RuleFactory.createRule(bounded.getDescriptor()));
+        // Capacity only applies to Space-Saving, so exact rules are equal whatever it is given as
+        assertEquals(RuleFactory.createRule(RuleFactory.RuleType.TOP_K, 5, TopKRule.Mode.EXACT, 50),
+                RuleFactory.createRule(RuleFactory.RuleType.TOP_K, 5));
+
+        assertThrows(IllegalArgumentException.class, () -> RuleFactory.createRule(RuleFactory.RuleType.TOP_K));
+        assertThrows(IllegalArgumentException.class, () -> RuleFactory.createRule(RuleFactory.RuleType.TOP_K, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> RuleFactory.createRule(RuleFactory.RuleType.TOP_K, 10, TopKRule.Mode.SPACE_SAVING, 5));
+    }
+
+    @Test
+    void testCreateStartsWithPrefixRules() {
+        assertEquals(new StartsWithPrefixRule("mon", false),
+                RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_PREFIX, "mon"));
+        ProcessingRule counting = RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_PREFIX, "mon", true, true);
+        assertEquals(new StartsWithPrefixRule("mon", true, true), counting);
+        assertEquals(counting, RuleFactory.createRule(counting.getDescriptor()));
+
+        assertThrows(IllegalArgumentException.class, () -> RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_PREFIX));
+        assertThrows(IllegalArgumentException.class, () -> RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_PREFIX, 'm'));
+        assertThrows(IllegalArgumentException.class, () -> RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_PREFIX, ""));
+    }
+
+    @Test
+    void testDescriptorsAreCanonical() {
+        RuleDescriptor letter = RuleFactory.describe(RuleFactory.RuleType.STARTS_WITH_LETTER, 'M', true);
+        assertEquals(letter, RuleFactory.describe(RuleFactory.RuleType.STARTS_WITH_LETTER, (int) 'M', true));
+        assertNotEquals(letter, RuleFactory.describe(RuleFactory.RuleType.STARTS_WITH_LETTER, 'M'));
+        assertEquals("STARTS_WITH_LETTER(77, true)", letter.toString());
+
+        RuleDescriptor length = RuleFactory.describe(RuleFactory.RuleType.LENGTH_FILTER, 5, LengthFilterRule.FilterType.GREATER_THAN);
+        assertEquals(length, RuleFactory.describe(RuleFactory.RuleType.LENGTH_FILTER, 5, LengthFilterRule.FilterType.GREATER_THAN, false));
+        assertEquals("LENGTH_FILTER(5, GREATER_THAN, false)", length.toString());
+        assertEquals(length.hashCode(), RuleFactory.createRule(length).getDescriptor().hashCode());
+    }
+
+    @Test
+    void testCreateRuleFromDescriptor() {
+        ProcessingRule rule = RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 3, LengthFilterRule.FilterType.LESS_THAN, true);
+        ProcessingRule recreated = RuleFactory.createRule(rule.getDescriptor());
+        assertEquals(rule, recreated);
+        assertEquals(rule.hashCode(), recreated.hashCode());
+        assertEquals(rule.getRuleName(), recreated.getRuleName());
+
+        ProcessingRule letter = RuleFactory.createStartsWithLetterRule(0x1F600, false);
+        assertEquals(letter, RuleFactory.createRule(letter.getDescriptor()));
+        assertNotEquals(letter, RuleFactory.createStartsWithLetterRule(0x1F600, true));
+
+        assertThrows(IllegalArgumentException.class, () -> RuleFactory.createRule(new RuleDescriptor("UNKNOWN", 1)));
+    }
+
     @Test
     void testCreateRuleWithInvalidParameters() {
         // Test with no parameters
@@ -0,0 +1,45 @@
+package com.csg.searchindexer.business.rules;
+
+import com.csg.searchindexer.business.stats.HyperLogLog;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the DistinctCountRule class
+ */
+public class DistinctCountRuleTest {
+
+    @Test
+    void testEstimateAgainstExactCount() {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            words.add("w" + (i * 7919 % 25_000));
+        }
+        DistinctCountRule rule = new DistinctCountRule(0.02);
+        long exact = new HashSet<>(words).size();
+
+        long estimate = (Long) rule.process(words);
+        assertEquals(exact, estimate, exact * 4 * HyperLogLog.standardError(rule.getPrecision()));
+        assertEquals("Distinct words (approximate, 2% error)", rule.getRuleName());
+    }
+
+    @Test
+    void testRulesWithSamePrecisionShareStage() {
+        DistinctCountRule rule = new DistinctCountRule(0.01);
+
+        assertEquals(14, rule.getPrecision());
+        assertEquals(rule.getStageKey(), new DistinctCountRule(0.009).getStageKey());
+        assertNotEquals(rule.getStageKey(), new DistinctCountRule(0.05).getStageKey());
+        assertNotEquals(rule, new DistinctCountRule(0.009));
+        assertEquals(rule, new DistinctCountRule());
+        assertEquals(new RuleDescriptor("APPROXIMATE_DISTINCT_COUNT", 0.01), rule.getDescriptor());
+        assertEquals("Distinct words (approximate, 0.5% error)", new DistinctCountRule(0.005).getRuleName());
+        assertThrows(IllegalArgumentException.class, () -> new DistinctCountRule(1.5));
+        assertThrows(IllegalArgumentException.class, () -> new DistinctCountRule(0.001));
+    }
+}
@@ -1,5 +1,6 @@
 package com.csg.searchindexer.business.rules;
 
+import com.csg.searchindexer.business.stats.LengthHistogram;
 import org.junit.jupiter.api.Test;
 import java.util.Arrays;
 import java.util.List;
@@ -95,4 +96,38 @@ public class LengthFilterRuleTest {
 
         assertTrue(result.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCountOnly() {
+        LengthFilterRule rule = new LengthFilterRule(3, LengthFilterRule.FilterType.GREATER_THAN_OR_EQUAL, true);
+
+        assertEquals(3L, rule.process(testWords));
+        assertEquals("Words with length >= 3 (count)", rule.getRuleName());
+    }
+
+    @Test
+    public void testLengthRangeBounds() {
+        LengthFilterRule lessThanZero = new LengthFilterRule(0, LengthFilterRule.FilterType.LESS_THAN, true);
+        LengthFilterRule greaterThanMax = new LengthFilterRule(Integer.MAX_VALUE, LengthFilterRule.FilterType.GREATER_THAN, true);
+        LengthFilterRule lessThanMin = new LengthFilterRule(Integer.MIN_VALUE, LengthFilterRule.FilterType.LESS_THAN, true);
+
+        assertEquals(0L, lessThanZero.process(testWords));
+        assertEquals(0L, greaterThanMax.process(testWords));
+        assertEquals(0L, lessThanMin.process(testWords));
+    }
+
+    @Test
+    public void testSharedStageOnlyKeepsMatchingWords() {
+        LengthFilterRule longWords = new LengthFilterRule(3, LengthFilterRule.FilterType.GREATER_THAN);
+        LengthFilterRule shortCount = new LengthFilterRule(3, LengthFilterRule.FilterType.LESS_THAN, true);
+        LengthHistogram stage = (LengthHistogram) longWords.newStage();
+        longWords.configureStage(stage);
+        shortCount.configureStage(stage);
+        testWords.forEach(stage::accept);
+
+        assertEquals(Arrays.asList("abcd", "abcde"), longWords.resultFrom(stage));
+        assertEquals(2L, shortCount.resultFrom(stage));
+        // Only the word-returning rule's lengths were kept
+        assertThrows(IllegalStateException.class, () -> stage.words(0, 2));
+    }
+}
@@ -0,0 +1,66 @@
+package com.csg.searchindexer.business.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the RuleDescriptor class
+ */
+public class RuleDescriptorTest {
+
+    @Test
+    void testEqualityByTypeAndParameters() {
+        RuleDescriptor descriptor = new RuleDescriptor("LENGTH_FILTER", 5, LengthFilterRule.FilterType.EQUAL_TO, true);
+
+        assertEquals(descriptor, new RuleDescriptor("LENGTH_FILTER", 5, LengthFilterRule.FilterType.EQUAL_TO, true));
+        assertEquals(descriptor.hashCode(), new RuleDescriptor("LENGTH_FILTER", 5, LengthFilterRule.FilterType.EQUAL_TO, true).hashCode());
+        assertNotEquals(descriptor, new RuleDescriptor("LENGTH_FILTER", 5, LengthFilterRule.FilterType.EQUAL_TO, false));
+        assertNotEquals(descriptor, new RuleDescriptor("OTHER", 5, LengthFilterRule.FilterType.EQUAL_TO, true));
+        assertEquals(List.of(5, LengthFilterRule.FilterType.EQUAL_TO, true), descriptor.getParameters());
+        assertEquals("LENGTH_FILTER(5, EQUAL_TO, true)", descriptor.toString());
+    }
+
+    @Test
+    void testKeysDoNotCollide() {
+        RuleDescriptor descriptor = new RuleDescriptor("TYPE", List.of("a, b"), 1);
+
+        assertEquals(descriptor.toKey(), new RuleDescriptor("TYPE", List.of("a, b"), 1).toKey());
+        // Equal display strings, different descriptors
+        assertEquals(descriptor.toString(), new RuleDescriptor("TYPE", List.of("a", "b"), 1).toString());
+        assertNotEquals(descriptor.toKey(), new RuleDescriptor("TYPE", List.of("a", "b"), 1).toKey());
+        assertNotEquals(new RuleDescriptor("TYPE", "a, b").toKey(), new RuleDescriptor("TYPE", "a", "b").toKey());
+        assertNotEquals(new RuleDescriptor("TYPE", 1).toKey(), new RuleDescriptor("TYPE", 1L).toKey());
+        assertNotEquals(new RuleDescriptor("TYPE", 1).toKey(), new RuleDescriptor("TYPE", "1").toKey());
+        assertNotEquals(new RuleDescriptor("TYPE", "x").toKey(), new RuleDescriptor("TYPE", (Object) null).toKey());
+    }
+
+    @Test
+    void testParametersAreCopied() {
+        Object[] parameters = {1, 2};
+        RuleDescriptor descriptor = new RuleDescriptor("TYPE", parameters);
+        parameters[0] = 3;
+
+        assertEquals("TYPE(1, 2)", descriptor.toString());
+        assertThrows(UnsupportedOperationException.class, () -> descriptor.getParameters().set(0, 3));
+    }
+
+    @Test
+    void testDefaultDescriptorUsesClassAndName() {
+        ProcessingRule rule = new ProcessingRule() {
+            @Override
+            public String getRuleName() {
+                return "Custom";
+            }
+
+            @Override
+            public Object process(List<String> words) {
+                return words.size();
+            }
+        };
+
+        assertEquals(new RuleDescriptor(rule.getClass().getName(), "Custom"), rule.getDescriptor());
+    }
+}
@@ -179,4 +179,30 @@ public class StartsWithLetterRuleTest {
         assertEquals(6L, new StartsWithLetterRule('A', true).process(mixedCaseWords));
         assertEquals(6L, new StartsWithLetterRule('a', true).process(mixedCaseWords));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCaseInsensitiveUsesUnicodeCaseFolding() {
+        StartsWithLetterRule rule = new StartsWithLetterRule('k', true);
+        List<String> words = Arrays.asList("kelvin", "Kelvin", "\u212Aelvin", "cat");
+
+        assertEquals(3L, rule.process(words));
+    }
+
+    @Test
+    void testSupplementaryCodePoint() {
+        // DESERET CAPITAL LETTER LONG I and its small letter
+        StartsWithLetterRule sensitive = new StartsWithLetterRule(0x10400, false);
+        StartsWithLetterRule insensitive = new StartsWithLetterRule(0x10400, true);
+        List<String> words = Arrays.asList("\uD801\uDC00a", "\uD801\uDC28b", "\uD801\uDC00", "a");
+
+        assertEquals(2L, sensitive.process(words));
+        assertEquals(3L, insensitive.process(words));
+        assertEquals("Words starting with \uD801\uDC00/\uD801\uDC28", insensitive.getRuleName());
+        assertThrows(IllegalStateException.class, sensitive::getLetter);
+    }
+
+    @Test
+    void testInvalidCodePoint() {
+        assertThrows(IllegalArgumentException.class, () -> new StartsWithLetterRule(-1, false));
+    }
+}
@@ -0,0 +1,45 @@
+package com.csg.searchindexer.business.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the StartsWithPrefixRule class
+ */
+public class StartsWithPrefixRuleTest {
+
+    private final List<String> words = Arrays.asList("Monday", "month", "money", "month", "Mon", "mo", "march");
+
+    @Test
+    void testDistinctMatchingWords() {
+        StartsWithPrefixRule rule = new StartsWithPrefixRule("mon", false);
+
+        assertEquals(List.of("money", "month"), rule.process(words));
+        assertEquals(List.of("Mon", "Monday", "money", "month"), new StartsWithPrefixRule("MON", true).process(words));
+        assertEquals("Words starting with \"mon\"", rule.getRuleName());
+        assertEquals(new RuleDescriptor("STARTS_WITH_PREFIX", "mon", false, false), rule.getDescriptor());
+    }
+
+    @Test
+    void testCountOnly() {
+        StartsWithPrefixRule rule = new StartsWithPrefixRule("mon", true, true);
+
+        assertEquals(5L, rule.process(words));
+        assertEquals(3L, new StartsWithPrefixRule("mon", false, true).process(words));
+        assertEquals(0L, new StartsWithPrefixRule("x", false, true).process(words));
+        assertEquals("Words starting with \"mon\" (ignoring case) (count)", rule.getRuleName());
+    }
+
+    @Test
+    void testStageSharing() {
+        assertEquals(new StartsWithPrefixRule("a", false).getStageKey(), new StartsWithPrefixRule("b", true, true).getStageKey());
+        assertEquals(new TopKRule(3).getStageKey(), new StartsWithPrefixRule("a", false).getStageKey());
+        assertNotEquals(new StartsWithPrefixRule("a", false), new StartsWithPrefixRule("a", true));
+        assertEquals(new StartsWithPrefixRule("a", false), new StartsWithPrefixRule("a", false, false));
+        assertThrows(IllegalArgumentException.class, () -> new StartsWithPrefixRule("", false));
+    }
+}
@@ -0,0 +1,90 @@
+package com.csg.searchindexer.business.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the StreamingRule contract
+ */
+public class StreamingRuleTest {
+
+    private final List<String> words = Arrays.asList("Man", "woman", "Mouse", "cat", "elephant");
+
+    @Test
+    void testAccumulatorMatchesListProcessing() {
+        StreamingRule rule = new LengthFilterRule(3, LengthFilterRule.FilterType.GREATER_THAN);
+
+        RuleAccumulator accumulator = rule.newAccumulator();
+        words.forEach(accumulator::accept);
+
+        assertEquals(rule.process(words), accumulator.result());
+        assertEquals(Arrays.asList("woman", "Mouse", "elephant"), accumulator.result());
+    }
+
+    @Test
+    void testAccumulatorsAreIndependent() {
+        StreamingRule rule = new StartsWithLetterRule('M', false);
+
+        RuleAccumulator first = rule.newAccumulator();
+        RuleAccumulator second = rule.newAccumulator();
+        words.forEach(first::accept);
+        second.accept("Monday");
+
+        assertEquals(2L, first.result());
+        assertEquals(1L, second.result());
+    }
+
+    @Test
+    void testAccumulatorForListBasedRule() {
+        ProcessingRule countRule = new ProcessingRule() {
+            @Override
+            public String getRuleName() {
+                return "Count Rule";
+            }
+
+            @Override
+            public Object process(List<String> wordList) {
+                return wordList.size();
+            }
+        };
+
+        RuleAccumulator accumulator = StreamingRule.accumulatorFor(countRule);
+        words.forEach(accumulator::accept);
+
+        assertEquals(5, accumulator.result());
+    }
+
+    @Test
+    void testAccumulatorForStreamingRule() {
+        StreamingRule rule = new StartsWithLetterRule('c', false);
+
+        RuleAccumulator accumulator = StreamingRule.accumulatorFor(rule);
+        words.forEach(accumulator::accept);
+
+        assertEquals(1L, accumulator.result());
+    }
+
+    @Test
+    void testMergeKeepsInputOrder() {
+        StreamingRule lengthRule = new LengthFilterRule(3, LengthFilterRule.FilterType.GREATER_THAN);
+        StreamingRule letterRule = new StartsWithLetterRule('M', true);
+
+        RuleAccumulator firstHalf = lengthRule.newAccumulator();
+        RuleAccumulator secondHalf = lengthRule.newAccumulator();
+        RuleAccumulator firstCount = letterRule.newAccumulator();
+        RuleAccumulator secondCount = letterRule.newAccumulator();
+        for (int i = 0; i < words.size(); i++) {
+            (i < 2 ? firstHalf : secondHalf).accept(words.get(i));
+            (i < 2 ? firstCount : secondCount).accept(words.get(i));
+        }
+        firstHalf.merge(secondHalf);
+        firstCount.merge(secondCount);
+
+        assertEquals(lengthRule.process(words), firstHalf.result());
+        assertEquals(2L, firstCount.result());
+    }
+}
@@ -0,0 +1,54 @@
+package com.csg.searchindexer.business.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TermFrequencyRule class
+ */
+public class TermFrequencyRuleTest {
+
+    @Test
+    void testEstimatesAgainstExactCounts() {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            words.add("w" + (i % 5_000));
+            if (i % 10 == 0) {
+                words.add("Monday");
+            }
+        }
+        TermFrequencyRule rule = new TermFrequencyRule(List.of("Monday", "w42", "absent"), 0.001, 0.01);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Long> result = (Map<String, Long>) rule.process(words);
+
+        long bound = (long) Math.ceil(0.001 * words.size());
+        assertEquals(List.of("Monday", "w42", "absent"), new ArrayList<>(result.keySet()));
+        long monday = Collections.frequency(words, "Monday");
+        assertTrue(result.get("Monday") >= monday && result.get("Monday") <= monday + bound);
+        assertTrue(result.get("w42") >= 10 && result.get("w42") <= 10 + bound);
+        assertTrue(result.get("absent") <= bound);
+        assertEquals("Frequency of [Monday, w42, absent] (approximate, 0.1% error)", rule.getRuleName());
+    }
+
+    @Test
+    void testRulesWithSameBoundsShareStage() {
+        TermFrequencyRule rule = new TermFrequencyRule(List.of("a", "b"));
+
+        assertEquals(rule.getStageKey(), new TermFrequencyRule(List.of("c")).getStageKey());
+        assertNotEquals(rule.getStageKey(), new TermFrequencyRule(List.of("a", "b"), 0.01, 0.01).getStageKey());
+        assertEquals(rule, new TermFrequencyRule(List.of("a", "b"), TermFrequencyRule.DEFAULT_EPSILON, TermFrequencyRule.DEFAULT_DELTA));
+        assertNotEquals(rule, new TermFrequencyRule(List.of("b", "a")));
+        assertEquals(new RuleDescriptor("APPROXIMATE_TERM_FREQUENCY", List.of("a", "b"), 0.001, 0.01), rule.getDescriptor());
+        assertThrows(IllegalArgumentException.class, () -> new TermFrequencyRule(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> new TermFrequencyRule(List.of("a"), 0.001, 0));
+        // Each bound fits on its own, but together they need more counters than a sketch may have
+        assertThrows(IllegalArgumentException.class, () -> new TermFrequencyRule(List.of("a"), 1e-7, 1e-9));
+    }
+}
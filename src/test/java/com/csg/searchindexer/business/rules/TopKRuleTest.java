@@ -0,0 +1,54 @@
+package com.csg.searchindexer.business.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TopKRule class
+ */
+public class TopKRuleTest {
+
+    private final List<String> words = Arrays.asList("b", "a", "c", "a", "b", "a", "d");
+
+    @Test
+    void testExactTopWords() {
+        TopKRule rule = new TopKRule(2);
+
+        Map<String, Long> expected = new LinkedHashMap<>();
+        expected.put("a", 3L);
+        expected.put("b", 2L);
+        assertEquals(expected, rule.process(words));
+        assertEquals("Top 2 words", rule.getRuleName());
+        assertEquals(new RuleDescriptor("TOP_K", 2, TopKRule.Mode.EXACT), rule.getDescriptor());
+    }
+
+    @Test
+    void testSpaceSavingTopWords() {
+        TopKRule rule = new TopKRule(2, TopKRule.Mode.SPACE_SAVING, 3);
+
+        Map<String, Long> expected = new LinkedHashMap<>();
+        expected.put("a", 3L);
+        expected.put("b", 2L);
+        assertEquals(expected, rule.process(words));
+        assertEquals("Top 2 words (approximate, 3 counters)", rule.getRuleName());
+        assertEquals(1000, new TopKRule(5, TopKRule.Mode.SPACE_SAVING).getCapacity());
+        assertEquals(5000, TopKRule.defaultCapacity(500));
+    }
+
+    @Test
+    void testStageSharing() {
+        assertEquals(new TopKRule(1).getStageKey(), new TopKRule(20).getStageKey());
+        assertEquals(new TopKRule(1, TopKRule.Mode.SPACE_SAVING, 100).getStageKey(),
+                new TopKRule(20, TopKRule.Mode.SPACE_SAVING, 100).getStageKey());
+        assertNotEquals(new TopKRule(1, TopKRule.Mode.SPACE_SAVING, 100).getStageKey(),
+                new TopKRule(1, TopKRule.Mode.SPACE_SAVING, 200).getStageKey());
+        assertNotEquals(new TopKRule(1), new TopKRule(1, TopKRule.Mode.SPACE_SAVING));
+        assertThrows(IllegalArgumentException.class, () -> new TopKRule(0));
+    }
+}
@@ -0,0 +1,42 @@
+package com.csg.searchindexer.business.stats;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CaseFolding class
+ */
+public class CaseFoldingTest {
+
+    @Test
+    void testVariantsMatchEqualsIgnoreCase() {
+        // Kelvin sign, long s, dotted and dotless i, Deseret (supplementary)
+        int[] letters = {'k', 'S', 'i', 'M', '\u00DF', '\u00B5', 0x10400, '7'};
+        for (int letter : letters) {
+            String expected = Character.toString(letter);
+            int[] variants = CaseFolding.variants(letter);
+            for (int variant : variants) {
+                assertTrue(expected.equalsIgnoreCase(Character.toString(variant)), Integer.toHexString(variant));
+            }
+            int matching = 0;
+            for (int codePoint = 0; codePoint < CaseFolding.CASED_LIMIT; codePoint++) {
+                if (expected.equalsIgnoreCase(Character.toString(codePoint))) {
+                    matching++;
+                }
+            }
+            assertEquals(matching, variants.length, Integer.toHexString(letter));
+        }
+        assertArrayEquals(new int[]{'K', 'k', '\u212A'}, CaseFolding.variants('k'));
+        assertArrayEquals(new int[]{0x10400, 0x10428}, CaseFolding.variants(0x10428));
+        assertArrayEquals(new int[]{'7'}, CaseFolding.variants('7'));
+    }
+
+    @Test
+    void testNoCaseMappingsAboveLimit() {
+        for (int codePoint = CaseFolding.CASED_LIMIT; codePoint <= Character.MAX_CODE_POINT; codePoint++) {
+            assertEquals(codePoint, Character.toUpperCase(codePoint));
+            assertEquals(codePoint, Character.toLowerCase(codePoint));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.csg.searchindexer.business.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CountMinSketch class
+ */
+public class CountMinSketchTest {
+
+    @Test
+    void testEstimatesStayWithinErrorBound() {
+        double epsilon = 0.001;
+        double delta = 0.01;
+        CountMinSketch sketch = new CountMinSketch(CountMinSketch.widthFor(epsilon), CountMinSketch.depthFor(delta));
+        Map<String, Long> exact = new HashMap<>();
+        for (String word : zipfWords(200_000, 20_000)) {
+            sketch.accept(word);
+            exact.merge(word, 1L, Long::sum);
+        }
+
+        long bound = (long) Math.ceil(epsilon * sketch.getTotalCount());
+        int exceeded = 0;
+        for (Map.Entry<String, Long> entry : exact.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertTrue(estimate >= entry.getValue(), entry.getKey());
+            if (estimate - entry.getValue() > bound) {
+                exceeded++;
+            }
+        }
+        assertTrue(exceeded <= delta * exact.size(), exceeded + " of " + exact.size() + " estimates exceed the bound");
+        assertEquals(200_000L, sketch.result());
+    }
+
+    @Test
+    void testMergeMatchesSinglePass() {
+        CountMinSketch whole = new CountMinSketch(500, 4);
+        CountMinSketch first = new CountMinSketch(500, 4);
+        CountMinSketch second = new CountMinSketch(500, 4);
+        List<String> words = zipfWords(20_000, 2_000);
+        words.forEach(whole::accept);
+        words.subList(0, 12_000).forEach(first::accept);
+        words.subList(12_000, words.size()).forEach(second::accept);
+        first.merge(second);
+
+        assertEquals(whole.getTotalCount(), first.getTotalCount());
+        for (String word : words) {
+            assertEquals(whole.estimate(word), first.estimate(word));
+        }
+        assertThrows(IllegalArgumentException.class, () -> first.merge(new CountMinSketch(500, 5)));
+    }
+
+    @Test
+    void testDimensionsForErrorBounds() {
+        assertEquals(2719, CountMinSketch.widthFor(0.001));
+        assertEquals(5, CountMinSketch.depthFor(0.01));
+        assertThrows(IllegalArgumentException.class, () -> CountMinSketch.widthFor(0));
+        assertThrows(IllegalArgumentException.class, () -> CountMinSketch.widthFor(1e-8));
+        assertThrows(IllegalArgumentException.class, () -> CountMinSketch.depthFor(1));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(1 << 20, 100));
+    }
+
+    /**
+     * Generates words with Zipf-like frequencies, as in natural language text
+     */
+    private static List<String> zipfWords(int count, int vocabulary) {
+        Random random = new Random(7);
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // Inverse of a 1/x density: rank 1 is most frequent, ranks up to the vocabulary size occur
+            words.add("t" + (int) Math.floor(Math.pow(vocabulary + 1, random.nextDouble())));
+        }
+        return words;
+    }
+}
@@ -0,0 +1,65 @@
+package com.csg.searchindexer.business.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the FirstCharacterTable class
+ */
+public class FirstCharacterTableTest {
+
+    private final List<String> words = Arrays.asList("Monday", "", "Äpfel", "αβ", "𐐀x", "😀", "march", "Monday");
+
+    @Test
+    void testDenseAndSparseCounts() {
+        FirstCharacterTable table = new FirstCharacterTable();
+        words.forEach(table::accept);
+
+        assertEquals(2, table.count('M'));
+        assertEquals(1, table.count('m'));
+        assertEquals(1, table.count('Ä'));
+        assertEquals(1, table.count('α'));
+        assertEquals(1, table.count(0x10400));
+        assertEquals(1, table.count(0x1F600));
+        assertEquals(0, table.count(0xD83D));
+        assertEquals(3, table.count(new int[]{'M', 'm'}));
+    }
+
+    @Test
+    void testSparseTableGrows() {
+        FirstCharacterTable table = new FirstCharacterTable();
+        for (int codePoint = 0x4E00; codePoint < 0x4E00 + 5_000; codePoint++) {
+            table.accept(Character.toString(codePoint));
+            table.accept(Character.toString(codePoint) + "a");
+        }
+
+        for (int codePoint = 0x4E00; codePoint < 0x4E00 + 5_000; codePoint++) {
+            assertEquals(2, table.count(codePoint));
+        }
+        assertEquals(5_000, ((Map<?, ?>) table.result()).size());
+    }
+
+    @Test
+    void testMergeAndWeightedAdd() {
+        FirstCharacterTable first = new FirstCharacterTable();
+        words.subList(0, 4).forEach(first::accept);
+        FirstCharacterTable second = new FirstCharacterTable();
+        words.subList(4, words.size()).forEach(second::accept);
+        first.merge(second);
+
+        FirstCharacterTable weighted = new FirstCharacterTable();
+        weighted.add("Monday", 2);
+        weighted.add("Äpfel", 1);
+        weighted.add("αβ", 1);
+        weighted.add("𐐀x", 1);
+        weighted.add("😀", 1);
+        weighted.add("march", 1);
+
+        assertEquals(weighted.result(), first.result());
+    }
+}
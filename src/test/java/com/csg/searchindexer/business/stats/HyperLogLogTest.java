@@ -0,0 +1,70 @@
+package com.csg.searchindexer.business.stats;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the HyperLogLog class
+ */
+public class HyperLogLogTest {
+
+    @Test
+    void testEstimateStaysWithinErrorBound() {
+        int precision = 14;
+        // Four standard errors, so the deterministic inputs below pass with a wide margin
+        double bound = 4 * HyperLogLog.standardError(precision);
+        for (int distinct : new int[]{1, 10, 1_000, 20_000, 60_000, 500_000}) {
+            HyperLogLog sketch = new HyperLogLog(precision);
+            for (int i = 0; i < distinct; i++) {
+                sketch.accept("word" + i);
+            }
+            double error = Math.abs(sketch.estimate() - distinct) / (double) distinct;
+            assertTrue(error <= bound, distinct + " distinct words estimated as " + sketch.estimate());
+        }
+        assertEquals(0L, new HyperLogLog(precision).result());
+    }
+
+    @Test
+    void testRepeatedWordsCountOnce() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 1_000; i++) {
+                sketch.accept(new StringBuilder("term").append(i));
+            }
+        }
+        assertEquals(1_000, sketch.estimate(), 1_000 * 4 * HyperLogLog.standardError(12));
+    }
+
+    @Test
+    void testMergeMatchesSinglePass() {
+        HyperLogLog whole = new HyperLogLog(10);
+        HyperLogLog first = new HyperLogLog(10);
+        HyperLogLog second = new HyperLogLog(10);
+        for (int i = 0; i < 30_000; i++) {
+            whole.accept("w" + i);
+            // The halves overlap, as chunks of one file or files of one batch do
+            (i < 20_000 ? first : second).accept("w" + i);
+            if (i % 3 == 0) {
+                second.accept("w" + i);
+            }
+        }
+        first.merge(second);
+
+        assertEquals(whole.estimate(), first.estimate());
+        assertThrows(IllegalArgumentException.class, () -> first.merge(new HyperLogLog(11)));
+    }
+
+    @Test
+    void testPrecisionForRelativeError() {
+        assertEquals(14, HyperLogLog.precisionFor(0.01));
+        assertEquals(12, HyperLogLog.precisionFor(0.02));
+        assertEquals(HyperLogLog.MIN_PRECISION, HyperLogLog.precisionFor(0.5));
+        assertEquals(HyperLogLog.MAX_PRECISION, HyperLogLog.precisionFor(HyperLogLog.standardError(HyperLogLog.MAX_PRECISION)));
+        // Finer than the largest sketch can estimate, so it is rejected instead of silently capped
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.precisionFor(0.0001));
+        assertTrue(HyperLogLog.standardError(HyperLogLog.precisionFor(0.03)) <= 0.03);
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.precisionFor(0));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+    }
+}
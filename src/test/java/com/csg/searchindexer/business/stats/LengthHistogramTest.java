@@ -0,0 +1,143 @@
+package com.csg.searchindexer.business.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the LengthHistogram class
+ */
+public class LengthHistogramTest {
+
+    private final List<String> words = Arrays.asList("abc", "a", "abcdef", "ab", "xyz", "abcd", "b", "abcdefghijklmnopqrstuvwxyz0123456789");
+
+    @Test
+    void testRangeCounts() {
+        LengthHistogram histogram = new LengthHistogram();
+        words.forEach(histogram::accept);
+
+        assertEquals(8, histogram.count(0, Integer.MAX_VALUE));
+        assertEquals(2, histogram.count(1, 1));
+        assertEquals(2, histogram.count(3, 3));
+        assertEquals(5, histogram.count(Integer.MIN_VALUE, 3));
+        assertEquals(3, histogram.count(4, 100));
+        assertEquals(0, histogram.count(7, 35));
+        assertEquals(0, histogram.count(5, 4));
+        assertEquals(Map.of(1, 2L, 2, 1L, 3, 2L, 4, 1L, 6, 1L, 36, 1L), histogram.result());
+    }
+
+    @Test
+    void testLongWordsAreCountedSparsely() {
+        LengthHistogram histogram = new LengthHistogram();
+        histogram.collectWords(0, Integer.MAX_VALUE);
+        String huge = "x".repeat(5_000_000);
+        String longer = "y".repeat(LengthHistogram.DENSE_LENGTHS);
+        words.forEach(histogram::accept);
+        histogram.accept(huge);
+        histogram.accept(longer);
+        histogram.accept("z");
+
+        assertTrue(histogram.denseCapacity() <= LengthHistogram.DENSE_LENGTHS);
+        assertEquals(11, histogram.count(0, Integer.MAX_VALUE));
+        assertEquals(2, histogram.count(LengthHistogram.DENSE_LENGTHS, Integer.MAX_VALUE));
+        assertEquals(2, histogram.count(30, LengthHistogram.DENSE_LENGTHS));
+        assertEquals(1, histogram.count(LengthHistogram.DENSE_LENGTHS + 1, huge.length()));
+        assertEquals(0, histogram.count(huge.length() + 1, Integer.MAX_VALUE));
+        assertEquals(Arrays.asList("abcdefghijklmnopqrstuvwxyz0123456789", huge, longer), histogram.words(7, Integer.MAX_VALUE));
+        assertEquals(1L, ((Map<?, ?>) histogram.result()).get(huge.length()));
+
+        LengthHistogram merged = new LengthHistogram();
+        merged.collectWords(0, Integer.MAX_VALUE);
+        merged.accept(huge);
+        merged.merge(histogram);
+        assertEquals(12, merged.count(0, Integer.MAX_VALUE));
+        assertEquals(Arrays.asList(huge, huge, longer), merged.words(LengthHistogram.DENSE_LENGTHS, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void testWordsAcrossLengthsKeepInputOrder() {
+        LengthHistogram histogram = new LengthHistogram();
+        histogram.collectWords(0, Integer.MAX_VALUE);
+        words.forEach(histogram::accept);
+
+        assertEquals(Arrays.asList("abc", "a", "ab", "xyz", "b"), histogram.words(0, 3));
+        assertEquals(Arrays.asList("abcdef", "abcd", "abcdefghijklmnopqrstuvwxyz0123456789"), histogram.words(4, Integer.MAX_VALUE));
+        assertTrue(histogram.words(7, 10).isEmpty());
+    }
+
+    @Test
+    void testMergeMatchesSinglePass() {
+        LengthHistogram whole = new LengthHistogram();
+        whole.collectWords(0, Integer.MAX_VALUE);
+        words.forEach(whole::accept);
+
+        LengthHistogram first = new LengthHistogram();
+        first.collectWords(0, Integer.MAX_VALUE);
+        words.subList(0, 3).forEach(first::accept);
+        LengthHistogram second = new LengthHistogram();
+        second.collectWords(0, Integer.MAX_VALUE);
+        words.subList(3, words.size()).forEach(second::accept);
+        first.merge(second);
+
+        assertEquals(whole.getTokenCount(), first.getTokenCount());
+        assertEquals(whole.words(0, Integer.MAX_VALUE), first.words(0, Integer.MAX_VALUE));
+        assertEquals(whole.words(2, 4), first.words(2, 4));
+        assertEquals(whole.count(2, 4), first.count(2, 4));
+    }
+
+    @Test
+    void testWordsRequireCollection() {
+        LengthHistogram histogram = new LengthHistogram();
+        histogram.accept("word");
+
+        assertThrows(IllegalStateException.class, () -> histogram.words(0, 10));
+        assertThrows(IllegalStateException.class, () -> histogram.collectWords(0, 3));
+    }
+
+    @Test
+    void testOnlyCollectedRangesKeepWords() {
+        LengthHistogram histogram = new LengthHistogram();
+        histogram.collectWords(5, Integer.MAX_VALUE);
+        histogram.collectWords(1, 1);
+        histogram.collectWords(2, 2);
+        List<String> materialized = new ArrayList<>();
+        for (String word : words) {
+            histogram.accept(new CharSequence() {
+                @Override
+                public int length() {
+                    return word.length();
+                }
+
+                @Override
+                public char charAt(int index) {
+                    return word.charAt(index);
+                }
+
+                @Override
+                public CharSequence subSequence(int start, int end) {
+                    return word.subSequence(start, end);
+                }
+
+                @Override
+                public String toString() {
+                    materialized.add(word);
+                    return word;
+                }
+            });
+        }
+
+        // Words of length 0, 3 and 4 are counted but never turned into strings
+        assertEquals(Arrays.asList("a", "abcdef", "ab", "b", "abcdefghijklmnopqrstuvwxyz0123456789"), materialized);
+        assertEquals(Arrays.asList("a", "ab", "b"), histogram.words(1, 2));
+        assertEquals(Arrays.asList("abcdef", "abcdefghijklmnopqrstuvwxyz0123456789"), histogram.words(6, 100));
+        assertEquals(5, histogram.count(0, 3));
+        assertThrows(IllegalStateException.class, () -> histogram.words(0, 3));
+        assertThrows(IllegalStateException.class, () -> histogram.words(2, 5));
+        assertTrue(histogram.words(4, 3).isEmpty());
+    }
+}
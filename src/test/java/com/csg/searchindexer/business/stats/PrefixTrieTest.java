@@ -0,0 +1,84 @@
+package com.csg.searchindexer.business.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the PrefixTrie class
+ */
+public class PrefixTrieTest {
+
+    private final String[] terms = {"", "Man", "Monday", "a", "man", "mango", "many", "month", "mö", "😀smile"};
+    private final long[] frequencies = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+
+    @Test
+    void testPrefixRanges() {
+        PrefixTrie trie = new PrefixTrie(terms, frequencies);
+
+        assertEquals(List.of("man", "mango", "many"), trie.terms("man", false));
+        assertEquals(3, trie.countTerms("man", false));
+        assertEquals(18, trie.countOccurrences("man", false));
+        assertEquals(List.of("Man", "man", "mango", "many"), trie.terms("man", true));
+        assertEquals(20, trie.countOccurrences("MAN", true));
+        assertEquals(List.of("Monday", "month", "mö"), trie.terms("mo", true));
+        assertEquals(List.of("mango"), trie.terms("mango", false));
+        assertEquals(List.of("😀smile"), trie.terms("\uD83D", false));
+        assertEquals(List.of(), trie.terms("mangos", false));
+        assertEquals(0, trie.countOccurrences("x", true));
+        assertEquals(terms.length, trie.countTerms("", false));
+        assertEquals(55, trie.countOccurrences("", true));
+    }
+
+    @Test
+    void testMatchesLinearScan() {
+        Random random = new Random(5);
+        String alphabet = "aAbBßsSäÄ";
+        TreeSet<String> vocabulary = new TreeSet<>();
+        for (int i = 0; i < 2_000; i++) {
+            vocabulary.add(randomWord(random, alphabet, 8));
+        }
+        String[] sorted = vocabulary.toArray(new String[0]);
+        long[] counts = new long[sorted.length];
+        Arrays.fill(counts, 3);
+        PrefixTrie trie = new PrefixTrie(sorted, counts);
+
+        for (int i = 0; i < 300; i++) {
+            String prefix = randomWord(random, alphabet, 4);
+            for (boolean ignoreCase : new boolean[]{false, true}) {
+                List<String> expected = new ArrayList<>();
+                for (String term : sorted) {
+                    if (term.length() >= prefix.length() && term.regionMatches(ignoreCase, 0, prefix, 0, prefix.length())) {
+                        expected.add(term);
+                    }
+                }
+                assertEquals(expected, trie.terms(prefix, ignoreCase), prefix);
+                assertEquals(expected.size(), trie.countTerms(prefix, ignoreCase));
+                assertEquals(3L * expected.size(), trie.countOccurrences(prefix, ignoreCase));
+            }
+        }
+        assertTrue(trie.getNodeCount() <= Arrays.stream(sorted).mapToInt(String::length).sum() + 1);
+    }
+
+    @Test
+    void testRejectsUnsortedTerms() {
+        assertThrows(IllegalArgumentException.class, () -> new PrefixTrie(new String[]{"b", "a"}, new long[2]));
+        assertThrows(IllegalArgumentException.class, () -> new PrefixTrie(new String[]{"a", "a"}, new long[2]));
+        assertThrows(IllegalArgumentException.class, () -> new PrefixTrie(new String[]{"a"}, new long[2]));
+        assertEquals(List.of(), new PrefixTrie(new String[0], new long[0]).terms("a", true));
+    }
+
+    private static String randomWord(Random random, String alphabet, int maxLength) {
+        StringBuilder word = new StringBuilder();
+        for (int length = 1 + random.nextInt(maxLength); length > 0; length--) {
+            word.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return word.toString();
+    }
+}
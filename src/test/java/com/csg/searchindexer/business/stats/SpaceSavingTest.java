@@ -0,0 +1,101 @@
+package com.csg.searchindexer.business.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SpaceSaving class
+ */
+public class SpaceSavingTest {
+
+    @Test
+    void testGuaranteesAgainstExactCounts() {
+        List<String> words = zipfWords(200_000, 50_000, 5);
+        SpaceSaving summary = new SpaceSaving(500);
+        TermCounts exact = new TermCounts();
+        words.forEach(summary::accept);
+        words.forEach(exact::accept);
+
+        assertGuarantees(summary, exact);
+        assertEquals(exact.top(10).keySet(), summary.top(10).keySet());
+        assertEquals(200_000, summary.getTotalCount());
+    }
+
+    @Test
+    void testMergeKeepsGuarantees() {
+        List<String> words = zipfWords(200_000, 50_000, 9);
+        TermCounts exact = new TermCounts();
+        words.forEach(exact::accept);
+        SpaceSaving first = new SpaceSaving(500);
+        SpaceSaving second = new SpaceSaving(500);
+        words.subList(0, 80_000).forEach(first::accept);
+        words.subList(80_000, words.size()).forEach(second::accept);
+        first.merge(second);
+
+        assertGuarantees(first, exact);
+        assertEquals(exact.top(10).keySet(), first.top(10).keySet());
+        assertEquals(200_000, first.getTotalCount());
+    }
+
+    @Test
+    void testExactUntilCountersRunOut() {
+        SpaceSaving first = new SpaceSaving(10);
+        SpaceSaving second = new SpaceSaving(10);
+        TermCounts exact = new TermCounts();
+        for (int i = 0; i < 60; i++) {
+            String word = "w" + (i % 7);
+            (i < 25 ? first : second).accept(word);
+            exact.accept(word);
+        }
+        first.merge(second);
+
+        assertEquals(exact.top(7), first.top(7));
+        assertEquals(0, first.error("w3"));
+        assertEquals(0, first.count("absent"));
+    }
+
+    @Test
+    void testEvictionInheritsSmallestCount() {
+        SpaceSaving summary = new SpaceSaving(2);
+        for (String word : new String[]{"a", "a", "a", "b", "c"}) {
+            summary.accept(word);
+        }
+
+        assertEquals(3, summary.count("a"));
+        assertEquals(2, summary.count("c"));
+        assertEquals(1, summary.error("c"));
+        // "b" was evicted, so only an upper bound is known
+        assertEquals(2, summary.count("b"));
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSaving(0));
+    }
+
+    private static void assertGuarantees(SpaceSaving summary, TermCounts exact) {
+        for (Map.Entry<String, Long> entry : exact.top(exact.getDistinctCount()).entrySet()) {
+            String word = entry.getKey();
+            long count = summary.count(word);
+            assertTrue(count >= entry.getValue(), word);
+            assertTrue(count - summary.error(word) <= entry.getValue(), word);
+            if (entry.getValue() > summary.getTotalCount() / summary.getCapacity()) {
+                assertTrue(summary.top(summary.getCapacity()).containsKey(word), word);
+            }
+        }
+    }
+
+    /**
+     * Generates words with Zipf-like frequencies, as in natural language text
+     */
+    private static List<String> zipfWords(int count, int vocabulary, long seed) {
+        Random random = new Random(seed);
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            words.add("t" + (int) Math.floor(Math.pow(vocabulary + 1, random.nextDouble())));
+        }
+        return words;
+    }
+}
@@ -0,0 +1,79 @@
+package com.csg.searchindexer.business.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TermCounts class
+ */
+public class TermCountsTest {
+
+    private final List<String> words = Arrays.asList("to", "be", "or", "not", "to", "be", "that", "is", "the", "question", "to");
+
+    @Test
+    void testTopWordsByCountThenAlphabetically() {
+        TermCounts counts = new TermCounts();
+        words.forEach(counts::accept);
+
+        Map<String, Long> expected = new LinkedHashMap<>();
+        expected.put("to", 3L);
+        expected.put("be", 2L);
+        expected.put("is", 1L);
+        expected.put("not", 1L);
+        assertEquals(expected, counts.top(4));
+        assertEquals(List.copyOf(expected.keySet()), List.copyOf(counts.top(4).keySet()));
+        assertEquals(8, counts.getDistinctCount());
+        assertEquals(11, counts.getTotalCount());
+        assertEquals(8, counts.top(100).size());
+        assertTrue(counts.top(0).isEmpty());
+        assertEquals(3, counts.count(new StringBuilder("to")));
+        assertEquals(0, counts.count("absent"));
+    }
+
+    @Test
+    void testMergeMatchesSinglePass() {
+        TermCounts whole = new TermCounts();
+        words.forEach(whole::accept);
+        TermCounts first = new TermCounts();
+        words.subList(0, 5).forEach(first::accept);
+        TermCounts second = new TermCounts();
+        words.subList(5, words.size()).forEach(second::accept);
+        first.merge(second);
+
+        assertEquals(whole.result(), first.result());
+        assertEquals(whole.getTotalCount(), first.getTotalCount());
+    }
+
+    @Test
+    void testManyDistinctWords() {
+        TermCounts counts = new TermCounts();
+        for (int i = 0; i < 100_000; i++) {
+            counts.accept(new StringBuilder("w").append(i % 30_000));
+        }
+        counts.add("w7", 1000);
+
+        assertEquals(30_000, counts.getDistinctCount());
+        assertEquals(Map.of("w7", 1004L), counts.top(1));
+        assertEquals(List.of("w7", "w0", "w1"), List.copyOf(counts.top(3).keySet()));
+    }
+
+    @Test
+    void testPrefixTrieFollowsCounts() {
+        TermCounts counts = new TermCounts();
+        words.forEach(counts::accept);
+
+        PrefixTrie trie = counts.prefixTrie();
+        assertSame(trie, counts.prefixTrie());
+        assertEquals(List.of("that", "the", "to"), trie.terms("t", false));
+        assertEquals(5, trie.countOccurrences("t", false));
+
+        counts.accept("tea");
+        assertEquals(List.of("tea", "that", "the", "to"), counts.prefixTrie().terms("t", false));
+    }
+}
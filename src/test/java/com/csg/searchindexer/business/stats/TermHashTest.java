@@ -0,0 +1,33 @@
+package com.csg.searchindexer.business.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TermHash class
+ */
+public class TermHashTest {
+
+    @Test
+    void testViewsHashLikeStrings() {
+        for (String word : new String[]{"", "a", "Monday", "caf\u00e9", "\uD83D\uDE00smile"}) {
+            assertEquals(TermHash.hash(word), TermHash.hash(new StringBuilder(word)), word);
+        }
+        assertNotEquals(TermHash.hash("ab"), TermHash.hash("ba"));
+        assertNotEquals(TermHash.hash(""), TermHash.hash("\u0000"));
+    }
+
+    @Test
+    void testHighBitsAreSpread() {
+        // The sketches select buckets by the top bits, so similar words must still spread over them
+        Set<Long> buckets = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            buckets.add(TermHash.hash("w" + i) >>> 56);
+        }
+        assertEquals(256, buckets.size());
+    }
+}
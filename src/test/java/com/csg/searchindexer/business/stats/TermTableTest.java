@@ -0,0 +1,53 @@
+package com.csg.searchindexer.business.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TermTable class
+ */
+public class TermTableTest {
+
+    @Test
+    void testInsertFindAndRemoveMatchHashMap() {
+        TermTable table = new TermTable();
+        Map<String, Long> reference = new HashMap<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 50_000; i++) {
+            String word = "w" + random.nextInt(2_000);
+            int hash = TermTable.hash(word);
+            int slot = table.find(new StringBuilder(word), hash);
+            if (random.nextInt(3) == 0) {
+                // Removal shifts later entries back, which every later lookup relies on
+                if (!table.isEmpty(slot)) {
+                    table.remove(slot);
+                }
+                reference.remove(word);
+            } else if (table.isEmpty(slot)) {
+                slot = table.insert(slot, word, hash, 1);
+                assertEquals(word, table.key(slot));
+                reference.put(word, 1L);
+            } else {
+                table.addToValue(slot, 1);
+                reference.merge(word, 1L, Long::sum);
+            }
+        }
+
+        assertEquals(reference.size(), table.size());
+        for (Map.Entry<String, Long> entry : reference.entrySet()) {
+            int slot = table.find(entry.getKey(), TermTable.hash(entry.getKey()));
+            assertFalse(table.isEmpty(slot), entry.getKey());
+            assertEquals(entry.getValue(), table.value(slot));
+        }
+        int found = 0;
+        for (int slot = 0; slot < table.capacity(); slot++) {
+            found += table.isEmpty(slot) ? 0 : 1;
+        }
+        assertEquals(reference.size(), found);
+    }
+}
@@ -0,0 +1,168 @@
+package com.csg.searchindexer.handler;
+
+import com.csg.searchindexer.business.RuleFactory;
+import com.csg.searchindexer.business.rules.LengthFilterRule;
+import com.csg.searchindexer.business.rules.ProcessingRule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the BatchProcessor class
+ */
+public class BatchProcessorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        processor = new FileProcessor();
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'M', true));
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 5, LengthFilterRule.FilterType.GREATER_THAN));
+    }
+
+    @Test
+    void testPerFileAndAggregatedResults() throws Exception {
+        Path first = write("a.txt", "Monday morning meetings", "are long");
+        Path second = write("b.txt", "Mississippi river");
+        Path combined = write("combined.txt", "Monday morning meetings", "are long", "Mississippi river");
+
+        BatchResult result = new BatchProcessor(processor).process(Arrays.asList(first, second));
+
+        assertEquals(processor.processFile(first.toString()), result.getFileResults().get(first));
+        assertEquals(processor.processFile(second.toString()), result.getFileResults().get(second));
+        assertEquals(processor.processFile(combined.toString()), result.getAggregatedResults());
+        assertEquals(4L, result.getAggregatedResults().get("Words starting with M/m"));
+        assertTrue(result.getFailures().isEmpty());
+    }
+
+    @Test
+    void testFailedFilesAreReportedAndSkipped() throws Exception {
+        Path good = write("good.txt", "Monday");
+        Path missing = tempDir.resolve("missing.txt");
+
+        BatchResult result = new BatchProcessor(processor).process(Arrays.asList(missing, good));
+
+        assertEquals(Collections.singletonList(good), new ArrayList<>(result.getFileResults().keySet()));
+        assertTrue(result.getFailures().containsKey(missing));
+        assertEquals(1L, result.getAggregatedResults().get("Words starting with M/m"));
+    }
+
+    @Test
+    void testInFlightLimit() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        FileProcessor countingProcessor = new FileProcessor();
+        countingProcessor.addRule(new ProcessingRule() {
+            @Override
+            public String getRuleName() {
+                return "Count Rule";
+            }
+
+            @Override
+            public Object process(List<String> words) {
+                return words.size();
+            }
+        });
+        countingProcessor.addRule(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'w', false));
+
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            files.add(write("file" + i + ".txt", "word " + i));
+        }
+
+        FileProcessor tracking = new FileProcessor() {
+            @Override
+            FusedRuleEvaluator evaluate(Path path, ProcessingMetrics metrics) throws IOException {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                    return countingProcessor.evaluate(path, metrics);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                } finally {
+                    running.decrementAndGet();
+                }
+            }
+
+            @Override
+            FusedRuleEvaluator newEvaluator() {
+                return countingProcessor.newEvaluator();
+            }
+        };
+
+        BatchResult result = new BatchProcessor(tracking, 3).process(files);
+
+        assertEquals(20, result.getFileResults().size());
+        assertEquals(40, result.getAggregatedResults().get("Count Rule"));
+        assertEquals(20L, result.getAggregatedResults().get("Words starting with w"));
+        assertTrue(maxRunning.get() <= 3);
+        assertThrows(IllegalArgumentException.class, () -> new BatchProcessor(processor, 0));
+    }
+
+    @Test
+    void testExpandDirectory() throws IOException {
+        Path directory = Files.createDirectories(tempDir.resolve("logs/nested"));
+        Path nested = write("logs/nested/b.txt", "b");
+        Path top = write("logs/a.txt", "a");
+
+        List<Path> files = BatchProcessor.expandInputs(Collections.singletonList(directory.getParent().toString()));
+
+        assertEquals(Arrays.asList(top, nested), files);
+    }
+
+    @Test
+    void testExpandGlob() throws IOException {
+        Path text = write("data/one.txt", "one");
+        write("data/two.log", "two");
+        Path nested = write("data/deep/three.txt", "three");
+
+        assertEquals(Collections.singletonList(text),
+                BatchProcessor.expandInputs(Collections.singletonList(tempDir.resolve("data") + "/*.txt")));
+        assertEquals(Arrays.asList(nested, text),
+                BatchProcessor.expandInputs(Collections.singletonList(tempDir.resolve("data") + "/**.txt")));
+    }
+
+    @Test
+    void testExpandFileList() throws IOException {
+        Path first = write("first.txt", "first");
+        Path second = write("second.txt", "second");
+        Path list = write("inputs.lst", second.toString(), "", first.toString(), second.toString());
+
+        List<Path> files = BatchProcessor.expandInputs(Collections.singletonList("@" + list));
+
+        assertEquals(Arrays.asList(second, first), files);
+    }
+
+    @Test
+    void testIsBatchInput() throws IOException {
+        Path file = write("single.txt", "single");
+
+        assertFalse(BatchProcessor.isBatchInput(file.toString()));
+        assertTrue(BatchProcessor.isBatchInput(tempDir.toString()));
+        assertTrue(BatchProcessor.isBatchInput("*.txt"));
+        assertTrue(BatchProcessor.isBatchInput("@inputs.lst"));
+    }
+
+    private Path write(String name, String... lines) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, Arrays.asList(lines));
+        return file;
+    }
+}
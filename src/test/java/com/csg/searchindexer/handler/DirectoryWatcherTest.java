@@ -0,0 +1,214 @@
+package com.csg.searchindexer.handler;
+
+import com.csg.searchindexer.business.RuleFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the DirectoryWatcher class
+ */
+@Timeout(30)
+public class DirectoryWatcherTest {
+
+    private static final String RULE = "Words starting with M/m";
+
+    @TempDir
+    Path tempDir;
+
+    @TempDir
+    Path outside;
+
+    private DirectoryWatcher watcher;
+    private Thread watching;
+    private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(tempDir.resolve("existing.txt"), "Monday march");
+
+        FileProcessor processor = new FileProcessor();
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'M', true));
+        watcher = new DirectoryWatcher(processor, tempDir, Duration.ofMillis(200));
+        watcher.setListener(new DirectoryWatcher.Listener() {
+            @Override
+            public void indexed(Path file, Map<String, Object> results) {
+                events.add("indexed " + tempDir.relativize(file) + " " + results.get(RULE));
+            }
+
+            @Override
+            public void removed(Path file) {
+                events.add("removed " + tempDir.relativize(file));
+            }
+
+            @Override
+            public void aggregateChanged() {
+                events.add("total " + watcher.getFileCount() + " " + watcher.getAggregatedResults().get(RULE));
+            }
+        });
+        watching = Thread.ofPlatform().start(() -> {
+            try {
+                watcher.run();
+            } catch (IOException | InterruptedException e) {
+                events.add("error " + e);
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        watcher.close();
+        watching.join();
+    }
+
+    @Test
+    void testExistingFilesAreIndexedFirst() throws InterruptedException {
+        assertEquals("indexed existing.txt 2", next());
+        assertEquals("total 1 2", next());
+    }
+
+    @Test
+    void testNewChangedAndDeletedFilesUpdateAggregate() throws Exception {
+        next();
+        next();
+
+        Path file = tempDir.resolve("spool.txt");
+        Files.writeString(file, "mild Monday");
+        assertEquals("indexed spool.txt 2", next());
+        assertEquals("total 2 4", next());
+
+        // A changed file replaces its earlier results instead of adding to them
+        Files.writeString(file, "mild");
+        assertEquals("indexed spool.txt 1", next());
+        assertEquals("total 2 3", next());
+
+        Files.delete(file);
+        assertEquals("removed spool.txt", next());
+        assertEquals("total 1 2", next());
+    }
+
+    @Test
+    void testWritesInQuickSuccessionAreIndexedOnce() throws Exception {
+        next();
+        next();
+
+        Path file = tempDir.resolve("growing.txt");
+        Files.writeString(file, "May ");
+        for (int i = 0; i < 5; i++) {
+            Thread.sleep(20);
+            Files.writeString(file, "more ", StandardOpenOption.APPEND);
+        }
+        assertEquals("indexed growing.txt 6", next());
+        assertEquals("total 2 8", next());
+        assertNull(events.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testNewSubdirectoriesAreWatched() throws Exception {
+        next();
+        next();
+
+        Path subdirectory = Files.createDirectory(tempDir.resolve("incoming"));
+        // Give the watcher time to register the new directory before writing into it
+        Thread.sleep(300);
+        Files.writeString(subdirectory.resolve("late.txt"), "March");
+        assertEquals("indexed " + Path.of("incoming", "late.txt") + " 1", next());
+        assertEquals("total 2 3", next());
+    }
+
+    @Test
+    void testDirectoryMovedOutDropsItsFiles() throws Exception {
+        next();
+        next();
+
+        moveIn("sub");
+        assertEquals("indexed " + Path.of("sub", "a.txt") + " 2", next());
+        assertEquals("indexed " + Path.of("sub", "b.txt") + " 2", next());
+        assertEquals("total 3 6", next());
+
+        Files.move(tempDir.resolve("sub"), outside.resolve("gone"));
+        assertEquals("removed " + Path.of("sub", "a.txt"), next());
+        assertEquals("removed " + Path.of("sub", "b.txt"), next());
+        assertEquals("total 1 2", next());
+        assertEquals(1, watcher.getFileCount());
+    }
+
+    @Test
+    void testRenamedDirectoryIsCountedOnce() throws Exception {
+        next();
+        next();
+
+        moveIn("sub");
+        next();
+        next();
+        assertEquals("total 3 6", next());
+
+        Files.move(tempDir.resolve("sub"), tempDir.resolve("renamed"));
+        List<String> seen = new ArrayList<>();
+        for (String event = next(); !event.equals("total 3 6"); event = next()) {
+            seen.add(event);
+        }
+        assertTrue(seen.containsAll(List.of("removed " + Path.of("sub", "a.txt"), "removed " + Path.of("sub", "b.txt"),
+                "indexed " + Path.of("renamed", "a.txt") + " 2", "indexed " + Path.of("renamed", "b.txt") + " 2")), seen.toString());
+        assertEquals(3, watcher.getFileCount());
+
+        // The renamed directory is still watched under its new name
+        Files.writeString(tempDir.resolve("renamed").resolve("a.txt"), "mild");
+        assertEquals("indexed " + Path.of("renamed", "a.txt") + " 1", next());
+        assertEquals("total 3 5", next());
+    }
+
+    @Test
+    void testVanishingSubdirectoriesKeepWatcherRunning() throws Exception {
+        next();
+        next();
+
+        // Directories deleted right after creation are often gone by the time the watcher walks them
+        for (int i = 0; i < 200; i++) {
+            Path nested = Files.createDirectories(tempDir.resolve("churn" + i).resolve("inner"));
+            Files.delete(nested);
+            Files.delete(nested.getParent());
+        }
+        Files.writeString(tempDir.resolve("after.txt"), "March");
+        assertEquals("indexed after.txt 1", next());
+        assertEquals("total 2 3", next());
+        assertTrue(watching.isAlive());
+    }
+
+    @Test
+    void testMissingDirectory() {
+        assertThrows(IOException.class, () -> new DirectoryWatcher(new FileProcessor(), tempDir.resolve("missing")));
+    }
+
+    /**
+     * Builds a directory with two files outside the watched tree and moves it in as a whole
+     */
+    private void moveIn(String name) throws IOException {
+        Path staged = Files.createDirectory(outside.resolve(name));
+        Files.writeString(staged.resolve("a.txt"), "Monday march");
+        Files.writeString(staged.resolve("b.txt"), "May mild");
+        Files.move(staged, tempDir.resolve(name));
+    }
+
+    private String next() throws InterruptedException {
+        String event = events.poll(10, TimeUnit.SECONDS);
+        assertNotNull(event, "No watch event within 10 seconds");
+        return event;
+    }
+}
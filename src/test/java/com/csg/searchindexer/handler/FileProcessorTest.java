@@ -3,6 +3,7 @@ package com.csg.searchindexer.handler;
 import com.csg.searchindexer.business.RuleFactory;
 import com.csg.searchindexer.business.rules.LengthFilterRule;
 import com.csg.searchindexer.business.rules.ProcessingRule;
+import com.csg.searchindexer.business.rules.TopKRule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -10,7 +11,9 @@ import org.junit.jupiter.api.io.TempDir;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -109,4 +112,173 @@ public class FileProcessorTest {
         // Should count words starting with 'a' or 'A' properly
         assertEquals(3L, results.get("Words starting with A/a"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testTokenizerModesProduceSameResults() throws IOException {
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'M', true));
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 5, LengthFilterRule.FilterType.GREATER_THAN));
+
+        Map<String, Object> readerResults = processor.processFile(testFile.toString());
+
+        processor.setTokenizerMode(FileProcessor.TokenizerMode.MEMORY_MAPPED);
+        Map<String, Object> mappedResults = processor.processFile(testFile.toString());
+
+        assertEquals(readerResults, mappedResults);
+        assertEquals(12L, mappedResults.get("Words starting with M/m"));
+    }
+
+    @Test
+    void testCountingRulesDoNotMaterializeMappedWords() throws IOException {
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'M', true));
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 5, LengthFilterRule.FilterType.GREATER_THAN, true));
+        Map<String, Object> readerResults = processor.processFile(testFile.toString());
+
+        // Every String built from a mapped word goes through the interner, so no lookups means no Strings
+        processor.setTermInterning(true);
+        processor.setTokenizerMode(FileProcessor.TokenizerMode.MEMORY_MAPPED);
+        assertEquals(readerResults, processor.processFile(testFile.toString()));
+        processor.setRuleCompilation(true);
+        assertEquals(readerResults, processor.processFile(testFile.toString()));
+        assertEquals(0, processor.getTermInterner().getLookupCount());
+
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 5, LengthFilterRule.FilterType.GREATER_THAN));
+        processor.processFile(testFile.toString());
+        assertTrue(processor.getTermInterner().getLookupCount() > 0);
+    }
+
+    @Test
+    void testParallelProcessingMatchesSequential() throws IOException {
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'M', true));
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 5, LengthFilterRule.FilterType.GREATER_THAN));
+
+        Path largeFile = tempDir.resolve("large.txt");
+        StringBuilder content = new StringBuilder();
+        while (content.length() < 3 * 1024 * 1024) {
+            content.append("Mississippi and mechanism, more words in March; short m-words.\n");
+        }
+        Files.writeString(largeFile, content);
+
+        Map<String, Object> sequential = processor.processFile(largeFile.toString());
+        processor.setParallelism(4);
+        Map<String, Object> parallel = processor.processFile(largeFile.toString());
+
+        assertEquals(sequential, parallel);
+        assertThrows(IllegalArgumentException.class, () -> processor.setParallelism(0));
+    }
+
+    @Test
+    void testSketchRulesMatchAcrossTokenizersAndChunks() throws IOException {
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.APPROXIMATE_DISTINCT_COUNT));
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.APPROXIMATE_TERM_FREQUENCY, List.of("Mississippi", "and")));
+
+        Path largeFile = tempDir.resolve("large.txt");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; content.length() < 3 * 1024 * 1024; i++) {
+            content.append("Mississippi and word").append(i % 50_000).append('\n');
+        }
+        Files.writeString(largeFile, content);
+
+        Map<String, Object> sequential = processor.processFile(largeFile.toString());
+        // Sketches hash the mapped word views in place and merge chunk sketches losslessly
+        processor.setTokenizerMode(FileProcessor.TokenizerMode.MEMORY_MAPPED);
+        assertEquals(sequential, processor.processFile(largeFile.toString()));
+        processor.setParallelism(4);
+        assertEquals(sequential, processor.processFile(largeFile.toString()));
+
+        long distinct = (Long) sequential.get("Distinct words (approximate, 1% error)");
+        assertEquals(50_002, distinct, 50_002 * 0.04);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTopKMatchesAcrossTokenizersAndChunks() throws IOException {
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.TOP_K, 3));
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.TOP_K, 3, TopKRule.Mode.SPACE_SAVING, 100));
+
+        Path largeFile = tempDir.resolve("large.txt");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; content.length() < 3 * 1024 * 1024; i++) {
+            content.append("the ").append(i % 2 == 0 ? "of " : "").append("word").append(i % 20_000).append(" the\n");
+        }
+        Files.writeString(largeFile, content);
+
+        Map<String, Object> sequential = processor.processFile(largeFile.toString());
+        Map<String, Long> exact = (Map<String, Long>) sequential.get("Top 3 words");
+        Map<String, Long> approximate = (Map<String, Long>) sequential.get("Top 3 words (approximate, 100 counters)");
+        assertEquals(List.of("the", "of"), new ArrayList<>(exact.keySet()).subList(0, 2));
+        assertEquals(List.of("the", "of"), new ArrayList<>(approximate.keySet()).subList(0, 2));
+        assertEquals(exact.get("the"), approximate.get("the"));
+
+        processor.setTokenizerMode(FileProcessor.TokenizerMode.MEMORY_MAPPED);
+        processor.setParallelism(4);
+        Map<String, Object> parallel = processor.processFile(largeFile.toString());
+        assertEquals(exact, parallel.get("Top 3 words"));
+    }
+
+    @Test
+    void testPipelinedProcessingMatchesSequential() throws IOException {
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'M', true));
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 5, LengthFilterRule.FilterType.GREATER_THAN, true));
+
+        Path largeFile = tempDir.resolve("large.txt");
+        StringBuilder content = new StringBuilder();
+        while (content.length() < 3 * 1024 * 1024) {
+            content.append("Mississippi and mechanism, more words in March; short m-words.\n");
+        }
+        Files.writeString(largeFile, content);
+
+        Map<String, Object> sequential = processor.processFile(largeFile.toString());
+        processor.setTokenizerMode(FileProcessor.TokenizerMode.PIPELINED);
+        assertEquals(sequential, processor.processFile(largeFile.toString()));
+        processor.setTermInterning(true);
+        assertEquals(sequential, processor.processFile(largeFile.toString()));
+    }
+
+    @Test
+    void testConcurrentProcessingWhileRulesChange() throws Exception {
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'M', true));
+        processor.setRuleCompilation(true);
+        Map<String, Object> expected = processor.processFile(testFile.toString());
+
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        for (int t = 0; t < 4; t++) {
+            threads.add(Thread.ofVirtual().start(() -> {
+                try {
+                    for (int i = 0; i < 50; i++) {
+                        // Each file sees either the old rule set or a newer one, never a torn one
+                        Map<String, Object> results = processor.processFile(testFile.toString());
+                        assertEquals(expected.get("Words starting with M/m"), results.get("Words starting with M/m"));
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        for (int i = 3; i < 13; i++) {
+            processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, i, LengthFilterRule.FilterType.GREATER_THAN, true));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(Collections.emptyList(), failures);
+        assertEquals(11, processor.processFile(testFile.toString()).size());
+    }
+
+    @Test
+    void testCompiledRulesProduceSameResults() throws IOException {
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'M', true));
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 5, LengthFilterRule.FilterType.GREATER_THAN));
+        Map<String, Object> interpreted = processor.processFile(testFile.toString());
+
+        processor.setRuleCompilation(true);
+        assertEquals(interpreted, processor.processFile(testFile.toString()));
+
+        // Adding a rule recompiles the dispatch
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 3, LengthFilterRule.FilterType.EQUAL_TO, true));
+        Map<String, Object> compiled = processor.processFile(testFile.toString());
+        processor.setRuleCompilation(false);
+        assertEquals(processor.processFile(testFile.toString()), compiled);
+    }
+}
@@ -0,0 +1,126 @@
+package com.csg.searchindexer.handler;
+
+import com.csg.searchindexer.business.RuleFactory;
+import com.csg.searchindexer.business.rules.LengthFilterRule;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the FileIngestEvent, TokenizeEvent and RuleEvaluationEvent Flight Recorder events
+ */
+public class FlightRecorderEventsTest {
+    private static final String FILE_INGEST = "com.csg.searchindexer.FileIngest";
+    private static final String TOKENIZE = "com.csg.searchindexer.Tokenize";
+    private static final String RULE_EVALUATION = "com.csg.searchindexer.RuleEvaluation";
+
+    @TempDir
+    Path tempDir;
+
+    private Path testFile;
+    private FileProcessor processor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testFile = Files.write(tempDir.resolve("a.txt"), Arrays.asList(
+                "Some words start with M like Monday and march",
+                "Mississippi is longer than five characters"));
+        processor = new FileProcessor();
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'M', true));
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 5, LengthFilterRule.FilterType.GREATER_THAN));
+    }
+
+    @Test
+    void testFileTokenizeAndRuleEvents() throws IOException {
+        List<RecordedEvent> events = record(() -> processor.processFile(testFile.toString()));
+
+        RecordedEvent ingest = single(events, FILE_INGEST);
+        assertEquals(testFile.toString(), ingest.getString("path"));
+        assertEquals(Files.size(testFile), ingest.getLong("bytes"));
+        assertEquals(15, ingest.getLong("tokens"));
+        assertFalse(ingest.getBoolean("cached"));
+
+        RecordedEvent tokenize = single(events, TOKENIZE);
+        assertEquals(0, tokenize.getLong("startOffset"));
+        assertEquals(Files.size(testFile), tokenize.getLong("endOffset"));
+        assertEquals(15, tokenize.getLong("tokens"));
+
+        List<String> rules = events.stream()
+                .filter(event -> event.getEventType().getName().equals(RULE_EVALUATION))
+                .map(event -> event.getString("ruleName"))
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList("Words starting with M/m", "Words with length > 5"), rules);
+    }
+
+    @Test
+    void testParallelChunksEmitOneEventEach() throws IOException {
+        Path largeFile = tempDir.resolve("large.txt");
+        StringBuilder content = new StringBuilder();
+        while (content.length() < 3 * 1024 * 1024) {
+            content.append("Mississippi and mechanism, more words in March; short m-words.\n");
+        }
+        Files.writeString(largeFile, content);
+        processor.setParallelism(2);
+
+        List<RecordedEvent> events = record(() -> processor.processFile(largeFile.toString()));
+
+        List<RecordedEvent> chunks = events.stream()
+                .filter(event -> event.getEventType().getName().equals(TOKENIZE))
+                .collect(Collectors.toList());
+        assertTrue(chunks.size() > 1);
+        assertEquals(Files.size(largeFile), chunks.stream().mapToLong(e -> e.getLong("endOffset") - e.getLong("startOffset")).sum());
+        assertEquals(single(events, FILE_INGEST).getLong("tokens"), chunks.stream().mapToLong(e -> e.getLong("tokens")).sum());
+    }
+
+    @Test
+    void testCachedFileIsMarked() throws IOException {
+        processor.setIncrementalCache(new IncrementalCache(Files.createDirectory(tempDir.resolve("cache"))));
+        processor.processFile(testFile.toString());
+
+        List<RecordedEvent> events = record(() -> processor.processFile(testFile.toString()));
+
+        RecordedEvent ingest = single(events, FILE_INGEST);
+        assertTrue(ingest.getBoolean("cached"));
+        assertEquals(15, ingest.getLong("tokens"));
+        assertTrue(events.stream().noneMatch(event -> event.getEventType().getName().equals(TOKENIZE)));
+    }
+
+    private List<RecordedEvent> record(Run run) throws IOException {
+        Path dump = Files.createTempFile(tempDir, "recording", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String event : Arrays.asList(FILE_INGEST, TOKENIZE, RULE_EVALUATION)) {
+                recording.enable(event);
+            }
+            recording.start();
+            run.run();
+            recording.stop();
+            recording.dump(dump);
+        }
+        return RecordingFile.readAllEvents(dump);
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+
+    @FunctionalInterface
+    private interface Run {
+        Object run() throws IOException;
+    }
+}
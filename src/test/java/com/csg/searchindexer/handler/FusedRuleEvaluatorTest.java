@@ -0,0 +1,105 @@
+package com.csg.searchindexer.handler;
+
+import com.csg.searchindexer.business.RuleFactory;
+import com.csg.searchindexer.business.rules.LengthFilterRule;
+import com.csg.searchindexer.business.rules.ProcessingRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the FusedRuleEvaluator class
+ */
+public class FusedRuleEvaluatorTest {
+
+    private final List<String> words = Arrays.asList("Man", "woman", "Mouse", "cat", "elephant", "mammoth");
+
+    @Test
+    void testSinglePassMatchesPerRuleProcessing() {
+        List<ProcessingRule> rules = Arrays.asList(
+                RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'M', true),
+                RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'c', false),
+                RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 5, LengthFilterRule.FilterType.GREATER_THAN),
+                RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 3, LengthFilterRule.FilterType.EQUAL_TO)
+        );
+
+        FusedRuleEvaluator evaluator = new FusedRuleEvaluator(rules);
+        words.forEach(evaluator);
+        Map<String, Object> results = evaluator.results();
+
+        assertEquals(4, results.size());
+        for (ProcessingRule rule : rules) {
+            assertEquals(rule.process(words), results.get(rule.getRuleName()), rule.getRuleName());
+        }
+        assertEquals(6L, evaluator.getTokenCount());
+    }
+
+    @Test
+    void testLengthRulesShareOneHistogram() {
+        List<ProcessingRule> rules = new ArrayList<>();
+        for (LengthFilterRule.FilterType filterType : LengthFilterRule.FilterType.values()) {
+            for (int length = 0; length < 10; length++) {
+                rules.add(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, length, filterType));
+                rules.add(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, length, filterType, true));
+            }
+        }
+
+        FusedRuleEvaluator first = new FusedRuleEvaluator(rules);
+        words.subList(0, 3).forEach(first);
+        FusedRuleEvaluator second = new FusedRuleEvaluator(rules);
+        words.subList(3, words.size()).forEach(second);
+        first.merge(second);
+        Map<String, Object> results = first.results();
+
+        for (ProcessingRule rule : rules) {
+            assertEquals(rule.process(words), results.get(rule.getRuleName()), rule.getRuleName());
+        }
+    }
+
+    @Test
+    void testResultsFollowRegistrationOrder() {
+        List<ProcessingRule> rules = new ArrayList<>();
+        rules.add(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 5, LengthFilterRule.FilterType.LESS_THAN));
+        rules.add(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'M', true));
+
+        FusedRuleEvaluator evaluator = new FusedRuleEvaluator(rules);
+
+        assertEquals(Arrays.asList("Words with length < 5", "Words starting with M/m"),
+                new ArrayList<>(evaluator.results().keySet()));
+    }
+
+    @Test
+    void testListBasedRuleIsEvaluatedInSamePass() {
+        ProcessingRule countRule = new ProcessingRule() {
+            @Override
+            public String getRuleName() {
+                return "Count Rule";
+            }
+
+            @Override
+            public Object process(List<String> wordList) {
+                return wordList.size();
+            }
+        };
+
+        FusedRuleEvaluator evaluator = new FusedRuleEvaluator(Collections.singletonList(countRule));
+        words.forEach(evaluator);
+
+        assertEquals(6, evaluator.results().get("Count Rule"));
+    }
+
+    @Test
+    void testNoRules() {
+        FusedRuleEvaluator evaluator = new FusedRuleEvaluator(Collections.emptyList());
+        words.forEach(evaluator);
+
+        assertTrue(evaluator.results().isEmpty());
+        assertEquals(6L, evaluator.getTokenCount());
+    }
+}
@@ -0,0 +1,267 @@
+package com.csg.searchindexer.handler;
+
+import com.csg.searchindexer.business.RuleFactory;
+import com.csg.searchindexer.business.rules.LengthFilterRule;
+import com.csg.searchindexer.business.rules.ProcessingRule;
+import com.csg.searchindexer.business.rules.RuleAccumulator;
+import com.csg.searchindexer.business.rules.StreamingRule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the IncrementalCache class
+ */
+public class IncrementalCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path cacheDir;
+    private IncrementalCache cache;
+    private FileProcessor processor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cacheDir = Files.createDirectory(tempDir.resolve("cache"));
+        cache = new IncrementalCache(cacheDir);
+        processor = newProcessor(cache);
+    }
+
+    @Test
+    void testUnchangedFileIsAnsweredFromCache() throws IOException {
+        Path file = write("a.txt", "Monday morning meetings", "are long");
+
+        Map<String, Object> first = processor.processFile(file.toString());
+        Map<String, Object> second = processor.processFile(file.toString());
+
+        assertEquals(first, second);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void testModifiedFileIsProcessedAgain() throws IOException {
+        Path file = write("a.txt", "Monday morning");
+        processor.processFile(file.toString());
+
+        write("a.txt", "Monday morning Mondays");
+        Map<String, Object> results = processor.processFile(file.toString());
+
+        assertEquals(3L, results.get("Words starting with M/m"));
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    void testSameSizeChangeIsDetectedByContentHash() throws IOException {
+        Path file = write("a.txt", "Monday");
+        FileTime modified = Files.getLastModifiedTime(file);
+        processor.processFile(file.toString());
+
+        // Same size and modification time, different content
+        write("a.txt", "Sunday");
+        Files.setLastModifiedTime(file, modified);
+        Map<String, Object> results = processor.processFile(file.toString());
+
+        assertEquals(0L, results.get("Words starting with M/m"));
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    void testTouchedFileIsConfirmedByContentHash() throws IOException {
+        Path file = write("a.txt", "Monday morning meetings");
+        Map<String, Object> first = processor.processFile(file.toString());
+
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 60_000));
+        Map<String, Object> second = processor.processFile(file.toString());
+
+        assertEquals(first, second);
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void testDifferentRulesDoNotShareEntries() throws IOException {
+        Path file = write("a.txt", "Monday morning meetings");
+        processor.processFile(file.toString());
+
+        FileProcessor other = new FileProcessor();
+        other.setIncrementalCache(cache);
+        other.addRule(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'T', false));
+        other.processFile(file.toString());
+
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    void testEqualRulesShareEntries() throws IOException {
+        Path file = write("a.txt", "Monday morning meetings");
+        processor.processFile(file.toString());
+
+        // Same configuration built differently: the letter as a code point, the count-only default spelled out
+        FileProcessor other = new FileProcessor();
+        other.setIncrementalCache(cache);
+        other.addRule(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, (int) 'M', true));
+        other.addRule(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 5, LengthFilterRule.FilterType.GREATER_THAN, false));
+        other.processFile(file.toString());
+
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void testCorruptEntryIsTreatedAsMiss() throws IOException {
+        Path file = write("a.txt", "Monday morning meetings");
+        Map<String, Object> first = processor.processFile(file.toString());
+
+        try (Stream<Path> entries = Files.walk(cacheDir)) {
+            for (Path entry : entries.filter(Files::isRegularFile).toList()) {
+                Files.write(entry, new byte[]{1, 2, 3});
+            }
+        }
+        Map<String, Object> second = processor.processFile(file.toString());
+
+        assertEquals(first, second);
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    void testBatchMergesCachedAndFreshResults() throws Exception {
+        Path first = write("a.txt", "Monday morning meetings");
+        Path second = write("b.txt", "Mississippi river");
+        List<Path> files = Arrays.asList(first, second);
+        new BatchProcessor(processor).process(files);
+
+        write("b.txt", "Mississippi river", "Missouri");
+        BatchResult incremental = new BatchProcessor(processor).process(files);
+        BatchResult full = new BatchProcessor(newProcessor(null)).process(files);
+
+        assertEquals(full.getAggregatedResults(), incremental.getAggregatedResults());
+        assertEquals(full.getFileResults(), incremental.getFileResults());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void testListBasedRuleStateIsCached() throws IOException {
+        Path file = write("a.txt", "one two three");
+        FileProcessor listProcessor = new FileProcessor();
+        listProcessor.setIncrementalCache(cache);
+        listProcessor.addRule(new ProcessingRule() {
+            @Override
+            public String getRuleName() {
+                return "Word count";
+            }
+
+            @Override
+            public Object process(List<String> words) {
+                return words.size();
+            }
+        });
+
+        listProcessor.processFile(file.toString());
+        Map<String, Object> results = listProcessor.processFile(file.toString());
+
+        assertEquals(3, results.get("Word count"));
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void testFileRewrittenDuringProcessingIsNotCached() throws IOException {
+        Path file = write("a.txt", "Monday");
+        FileProcessor rewritingProcessor = new FileProcessor();
+        rewritingProcessor.setIncrementalCache(cache);
+        rewritingProcessor.addRule(new RewritingRule(file));
+
+        // The first word rewrites the file with content of the same size and a later modification time
+        assertEquals(1L, rewritingProcessor.processFile(file.toString()).get("Words starting with M"));
+        Map<String, Object> results = rewritingProcessor.processFile(file.toString());
+
+        assertEquals(0L, results.get("Words starting with M"));
+        assertEquals(0, cache.getHitCount());
+        assertThrows(IllegalStateException.class,
+                () -> cache.store(FileFingerprint.of(file), rewritingProcessor.newEvaluator(), List.of()));
+    }
+
+    private FileProcessor newProcessor(IncrementalCache incrementalCache) {
+        FileProcessor fileProcessor = new FileProcessor();
+        fileProcessor.setIncrementalCache(incrementalCache);
+        fileProcessor.addRule(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'M', true));
+        fileProcessor.addRule(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 5, LengthFilterRule.FilterType.GREATER_THAN));
+        return fileProcessor;
+    }
+
+    private Path write(String name, String... lines) throws IOException {
+        return Files.write(tempDir.resolve(name), Arrays.asList(lines));
+    }
+
+    /**
+     * Counts words starting with M and rewrites its file the first time it sees a word
+     */
+    private static final class RewritingRule implements StreamingRule {
+        private final Path file;
+        private boolean rewritten;
+
+        private RewritingRule(Path file) {
+            this.file = file;
+        }
+
+        @Override
+        public String getRuleName() {
+            return "Words starting with M";
+        }
+
+        @Override
+        public RuleAccumulator newAccumulator() {
+            return new RewritingAccumulator(this);
+        }
+
+        private void rewriteOnce() {
+            if (!rewritten) {
+                rewritten = true;
+                try {
+                    Files.write(file, List.of("Sunday"));
+                    Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    private static final class RewritingAccumulator implements RuleAccumulator {
+        private final transient RewritingRule rule;
+        private long count;
+
+        private RewritingAccumulator(RewritingRule rule) {
+            this.rule = rule;
+        }
+
+        @Override
+        public void accept(String word) {
+            rule.rewriteOnce();
+            count += word.startsWith("M") ? 1 : 0;
+        }
+
+        @Override
+        public Object result() {
+            return count;
+        }
+
+        @Override
+        public void merge(RuleAccumulator other) {
+            count += ((RewritingAccumulator) other).count;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.csg.searchindexer.handler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the MappedFileTokenizer class
+ * Every case is checked for identical output against the ReaderTokenizer
+ */
+public class MappedFileTokenizerTest {
+
+    private static final String LINE_END = "<EOL>";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSimpleText() throws IOException {
+        Path file = write("This is a test file with multiple words\nSome words start with M like Monday");
+
+        List<String> words = assertSameTokens(file, new MappedFileTokenizer());
+        assertEquals(15, words.size());
+        assertEquals("Monday", words.get(14));
+    }
+
+    @Test
+    void testPunctuationAndWhitespace() throws IOException {
+        Path file = write("This has punctuation! And, some; other: chars.\r\n"
+                + "Multiple   spaces\tand\u000Btabs\fhere.\r"
+                + "What about (parentheses) and [brackets] {braces}?\n"
+                + "Maybe even some \"quotes\" to test M-words\n\n");
+
+        List<String> words = assertSameTokens(file, new MappedFileTokenizer());
+        assertTrue(words.contains("M-words"));
+        assertTrue(words.contains("parentheses"));
+    }
+
+    @Test
+    void testUnicodeText() throws IOException {
+        // Non-breaking space and byte order mark are not delimiters for either tokenizer
+        Path file = write("Ärger über Straße, αβγ Αβγ; 東京 タワー! emoji 😀smile café\u00A0crème \uFEFFbom");
+
+        List<String> words = assertSameTokens(file, new MappedFileTokenizer());
+        assertTrue(words.contains("😀smile"));
+        assertTrue(words.contains("café\u00A0crème"));
+    }
+
+    @Test
+    void testControlCharacters() throws IOException {
+        Path file = write("\u0001 a\u0001b \u0002\u0003, \u007F x\u0000");
+
+        List<String> words = assertSameTokens(file, new MappedFileTokenizer());
+        assertEquals(Arrays.asList("a\u0001b", "\u007F", "x\u0000"), words);
+    }
+
+    @Test
+    void testMalformedUtf8() throws IOException {
+        Path file = tempDir.resolve("malformed.txt");
+        Files.write(file, new byte[]{'a', (byte) 0xC3, ' ', (byte) 0x80, 'b', ',', (byte) 0xE2, (byte) 0x82, '.', (byte) 0xFF});
+
+        assertSameTokens(file, new MappedFileTokenizer());
+    }
+
+    @Test
+    void testLineEnds() throws IOException {
+        Path file = write("one\r\ntwo\rthree\n\n four \r\r\nfive");
+
+        List<String> events = collect(new MappedFileTokenizer(), file);
+        assertEquals(collect(new ReaderTokenizer(), file), events);
+        assertEquals(Arrays.asList("one", LINE_END, "two", LINE_END, "three", LINE_END, LINE_END,
+                "four", LINE_END, LINE_END, "five", LINE_END), events);
+        for (int windowSize = 1; windowSize <= 8; windowSize++) {
+            assertEquals(events, collect(new MappedFileTokenizer(windowSize), file));
+        }
+    }
+
+    @Test
+    void testEmptyFile() throws IOException {
+        Path file = write("");
+
+        assertTrue(assertSameTokens(file, new MappedFileTokenizer()).isEmpty());
+    }
+
+    @Test
+    void testWordsAcrossWindowBoundaries() throws IOException {
+        Path file = write("alpha beta gamma 😀😀 délta, epsilon\n" + "x".repeat(100) + " zeta");
+
+        for (int windowSize = 1; windowSize <= 16; windowSize++) {
+            assertSameTokens(file, new MappedFileTokenizer(windowSize));
+        }
+    }
+
+    @Test
+    void testRandomContent() throws IOException {
+        String alphabet = "abcXYZ09 \t\r\n,.;:!?\"()[]{}-'éß😀\u0001";
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 2000; i++) {
+                text.appendCodePoint(alphabet.codePointAt(alphabet.offsetByCodePoints(0, random.nextInt(alphabet.codePointCount(0, alphabet.length())))));
+            }
+            Path file = write(text.toString());
+            assertSameTokens(file, new MappedFileTokenizer(1 + random.nextInt(300)));
+        }
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = Files.createTempFile(tempDir, "tokens", ".txt");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<String> assertSameTokens(Path file, Tokenizer tokenizer) throws IOException {
+        List<String> expected = collect(new ReaderTokenizer(), file);
+        List<String> actual = collect(tokenizer, file);
+
+        assertEquals(expected, actual);
+        actual.removeIf(LINE_END::equals);
+        return actual;
+    }
+
+    private static List<String> collect(Tokenizer tokenizer, Path file) throws IOException {
+        List<String> events = new ArrayList<>();
+        tokenizer.tokenize(file, new TokenSink() {
+            @Override
+            public void accept(String word) {
+                events.add(word);
+            }
+
+            @Override
+            public void endOfLine() {
+                events.add(LINE_END);
+            }
+        });
+        return events;
+    }
+}
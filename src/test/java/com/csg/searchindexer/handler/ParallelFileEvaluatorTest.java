@@ -0,0 +1,124 @@
+package com.csg.searchindexer.handler;
+
+import com.csg.searchindexer.business.RuleFactory;
+import com.csg.searchindexer.business.rules.LengthFilterRule;
+import com.csg.searchindexer.business.rules.ProcessingRule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ParallelFileEvaluator class
+ */
+public class ParallelFileEvaluatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    private final List<ProcessingRule> rules = Arrays.asList(
+            RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'M', true),
+            RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'é', false),
+            RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 5, LengthFilterRule.FilterType.GREATER_THAN),
+            RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 2, LengthFilterRule.FilterType.LESS_THAN_OR_EQUAL),
+            new ProcessingRule() {
+                @Override
+                public String getRuleName() {
+                    return "Joined words";
+                }
+
+                @Override
+                public Object process(List<String> words) {
+                    return String.join("|", words);
+                }
+            }
+    );
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testChunkedResultsMatchSequentialPass() throws IOException {
+        Random random = new Random(11);
+        for (int round = 0; round < 10; round++) {
+            Path file = writeRandomText(random, 5000);
+            FusedRuleEvaluator sequential = new FusedRuleEvaluator(rules);
+            new ReaderTokenizer().tokenize(file, sequential);
+
+            ParallelFileEvaluator parallel = new ParallelFileEvaluator(pool, new MappedFileTokenizer(), 1 + random.nextInt(200));
+            FusedRuleEvaluator chunked = parallel.evaluate(file, rules);
+
+            assertEquals(sequential.results(), chunked.results());
+            assertEquals(sequential.getTokenCount(), chunked.getTokenCount());
+        }
+    }
+
+    @Test
+    void testBoundariesAreAlignedToDelimiters() throws IOException {
+        Path file = writeRandomText(new Random(3), 20000);
+        ParallelFileEvaluator parallel = new ParallelFileEvaluator(pool, new MappedFileTokenizer(), 64);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] boundaries = parallel.split(channel, 16);
+            byte[] bytes = Files.readAllBytes(file);
+
+            assertTrue(boundaries.length > 2);
+            assertEquals(0, boundaries[0]);
+            assertEquals(bytes.length, boundaries[boundaries.length - 1]);
+            for (int i = 1; i < boundaries.length - 1; i++) {
+                assertTrue(boundaries[i] > boundaries[i - 1]);
+                assertTrue(MappedFileTokenizer.isDelimiter(bytes[(int) boundaries[i]]));
+            }
+        }
+    }
+
+    @Test
+    void testFileWithoutDelimitersIsOneChunk() throws IOException {
+        Path file = tempDir.resolve("one-word.txt");
+        Files.write(file, "x".repeat(1000).getBytes(StandardCharsets.UTF_8));
+        ParallelFileEvaluator parallel = new ParallelFileEvaluator(pool, new MappedFileTokenizer(), 10);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertArrayEquals(new long[]{0, 1000}, parallel.split(channel, 8));
+        }
+        assertEquals(1L, parallel.evaluate(file, rules).getTokenCount());
+    }
+
+    @Test
+    void testEmptyFile() throws IOException {
+        Path file = tempDir.resolve("empty.txt");
+        Files.createFile(file);
+
+        FusedRuleEvaluator evaluator = new ParallelFileEvaluator(pool).evaluate(file, rules);
+
+        assertEquals(0L, evaluator.getTokenCount());
+        assertEquals(0L, evaluator.results().get("Words starting with M/m"));
+    }
+
+    private Path writeRandomText(Random random, int codePoints) throws IOException {
+        String alphabet = "aeMmxé😀 \n\t,.;:!?\"()[]{}-";
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < codePoints; i++) {
+            text.appendCodePoint(alphabet.codePointAt(alphabet.offsetByCodePoints(0, random.nextInt(alphabet.codePointCount(0, alphabet.length())))));
+        }
+        Path file = Files.createTempFile(tempDir, "chunks", ".txt");
+        Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,140 @@
+package com.csg.searchindexer.handler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the PipelinedTokenizer class
+ * Every case is checked for identical output against the ReaderTokenizer
+ */
+public class PipelinedTokenizerTest {
+
+    private static final String LINE_END = "<EOL>";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSmallFileIsTokenizedInline() throws IOException {
+        Path file = write("This is a test file with multiple words\nSome words start with M like Monday");
+        ProcessingMetrics metrics = new ProcessingMetrics();
+
+        List<String> events = collect(new PipelinedTokenizer(), file, metrics);
+        assertEquals(collect(new ReaderTokenizer(), file, null), events);
+        assertTrue(metrics.getQueueMetrics().isEmpty());
+    }
+
+    @Test
+    void testWordsAcrossBuffersAndBatches() throws IOException {
+        Path file = write("alpha beta\r\ngamma 😀😀 délta, epsilon\r\r\n" + "x".repeat(100) + " zeta\n\n");
+        List<String> expected = collect(new ReaderTokenizer(), file, null);
+
+        for (int bufferSize = 1; bufferSize <= 16; bufferSize++) {
+            for (int batchSize = 1; batchSize <= 5; batchSize += 2) {
+                PipelinedTokenizer tokenizer = new PipelinedTokenizer(bufferSize, 2, batchSize, 2, null);
+                assertEquals(expected, collect(tokenizer, file, null), "buffer " + bufferSize + ", batch " + batchSize);
+            }
+        }
+    }
+
+    @Test
+    void testRandomContent() throws IOException {
+        String alphabet = "abcXYZ09 \t\r\n,.;:!?\"()[]{}-'éß😀\u0001";
+        Random random = new Random(11);
+        for (int round = 0; round < 20; round++) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 5000; i++) {
+                text.appendCodePoint(alphabet.codePointAt(alphabet.offsetByCodePoints(0, random.nextInt(alphabet.codePointCount(0, alphabet.length())))));
+            }
+            Path file = write(text.toString());
+            PipelinedTokenizer tokenizer = new PipelinedTokenizer(1 + random.nextInt(500), 1 + random.nextInt(4),
+                    1 + random.nextInt(64), 1 + random.nextInt(4), new TermInterner());
+            assertEquals(collect(new ReaderTokenizer(), file, null), collect(tokenizer, file, null));
+        }
+    }
+
+    @Test
+    @Timeout(30)
+    void testSlowSinkBacksUpQueues() throws IOException {
+        Path file = write("word ".repeat(2000));
+        ProcessingMetrics metrics = new ProcessingMetrics();
+        PipelinedTokenizer tokenizer = new PipelinedTokenizer(64, 2, 16, 2, null);
+
+        List<String> events = new ArrayList<>();
+        tokenizer.tokenize(file, new TokenSink() {
+            @Override
+            public void accept(String word) {
+                if (events.size() % 100 == 0) {
+                    LockSupport.parkNanos(1_000_000);
+                }
+                events.add(word);
+            }
+        }, metrics);
+
+        assertEquals(2000, events.size());
+        ProcessingMetrics.QueueMetrics tokens = metrics.getQueueMetrics().get(PipelinedTokenizer.TOKEN_QUEUE);
+        ProcessingMetrics.QueueMetrics read = metrics.getQueueMetrics().get(PipelinedTokenizer.READ_QUEUE);
+        assertEquals(2, tokens.getCapacity());
+        assertTrue(tokens.getMaxDepth() <= 2);
+        assertTrue(tokens.getProducerStalls() > 0, "The tokenizer should wait for the slow sink");
+        assertTrue(read.getProducerStalls() > 0, "The reader should wait for the blocked tokenizer");
+        assertTrue(metrics.toString().contains("Queue tokens:"));
+    }
+
+    @Test
+    @Timeout(30)
+    void testSinkFailureStopsAllStages() throws IOException {
+        Path file = write("word ".repeat(2000));
+        PipelinedTokenizer tokenizer = new PipelinedTokenizer(64, 2, 16, 2, null);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> tokenizer.tokenize(file, word -> {
+            throw new IllegalStateException("rule failed");
+        }));
+        assertEquals("rule failed", e.getMessage());
+    }
+
+    @Test
+    void testMissingFile() {
+        assertThrows(IOException.class, () -> new PipelinedTokenizer().tokenize(tempDir.resolve("missing.txt"), word -> {
+        }));
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = Files.createTempFile(tempDir, "tokens", ".txt");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<String> collect(Tokenizer tokenizer, Path file, ProcessingMetrics metrics) throws IOException {
+        List<String> events = new ArrayList<>();
+        TokenSink sink = new TokenSink() {
+            @Override
+            public void accept(String word) {
+                events.add(word);
+            }
+
+            @Override
+            public void endOfLine() {
+                events.add(LINE_END);
+            }
+        };
+        if (tokenizer instanceof PipelinedTokenizer) {
+            ((PipelinedTokenizer) tokenizer).tokenize(file, sink, metrics);
+        } else {
+            tokenizer.tokenize(file, sink);
+        }
+        return events;
+    }
+}
@@ -0,0 +1,189 @@
+package com.csg.searchindexer.handler;
+
+import com.csg.searchindexer.business.RuleFactory;
+import com.csg.searchindexer.business.rules.LengthFilterRule;
+import com.csg.searchindexer.business.rules.RuleAccumulator;
+import com.csg.searchindexer.business.rules.StreamingRule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ProcessingMetrics class
+ */
+public class ProcessingMetricsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path testFile;
+    private FileProcessor processor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testFile = Files.write(tempDir.resolve("a.txt"), Arrays.asList(
+                "Some words start with M like Monday and march",
+                "Mississippi is longer than five characters"));
+        processor = new FileProcessor();
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'M', true));
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 5, LengthFilterRule.FilterType.GREATER_THAN));
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 3, LengthFilterRule.FilterType.EQUAL_TO, true));
+    }
+
+    @Test
+    void testDisabledMetricsAreNotCollected() throws IOException {
+        ProcessingReport report = processor.processFileWithMetrics(testFile.toString());
+
+        assertNull(report.getMetrics());
+        assertEquals(processor.processFile(testFile.toString()), report.getResults());
+    }
+
+    @Test
+    void testFileMetrics() throws IOException {
+        Map<String, Object> unmetered = processor.processFile(testFile.toString());
+        processor.setMetricsEnabled(true);
+
+        ProcessingReport report = processor.processFileWithMetrics(testFile.toString());
+        ProcessingMetrics metrics = report.getMetrics();
+
+        assertEquals(unmetered, report.getResults());
+        assertEquals(1, metrics.getFileCount());
+        assertEquals(0, metrics.getCachedFileCount());
+        assertEquals(Files.size(testFile), metrics.getBytesRead());
+        assertEquals(15, metrics.getTokenCount());
+        assertTrue(metrics.getElapsedNanos() > 0);
+        assertTrue(metrics.getTokensPerSecond() > 0);
+        assertEquals(Arrays.asList("Words starting with M/m", "Words with length > 5", "Words with length = 3 (count)"),
+                Arrays.asList(metrics.getRuleMetrics().keySet().toArray()));
+        // Every rule computed a result, and no cache was consulted
+        for (ProcessingMetrics.RuleMetrics rule : metrics.getRuleMetrics().values()) {
+            assertTrue(rule.getNanos() > 0, rule.getRuleName());
+        }
+        assertTrue(metrics.getStageNanos(ProcessingMetrics.Stage.RESULTS) > 0);
+        assertEquals(0, metrics.getStageNanos(ProcessingMetrics.Stage.CACHE));
+        assertTrue(metrics.toString().contains("Rule Words with length > 5"));
+    }
+
+    @Test
+    void testRuleEstimatesFollowSampledCost() throws IOException {
+        Path file = tempDir.resolve("spin.txt");
+        Files.write(file, Collections.nCopies(2_000, "Monday words"));
+        processor.addRule(new SpinningRule());
+        processor.setMetricsEnabled(true);
+
+        ProcessingMetrics metrics = new ProcessingMetrics();
+        FusedRuleEvaluator evaluator = processor.evaluate(file, metrics);
+        Map<String, ProcessingMetrics.RuleMetrics> rules = metrics.getRuleMetrics();
+
+        // Every word spins, so scaling the sampled words up must account for all of it
+        long spinning = rules.get("Spinning").getNanos();
+        long spun = 4_000 * SpinningRule.SPIN_NANOS;
+        assertTrue(spinning >= spun * 9 / 10, spinning + " < " + spun);
+        assertTrue(spinning > rules.get("Words starting with M/m").getNanos() + rules.get("Words with length > 5").getNanos()
+                + rules.get("Words with length = 3 (count)").getNanos());
+        // Both length rules read one histogram and get equal halves of its cost
+        assertEquals(rules.get("Words with length > 5").getNanos(), rules.get("Words with length = 3 (count)").getNanos());
+        assertTrue(metrics.getStageNanos(ProcessingMetrics.Stage.RULES) >= spinning);
+        assertEquals(0, metrics.getStageNanos(ProcessingMetrics.Stage.CACHE));
+
+        evaluator.results(metrics);
+        assertTrue(metrics.getStageNanos(ProcessingMetrics.Stage.RESULTS) > 0);
+    }
+
+    @Test
+    void testMeteredCompiledAndParallelRunsMatchUnmetered() throws IOException {
+        Path largeFile = tempDir.resolve("large.txt");
+        StringBuilder content = new StringBuilder();
+        while (content.length() < 3 * 1024 * 1024) {
+            content.append("Mississippi and mechanism, more words in March; short m-words.\n");
+        }
+        Files.writeString(largeFile, content);
+        Map<String, Object> unmetered = processor.processFile(largeFile.toString());
+
+        processor.setMetricsEnabled(true);
+        processor.setRuleCompilation(true);
+        processor.setParallelism(4);
+        ProcessingReport report = processor.processFileWithMetrics(largeFile.toString());
+
+        assertEquals(unmetered, report.getResults());
+        assertEquals(Files.size(largeFile), report.getMetrics().getBytesRead());
+        assertTrue(report.getMetrics().getStageNanos(ProcessingMetrics.Stage.RULES) > 0);
+    }
+
+    @Test
+    void testCachedFilesAreCountedWithoutReading() throws IOException {
+        processor.setIncrementalCache(new IncrementalCache(Files.createDirectory(tempDir.resolve("cache"))));
+        processor.setMetricsEnabled(true);
+        processor.processFileWithMetrics(testFile.toString());
+
+        ProcessingMetrics metrics = processor.processFileWithMetrics(testFile.toString()).getMetrics();
+
+        assertEquals(1, metrics.getCachedFileCount());
+        assertEquals(0, metrics.getBytesRead());
+        assertEquals(15, metrics.getTokenCount());
+    }
+
+    @Test
+    void testBatchMetricsAreSummedOverFiles() throws Exception {
+        Path second = Files.write(tempDir.resolve("b.txt"), Arrays.asList("Monday morning"));
+        processor.setMetricsEnabled(true);
+
+        BatchResult batch = new BatchProcessor(processor).process(Arrays.asList(testFile, second));
+        ProcessingMetrics metrics = batch.getMetrics();
+
+        assertEquals(2, metrics.getFileCount());
+        assertEquals(17, metrics.getTokenCount());
+        assertEquals(Files.size(testFile) + Files.size(second), metrics.getBytesRead());
+        assertEquals(3, metrics.getRuleMetrics().size());
+        assertNull(new BatchProcessor(new FileProcessor()).process(Arrays.asList(second)).getMetrics());
+    }
+
+    /**
+     * Busy-waits a fixed time for every word
+     */
+    private static final class SpinningRule implements StreamingRule {
+        static final long SPIN_NANOS = 20_000;
+
+        @Override
+        public String getRuleName() {
+            return "Spinning";
+        }
+
+        @Override
+        public RuleAccumulator newAccumulator() {
+            return new SpinningAccumulator();
+        }
+    }
+
+    private static final class SpinningAccumulator implements RuleAccumulator {
+        private long words;
+
+        @Override
+        public void accept(String word) {
+            long end = System.nanoTime() + SpinningRule.SPIN_NANOS;
+            while (System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+            words++;
+        }
+
+        @Override
+        public Object result() {
+            return words;
+        }
+
+        @Override
+        public void merge(RuleAccumulator other) {
+            words += ((SpinningAccumulator) other).words;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.csg.searchindexer.handler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ReaderTokenizer class
+ */
+public class ReaderTokenizerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSplitsOnWhitespaceAndPunctuation() throws IOException {
+        Path file = tempDir.resolve("words.txt");
+        Files.write(file, Arrays.asList("Short m-word: mad, me, my", "What about (parentheses)?"));
+
+        List<String> words = new ArrayList<>();
+        new ReaderTokenizer().tokenize(file, words::add);
+
+        assertEquals(Arrays.asList("Short", "m-word", "mad", "me", "my", "What", "about", "parentheses"), words);
+    }
+
+    @Test
+    void testSkipsBlankWords() throws IOException {
+        Path file = tempDir.resolve("blank.txt");
+        Files.write(file, Arrays.asList("   ", "", "\u0001 ,  one"));
+
+        List<String> words = new ArrayList<>();
+        new ReaderTokenizer().tokenize(file, words::add);
+
+        assertEquals(Arrays.asList("one"), words);
+    }
+}
@@ -0,0 +1,258 @@
+package com.csg.searchindexer.handler;
+
+import com.csg.searchindexer.business.RuleFactory;
+import com.csg.searchindexer.business.rules.LengthFilterRule;
+import com.csg.searchindexer.business.rules.RuleAccumulator;
+import com.csg.searchindexer.business.rules.StreamingRule;
+import com.csg.searchindexer.business.rules.TermFrequencyRule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ResultCache class
+ */
+public class ResultCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ResultCache cache;
+    private FileProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ResultCache(2);
+        processor = new FileProcessor();
+        processor.setResultCache(cache);
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'M', true));
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 5, LengthFilterRule.FilterType.GREATER_THAN));
+    }
+
+    @Test
+    void testRepeatedCallsAreAnsweredFromMemory() throws IOException {
+        Path file = write("a.txt", "Monday morning meetings", true);
+
+        Map<String, Object> first = processor.processFile(file.toString());
+        Map<String, Object> second = processor.processFile(file.toString());
+
+        assertSame(first, second);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertThrows(UnsupportedOperationException.class, () -> second.put("x", 1));
+        @SuppressWarnings("unchecked")
+        List<String> words = (List<String>) second.get("Words with length > 5");
+        assertThrows(UnsupportedOperationException.class, () -> words.add("x"));
+    }
+
+    @Test
+    void testModifiedFileIsProcessedAgain() throws IOException {
+        Path file = write("a.txt", "Monday morning", true);
+        processor.processFile(file.toString());
+
+        write("a.txt", "Monday morning Mondays", true);
+        Map<String, Object> results = processor.processFile(file.toString());
+
+        assertEquals(3L, results.get("Words starting with M/m"));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testRecentlyModifiedFileIsConfirmedByContentHash() throws IOException {
+        // Written just now, so a change within the same timestamp tick must still be noticed
+        Path file = write("a.txt", "Monday", false);
+        FileTime modified = Files.getLastModifiedTime(file);
+        processor.processFile(file.toString());
+        assertEquals(1L, processor.processFile(file.toString()).get("Words starting with M/m"));
+
+        Files.writeString(file, "Sunday");
+        Files.setLastModifiedTime(file, modified);
+        assertEquals(0L, processor.processFile(file.toString()).get("Words starting with M/m"));
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void testEqualRulesShareEntriesAndOthersDoNot() throws IOException {
+        Path file = write("a.txt", "Monday morning meetings", true);
+        processor.processFile(file.toString());
+
+        FileProcessor equal = new FileProcessor();
+        equal.setResultCache(cache);
+        equal.addRule(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, (int) 'M', true));
+        equal.addRule(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 5, LengthFilterRule.FilterType.GREATER_THAN, false));
+        equal.processFile(file.toString());
+        assertEquals(1, cache.getHitCount());
+
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 3, LengthFilterRule.FilterType.EQUAL_TO));
+        Map<String, Object> results = processor.processFile(file.toString());
+        assertEquals(3, results.size());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void testRulesWithSameDisplayFormDoNotShareEntries() throws IOException {
+        Path file = write("a.txt", "a b a", true);
+        FileProcessor joined = new FileProcessor();
+        joined.setResultCache(cache);
+        joined.addRule(new TermFrequencyRule(List.of("a, b")));
+        FileProcessor split = new FileProcessor();
+        split.setResultCache(cache);
+        split.addRule(new TermFrequencyRule(List.of("a", "b")));
+
+        Map<String, Object> joinedResults = joined.processFile(file.toString());
+        Map<String, Object> splitResults = split.processFile(file.toString());
+
+        assertEquals(joinedResults.keySet(), splitResults.keySet());
+        assertNotEquals(joinedResults, splitResults);
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() throws IOException {
+        Path a = write("a.txt", "Monday", true);
+        Path b = write("b.txt", "March", true);
+        Path c = write("c.txt", "May", true);
+        processor.processFile(a.toString());
+        processor.processFile(b.toString());
+        processor.processFile(a.toString());
+        processor.processFile(c.toString());
+
+        assertEquals(2, cache.size());
+        processor.processFile(a.toString());
+        assertEquals(2, cache.getHitCount());
+        processor.processFile(b.toString());
+        assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    void testEntriesAreEvictedBySize() throws IOException {
+        Path a = write("a.txt", "Monday morning", true);
+        processor.processFile(a.toString());
+        long entryBytes = cache.getBytes();
+        assertTrue(entryBytes > 0);
+
+        // Room for four entries of this size, far fewer than the entry limit
+        ResultCache sized = new ResultCache(100, entryBytes * 9 / 2);
+        processor.setResultCache(sized);
+        for (int i = 0; i < 6; i++) {
+            processor.processFile(write(i + ".txt", "Monday morning", true).toString());
+        }
+        assertEquals(4, sized.size());
+        assertTrue(sized.getBytes() <= entryBytes * 9 / 2);
+        processor.processFile(tempDir.resolve("0.txt").toString());
+        assertEquals(0, sized.getHitCount());
+        processor.processFile(tempDir.resolve("5.txt").toString());
+        assertEquals(1, sized.getHitCount());
+    }
+
+    @Test
+    void testOversizedResultsAreNotCached() throws IOException {
+        Path small = write("small.txt", "Monday", true);
+        Path large = write("large.txt", "Mondays ".repeat(200), true);
+        processor.processFile(small.toString());
+
+        // Just enough for the small file to be within a quarter of the budget
+        cache = new ResultCache(100, cache.getBytes() * 4);
+        processor.setResultCache(cache);
+        processor.processFile(small.toString());
+        Map<String, Object> first = processor.processFile(large.toString());
+        Map<String, Object> second = processor.processFile(large.toString());
+
+        assertEquals(first, second);
+        assertEquals(1, cache.size());
+        assertEquals(0, cache.getHitCount());
+        assertThrows(IllegalArgumentException.class, () -> new ResultCache(1, 0));
+    }
+
+    @Test
+    void testFileRewrittenDuringProcessingIsNotServedStale() throws IOException {
+        Path file = write("a.txt", "Monday", false);
+        FileProcessor rewritingProcessor = new FileProcessor();
+        rewritingProcessor.setResultCache(cache);
+        rewritingProcessor.addRule(new RewritingRule(file, Files.getLastModifiedTime(file)));
+
+        // Rewritten within the same timestamp tick, so only the content hash can tell
+        assertEquals(1L, rewritingProcessor.processFile(file.toString()).get("Words starting with M"));
+        assertEquals(0L, rewritingProcessor.processFile(file.toString()).get("Words starting with M"));
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    void testMissingFileIsNotCached() {
+        assertThrows(IOException.class, () -> processor.processFile(tempDir.resolve("missing.txt").toString()));
+        assertEquals(0, cache.size());
+        assertThrows(IllegalArgumentException.class, () -> new ResultCache(0));
+    }
+
+    private Path write(String name, String content, boolean settled) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, content);
+        if (settled) {
+            // Modified long enough ago that the modification time alone proves the file unchanged
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - 60_000 - content.length()));
+        }
+        return file;
+    }
+
+    /**
+     * Counts words starting with M and rewrites its file once, keeping size and modification time
+     */
+    private static final class RewritingRule implements StreamingRule {
+        private final Path file;
+        private final FileTime modified;
+        private boolean rewritten;
+
+        private RewritingRule(Path file, FileTime modified) {
+            this.file = file;
+            this.modified = modified;
+        }
+
+        @Override
+        public String getRuleName() {
+            return "Words starting with M";
+        }
+
+        @Override
+        public RuleAccumulator newAccumulator() {
+            RewritingRule rule = this;
+            return new RuleAccumulator() {
+                private long count;
+
+                @Override
+                public void accept(String word) {
+                    if (!rule.rewritten) {
+                        rule.rewritten = true;
+                        try {
+                            Files.writeString(rule.file, "Sunday");
+                            Files.setLastModifiedTime(rule.file, rule.modified);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                    count += word.startsWith("M") ? 1 : 0;
+                }
+
+                @Override
+                public Object result() {
+                    return count;
+                }
+
+                @Override
+                public void merge(RuleAccumulator other) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+}
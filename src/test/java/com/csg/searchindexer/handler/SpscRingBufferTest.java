@@ -0,0 +1,83 @@
+package com.csg.searchindexer.handler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SpscRingBuffer class
+ */
+public class SpscRingBufferTest {
+
+    @Test
+    void testCapacityIsRoundedToPowerOfTwo() {
+        assertEquals(1, new SpscRingBuffer<>(1).capacity());
+        assertEquals(4, new SpscRingBuffer<>(3).capacity());
+        assertEquals(4, new SpscRingBuffer<>(4).capacity());
+        assertEquals(8, new SpscRingBuffer<>(5).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new SpscRingBuffer<>(0));
+    }
+
+    @Test
+    void testFirstInFirstOutWithinCapacity() {
+        SpscRingBuffer<Integer> queue = new SpscRingBuffer<>(2);
+
+        assertNull(queue.poll());
+        assertTrue(queue.offer(1));
+        assertTrue(queue.offer(2));
+        assertFalse(queue.offer(3));
+        assertEquals(2, queue.size());
+        assertEquals(1, queue.poll());
+        assertTrue(queue.offer(3));
+        assertEquals(2, queue.poll());
+        assertEquals(3, queue.poll());
+        assertNull(queue.poll());
+
+        assertEquals(3, queue.offers());
+        assertEquals(2, queue.maxDepth());
+        assertEquals(5 / 3.0, queue.averageDepth(), 1e-9);
+    }
+
+    @Test
+    @Timeout(10)
+    void testTransferBetweenThreadsKeepsOrder() throws InterruptedException {
+        SpscRingBuffer<Integer> queue = new SpscRingBuffer<>(4);
+        int count = 100_000;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                queue.put(i);
+            }
+        });
+        producer.start();
+
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, queue.take());
+        }
+        producer.join();
+        assertEquals(count, queue.offers());
+        assertTrue(queue.maxDepth() <= 4);
+    }
+
+    @Test
+    @Timeout(10)
+    void testCancelReleasesWaitingThread() throws InterruptedException {
+        SpscRingBuffer<Integer> queue = new SpscRingBuffer<>(1);
+        Throwable[] failure = new Throwable[1];
+        Thread consumer = new Thread(() -> {
+            try {
+                queue.take();
+            } catch (Throwable e) {
+                failure[0] = e;
+            }
+        });
+        consumer.start();
+
+        queue.cancel();
+        consumer.join();
+        assertInstanceOf(CancellationException.class, failure[0]);
+        assertEquals(1, queue.consumerStalls());
+    }
+}
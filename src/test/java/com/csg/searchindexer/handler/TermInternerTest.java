@@ -0,0 +1,124 @@
+package com.csg.searchindexer.handler;
+
+import com.csg.searchindexer.business.RuleFactory;
+import com.csg.searchindexer.business.rules.LengthFilterRule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TermInterner class
+ */
+public class TermInternerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testBytesAndStringsShareCanonicalInstances() {
+        TermInterner interner = new TermInterner();
+        byte[] ascii = "xx Monday xx".getBytes(StandardCharsets.UTF_8);
+        byte[] utf8 = "Äpfel".getBytes(StandardCharsets.UTF_8);
+
+        String first = interner.intern(ascii, 3, 6, true);
+        String second = interner.intern(ascii, 3, 6, true);
+        String fromString = interner.intern(new String("Monday"));
+        String apples = interner.intern(utf8, 0, utf8.length, false);
+
+        assertEquals("Monday", first);
+        assertSame(first, second);
+        assertSame(first, fromString);
+        assertEquals("Äpfel", apples);
+        assertSame(apples, interner.intern(new String("Äpfel")));
+        assertEquals(2, interner.getTermCount());
+        assertEquals(5, interner.getLookupCount());
+        assertEquals(3, interner.getHitCount());
+        assertTrue(interner.getSavedBytes() > 0);
+    }
+
+    @Test
+    void testTermIds() {
+        TermInterner interner = new TermInterner();
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            interner.intern("term" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            int id = interner.termId("term" + i);
+            assertEquals("term" + i, interner.getTerm(id));
+            ids.add(id);
+        }
+
+        assertEquals(10_000, ids.size());
+        assertEquals(-1, interner.termId("missing"));
+    }
+
+    @Test
+    void testStopsGrowingAtLimit() {
+        TermInterner interner = new TermInterner(16);
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals("term" + i, interner.intern("term" + i));
+        }
+
+        assertTrue(interner.getTermCount() <= 16);
+    }
+
+    @Test
+    void testConcurrentInterning() throws Exception {
+        TermInterner interner = new TermInterner();
+        List<Future<List<String>>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    List<String> terms = new ArrayList<>();
+                    for (int i = 0; i < 5_000; i++) {
+                        byte[] bytes = ("w" + i % 500).getBytes(StandardCharsets.UTF_8);
+                        terms.add(interner.intern(bytes, 0, bytes.length, true));
+                    }
+                    return terms;
+                }));
+            }
+            List<String> reference = futures.get(0).get();
+            for (Future<List<String>> future : futures) {
+                List<String> terms = future.get();
+                for (int i = 0; i < terms.size(); i++) {
+                    assertSame(reference.get(i), terms.get(i));
+                }
+            }
+        }
+        assertEquals(500, interner.getTermCount());
+    }
+
+    @Test
+    void testInterningProcessorSharesInstancesAcrossResults() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("words.txt"), "Mississippi Mississippi, river. Mississippi\nriver");
+        for (FileProcessor.TokenizerMode mode : FileProcessor.TokenizerMode.values()) {
+            FileProcessor processor = new FileProcessor();
+            processor.setTokenizerMode(mode);
+            processor.setTermInterning(true);
+            processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 4, LengthFilterRule.FilterType.GREATER_THAN));
+
+            Map<String, Object> results = processor.processFile(file.toString());
+            List<?> words = (List<?>) results.get("Words with length > 4");
+
+            assertEquals(List.of("Mississippi", "Mississippi", "river", "Mississippi", "river"), words);
+            assertSame(words.get(0), words.get(3));
+            assertEquals(2, processor.getTermInterner().getTermCount());
+            assertEquals(3, processor.getTermInterner().getHitCount());
+        }
+    }
+}
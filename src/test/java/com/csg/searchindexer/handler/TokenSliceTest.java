@@ -0,0 +1,60 @@
+package com.csg.searchindexer.handler;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TokenSlice class
+ */
+public class TokenSliceTest {
+
+    private final ByteBuffer buffer = ByteBuffer.wrap("one Monday caf\u00E9".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void testAsciiWordIsReadFromBuffer() {
+        TokenSlice slice = new TokenSlice(null).set(buffer, 4, 6, true);
+
+        assertEquals(6, slice.length());
+        assertEquals('M', slice.charAt(0));
+        assertEquals('y', slice.charAt(5));
+        assertEquals("Mon", slice.subSequence(0, 3).toString());
+        assertEquals("Monday", slice.toString());
+        assertSame(slice.toString(), slice.toString());
+        assertThrows(StringIndexOutOfBoundsException.class, () -> slice.charAt(6));
+    }
+
+    @Test
+    void testNonAsciiWordMatchesDecodedString() {
+        TokenSlice slice = new TokenSlice(null).set(buffer, 11, 5, false);
+
+        assertEquals(4, slice.length());
+        assertEquals('\u00E9', slice.charAt(3));
+        assertEquals("caf\u00E9", slice.toString());
+    }
+
+    @Test
+    void testRepositioningDropsMaterializedWord() {
+        TokenSlice slice = new TokenSlice(null).set(buffer, 0, 3, true);
+        assertEquals("one", slice.toString());
+
+        slice.set(buffer, 4, 6, true);
+
+        assertEquals("Monday", slice.toString());
+    }
+
+    @Test
+    void testMaterializationGoesThroughInterner() {
+        TermInterner interner = new TermInterner();
+        TokenSlice slice = new TokenSlice(interner);
+
+        String first = slice.set(buffer, 4, 6, true).toString();
+        String second = slice.set(ByteBuffer.wrap("Monday".getBytes(StandardCharsets.US_ASCII)), 0, 6, true).toString();
+
+        assertSame(first, second);
+        assertEquals(1, interner.getHitCount());
+    }
+}
@@ -0,0 +1,70 @@
+package com.csg.searchindexer.index;
+
+import com.csg.searchindexer.business.RuleFactory;
+import com.csg.searchindexer.business.rules.LengthFilterRule;
+import com.csg.searchindexer.business.rules.ProcessingRule;
+import com.csg.searchindexer.handler.FileProcessor;
+import com.csg.searchindexer.handler.ReaderTokenizer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the IndexRuleEvaluator class
+ */
+public class IndexRuleEvaluatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRulesFromSegmentMatchRawText() throws IOException {
+        Path file = tempDir.resolve("test-content.txt");
+        Files.write(file, Arrays.asList(
+                "This is a test file with multiple words",
+                "Some words start with M like Monday and march",
+                "Mississippi is longer than five characters",
+                "Mathematics and mechanism are both long M-words",
+                "Short m-word: mad, me, my, Monday"
+        ));
+        List<ProcessingRule> rules = Arrays.asList(
+                RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'M', true),
+                RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 5, LengthFilterRule.FilterType.GREATER_THAN));
+
+        FileProcessor processor = new FileProcessor();
+        rules.forEach(processor::addRule);
+        Map<String, Object> fromText = processor.processFile(file.toString());
+
+        InvertedIndex index = new InvertedIndex();
+        index.addDocument(file, new ReaderTokenizer());
+        Path segmentFile = tempDir.resolve("index.seg");
+        SegmentWriter.write(index, segmentFile);
+        Map<String, Object> fromSegment = IndexRuleEvaluator.evaluate(Segment.open(segmentFile), rules);
+
+        assertEquals(fromText.get("Words starting with M/m"), fromSegment.get("Words starting with M/m"));
+        assertEquals(sorted(fromText.get("Words with length > 5")), sorted(fromSegment.get("Words with length > 5")));
+
+        Map<String, Object> fromIndex = IndexRuleEvaluator.evaluate(index, rules);
+        assertEquals(fromText.get("Words starting with M/m"), fromIndex.get("Words starting with M/m"));
+        assertEquals(sorted(fromText.get("Words with length > 5")), sorted(fromIndex.get("Words with length > 5")));
+    }
+
+    private static List<String> sorted(Object words) {
+        List<String> copy = new ArrayList<>();
+        for (Object word : (List<?>) words) {
+            copy.add((String) word);
+        }
+        Collections.sort(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,116 @@
+package com.csg.searchindexer.index;
+
+import com.csg.searchindexer.handler.MappedFileTokenizer;
+import com.csg.searchindexer.handler.ReaderTokenizer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the InvertedIndex class
+ */
+public class InvertedIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testIndexesTermsWithDocumentAndLinePostings() throws IOException {
+        Path first = tempDir.resolve("first.txt");
+        Path second = tempDir.resolve("second.txt");
+        Files.write(first, Arrays.asList("Monday is a day", "", "a day, a week; Monday!"));
+        Files.write(second, Arrays.asList("week after week"));
+
+        InvertedIndex index = new InvertedIndex();
+        assertEquals(0, index.addDocument(first, new ReaderTokenizer()));
+        assertEquals(1, index.addDocument(second, new MappedFileTokenizer()));
+
+        TermDictionary dictionary = index.getDictionary();
+        PostingsStore postings = index.getPostings();
+        int monday = dictionary.lookup("Monday");
+        int week = dictionary.lookup("week");
+
+        assertEquals(2, index.termFrequency(monday));
+        assertEquals(2, postings.size(monday));
+        assertEquals(0, postings.line(monday, 0));
+        assertEquals(2, postings.line(monday, 1));
+
+        assertEquals(3, index.termFrequency(week));
+        assertEquals(2, postings.size(week));
+        assertEquals(0, postings.documentId(week, 0));
+        assertEquals(1, postings.documentId(week, 1));
+        assertEquals(0, postings.line(week, 1));
+
+        assertEquals(3, index.termFrequency(dictionary.lookup("a")));
+        assertEquals(12, index.getTokenCount());
+        assertEquals(Arrays.asList(first.toString(), second.toString()), index.getDocuments());
+    }
+
+    @Test
+    void testPositionsCountWordsPerDocument() throws IOException {
+        Path first = tempDir.resolve("first.txt");
+        Path second = tempDir.resolve("second.txt");
+        Files.write(first, Arrays.asList("Monday is a day", "", "a day, a week; Monday!"));
+        Files.write(second, Arrays.asList("week after week"));
+
+        InvertedIndex index = new InvertedIndex(true);
+        index.addDocument(first, new ReaderTokenizer());
+        index.addDocument(second, new MappedFileTokenizer());
+
+        PositionalPostings.Positions week = index.getPositions().positions(index.getDictionary().lookup("week"));
+        assertTrue(week.next());
+        assertEquals(0, week.documentId());
+        assertEquals(1, week.frequency());
+        assertEquals(7, week.position(0));
+        assertTrue(week.next());
+        assertEquals(1, week.documentId());
+        assertEquals(2, week.frequency());
+        assertEquals(0, week.position(0));
+        assertEquals(2, week.position(1));
+        assertEquals(12, index.getPositions().positionCount());
+
+        assertFalse(new InvertedIndex().hasPositions());
+        assertThrows(IllegalStateException.class, () -> new InvertedIndex().getPositions());
+    }
+
+    @Test
+    void testPostingsUseFarLessMemoryThanBoxedLists() {
+        InvertedIndex index = new InvertedIndex();
+        Random random = new Random(1);
+        List<String> vocabulary = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            vocabulary.add("term" + i);
+        }
+
+        for (int document = 0; document < 20; document++) {
+            index.addDocument("doc" + document);
+            for (int line = 0; line < 2_000; line++) {
+                for (int word = 0; word < 8; word++) {
+                    // Skewed vocabulary: low term numbers are much more frequent
+                    int rank = (int) Math.min(vocabulary.size() - 1, Math.abs(random.nextGaussian()) * 300);
+                    index.add(document, line, vocabulary.get(rank));
+                }
+            }
+        }
+
+        long postingCount = index.getPostings().postingCount();
+        int termCount = index.getDictionary().size();
+        // List<Integer> per term with boxed document and line ids: list object and array per term,
+        // then a 16 byte Integer plus a 4 byte slot for each of the two ids of a posting
+        double boxedBytesPerPosting = (termCount * (24.0 + 16.0) + postingCount * 2 * (16 + 4)) / postingCount;
+
+        double bytesPerPosting = index.postingsBytesPerPosting();
+        assertTrue(bytesPerPosting > 8, "a posting needs at least two ints");
+        assertTrue(bytesPerPosting < boxedBytesPerPosting / 3,
+                bytesPerPosting + " bytes per posting vs " + boxedBytesPerPosting + " boxed");
+    }
+}
@@ -0,0 +1,113 @@
+package com.csg.searchindexer.index;
+
+import com.csg.searchindexer.handler.MappedFileTokenizer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the PhraseQuery class
+ */
+public class PhraseQueryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testPhraseAndProximityOverFiles() throws IOException {
+        Path first = tempDir.resolve("first.txt");
+        Path second = tempDir.resolve("second.txt");
+        Files.write(first, Arrays.asList("Machine learning is fun.", "Learning about machine", "learning, again"));
+        Files.write(second, Arrays.asList("learning the machine; deep machine models learning"));
+        InvertedIndex index = new InvertedIndex(true);
+        index.addDocument(first, new MappedFileTokenizer());
+        index.addDocument(second, new MappedFileTokenizer());
+
+        // The phrase may span lines, since positions count words across the whole document
+        assertEquals(Arrays.asList(match(0, 6, 7)), PhraseQuery.phrase("machine", "learning").search(index));
+        assertEquals(Arrays.asList(match(0, 0, 1)), PhraseQuery.phrase("Machine", "learning").search(index));
+        assertEquals(Arrays.asList(match(0, 6, 7), match(1, 0, 2), match(1, 4, 6)),
+                PhraseQuery.near(2, "machine", "learning").search(index));
+        assertEquals(Arrays.asList(match(1, 0, 2)), PhraseQuery.near(2, "learning", "the", "machine").search(index));
+        assertTrue(PhraseQuery.phrase("machine", "unknown").search(index).isEmpty());
+        assertThrows(IllegalStateException.class, () -> PhraseQuery.phrase("a").search(new InvertedIndex()));
+    }
+
+    @Test
+    void testMatchesBruteForce() {
+        InvertedIndex index = new InvertedIndex(true);
+        Random random = new Random(8);
+        String[] vocabulary = {"a", "b", "c", "d", "e", "f", "g", "h"};
+        List<String[]> documents = new ArrayList<>();
+        for (int document = 0; document < 60; document++) {
+            index.addDocument("doc" + document);
+            // Some documents lack terms entirely, so the cursors have to leapfrog
+            int words = random.nextInt(4) == 0 ? 0 : random.nextInt(80);
+            int letters = 2 + random.nextInt(vocabulary.length - 1);
+            String[] text = new String[words];
+            for (int position = 0; position < words; position++) {
+                text[position] = vocabulary[random.nextInt(letters)];
+                index.add(document, position / 10, text[position]);
+            }
+            documents.add(text);
+        }
+
+        List<PhraseQuery> queries = Arrays.asList(
+                PhraseQuery.phrase("a", "b"), PhraseQuery.phrase("c", "c"), PhraseQuery.phrase("a", "b", "c"),
+                PhraseQuery.phrase("g"), PhraseQuery.near(0, "d"), PhraseQuery.near(3, "a", "f"),
+                PhraseQuery.near(5, "b", "e", "g"), PhraseQuery.near(2, "h", "h", "a"));
+        for (PhraseQuery query : queries) {
+            assertEquals(bruteForce(query, documents), query.search(index), query.toString());
+        }
+    }
+
+    private static List<PhraseQuery.Match> bruteForce(PhraseQuery query, List<String[]> documents) {
+        List<String> terms = query.getTerms();
+        boolean exact = query.toString().startsWith("\"");
+        int distance = exact ? terms.size() - 1 : Integer.parseInt(query.toString().replaceAll(".* within ", ""));
+        List<PhraseQuery.Match> matches = new ArrayList<>();
+        for (int document = 0; document < documents.size(); document++) {
+            String[] text = documents.get(document);
+            for (int start = 0; start < text.length; start++) {
+                if (exact) {
+                    boolean found = start + terms.size() <= text.length;
+                    for (int i = 0; i < terms.size() && found; i++) {
+                        found = text[start + i].equals(terms.get(i));
+                    }
+                    if (found) {
+                        matches.add(match(document, start, start + terms.size() - 1));
+                    }
+                } else if (terms.contains(text[start])) {
+                    // A window starts at every occurrence whose nearest following occurrences of the other terms fit
+                    int end = start;
+                    boolean found = true;
+                    for (String term : terms) {
+                        int position = start;
+                        while (position < text.length && !text[position].equals(term)) {
+                            position++;
+                        }
+                        found &= position < text.length;
+                        end = Math.max(end, position);
+                    }
+                    if (found && end - start <= distance) {
+                        matches.add(match(document, start, end));
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static PhraseQuery.Match match(int documentId, int start, int end) {
+        return new PhraseQuery.Match(documentId, start, end);
+    }
+}
@@ -0,0 +1,111 @@
+package com.csg.searchindexer.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the PositionalPostings class
+ */
+public class PositionalPostingsTest {
+
+    @Test
+    void testCursorsReturnEveryPositionInOrder() {
+        PositionalPostings postings = new PositionalPostings();
+        Random random = new Random(5);
+        int terms = 50;
+        // Expected (document, position) pairs per term
+        List<List<int[]>> expected = new ArrayList<>();
+        for (int term = 0; term < terms; term++) {
+            expected.add(new ArrayList<>());
+        }
+        for (int document = 0; document < 200; document += 1 + random.nextInt(3)) {
+            int length = random.nextInt(300);
+            for (int position = 0; position < length; position++) {
+                int term = (int) Math.min(terms - 1, Math.abs(random.nextGaussian()) * 10);
+                postings.add(term, document, position);
+                expected.get(term).add(new int[]{document, position});
+            }
+        }
+
+        long positions = 0;
+        for (int term = 0; term < terms; term++) {
+            PositionalPostings.Positions cursor = postings.positions(term);
+            List<int[]> actual = new ArrayList<>();
+            int documents = 0;
+            while (cursor.next()) {
+                documents++;
+                for (int i = 0; i < cursor.frequency(); i++) {
+                    actual.add(new int[]{cursor.documentId(), cursor.position(i)});
+                }
+            }
+            assertEquals(expected.get(term).size(), actual.size());
+            for (int i = 0; i < actual.size(); i++) {
+                assertArrayEquals(expected.get(term).get(i), actual.get(i));
+            }
+            assertEquals(documents, postings.documentFrequency(term));
+            assertFalse(cursor.next());
+            positions += actual.size();
+        }
+        assertEquals(positions, postings.positionCount());
+        assertFalse(postings.positions(terms + 10).next());
+    }
+
+    @Test
+    void testAdvanceSkipsToTargetDocument() {
+        PositionalPostings postings = new PositionalPostings();
+        for (int document = 0; document < 100; document += 10) {
+            postings.add(0, document, 3);
+            postings.add(0, document, 200 + document);
+        }
+
+        PositionalPostings.Positions cursor = postings.positions(0);
+        assertTrue(cursor.advance(35));
+        assertEquals(40, cursor.documentId());
+        assertEquals(2, cursor.frequency());
+        assertEquals(240, cursor.position(1));
+        assertTrue(cursor.advance(40));
+        assertEquals(40, cursor.documentId());
+        assertFalse(cursor.advance(91));
+        assertThrows(IndexOutOfBoundsException.class, () -> cursor.position(0));
+    }
+
+    @Test
+    void testPositionsAreCompressed() {
+        // Uniform over 50 terms: gaps mostly stay below 128, so a position usually takes one byte
+        assertTrue(bytesPerPosition(random -> random.nextInt(50)) < 1.6);
+        // Skewed over 5,000 terms: rare terms have long gaps, yet a position still costs less than an int
+        assertTrue(bytesPerPosition(random -> (int) Math.min(4_999, Math.abs(random.nextGaussian()) * 300)) < 4);
+    }
+
+    @Test
+    void testRejectsOutOfOrderInput() {
+        PositionalPostings postings = new PositionalPostings();
+        postings.add(0, 1, 5);
+        assertThrows(IllegalStateException.class, () -> postings.add(0, 1, 5));
+        postings.add(1, 2, 0);
+        assertThrows(IllegalStateException.class, () -> postings.add(0, 1, 9));
+
+        // Reading completes the document, so it cannot grow afterwards
+        postings.positions(1);
+        assertThrows(IllegalStateException.class, () -> postings.add(1, 2, 1));
+        postings.add(1, 3, 0);
+        assertEquals(2, postings.documentFrequency(1));
+    }
+
+    private static double bytesPerPosition(ToIntFunction<Random> terms) {
+        PositionalPostings postings = new PositionalPostings();
+        Random random = new Random(2);
+        for (int document = 0; document < 200; document++) {
+            for (int position = 0; position < 2_000; position++) {
+                postings.add(terms.applyAsInt(random), document, position);
+            }
+        }
+        return (double) postings.ramBytesUsed() / postings.positionCount();
+    }
+}
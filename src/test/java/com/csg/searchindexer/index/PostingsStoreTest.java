@@ -0,0 +1,39 @@
+package com.csg.searchindexer.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the PostingsStore class
+ */
+public class PostingsStoreTest {
+
+    @Test
+    void testPostingsAreKeptInOrder() {
+        PostingsStore postings = new PostingsStore();
+        for (int line = 0; line < 100; line++) {
+            postings.add(3, line / 10, line);
+        }
+
+        assertEquals(100, postings.size(3));
+        assertEquals(0, postings.size(0));
+        assertEquals(0, postings.size(42));
+        assertEquals(4, postings.documentId(3, 45));
+        assertEquals(45, postings.line(3, 45));
+        assertEquals(100, postings.postingCount());
+        assertThrows(IndexOutOfBoundsException.class, () -> postings.line(3, 100));
+    }
+
+    @Test
+    void testRepeatedOccurrencesOnSameLineAreOnePosting() {
+        PostingsStore postings = new PostingsStore();
+        postings.add(0, 0, 1);
+        postings.add(0, 0, 1);
+        postings.add(0, 0, 2);
+        postings.add(0, 1, 2);
+
+        assertEquals(3, postings.size(0));
+        assertEquals(3, postings.postingCount());
+    }
+}
@@ -0,0 +1,144 @@
+package com.csg.searchindexer.index;
+
+import com.csg.searchindexer.business.RuleFactory;
+import com.csg.searchindexer.business.rules.LengthFilterRule;
+import com.csg.searchindexer.business.rules.ProcessingRule;
+import com.csg.searchindexer.business.rules.StartsWithLetterRule;
+import com.csg.searchindexer.business.rules.TopKRule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the QueryPlanner class
+ */
+public class QueryPlannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testStatisticsMatchScanForBuiltInRules() throws IOException {
+        InvertedIndex index = new InvertedIndex();
+        Random random = new Random(3);
+        String[] vocabulary = {"Monday", "march", "Mississippi", "me", "a", "apple", "Äpfel", "äpfel", "über",
+                "αβγ", "Αβγ", "😀smile", "x", "characters", "M-words", "mechanism"};
+        index.addDocument("doc");
+        for (int i = 0; i < 2_000; i++) {
+            index.add(0, i / 10, vocabulary[random.nextInt(vocabulary.length)]);
+        }
+        Path segmentFile = tempDir.resolve("index.seg");
+        SegmentWriter.write(index, segmentFile);
+
+        List<ProcessingRule> rules = new ArrayList<>();
+        for (char letter : new char[]{'M', 'm', 'a', 'Ä', 'α', 'x', 'z', '\uD83D'}) {
+            rules.add(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, letter, false));
+            rules.add(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, letter, true));
+        }
+        for (LengthFilterRule.FilterType filterType : LengthFilterRule.FilterType.values()) {
+            for (int length = 0; length < 13; length += 3) {
+                rules.add(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, length, filterType));
+                rules.add(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, length, filterType, true));
+            }
+        }
+
+        for (int k : new int[]{1, 5, 100}) {
+            rules.add(RuleFactory.createRule(RuleFactory.RuleType.TOP_K, k));
+        }
+        for (String prefix : new String[]{"M", "m", "mi", "Mon", "äp", "ÄPFEL", "αβ", "😀", "\uD83D", "characterss"}) {
+            rules.add(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_PREFIX, prefix, false));
+            rules.add(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_PREFIX, prefix, true));
+            rules.add(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_PREFIX, prefix, true, true));
+        }
+
+        for (TermStatistics statistics : Arrays.asList(index, Segment.open(segmentFile))) {
+            QueryPlanner planner = new QueryPlanner(statistics);
+            rules.forEach(rule -> assertTrue(planner.canAnswerFromStatistics(rule)));
+            assertEquals(IndexRuleEvaluator.evaluate(statistics, rules), planner.evaluate(rules));
+        }
+        assertFalse(new QueryPlanner(index).canAnswerFromStatistics(new TopKRule(5, TopKRule.Mode.SPACE_SAVING)));
+    }
+
+    @Test
+    void testUnknownRulesFallBackToScan() {
+        InvertedIndex index = new InvertedIndex();
+        index.addDocument("doc");
+        for (String word : Arrays.asList("one", "two", "three", "two")) {
+            index.add(0, 0, word);
+        }
+        ProcessingRule countRule = new ProcessingRule() {
+            @Override
+            public String getRuleName() {
+                return "Count Rule";
+            }
+
+            @Override
+            public Object process(List<String> words) {
+                return words.size();
+            }
+        };
+        ProcessingRule subclassRule = new StartsWithLetterRule('t', false) {
+            @Override
+            public String getRuleName() {
+                return "Subclassed Rule";
+            }
+        };
+
+        QueryPlanner planner = new QueryPlanner(index);
+        Map<String, Object> results = planner.evaluate(Arrays.asList(
+                countRule, RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 't', false), subclassRule));
+
+        assertFalse(planner.canAnswerFromStatistics(countRule));
+        assertFalse(planner.canAnswerFromStatistics(subclassRule));
+        assertEquals(Arrays.asList("Count Rule", "Words starting with t", "Subclassed Rule"), new ArrayList<>(results.keySet()));
+        assertEquals(4, results.get("Count Rule"));
+        assertEquals(3L, results.get("Words starting with t"));
+        assertEquals(3L, results.get("Subclassed Rule"));
+    }
+
+    @Test
+    void testCostDependsOnDistinctTermsNotTokens() {
+        // A trillion occurrences would take hours to scan but only two terms to look at
+        TermStatistics statistics = new TermStatistics() {
+            @Override
+            public int getTermCount() {
+                return 2;
+            }
+
+            @Override
+            public String getTerm(int termId) {
+                return termId == 0 ? "Monday" : "tuesday";
+            }
+
+            @Override
+            public long termFrequency(int termId) {
+                return 1_000_000_000_000L;
+            }
+
+            @Override
+            public List<String> getDocuments() {
+                return Collections.singletonList("huge.txt");
+            }
+
+            @Override
+            public long getTokenCount() {
+                return 2_000_000_000_000L;
+            }
+        };
+
+        Map<String, Object> results = new QueryPlanner(statistics).evaluate(Collections.singletonList(
+                RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'm', true)));
+
+        assertEquals(1_000_000_000_000L, results.get("Words starting with M/m"));
+    }
+}
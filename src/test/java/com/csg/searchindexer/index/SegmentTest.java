@@ -0,0 +1,157 @@
+package com.csg.searchindexer.index;
+
+import com.csg.searchindexer.handler.MappedFileTokenizer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SegmentWriter and Segment classes
+ */
+public class SegmentTest {
+
+    @TempDir
+    Path tempDir;
+
+    private InvertedIndex index;
+    private Path segmentFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path first = tempDir.resolve("first.txt");
+        Path second = tempDir.resolve("second.txt");
+        Files.write(first, Arrays.asList("Monday is a day", "", "a day, a week; Monday!", "Ärger über 😀"));
+        Files.write(second, Arrays.asList("week after week", "zebra"));
+
+        index = new InvertedIndex();
+        index.addDocument(first, new MappedFileTokenizer());
+        index.addDocument(second, new MappedFileTokenizer());
+        segmentFile = tempDir.resolve("index.seg");
+        SegmentWriter.write(index, segmentFile);
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        Segment segment = Segment.open(segmentFile);
+        segment.verify();
+
+        assertEquals(index.getTermCount(), segment.getTermCount());
+        assertEquals(index.getTokenCount(), segment.getTokenCount());
+        assertEquals(index.getDocuments(), segment.getDocuments());
+
+        for (int termId = 0; termId < index.getTermCount(); termId++) {
+            String term = index.getTerm(termId);
+            int ordinal = segment.lookup(term);
+            assertEquals(term, segment.getTerm(ordinal));
+            assertEquals(index.termFrequency(termId), segment.termFrequency(ordinal));
+            assertEquals(index.getPostings().size(termId), segment.postingCount(ordinal));
+
+            Segment.Postings postings = segment.postings(ordinal);
+            for (int i = 0; i < index.getPostings().size(termId); i++) {
+                assertTrue(postings.next());
+                assertEquals(index.getPostings().documentId(termId, i), postings.documentId());
+                assertEquals(index.getPostings().line(termId, i), postings.line());
+            }
+            assertFalse(postings.next());
+        }
+        assertEquals(-1, segment.lookup("missing"));
+    }
+
+    @Test
+    void testTermsAreSorted() throws IOException {
+        Segment segment = Segment.open(segmentFile);
+
+        List<String> terms = new ArrayList<>();
+        for (int ordinal = 0; ordinal < segment.getTermCount(); ordinal++) {
+            terms.add(segment.getTerm(ordinal));
+        }
+
+        List<String> sorted = new ArrayList<>(terms);
+        sorted.sort(String::compareTo);
+        assertEquals(sorted, terms);
+        assertEquals("Monday", terms.get(0));
+        assertEquals("😀", terms.get(terms.size() - 1));
+    }
+
+    @Test
+    void testLargeRandomIndex() throws IOException {
+        InvertedIndex large = new InvertedIndex();
+        Random random = new Random(9);
+        for (int document = 0; document < 50; document++) {
+            large.addDocument("doc" + document);
+            for (int line = 0; line < 500; line += 1 + random.nextInt(3)) {
+                large.add(document, line, "t" + random.nextInt(2_000));
+            }
+        }
+        Path file = tempDir.resolve("large.seg");
+        SegmentWriter.write(large, file);
+
+        Segment segment = Segment.open(file);
+        segment.verify();
+        for (int termId = 0; termId < large.getTermCount(); termId += 7) {
+            int ordinal = segment.lookup(large.getTerm(termId));
+            assertEquals(large.termFrequency(termId), segment.termFrequency(ordinal));
+            Segment.Postings postings = segment.postings(ordinal);
+            int count = 0;
+            while (postings.next()) {
+                assertEquals(large.getPostings().line(termId, count), postings.line());
+                count++;
+            }
+            assertEquals(large.getPostings().size(termId), count);
+        }
+        assertTrue(Files.size(file) < large.ramBytesUsed());
+    }
+
+    @Test
+    void testEmptyIndex() throws IOException {
+        Path file = tempDir.resolve("empty.seg");
+        SegmentWriter.write(new InvertedIndex(), file);
+
+        Segment segment = Segment.open(file);
+        segment.verify();
+        assertEquals(0, segment.getTermCount());
+        assertEquals(-1, segment.lookup("anything"));
+    }
+
+    @Test
+    void testCorruptBodyFailsVerification() throws IOException {
+        byte[] bytes = Files.readAllBytes(segmentFile);
+        bytes[bytes.length - 1] ^= 0x01;
+        Files.write(segmentFile, bytes);
+
+        Segment segment = Segment.open(segmentFile);
+        assertThrows(IOException.class, segment::verify);
+    }
+
+    @Test
+    void testCorruptHeaderFailsOnOpen() throws IOException {
+        byte[] bytes = Files.readAllBytes(segmentFile);
+        bytes[8] ^= 0x01;
+        Files.write(segmentFile, bytes);
+
+        assertThrows(IOException.class, () -> Segment.open(segmentFile));
+    }
+
+    @Test
+    void testRejectsOtherFilesAndVersions() throws IOException {
+        Path text = tempDir.resolve("first.txt");
+        assertThrows(IOException.class, () -> Segment.open(text));
+
+        byte[] bytes = Files.readAllBytes(segmentFile);
+        ByteBuffer.wrap(bytes).putInt(4, Segment.VERSION + 1);
+        Files.write(segmentFile, bytes);
+        IOException error = assertThrows(IOException.class, () -> Segment.open(segmentFile));
+        assertTrue(error.getMessage().contains("version"));
+    }
+}
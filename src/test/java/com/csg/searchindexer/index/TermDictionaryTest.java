@@ -0,0 +1,51 @@
+package com.csg.searchindexer.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TermDictionary class
+ */
+public class TermDictionaryTest {
+
+    @Test
+    void testIdsAreDenseAndStable() {
+        TermDictionary dictionary = new TermDictionary();
+
+        assertEquals(0, dictionary.add("apple"));
+        assertEquals(1, dictionary.add("banana"));
+        assertEquals(0, dictionary.add("apple"));
+        assertEquals(2, dictionary.add("Apple"));
+
+        assertEquals(3, dictionary.size());
+        assertEquals("banana", dictionary.term(1));
+        assertEquals(2, dictionary.lookup("Apple"));
+        assertEquals(-1, dictionary.lookup("cherry"));
+        assertThrows(IndexOutOfBoundsException.class, () -> dictionary.term(3));
+    }
+
+    @Test
+    void testManyTermsSurviveRehashing() {
+        TermDictionary dictionary = new TermDictionary();
+        Map<String, Integer> expected = new HashMap<>();
+        Random random = new Random(5);
+
+        for (int i = 0; i < 50_000; i++) {
+            String term = Integer.toString(random.nextInt(20_000), 36);
+            int id = dictionary.add(term);
+            assertEquals(expected.computeIfAbsent(term, t -> expected.size()), id);
+        }
+
+        assertEquals(expected.size(), dictionary.size());
+        expected.forEach((term, id) -> {
+            assertEquals(id, dictionary.lookup(term));
+            assertEquals(term, dictionary.term(id));
+        });
+        assertTrue(dictionary.ramBytesUsed() > 0);
+    }
+}
@@ -0,0 +1,141 @@
+package com.csg.searchindexer.server;
+
+import com.csg.searchindexer.business.RuleFactory;
+import com.csg.searchindexer.business.rules.LengthFilterRule;
+import com.csg.searchindexer.handler.FileProcessor;
+import com.csg.searchindexer.handler.IncrementalCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the IndexServer class
+ */
+public class IndexServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileProcessor processor;
+    private IndexServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        processor = new FileProcessor();
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.STARTS_WITH_LETTER, 'M', true));
+        processor.addRule(RuleFactory.createRule(RuleFactory.RuleType.LENGTH_FILTER, 5, LengthFilterRule.FilterType.GREATER_THAN));
+        server = new IndexServer(processor, 0);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void testIndexReturnsResultsAsJson() throws Exception {
+        Path file = write("a.txt", "Monday and March, mostly mild\nnothing here");
+
+        HttpResponse<String> response = get("/index?path=" + URLEncoder.encode(file.toString(), StandardCharsets.UTF_8));
+
+        assertEquals(200, response.statusCode());
+        assertEquals("application/json; charset=utf-8", response.headers().firstValue("Content-Type").orElse(null));
+        assertEquals(JsonWriter.write(processor.processFile(file.toString())), response.body());
+        assertTrue(response.body().startsWith("{\"Words starting with M/m\":4,"));
+    }
+
+    @Test
+    void testPostWithPathAsBody() throws Exception {
+        Path file = write("post.txt", "Monday");
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/index"))
+                .POST(HttpRequest.BodyPublishers.ofString(file.toString())).build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"Words starting with M/m\":1"));
+    }
+
+    @Test
+    void testErrors() throws Exception {
+        assertEquals(400, get("/index").statusCode());
+        HttpResponse<String> missing = get("/index?path=" + URLEncoder.encode(tempDir.resolve("missing.txt").toString(), StandardCharsets.UTF_8));
+        assertEquals(404, missing.statusCode());
+        assertTrue(missing.body().startsWith("{\"error\":\"File does not exist"));
+        HttpResponse<String> delete = client.send(HttpRequest.newBuilder(uri("/index?path=x")).DELETE().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, delete.statusCode());
+
+        assertEquals(3, server.getFailureCount());
+    }
+
+    @Test
+    void testConcurrentRequestsAndStats() throws Exception {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            files.add(write("file" + i + ".txt", "Monday ".repeat(i + 1) + "tuesday\n".repeat(1000)));
+        }
+
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int round = 0; round < 4; round++) {
+            for (Path file : files) {
+                HttpRequest request = HttpRequest.newBuilder(uri("/index?path=" + URLEncoder.encode(file.toString(), StandardCharsets.UTF_8))).build();
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+        }
+        for (int i = 0; i < responses.size(); i++) {
+            HttpResponse<String> response = responses.get(i).get();
+            assertEquals(200, response.statusCode());
+            assertTrue(response.body().contains("\"Words starting with M/m\":" + (i % files.size() + 1) + ","), response.body());
+        }
+
+        assertEquals(32, server.getLatencies().getCount());
+        String stats = get("/stats").body();
+        assertTrue(stats.startsWith("{\"requests\":32,\"failures\":0,\"p50Micros\":"), stats);
+        assertTrue(server.getLatencies().getPercentileMicros(50) <= server.getLatencies().getPercentileMicros(99));
+    }
+
+    @Test
+    void testWarmUpBypassesCache() throws IOException {
+        IncrementalCache cache = new IncrementalCache(tempDir.resolve("cache"));
+        processor.setIncrementalCache(cache);
+
+        server.warmUp(2);
+
+        assertSame(cache, processor.getIncrementalCache());
+        assertEquals(0, cache.getMissCount());
+        assertFalse(Files.exists(tempDir.resolve("cache")));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, content);
+        return file;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getPort() + path);
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,41 @@
+package com.csg.searchindexer.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the JsonWriter class
+ */
+public class JsonWriterTest {
+
+    @Test
+    void testRuleResults() {
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("Words starting with M/m", 12L);
+        results.put("Words longer than 5", Arrays.asList("Monday", "Mississippi"));
+        results.put("empty", List.of());
+
+        assertEquals("{\"Words starting with M/m\":12,\"Words longer than 5\":[\"Monday\",\"Mississippi\"],\"empty\":[]}",
+                JsonWriter.write(results));
+    }
+
+    @Test
+    void testScalars() {
+        assertEquals("null", JsonWriter.write(null));
+        assertEquals("true", JsonWriter.write(true));
+        assertEquals("1.5", JsonWriter.write(1.5));
+        assertEquals("null", JsonWriter.write(Double.NaN));
+        assertEquals("[1,\"a\"]", JsonWriter.write(new Object[]{1, "a"}));
+    }
+
+    @Test
+    void testStringEscapes() {
+        assertEquals("\"a\\\"b\\\\c\\nd\\te\\u0001\u00e9\"", JsonWriter.write("a\"b\\c\nd\te\u0001\u00e9"));
+    }
+}
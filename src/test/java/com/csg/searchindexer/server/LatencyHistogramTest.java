@@ -0,0 +1,49 @@
+package com.csg.searchindexer.server;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the LatencyHistogram class
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    void testEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentileMicros(99));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentileMicros(101));
+    }
+
+    @Test
+    void testPercentilesWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMaxMicros());
+        assertEquals(1000, histogram.getPercentileMicros(100));
+        long p50 = histogram.getPercentileMicros(50);
+        long p99 = histogram.getPercentileMicros(99);
+        assertTrue(p50 >= 500 && p50 <= 500 + 500 / 16, "p50 was " + p50);
+        assertTrue(p99 >= 990 && p99 <= 1000, "p99 was " + p99);
+    }
+
+    @Test
+    void testBucketsCoverEveryValue() {
+        long previousBound = -1;
+        for (long micros : new long[]{0, 1, 15, 16, 17, 31, 32, 33, 1000, 123_456_789, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucket(micros);
+            long bound = LatencyHistogram.upperBound(bucket);
+            assertTrue(bound >= micros, micros + " exceeds bucket bound " + bound);
+            assertTrue(bucket == 0 || LatencyHistogram.upperBound(bucket - 1) < micros);
+            assertTrue(bound >= previousBound);
+            previousBound = bound;
+        }
+    }
+}